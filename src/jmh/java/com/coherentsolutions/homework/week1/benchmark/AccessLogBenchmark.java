@@ -0,0 +1,157 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.coherentsolutions.homework.week1.config.AccessLogProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-request cost of access logging on the request thread.
+ *
+ * recordToRingBuffer is what the controller pays with AccessLog: one slot
+ * claimed and filled, the JSON line is built and written by the writer
+ * thread. inlineInfoLine is the previous approach, a formatted INFO line
+ * encoded by a synchronous appender on the calling thread. Both appenders
+ * write to a null stream, so file I/O is not part of the numbers.
+ *
+ * Called back to back, records would arrive far faster than any request
+ * rate and the buffer would overflow, timing the drop path instead. So
+ * each invocation records a burst of BURST records, well below the buffer
+ * size, and the writer drains the buffer between invocations. During the
+ * burst the writer is held at the sink, so that on a machine with few
+ * cores its formatting does not steal time from the measured thread; in
+ * production it runs on a core of its own or in the gaps between
+ * requests. Records dropped anyway are printed at tear-down and should be 0.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessLogBenchmark {
+
+    private static final long ELAPSED_NANOS = TimeUnit.MILLISECONDS.toNanos(812);
+
+    private static final int BURST = 256;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccessLog accessLog;
+
+    private Logger inlineLogger;
+
+    private GenerateRequest request;
+
+    private GenerateResponse response;
+
+    private final ReentrantLock writerHold = new ReentrantLock();
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Logger accessLogger = nullLogger("benchmark.access", "%msg%n");
+        accessLog = new AccessLog(new AccessLogProperties(), meterRegistry, line -> {
+            writerHold.lock();
+            writerHold.unlock();
+            accessLogger.info(line);
+        });
+        inlineLogger = nullLogger("benchmark.inline",
+                "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level [%X{traceId:-},%X{spanId:-}] %logger{36} - %msg%n");
+        request = BenchmarkFixtures.request(BenchmarkFixtures.PROMPT);
+        response = BenchmarkFixtures.response();
+        response.setPromptTokens(29);
+        response.setCompletionTokens(120);
+        response.setTokensUsed(149);
+    }
+
+    @Setup(Level.Invocation)
+    public void holdWriter() {
+        while (meterRegistry.get("accesslog.backlog").gauge().value() > 0) {
+            Thread.yield();
+        }
+        writerHold.lock();
+    }
+
+    @TearDown(Level.Invocation)
+    public void releaseWriter() {
+        writerHold.unlock();
+    }
+
+    @TearDown
+    public void tearDown() {
+        accessLog.close();
+        System.out.printf("%n%.0f lines written, %.0f records dropped%n",
+                meterRegistry.get("accesslog.records").counter().count(),
+                meterRegistry.get("accesslog.dropped").counter().count());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void recordToRingBuffer() {
+        for (int i = 0; i < BURST; i++) {
+            accessLog.record("generate", request, response, null, ELAPSED_NANOS);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void inlineInfoLine() {
+        for (int i = 0; i < BURST; i++) {
+            logInline();
+        }
+    }
+
+    private void logInline() {
+        inlineLogger.info("Successfully generated text response (prompt length: {}, response length: {}, "
+                        + "model: {}, tokens: {}/{}/{}, cached: {}, duration: {} ms)",
+                request.getPrompt().length(), response.getResponse().length(), response.getModel(),
+                response.getPromptTokens(), response.getCompletionTokens(), response.getTokensUsed(),
+                response.isCached(), TimeUnit.NANOSECONDS.toMillis(ELAPSED_NANOS));
+    }
+
+    private static Logger nullLogger(String name, String pattern) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        Logger logger = context.getLogger(name);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
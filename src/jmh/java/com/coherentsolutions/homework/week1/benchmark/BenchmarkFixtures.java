@@ -0,0 +1,89 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+/**
+ * Shared test data for the benchmarks.
+ *
+ * The payloads mirror what the API sees in practice: a prompt of typical
+ * length and a response of a few sentences, so the numbers reflect realistic
+ * string sizes rather than empty objects.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+final class BenchmarkFixtures {
+
+    static final String PROMPT = "Tell me a fun fact about Spring Boot and explain why it matters "
+            + "for developers building production services.";
+
+    static final String ANSWER = "Spring Boot was first released in 2014. Its auto-configuration "
+            + "removed most of the XML and boilerplate that Spring applications needed, so a "
+            + "production-ready service can start from a single annotated class.";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * ObjectMapper configured the way Spring MVC configures its own
+     * (Java time support, ISO dates instead of timestamps).
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * Builder for the CBOR and Smile mappers: the same settings, with null
+     * fields left out as WireFormatConfig does; the caller sets the factory.
+     */
+    static Jackson2ObjectMapperBuilder binaryMapperBuilder() {
+        return Jackson2ObjectMapperBuilder.json().serializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+
+    static GenerateResponse response() {
+        return GenerateResponse.builder()
+                .response(ANSWER)
+                .model("gpt-3.5-turbo")
+                .timestamp(1705314600000L)
+                .tokensUsed(45)
+                .build();
+    }
+
+    /**
+     * ChatModel that answers instantly with a fixed completion, so the
+     * benchmarks measure this application's code and Spring AI's request
+     * assembly, not network time.
+     */
+    static ChatModel stubChatModel() {
+        return new ChatModel() {
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                return new ChatResponse(
+                        List.of(new Generation(new AssistantMessage(ANSWER))),
+                        ChatResponseMetadata.builder()
+                                .model("gpt-3.5-turbo")
+                                .usage(new DefaultUsage(30, 15))
+                                .build());
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Lombok builders used on every request.
+ *
+ * Time alone hides most of this cost; run with "-prof gc" (see README) to
+ * see bytes allocated per operation, which is where builders, Builder.Default
+ * timestamps and toBuilder() copies show up.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderBenchmark {
+
+    private GenerateResponse response;
+
+    @Setup
+    public void setUp() {
+        response = BenchmarkFixtures.response();
+    }
+
+    @Benchmark
+    public GenerateResponse buildGenerateResponse() {
+        return GenerateResponse.builder()
+                .response(BenchmarkFixtures.ANSWER)
+                .model("gpt-3.5-turbo")
+                .tokensUsed(45)
+                .build();
+    }
+
+    @Benchmark
+    public GenerateResponse copyAsCachedResponse() {
+        return response.toBuilder().cached(true).build();
+    }
+
+    @Benchmark
+    public ErrorResponse buildValidationError() {
+        return ErrorResponse.validation("Request validation failed. Please check your input.",
+                List.of("prompt: Prompt cannot be empty or contain only whitespace"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of Jackson (de)serialization of the API payloads.
+ *
+ * Uses pre-built ObjectReader/ObjectWriter instances, as Spring MVC's
+ * message converter effectively does, so the numbers exclude one-off
+ * serializer lookup.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectWriter responseWriter;
+
+    private ObjectWriter errorWriter;
+
+    private ObjectReader requestReader;
+
+    private GenerateResponse response;
+
+    private ErrorResponse error;
+
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        responseWriter = objectMapper.writerFor(GenerateResponse.class);
+        errorWriter = objectMapper.writerFor(ErrorResponse.class);
+        requestReader = objectMapper.readerFor(GenerateRequest.class);
+        response = BenchmarkFixtures.response();
+        error = ErrorResponse.validation("Request validation failed. Please check your input.",
+                List.of("prompt: Prompt cannot be empty or contain only whitespace"));
+        requestJson = objectMapper.writeValueAsBytes(BenchmarkFixtures.request(BenchmarkFixtures.PROMPT));
+    }
+
+    @Benchmark
+    public byte[] serializeGenerateResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorResponse() throws IOException {
+        return errorWriter.writeValueAsBytes(error);
+    }
+
+    @Benchmark
+    public GenerateRequest deserializeGenerateRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+}
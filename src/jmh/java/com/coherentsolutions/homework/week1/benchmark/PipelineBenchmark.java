@@ -0,0 +1,201 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.coherentsolutions.homework.week1.config.AccessLogProperties;
+import com.coherentsolutions.homework.week1.config.BatchProperties;
+import com.coherentsolutions.homework.week1.config.CoalescingProperties;
+import com.coherentsolutions.homework.week1.config.DiskCacheProperties;
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.JobProperties;
+import com.coherentsolutions.homework.week1.config.MicroBatchProperties;
+import com.coherentsolutions.homework.week1.config.PromptTokenProperties;
+import com.coherentsolutions.homework.week1.config.RateLimitProperties;
+import com.coherentsolutions.homework.week1.config.ResilienceProperties;
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.config.RoutingProperties;
+import com.coherentsolutions.homework.week1.config.SchedulerProperties;
+import com.coherentsolutions.homework.week1.config.TokenBudgetProperties;
+import com.coherentsolutions.homework.week1.config.SemanticCacheProperties;
+import com.coherentsolutions.homework.week1.config.SessionProperties;
+import com.coherentsolutions.homework.week1.config.TextGeneratorServiceConfig;
+import com.coherentsolutions.homework.week1.controller.TextGeneratorController;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.GlobalExceptionHandler;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.diskcache.MappedResponseStore;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.impl.ConcurrentBatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.InMemoryConversationService;
+import com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.QueuedGenerationJobService;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
+import com.coherentsolutions.homework.week1.service.resilience.UpstreamCallGuard;
+import com.coherentsolutions.homework.week1.service.routing.ChatClientRouter;
+import com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler;
+import com.coherentsolutions.homework.week1.service.tokens.PromptAdmission;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * End-to-end cost of one POST /generate inside this application.
+ *
+ * Wires the real controller, exception handler, decorator pipeline (as
+ * assembled by TextGeneratorServiceConfig), OpenAITextGeneratorService and
+ * ChatClient, with only the ChatModel replaced by an instant stub. MockMvc
+ * drives the full Spring MVC dispatch: JSON parsing, @Valid, the controller,
+ * the service chain and response serialization.
+ *
+ * Parameters:
+ * - cache=miss: response cache disabled, every call goes through ChatClient
+ * - cache=hit: the same prompt is answered from the response cache
+ *
+ * generateViaService skips the MVC layer, so the difference between the two
+ * benchmarks is the cost of HTTP handling itself.
+ *
+ * The rate limiter is enabled with limits high enough never to reject, so
+ * its bookkeeping is part of the measured path. The ChatClient call runs
+ * through UpstreamCallGuard with default settings (circuit breaker, no
+ * hedging), as in the application.
+ *
+ * Logging is raised to WARN so console output does not dominate the numbers.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"miss", "hit"})
+    public String cache;
+
+    private MockMvc mockMvc;
+
+    private TextGeneratorService service;
+
+    private ConcurrentBatchTextGeneratorService batchService;
+
+    private QueuedGenerationJobService jobService;
+
+    private ValidatorFactory validatorFactory;
+
+    private UpstreamCallGuard upstreamCallGuard;
+
+    private AccessLog accessLog;
+
+    private GenerateRequest request;
+
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        ChatClient chatClient = ChatClient.create(BenchmarkFixtures.stubChatModel());
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+        GenerationProfiles profiles = new GenerationProfiles(new GenerationProfileProperties(), options);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry, profiles);
+        upstreamCallGuard = new UpstreamCallGuard(new ResilienceProperties(), meterRegistry);
+        PromptTokenizer tokenizer = new PromptTokenizer(options);
+        OpenAITextGeneratorService openAIService = new OpenAITextGeneratorService(
+                ChatClientRouter.single("stub", chatClient, new RoutingProperties(), meterRegistry),
+                profiles, generationMetrics, upstreamCallGuard,
+                new PromptAdmission(tokenizer, new PromptTokenProperties(), profiles, generationMetrics, meterRegistry),
+                new UpstreamScheduler(new SchedulerProperties(), meterRegistry),
+                new TokenBudgets(new TokenBudgetProperties(), meterRegistry));
+
+        ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+        cacheProperties.setEnabled("hit".equals(cache));
+        service = new TextGeneratorServiceConfig().textGeneratorService(openAIService, profiles,
+                cacheProperties, new DiskCacheProperties(),
+                new StaticListableBeanFactory().getBeanProvider(MappedResponseStore.class), new SemanticCacheProperties(), new CoalescingProperties(), new MicroBatchProperties(),
+                new StaticListableBeanFactory().getBeanProvider(EmbeddingModel.class),
+                meterRegistry);
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        batchService = new ConcurrentBatchTextGeneratorService(
+                service, validatorFactory.getValidator(), new BatchProperties());
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setRequestsPerSecond(1_000_000);
+        rateLimitProperties.setRequestBurst(1_000_000);
+        rateLimitProperties.setTokensPerMinute(Integer.MAX_VALUE);
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(rateLimitProperties, profiles, tokenizer, meterRegistry);
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        jobService = new QueuedGenerationJobService(service, new JobProperties(), objectMapper, meterRegistry);
+        accessLog = new AccessLog(new AccessLogProperties(), meterRegistry, line -> { });
+        TextGeneratorController controller = new TextGeneratorController(
+                service, openAIService, batchService, jobService,
+                new InMemoryConversationService(openAIService, tokenizer, new SessionProperties(), meterRegistry),
+                generationMetrics, rateLimiter, accessLog);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+
+        request = BenchmarkFixtures.request(BenchmarkFixtures.PROMPT);
+        requestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchService.shutdown();
+        jobService.shutdown();
+        upstreamCallGuard.shutdown();
+        accessLog.close();
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public byte[] generateViaController() throws Exception {
+        return mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    @Benchmark
+    public GenerateResponse generateViaService() {
+        return service.generateText(request);
+    }
+}
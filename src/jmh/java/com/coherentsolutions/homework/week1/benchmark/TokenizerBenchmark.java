@@ -0,0 +1,76 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of counting prompt tokens locally, as PromptAdmission does before
+ * every model call.
+ *
+ * Covers a typical prompt, a prompt at the 2000-character limit, and
+ * token-dense text (non-Latin script and emoji) at the same length, where
+ * BPE merges rarely apply. Truncation is measured on the long prompt, as it
+ * encodes up to the limit and then re-counts the kept prefix.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private PromptTokenizer tokenizer;
+
+    private String longPrompt;
+
+    private String denseText;
+
+    @Setup
+    public void setUp() {
+        tokenizer = new PromptTokenizer(new GenerationOptions("gpt-3.5-turbo", 0.7, 150));
+        longPrompt = repeatTo(BenchmarkFixtures.PROMPT + " ", 2000);
+        denseText = repeatTo("日本語のテキスト😀 ", 2000);
+    }
+
+    @Benchmark
+    public int countTypicalPrompt() {
+        return tokenizer.countTokens(BenchmarkFixtures.PROMPT);
+    }
+
+    @Benchmark
+    public int countLongPrompt() {
+        return tokenizer.countTokens(longPrompt);
+    }
+
+    @Benchmark
+    public int countDenseText() {
+        return tokenizer.countTokens(denseText);
+    }
+
+    @Benchmark
+    public String truncateLongPrompt() {
+        return tokenizer.truncate(longPrompt, 100);
+    }
+
+    private static String repeatTo(String unit, int length) {
+        String text = unit.repeat(length / unit.length() + 1).substring(0, length);
+        // do not end on half of a surrogate pair
+        return Character.isHighSurrogate(text.charAt(length - 1)) ? text.substring(0, length - 1) : text;
+    }
+}
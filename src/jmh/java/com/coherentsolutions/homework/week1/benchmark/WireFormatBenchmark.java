@@ -0,0 +1,106 @@
+package com.coherentsolutions.homework.week1.benchmark;
+
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes on the wire and serialization CPU per response, by wire format.
+ *
+ * Each format (JSON, CBOR, Smile) writes a single GenerateResponse and a
+ * batch of BATCH_SIZE successful results with mappers built like the
+ * application's (see WireFormatConfig). serialize is what every response
+ * costs; serializeGzip adds the gzip pass that server.compression applies
+ * to bodies above min-response-size, which in practice means batches.
+ *
+ * JMH measures time only, so the encoded and gzipped sizes are printed at
+ * tear-down, one line per format and payload. The batch repeats one answer,
+ * so its gzip ratio is an upper bound; real answers differ and compress
+ * less.
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int BATCH_SIZE = 20;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"single", "batch"})
+    public String payload;
+
+    private ObjectWriter writer;
+
+    private Object value;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> BenchmarkFixtures.binaryMapperBuilder().factory(new CBORFactory()).build();
+            case "smile" -> BenchmarkFixtures.binaryMapperBuilder().factory(new SmileFactory()).build();
+            default -> BenchmarkFixtures.objectMapper();
+        };
+        GenerateResponse response = BenchmarkFixtures.response();
+        if ("batch".equals(payload)) {
+            List<BatchItemResult> results = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                results.add(BatchItemResult.success(i, response));
+            }
+            value = BatchGenerateResponse.of(results);
+        } else {
+            value = response;
+        }
+        writer = mapper.writerFor(value.getClass());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s/%s: %d bytes, %d gzipped%n",
+                format, payload, serialize().length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, value);
+        }
+        return bytes.toByteArray();
+    }
+}
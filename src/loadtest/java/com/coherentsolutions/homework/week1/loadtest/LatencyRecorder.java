@@ -0,0 +1,126 @@
+package com.coherentsolutions.homework.week1.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the results of one load test phase.
+ *
+ * Every latency is kept rather than bucketed, so percentiles are exact: a
+ * 30 second run at a few thousand requests per second is a few hundred
+ * thousand longs, nothing next to the application under test. Only
+ * successful (2xx) responses go into the latency samples; a fast 429
+ * would otherwise make the service look quicker the more it rejects.
+ * Every outcome is counted by status, with "io-error" and "timeout" for
+ * calls that got no response at all.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see LoadTest
+ */
+final class LatencyRecorder {
+
+    /**
+     * Wall-clock time of the phase, including the wait for the last open requests.
+     */
+    volatile long elapsedNanos;
+
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    private long[] samples = new long[1 << 16];
+
+    private int count;
+
+    private long[] firstEventSamples = new long[0];
+
+    private int firstEventCount;
+
+    /**
+     * Records a successful response.
+     *
+     * @param latencyNanos time from the (intended) send to the last byte
+     * @param firstEventNanos time to the first streamed event, or -1 for plain calls
+     */
+    synchronized void success(long latencyNanos, long firstEventNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        if (firstEventNanos >= 0) {
+            if (firstEventCount == firstEventSamples.length) {
+                firstEventSamples = Arrays.copyOf(firstEventSamples, Math.max(1 << 16, firstEventCount * 2));
+            }
+            firstEventSamples[firstEventCount++] = firstEventNanos;
+        }
+    }
+
+    /**
+     * Counts one outcome.
+     *
+     * @param outcome the HTTP status, "timeout" or "io-error"
+     */
+    void outcome(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    long total() {
+        return outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    synchronized long successes() {
+        return count;
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, adder) -> counts.put(outcome, adder.sum()));
+        return counts;
+    }
+
+    /**
+     * Latency percentiles of successful responses.
+     *
+     * @return milliseconds keyed p50, p90, p99, p999 and max; empty without samples
+     */
+    synchronized Map<String, Double> latencyMillis() {
+        return percentiles(samples, count);
+    }
+
+    /**
+     * Time-to-first-event percentiles of successful streams.
+     *
+     * @return milliseconds keyed p50, p90, p99, p999 and max; empty for plain calls
+     */
+    synchronized Map<String, Double> firstEventMillis() {
+        return percentiles(firstEventSamples, firstEventCount);
+    }
+
+    private static Map<String, Double> percentiles(long[] samples, int count) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        if (count == 0) {
+            return percentiles;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        percentiles.put("p50", millis(sorted, 0.50));
+        percentiles.put("p90", millis(sorted, 0.90));
+        percentiles.put("p99", millis(sorted, 0.99));
+        percentiles.put("p999", millis(sorted, 0.999));
+        percentiles.put("max", sorted[count - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        return percentiles;
+    }
+
+    /**
+     * Nearest-rank percentile: the smallest sample with at least q of all
+     * samples at or below it.
+     */
+    private static double millis(long[] sorted, double q) {
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
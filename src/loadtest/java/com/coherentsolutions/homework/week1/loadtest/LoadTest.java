@@ -0,0 +1,324 @@
+package com.coherentsolutions.homework.week1.loadtest;
+
+import com.coherentsolutions.homework.week1.Week1HomeworkApplication;
+import com.coherentsolutions.homework.week1.stub.LatencyDistribution;
+import com.coherentsolutions.homework.week1.stub.OpenAiStubServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of the full application against the local OpenAI stub.
+ *
+ * Starts an OpenAiStubServer, boots the application on a random port with
+ * spring.ai.openai.base-url pointing at the stub, drives POST /generate (or
+ * /generate/stream) over real HTTP, and reports throughput and latency
+ * percentiles. Nothing leaves the machine and nothing is billed, so runs
+ * are repeatable and can be compared before and after a change.
+ *
+ * Two ways to apply load:
+ * - closed loop (--concurrency=N): N clients each send their next request
+ *   when the previous one is answered. Measures capacity, but a slow
+ *   response also delays the requests behind it, so tail latency is
+ *   understated (coordinated omission).
+ * - open loop (--rate=R): R requests per second are sent on schedule no
+ *   matter how many are still open, and latency counts from the time a
+ *   request was due, not the time it was actually sent. This is how real
+ *   traffic behaves and what p99/p999 should be quoted from.
+ *
+ * Options (all --name=value):
+ * - harness: endpoint (/generate), concurrency (50), rate (open loop when
+ *   set), duration (30s), warmup (5s), unique-prompts (true),
+ *   request-timeout (60s), output (target/loadtest-result.json)
+ * - stub: latency (fixed:300ms), inter-token-delay (10ms),
+ *   completion-tokens (50), error-429, error-5xx, timeouts, timeout-delay,
+ *   seed
+ * - anything else is passed to the application, e.g.
+ *   --spring.threads.virtual.enabled=true
+ *
+ * Run with: mvn -Ploadtest verify -Dloadtest.args="--rate=200 --duration=60s"
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAiStubServer
+ * @see LatencyRecorder
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Options options;
+
+    private final URI target;
+
+    private final HttpClient client;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LoadTest(Options options, URI target) {
+        this.options = options;
+        this.target = target;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        try (OpenAiStubServer stub = options.stub.start();
+             ConfigurableApplicationContext application = startApplication(stub, options.applicationArgs)) {
+            String port = application.getEnvironment().getProperty("local.server.port");
+            LoadTest loadTest = new LoadTest(options, URI.create("http://localhost:" + port + options.endpoint));
+
+            if (options.warmup.isPositive()) {
+                System.out.printf("Warming up for %s...%n", DurationStyle.SIMPLE.print(options.warmup));
+                loadTest.run(options.warmup);
+            }
+            System.out.printf("Measuring for %s...%n", DurationStyle.SIMPLE.print(options.duration));
+            Map<String, Long> stubBefore = stub.outcomes();
+            LatencyRecorder recorder = loadTest.run(options.duration);
+
+            ObjectNode result = loadTest.report(recorder, stub, stubBefore);
+            Path output = Path.of(options.output);
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+            System.out.println("Results written to " + output);
+            loadTest.executor.shutdownNow();
+        }
+        // stub calls still hanging on an injected timeout must not keep the JVM alive
+        System.exit(0);
+    }
+
+    /**
+     * Boots the application. The stub settings go in as command-line
+     * arguments, which outrank application.yml; arguments given to the
+     * harness come later and win over them.
+     */
+    private static ConfigurableApplicationContext startApplication(OpenAiStubServer stub, List<String> args) {
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.ai.openai.base-url=" + stub.baseUrl(),
+                "--spring.ai.openai.api-key=stub",
+                // the per-client limiter would reject most of the load, which all comes from one address
+                "--generator.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.coherentsolutions.homework.week1=WARN"));
+        applicationArgs.addAll(args);
+        return new SpringApplicationBuilder(Week1HomeworkApplication.class)
+                .logStartupInfo(false)
+                .run(applicationArgs.toArray(String[]::new));
+    }
+
+    /**
+     * Applies load for the given time and waits for the requests still open.
+     */
+    private LatencyRecorder run(Duration duration) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        List<Thread> clients = new ArrayList<>();
+        if (options.rate > 0) {
+            // open loop: one request due every interval, sent on its own virtual thread
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+            List<Thread> inFlight = new ArrayList<>();
+            for (long i = 0; ; i++) {
+                long due = start + (long) (i * intervalNanos);
+                if (due >= end) {
+                    break;
+                }
+                LockSupport.parkNanos(due - System.nanoTime());
+                inFlight.add(Thread.ofVirtual().start(() -> send(recorder, due)));
+                if (inFlight.size() >= 4096) {
+                    inFlight.removeIf(thread -> !thread.isAlive());
+                }
+            }
+            clients.addAll(inFlight);
+        } else {
+            for (int i = 0; i < options.concurrency; i++) {
+                clients.add(Thread.ofVirtual().start(() -> {
+                    while (System.nanoTime() < end) {
+                        send(recorder, System.nanoTime());
+                    }
+                }));
+            }
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        recorder.elapsedNanos = System.nanoTime() - start;
+        return recorder;
+    }
+
+    private void send(LatencyRecorder recorder, long dueNanos) {
+        String prompt = options.uniquePrompts
+                ? "Load test prompt " + sequence.incrementAndGet() + ": tell me a fun fact about Spring Boot"
+                : "Load test prompt: tell me a fun fact about Spring Boot";
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .header("Content-Type", "application/json")
+                .timeout(options.requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.createObjectNode()
+                        .put("prompt", prompt).toString()))
+                .build();
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            long firstEvent = -1;
+            try (InputStream body = response.body()) {
+                if (options.endpoint.endsWith("/stream")) {
+                    // a streamed answer is usable from its first event on
+                    if (body.read() >= 0) {
+                        firstEvent = System.nanoTime() - dueNanos;
+                    }
+                }
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            long latency = System.nanoTime() - dueNanos;
+            recorder.outcome(String.valueOf(response.statusCode()));
+            if (response.statusCode() / 100 == 2) {
+                recorder.success(latency, firstEvent);
+            }
+        } catch (HttpTimeoutException e) {
+            recorder.outcome("timeout");
+        } catch (IOException e) {
+            recorder.outcome("io-error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ObjectNode report(LatencyRecorder recorder, OpenAiStubServer stub, Map<String, Long> stubBefore) {
+        double seconds = recorder.elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        ObjectNode result = OBJECT_MAPPER.createObjectNode();
+        result.put("endpoint", options.endpoint);
+        result.put("mode", options.rate > 0 ? "open" : "closed");
+        if (options.rate > 0) {
+            result.put("rate", options.rate);
+        } else {
+            result.put("concurrency", options.concurrency);
+        }
+        result.put("durationSeconds", seconds);
+        result.put("requests", recorder.total());
+        result.put("successes", recorder.successes());
+        result.put("throughputPerSecond", recorder.successes() / seconds);
+        result.putPOJO("outcomes", recorder.outcomes());
+        result.putPOJO("latencyMs", recorder.latencyMillis());
+        if (!recorder.firstEventMillis().isEmpty()) {
+            result.putPOJO("firstEventMs", recorder.firstEventMillis());
+        }
+        Map<String, Long> stubOutcomes = stub.outcomes();
+        stubOutcomes.replaceAll((outcome, count) -> count - stubBefore.getOrDefault(outcome, 0L));
+        stubOutcomes.values().removeIf(count -> count == 0);
+        result.putPOJO("upstreamCalls", stubOutcomes);
+        result.putPOJO("options", options.raw);
+
+        System.out.println();
+        System.out.printf("POST %s, %s%n", options.endpoint, options.rate > 0
+                ? "open loop at " + options.rate + " requests/s"
+                : "closed loop with " + options.concurrency + " clients");
+        System.out.printf("Requests:      %d in %.1f s, %d successful (%.1f/s)%n",
+                recorder.total(), seconds, recorder.successes(), recorder.successes() / seconds);
+        System.out.printf("Outcomes:      %s%n", recorder.outcomes());
+        System.out.printf("Upstream:      %s%n", stubOutcomes);
+        System.out.printf("Latency ms:    %s%n", format(recorder.latencyMillis()));
+        if (!recorder.firstEventMillis().isEmpty()) {
+            System.out.printf("First event:   %s%n", format(recorder.firstEventMillis()));
+        }
+        System.out.println();
+        return result;
+    }
+
+    private static String format(Map<String, Double> percentiles) {
+        StringBuilder line = new StringBuilder();
+        percentiles.forEach((name, millis) -> line.append(String.format("%s=%.1f  ", name, millis)));
+        return line.toString().trim();
+    }
+
+    /**
+     * Command-line options, split into harness, stub and application options.
+     */
+    private static final class Options {
+
+        String endpoint = "/generate";
+
+        int concurrency = 50;
+
+        double rate;
+
+        Duration duration = Duration.ofSeconds(30);
+
+        Duration warmup = Duration.ofSeconds(5);
+
+        boolean uniquePrompts = true;
+
+        Duration requestTimeout = Duration.ofSeconds(60);
+
+        String output = "target/loadtest-result.json";
+
+        final OpenAiStubServer.Builder stub = OpenAiStubServer.builder()
+                .latency(LatencyDistribution.fixed(Duration.ofMillis(300)))
+                .interTokenDelay(Duration.ofMillis(10))
+                .completionTokens(50);
+
+        final List<String> applicationArgs = new ArrayList<>();
+
+        final Map<String, String> raw = new TreeMap<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String[] option = arg.replaceFirst("^--", "").split("=", 2);
+                String name = option[0];
+                String value = option.length == 2 ? option[1] : "true";
+                if (options.apply(name, value) || options.stub.option(name, value)) {
+                    options.raw.put(name, value);
+                } else {
+                    options.applicationArgs.add(arg);
+                }
+            }
+            return options;
+        }
+
+        private boolean apply(String name, String value) {
+            switch (name) {
+                case "endpoint" -> endpoint = value;
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "rate" -> rate = Double.parseDouble(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "unique-prompts" -> uniquePrompts = Boolean.parseBoolean(value);
+                case "request-timeout" -> requestTimeout = DurationStyle.detectAndParse(value);
+                case "output" -> output = value;
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
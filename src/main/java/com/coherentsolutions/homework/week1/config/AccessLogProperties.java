@@ -0,0 +1,36 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the structured access log.
+ *
+ * Bound from the generator.access-log section of application.yml:
+ *
+ * generator:
+ *   access-log:
+ *     enabled: true
+ *     buffer-size: 8192
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.accesslog.AccessLog
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.access-log")
+public class AccessLogProperties {
+
+    /**
+     * Whether one JSON line per generation is written to the access log.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Records the ring buffer holds while the writer thread catches up.
+     * Rounded up to a power of two. When it is full, further records are
+     * counted as dropped and reported in the log instead of blocking the
+     * request.
+     */
+    private int bufferSize = 8192;
+}
@@ -0,0 +1,39 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the batch generation endpoint.
+ *
+ * Bound from the generator.batch section of application.yml:
+ *
+ * generator:
+ *   batch:
+ *     max-concurrency: 8
+ *     item-timeout: 5m
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.ConcurrentBatchTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of items of a single batch that call the model at the
+     * same time. Remaining items wait until a slot frees up.
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * Longest time one item may take once it started, including upstream
+     * retries and waiting for a scheduler slot. An item that takes longer
+     * is cancelled and reported as failed, so a hung call cannot hold the
+     * whole batch.
+     */
+    private Duration itemTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,27 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for request coalescing (single-flight).
+ *
+ * Bound from the generator.coalescing section of application.yml:
+ *
+ * generator:
+ *   coalescing:
+ *     enabled: true
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.CoalescingTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * Whether identical concurrent requests share one model call.
+     */
+    private boolean enabled = true;
+}
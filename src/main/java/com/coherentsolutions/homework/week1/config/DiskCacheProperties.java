@@ -0,0 +1,65 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the disk-backed second-tier response cache.
+ *
+ * Bound from the generator.disk-cache section of application.yml:
+ *
+ * generator:
+ *   disk-cache:
+ *     enabled: false
+ *     path: cache/responses.db
+ *     max-size: 64MB
+ *     ttl: 7d
+ *     compaction-threshold: 0.25
+ *     preload: 1000
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.diskcache.MappedResponseStore
+ * @see com.coherentsolutions.homework.week1.service.impl.DiskCachingTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.disk-cache")
+public class DiskCacheProperties {
+
+    /**
+     * Whether responses are also kept in a file that survives restarts.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The cache file. Its directory is created if missing.
+     */
+    private String path = "cache/responses.db";
+
+    /**
+     * Size of the cache file. The whole file is memory-mapped, so this is
+     * also the address space it takes; at most 2GB.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * How long a stored response stays valid after it was generated.
+     * Unlike the in-memory TTL this spans restarts.
+     */
+    private Duration ttl = Duration.ofDays(7);
+
+    /**
+     * Share of the file taken by superseded records that triggers a rewrite
+     * of the live records into a fresh file.
+     */
+    private double compactionThreshold = 0.25;
+
+    /**
+     * Number of most-hit responses copied into the in-memory cache at startup;
+     * 0 disables the warm-up.
+     */
+    private int preload = 1000;
+}
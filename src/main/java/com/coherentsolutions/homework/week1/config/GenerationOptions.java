@@ -0,0 +1,32 @@
+package com.coherentsolutions.homework.week1.config;
+
+/**
+ * Immutable view of the model parameters used for text generation.
+ *
+ * Mirrors the spring.ai.openai.chat.options block of application.yml so that
+ * services can describe "what a generation depends on" without reaching into
+ * Spring AI's auto-configuration classes.
+ *
+ * Example:
+ * new GenerationOptions("gpt-3.5-turbo", 0.7, 150)
+ *
+ * @param model the chat model name (e.g. "gpt-3.5-turbo")
+ * @param temperature the sampling temperature; 0 means deterministic output
+ * @param maxTokens the maximum number of completion tokens
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAIConfig
+ */
+public record GenerationOptions(String model, Double temperature, Integer maxTokens) {
+
+    /**
+     * Whether the model samples its output, i.e. identical prompts may produce
+     * different answers.
+     *
+     * @return true if the temperature is above zero
+     */
+    public boolean isSampling() {
+        return temperature != null && temperature > 0.0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for named generation profiles.
+ *
+ * A profile is a system prompt plus model options that a client selects per
+ * request with GenerateRequest.profile. Every field of a definition is
+ * optional and falls back to spring.ai.openai.chat.options and the built-in
+ * system prompt, so a profile only lists what makes it different. The
+ * default profile needs no definition at all.
+ *
+ * Bound from the generator.profiles section of application.yml:
+ *
+ * generator:
+ *   profiles:
+ *     default-profile: default
+ *     definitions:
+ *       precise:
+ *         system-prompt: "Answer in one short, factual sentence."
+ *         temperature: 0.0
+ *         max-tokens: 60
+ *       creative:
+ *         model: gpt-4o-mini
+ *         temperature: 1.0
+ *         max-tokens: 400
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.profile.GenerationProfiles
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.profiles")
+public class GenerationProfileProperties {
+
+    /**
+     * Profile used by requests that do not name one.
+     */
+    private String defaultProfile = "default";
+
+    /**
+     * Profiles by name. Names are matched exactly and go into metric tags,
+     * so keep them short and few.
+     */
+    private Map<String, Definition> definitions = new LinkedHashMap<>();
+
+    /**
+     * What one profile changes; null fields keep the application defaults.
+     */
+    @Data
+    public static class Definition {
+
+        /**
+         * System message sent before the user prompt.
+         */
+        private String systemPrompt;
+
+        /**
+         * Chat model name. When set it also replaces the model of a routing
+         * backend.
+         */
+        private String model;
+
+        /**
+         * Sampling temperature; 0 makes the profile's answers cacheable even
+         * when sampled responses are not cached.
+         */
+        private Double temperature;
+
+        /**
+         * Completion token limit.
+         */
+        private Integer maxTokens;
+    }
+}
@@ -0,0 +1,136 @@
+package com.coherentsolutions.homework.week1.config;
+
+import com.coherentsolutions.homework.week1.service.http.RouteLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+
+import java.net.http.HttpClient;
+
+/**
+ * One shared, tuned HTTP client for every call to OpenAI.
+ *
+ * Left to Spring Boot, each RestClient and WebClient that Spring AI builds
+ * (one pair per model backend) gets a default JDK HttpClient of its own:
+ * separate connection pools, so the blocking and the streaming calls to
+ * the same host each pay their own TCP and TLS handshakes, no timeouts
+ * beyond the JDK defaults, and no limit on concurrent requests.
+ *
+ * What this configuration does:
+ * - Builds one java.net.http.HttpClient from generator.http-client and
+ *   hands it to every auto-configured RestClient.Builder (blocking calls)
+ *   and WebClient.Builder (streams), so all calls to a host share its
+ *   kept-alive connections
+ * - Prefers HTTP/2: over TLS it is negotiated by ALPN, and concurrent calls
+ *   are multiplexed as streams on one connection instead of queueing
+ *   behind each other or opening a connection each
+ * - Sets the connect timeout on the client and the read timeout (time to
+ *   response headers) on both request factories
+ * - Registers RouteLimiter, which caps and measures requests in flight per
+ *   route
+ *
+ * Idle connection keep-alive is not configured here: the JDK reads
+ * jdk.httpclient.keepalive.timeout (and .h2) once, when its HttpClient
+ * implementation is first initialized, for every client in the JVM.
+ * Setting them from a bean would be silently ignored whenever some other
+ * client came first, and would leak into unrelated clients. They are
+ * launch flags instead (set for spring-boot:run in pom.xml), and the
+ * effective values are logged when the client is built.
+ *
+ * Like VirtualThreadConfig, the client keeps its default internal executor;
+ * its RestClient request factory replaces the one VirtualThreadConfig
+ * selects, so that class only matters when this one is disabled.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HttpClientProperties
+ * @see RouteLimiter
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "generator.http-client", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class HttpClientConfig {
+
+    /**
+     * The JDK's idle timeout for HTTP/1.1 connections (and HTTP/2 without
+     * the property below), in seconds; a -D launch flag.
+     */
+    static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    /**
+     * The JDK's idle timeout for HTTP/2 connections, in seconds; a -D
+     * launch flag.
+     */
+    static final String KEEP_ALIVE_H2_PROPERTY = "jdk.httpclient.keepalive.timeout.h2";
+
+    /**
+     * The JDK's keep-alive when neither property is set, in seconds.
+     */
+    static final String JDK_DEFAULT_KEEP_ALIVE = "1200";
+
+
+    /**
+     * The shared outbound client. Closed with shutdownNow on shutdown, so a
+     * hanging upstream call cannot hold the application open.
+     *
+     * @param properties outbound transport settings
+     * @return the client
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public HttpClient outboundHttpClient(HttpClientProperties properties) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(properties.getProtocol() == HttpClientProperties.Protocol.HTTP_2
+                        ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        String keepAlive = System.getProperty(KEEP_ALIVE_PROPERTY, JDK_DEFAULT_KEEP_ALIVE);
+        log.info("Outbound HTTP client: {}, connect timeout {}, read timeout {}, {} requests per route, "
+                        + "keep-alive {}s (HTTP/2 {}s)",
+                client.version(), properties.getConnectTimeout(), properties.getReadTimeout(),
+                properties.getMaxPerRoute(), keepAlive, System.getProperty(KEEP_ALIVE_H2_PROPERTY, keepAlive));
+        return client;
+    }
+
+    /**
+     * Points every auto-configured RestClient.Builder at the shared client.
+     *
+     * @param outboundHttpClient the shared client
+     * @param properties outbound transport settings
+     * @param routeLimiter per-route limits
+     * @return the customizer
+     */
+    @Bean
+    public RestClientCustomizer outboundRestClientCustomizer(HttpClient outboundHttpClient,
+                                                             HttpClientProperties properties,
+                                                             RouteLimiter routeLimiter) {
+        return builder -> {
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+            requestFactory.setReadTimeout(properties.getReadTimeout());
+            builder.requestFactory(requestFactory).requestInterceptor(routeLimiter);
+        };
+    }
+
+    /**
+     * Points every auto-configured WebClient.Builder at the shared client.
+     *
+     * @param outboundHttpClient the shared client
+     * @param properties outbound transport settings
+     * @param routeLimiter per-route accounting
+     * @return the customizer
+     */
+    @Bean
+    public WebClientCustomizer outboundWebClientCustomizer(HttpClient outboundHttpClient,
+                                                           HttpClientProperties properties,
+                                                           RouteLimiter routeLimiter) {
+        return builder -> {
+            JdkClientHttpConnector connector = new JdkClientHttpConnector(outboundHttpClient);
+            connector.setReadTimeout(properties.getReadTimeout());
+            builder.clientConnector(connector).filter(routeLimiter.streamFilter());
+        };
+    }
+}
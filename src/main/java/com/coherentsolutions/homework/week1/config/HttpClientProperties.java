@@ -0,0 +1,107 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the outbound HTTP client that carries the
+ * OpenAI calls.
+ *
+ * Bound from the generator.http-client section of application.yml:
+ *
+ * generator:
+ *   http-client:
+ *     enabled: true
+ *     protocol: http-2             # http-2 | http-1-1
+ *     connect-timeout: 10s
+ *     read-timeout: 60s
+ *     max-per-route: 64
+ *     acquire-timeout: 10s
+ *     routes:
+ *       "[api.openai.com]": 128
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HttpClientConfig
+ * @see com.coherentsolutions.homework.week1.service.http.RouteLimiter
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.http-client")
+public class HttpClientProperties {
+
+    /**
+     * Whether all OpenAI clients share the client configured here. When
+     * off, Spring Boot builds one default client per RestClient/WebClient.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Preferred protocol. HTTP/2 is negotiated during the TLS handshake and
+     * falls back to HTTP/1.1 when the server does not offer it.
+     */
+    private Protocol protocol = Protocol.HTTP_2;
+
+    /**
+     * Longest wait for a TCP (and TLS) connection to be established.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Longest wait for the response headers. A plain completion only
+     * answers once the whole text is generated, so this bounds the
+     * generation, not just the network.
+     */
+    private Duration readTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Requests in flight per route (scheme, host and port) at most.
+     */
+    private int maxPerRoute = 64;
+
+    /**
+     * Longest wait for a free place on a full route; then the call fails
+     * with 503 and Retry-After.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Per-route overrides of max-per-route, keyed by host or host:port.
+     * Keys with dots need brackets in YAML: "[api.openai.com]": 128.
+     */
+    private Map<String, Integer> routes = new LinkedHashMap<>();
+
+    /**
+     * Limit for a route.
+     *
+     * @param host the route's host
+     * @param port the route's port
+     * @return the override for host:port, else for host, else max-per-route
+     */
+    public int maxFor(String host, int port) {
+        Integer limit = routes.get(host + ":" + port);
+        if (limit == null) {
+            limit = routes.get(host);
+        }
+        return limit != null ? limit : maxPerRoute;
+    }
+
+    /**
+     * Wire protocols the client can prefer.
+     */
+    public enum Protocol {
+
+        /**
+         * Many concurrent requests multiplexed over one connection per route.
+         */
+        HTTP_2,
+
+        /**
+         * One request at a time per connection; connections are pooled.
+         */
+        HTTP_1_1
+    }
+}
@@ -0,0 +1,96 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for asynchronous generation jobs
+ * (POST /generate/jobs).
+ *
+ * Bound from the generator.jobs section of application.yml:
+ *
+ * generator:
+ *   jobs:
+ *     workers: 4
+ *     queue-capacity: 1000
+ *     ttl: 1h
+ *     maximum-jobs: 10000
+ *     callback:
+ *       timeout: 5s
+ *       max-attempts: 3
+ *       backoff: 1s
+ *       allowed-hosts: []
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.QueuedGenerationJobService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.jobs")
+public class JobProperties {
+
+    /**
+     * Jobs that call the model at the same time. Further jobs wait in the
+     * priority queue.
+     */
+    private int workers = 4;
+
+    /**
+     * Maximum number of jobs waiting for a worker. Submissions beyond it are
+     * rejected with 503 instead of growing the backlog without bound.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * How long a finished job (and its result) can still be fetched.
+     * Queued and running jobs never expire.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * Finished jobs kept in memory at most. Beyond it, finished jobs are
+     * evicted before their TTL; queued and running jobs are never evicted.
+     */
+    private int maximumJobs = 10_000;
+
+    /**
+     * Delivery of results to the job's callback URL.
+     */
+    private Callback callback = new Callback();
+
+    /**
+     * Webhook delivery settings.
+     */
+    @Data
+    public static class Callback {
+
+        /**
+         * Connect and read timeout of one delivery attempt.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Attempts before a delivery is given up; only connection errors
+         * and 5xx answers are retried.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Wait before the second attempt, doubled for every further one.
+         */
+        private Duration backoff = Duration.ofSeconds(1);
+
+        /**
+         * Hosts callbacks may be sent to; "*.example.com" also matches every
+         * subdomain. When empty, any host is accepted as long as all of its
+         * addresses are public (not loopback, private, link-local or
+         * multicast). Listed hosts are trusted as configured, including
+         * internal ones.
+         */
+        private List<String> allowedHosts = new ArrayList<>();
+    }
+}
@@ -0,0 +1,50 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for micro-batching of short prompts.
+ *
+ * Bound from the generator.micro-batch section of application.yml:
+ *
+ * generator:
+ *   micro-batch:
+ *     enabled: false
+ *     window: 10ms
+ *     max-batch-size: 8
+ *     max-prompt-length: 200
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.MicroBatchingTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.micro-batch")
+public class MicroBatchProperties {
+
+    /**
+     * Whether short prompts that arrive together share one model call.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How long the first prompt of a batch waits for others to join. This
+     * is added to the latency of every batched request.
+     */
+    private Duration window = Duration.ofMillis(10);
+
+    /**
+     * Prompts per model call; a full batch is sent without waiting for the
+     * rest of the window.
+     */
+    private int maxBatchSize = 8;
+
+    /**
+     * Longest prompt (in characters) that is batched. Longer prompts go to
+     * the model on their own, since per-call overhead matters little for them.
+     */
+    private int maxPromptLength = 200;
+}
@@ -1,8 +1,28 @@
 package com.coherentsolutions.homework.week1.config;
 
+import com.coherentsolutions.homework.week1.service.routing.ChatBackend;
+import com.coherentsolutions.homework.week1.service.routing.ChatClientRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Configuration class for OpenAI integration using Spring AI.
@@ -34,15 +54,31 @@ import org.springframework.context.annotation.Configuration;
  * - Allows for easy testing with mock implementations
  * - Provides a single point for AI service configuration changes
  * 
- * TODO for students: Complete the ChatClient configuration
+ * Multiple Backends:
+ * The ChatClient bean talks to the endpoint in spring.ai.openai.*. When
+ * generator.routing.backends lists further OpenAI-compatible endpoints (other
+ * regions, proxies, API keys), chatClientRouter builds one ChatClient per
+ * backend and the service spreads calls across them (see ChatClientRouter).
  * 
  * @author Student Name
  * @version 1.0
  * @see com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService
  */
 @Configuration
+@Slf4j
 public class OpenAIConfig {
     
+    /**
+     * System prompt of the default generation profile, and of every profile
+     * that does not set its own.
+     */
+    public static final String DEFAULT_SYSTEM_PROMPT = "You are a helpful assistant that provides concise, accurate responses.";
+    
+    /**
+     * Backend name used when no backends are configured.
+     */
+    static final String DEFAULT_BACKEND = "openai";
+    
     /**
      * Configures the ChatClient bean for OpenAI integration.
      * 
@@ -50,17 +86,19 @@ public class OpenAIConfig {
      * chat completion API through Spring AI. This configuration sets up
      * default parameters and behavior for all AI interactions.
      * 
-     * TODO for students: Implement this method following these steps:
+     * Configuration steps:
      * 
      * 1. USE THE BUILDER PATTERN
      *    - Use ChatClient.builder() to start configuration
      *    - Spring AI auto-configures the underlying OpenAI client
      *    - The API key and basic settings come from application.yml
      * 
-     * 2. SET DEFAULT SYSTEM MESSAGE (OPTIONAL)
-     *    - Use .defaultSystem() to set a consistent system prompt
-     *    - This helps ensure consistent AI behavior across requests
-     *    - Example: "You are a helpful assistant that provides concise, accurate responses."
+     * 2. NO DEFAULT SYSTEM MESSAGE
+     *    - .defaultSystem() would add its text to every call, on top of the
+     *      system message of the request's generation profile
+     *    - The system prompt therefore lives in GenerationProfiles, one
+     *      prebuilt SystemMessage per profile (DEFAULT_SYSTEM_PROMPT for the
+     *      default profile)
      * 
      * 3. CONFIGURE DEFAULT PARAMETERS (OPTIONAL)
      *    - Temperature, max tokens, etc. can be set here
@@ -80,6 +118,7 @@ public class OpenAIConfig {
      * Example Usage in Service:
      * String response = chatClient
      *     .prompt()
+     *     .messages(profile.systemMessage())
      *     .user("Your prompt here")
      *     .call()
      *     .content();
@@ -89,85 +128,112 @@ public class OpenAIConfig {
      */
     @Bean
     public ChatClient chatClient(ChatClient.Builder builder) {
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("chatClient configuration not implemented yet");
-        
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
-        
-        return builder
-            // Optional: Set a default system message for consistent behavior
-            .defaultSystem("You are a helpful assistant that provides concise, accurate responses.")
-            // Build the ChatClient
-            .build();
-            
-        */
-        
-        // Alternative configuration examples (choose one approach):
-        
-        // Minimal configuration (relies on application.yml for all settings):
-        // return builder.build();
-        
-        // Configuration with default system prompt:
-        // return builder
-        //     .defaultSystem("You are a helpful assistant.")
-        //     .build();
-        
-        // Configuration with request-level defaults:
-        // return builder
-        //     .defaultSystem("You are a helpful assistant.")
-        //     .defaultOptions(OpenAiChatOptions.builder()
-        //         .withTemperature(0.7)
-        //         .withMaxTokens(150)
-        //         .build())
-        //     .build();
+        return builder.build();
     }
     
-    // TODO for students: Consider adding additional configuration as your application grows
-    
     /**
-     * Example: Configure a custom ChatClient for specific use cases.
+     * Builds the router that picks a ChatClient for every model call.
      * 
-     * TODO: You might want to create specialized ChatClient beans for different purposes:
+     * Without configured backends the router wraps the ChatClient bean and
+     * behaves exactly like calling it directly. Otherwise every backend gets
+     * its own OpenAiChatModel, derived from the auto-configured one, so the
+     * chat options, Spring AI retry settings, observations and the HTTP
+     * client setup (see VirtualThreadConfig) are the same for all of them;
+     * only the endpoint, API key and optionally the model differ.
      * 
-     * @Bean
-     * @Qualifier("creativeChatClient")
-     * public ChatClient creativeChatClient(ChatClient.Builder builder) {
-     *     return builder
-     *         .defaultSystem("You are a creative writing assistant.")
-     *         .defaultOptions(OpenAiChatOptions.builder()
-     *             .withTemperature(0.9)  // Higher creativity
-     *             .withMaxTokens(500)    // Longer responses
-     *             .build())
-     *         .build();
-     * }
-     * 
-     * Benefits of multiple ChatClient configurations:
-     * - Different AI personalities for different use cases
-     * - Optimized parameters for specific tasks
-     * - Better cost control with task-specific token limits
-     * - Easier A/B testing of different configurations
+     * @param chatClient the auto-configured client, used when no backends are configured
+     * @param properties routing settings
+     * @param chatModels the auto-configured OpenAI chat model
+     * @param restClientBuilders HTTP client builder for blocking calls
+     * @param webClientBuilders HTTP client builder for streaming calls
+     * @param responseErrorHandlers Spring AI's HTTP error classification
+     * @param observationRegistries registry for ChatClient observations
+     * @param defaultBaseUrl spring.ai.openai.base-url, used by backends without a base-url
+     * @param defaultApiKey spring.ai.openai.api-key, used by backends without an api-key
+     * @param meterRegistry registry for routing metrics
+     * @return the router used by OpenAITextGeneratorService
      */
+    @Bean
+    public ChatClientRouter chatClientRouter(ChatClient chatClient,
+                                             RoutingProperties properties,
+                                             ObjectProvider<OpenAiChatModel> chatModels,
+                                             ObjectProvider<RestClient.Builder> restClientBuilders,
+                                             ObjectProvider<WebClient.Builder> webClientBuilders,
+                                             ObjectProvider<ResponseErrorHandler> responseErrorHandlers,
+                                             ObjectProvider<ObservationRegistry> observationRegistries,
+                                             @Value("${spring.ai.openai.base-url:https://api.openai.com}") String defaultBaseUrl,
+                                             @Value("${spring.ai.openai.api-key:}") String defaultApiKey,
+                                             MeterRegistry meterRegistry) {
+        if (properties.getBackends().isEmpty()) {
+            return ChatClientRouter.single(DEFAULT_BACKEND, chatClient, properties, meterRegistry);
+        }
+        OpenAiChatModel baseModel = chatModels.getIfAvailable();
+        if (baseModel == null) {
+            throw new IllegalStateException("generator.routing.backends requires the OpenAI chat model (spring.ai.openai.*)");
+        }
+        ObservationRegistry observationRegistry = observationRegistries.getIfUnique(() -> ObservationRegistry.NOOP);
+        
+        List<ChatBackend> backends = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (RoutingProperties.Backend backend : properties.getBackends()) {
+            if (!StringUtils.hasText(backend.getName()) || !names.add(backend.getName())) {
+                throw new IllegalStateException("Every generator.routing.backends entry needs a unique name");
+            }
+            OpenAiApi api = OpenAiApi.builder()
+                    .baseUrl(StringUtils.hasText(backend.getBaseUrl()) ? backend.getBaseUrl() : defaultBaseUrl)
+                    .apiKey(StringUtils.hasText(backend.getApiKey()) ? backend.getApiKey() : defaultApiKey)
+                    .restClientBuilder(restClientBuilders.getIfAvailable(RestClient::builder))
+                    .webClientBuilder(webClientBuilders.getIfAvailable(WebClient::builder))
+                    .responseErrorHandler(responseErrorHandlers.getIfAvailable(() -> RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER))
+                    .build();
+            OpenAiChatOptions options = OpenAiChatOptions.fromOptions((OpenAiChatOptions) baseModel.getDefaultOptions());
+            if (StringUtils.hasText(backend.getModel())) {
+                options.setModel(backend.getModel());
+            }
+            OpenAiChatModel model = baseModel.mutate().openAiApi(api).defaultOptions(options).build();
+            ChatClient client = ChatClient.builder(model, observationRegistry, null).build();
+            backends.add(ChatClientRouter.backend(backend.getName(), client, backend.getWeight(), properties));
+            log.info("Configured model backend '{}' ({}, weight {})", backend.getName(),
+                    StringUtils.hasText(backend.getBaseUrl()) ? backend.getBaseUrl() : defaultBaseUrl, backend.getWeight());
+        }
+        return new ChatClientRouter(backends, properties.getStrategy(), meterRegistry);
+    }
     
     /**
-     * Example: Configure OpenAI-specific options bean.
+     * Exposes the model parameters configured under spring.ai.openai.chat.options.
      * 
-     * TODO: If you need fine-grained control over OpenAI parameters:
+     * Spring AI applies these options to every call made through the ChatClient,
+     * so they describe exactly what a generated response depends on. Components
+     * that need to reason about a request without calling the model (the response
+     * cache, response metadata) read them from here instead of re-parsing properties.
      * 
-     * @Bean
-     * public OpenAiChatOptions defaultChatOptions() {
-     *     return OpenAiChatOptions.builder()
-     *         .withModel("gpt-3.5-turbo")
-     *         .withTemperature(0.7)
-     *         .withMaxTokens(150)
-     *         .withTopP(1.0)
-     *         .withFrequencyPenalty(0.0)
-     *         .withPresencePenalty(0.0)
-     *         .build();
-     * }
+     * @param model the configured chat model name
+     * @param temperature the configured sampling temperature
+     * @param maxTokens the configured completion token limit
+     * @return the default generation options
+     */
+    @Bean
+    public GenerationOptions defaultGenerationOptions(
+            @Value("${spring.ai.openai.chat.options.model:gpt-3.5-turbo}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:0.7}") Double temperature,
+            @Value("${spring.ai.openai.chat.options.max-tokens:150}") Integer maxTokens) {
+        return new GenerationOptions(model, temperature, maxTokens);
+    }
+    
+    // TODO for students: Consider adding additional configuration as your application grows
+    
+    /**
+     * Different personalities and parameters per use case ("creative",
+     * "precise", ...) are generation profiles rather than extra ChatClient
+     * beans: one ChatClient per backend, and per request a profile from
+     * generator.profiles with its own system prompt, model, temperature and
+     * max-tokens, its SystemMessage and OpenAiChatOptions built once at
+     * startup (see GenerationProfiles).
      * 
-     * These options can then be used in your service layer when you need
-     * to override the defaults for specific requests.
+     * Benefits over one ChatClient bean per configuration:
+     * - Clients pick a profile per request, no new bean or endpoint needed
+     * - Routing, resilience and caching apply to every profile alike
+     * - Per-profile metrics and cache keys for cost control and A/B testing
      */
     
     // Common Configuration Mistakes to Avoid:
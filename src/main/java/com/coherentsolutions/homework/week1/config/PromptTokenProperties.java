@@ -0,0 +1,58 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for token-based prompt admission.
+ *
+ * Bound from the generator.prompt-tokens section of application.yml:
+ *
+ * generator:
+ *   prompt-tokens:
+ *     enabled: true
+ *     max-prompt-tokens: 1024
+ *     context-window: 16385
+ *     overflow: reject
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.tokens.PromptAdmission
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.prompt-tokens")
+public class PromptTokenProperties {
+
+    /**
+     * What to do with a prompt over the token limit.
+     */
+    public enum Overflow {
+        /** Answer 400 without calling the model. */
+        REJECT,
+        /** Cut the prompt down to the limit and send it. */
+        TRUNCATE
+    }
+
+    /**
+     * Whether prompts are counted and checked before the model call.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most tokens a user prompt may have. The character limit of
+     * GenerateRequest lets through token-dense text (code, non-Latin
+     * scripts, emoji) that costs several times as much as plain English.
+     */
+    private int maxPromptTokens = 1024;
+
+    /**
+     * Context window of the configured model. The system prompt, the user
+     * prompt and spring.ai.openai.chat.options.max-tokens must fit into it together.
+     */
+    private int contextWindow = 16385;
+
+    /**
+     * Whether over-long prompts are rejected or truncated.
+     */
+    private Overflow overflow = Overflow.REJECT;
+}
@@ -0,0 +1,111 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Configuration properties for the per-client rate limiter.
+ *
+ * Bound from the generator.rate-limit section of application.yml:
+ *
+ * generator:
+ *   rate-limit:
+ *     enabled: true
+ *     requests-per-second: 5
+ *     request-burst: 10
+ *     tokens-per-minute: 20000
+ *     client-header: X-API-Key
+ *     client-keys: [${PARTNER_API_KEY}]
+ *     upstream:
+ *       backoff-factor: 0.5
+ *       minimum-factor: 0.1
+ *       recovery: 60s
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests are rate limited per client.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Sustained requests per second allowed for one client.
+     */
+    private double requestsPerSecond = 5.0;
+
+    /**
+     * Requests a client may send at once after being idle (request bucket size).
+     */
+    private int requestBurst = 10;
+
+    /**
+     * Model tokens (prompt + completion) one client may use per minute.
+     * This is also the token bucket size, so a client can spend a full
+     * minute's allowance in a burst.
+     */
+    private int tokensPerMinute = 20000;
+
+    /**
+     * Request header identifying the client. Only values listed in
+     * client-keys are honoured; requests without a listed key are keyed by
+     * remote IP address.
+     */
+    private String clientHeader = "X-API-Key";
+
+    /**
+     * API keys that get buckets of their own. A key that is not listed is
+     * ignored, so a client cannot obtain fresh buckets by sending a new
+     * header value with every request. Empty = every client is keyed by
+     * remote IP address.
+     */
+    private Set<String> clientKeys = new LinkedHashSet<>();
+
+    /**
+     * Maximum number of clients whose buckets are kept in memory.
+     */
+    private long maximumClients = 10000;
+
+    /**
+     * How long an idle client's buckets are kept. Must be longer than the
+     * time a bucket needs to refill, or an evicted client gets a fresh burst.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Adaptive slow-down when OpenAI itself answers with 429.
+     */
+    private Upstream upstream = new Upstream();
+
+    /**
+     * Settings for reacting to upstream rate limits.
+     */
+    @Data
+    public static class Upstream {
+
+        /**
+         * Factor applied to every client's refill rates on each upstream 429.
+         */
+        private double backoffFactor = 0.5;
+
+        /**
+         * Lower bound of the rate factor, so clients are never starved.
+         */
+        private double minimumFactor = 0.1;
+
+        /**
+         * Time to climb back from a factor of 0 to full rate. Recovery is
+         * linear and starts at the last upstream 429.
+         */
+        private Duration recovery = Duration.ofSeconds(60);
+    }
+}
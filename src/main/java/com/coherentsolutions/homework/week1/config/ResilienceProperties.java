@@ -0,0 +1,144 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the circuit breaker, retries and hedging
+ * around the OpenAI call.
+ *
+ * Bound from the generator.resilience section of application.yml:
+ *
+ * generator:
+ *   resilience:
+ *     circuit-breaker:
+ *       enabled: true
+ *       failure-rate-threshold: 0.5
+ *       sliding-window-size: 20
+ *       minimum-calls: 10
+ *       slow-call-duration: 20s
+ *       open-duration: 30s
+ *       half-open-calls: 3
+ *     retry:
+ *       max-attempts: 3
+ *       initial-backoff: 200ms
+ *       max-backoff: 2s
+ *     hedge:
+ *       enabled: false
+ *       percentile: 0.95
+ *       min-delay: 250ms
+ *       min-samples: 20
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.resilience.UpstreamCallGuard
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.resilience")
+public class ResilienceProperties {
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Retry retry = new Retry();
+
+    private Hedge hedge = new Hedge();
+
+    /**
+     * Settings for the circuit breaker.
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Whether calls fail fast while OpenAI keeps failing.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Share of failed calls in the sliding window that opens the circuit.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Calls needed in the window before the failure rate is evaluated,
+         * so two early failures cannot open the circuit.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Calls slower than this count as failures even if they succeed;
+         * a degraded provider usually gets slow before it starts failing.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(20);
+
+        /**
+         * How long the circuit stays open before trial calls are let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Trial calls in the half-open state; all must succeed to close the
+         * circuit again, any failure reopens it.
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * Settings for retrying transient failures.
+     */
+    @Data
+    public static class Retry {
+
+        /**
+         * Total attempts per request, including the first one. 1 disables retries.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Backoff ceiling before the first retry; doubled for every further retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(200);
+
+        /**
+         * Upper bound of the backoff ceiling.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings for hedged requests.
+     */
+    @Data
+    public static class Hedge {
+
+        /**
+         * Whether a second, identical call is started when the first one is
+         * slower than usual. Costs extra tokens for every hedged request.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Latency percentile of recent successful calls after which the
+         * hedge is sent.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Lower bound for the hedge delay.
+         */
+        private Duration minDelay = Duration.ofMillis(250);
+
+        /**
+         * Successful calls observed before hedging starts; until then the
+         * percentile is not meaningful.
+         */
+        private int minSamples = 20;
+    }
+}
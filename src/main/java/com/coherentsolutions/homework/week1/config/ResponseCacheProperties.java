@@ -0,0 +1,49 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the exact-match response cache.
+ *
+ * Bound from the generator.cache section of application.yml:
+ *
+ * generator:
+ *   cache:
+ *     enabled: true
+ *     maximum-size: 1000
+ *     ttl: 10m
+ *     cache-sampled-responses: true
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.CachingTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Whether responses are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached responses; least recently used entries are evicted first.
+     */
+    private long maximumSize = 1000;
+
+    /**
+     * How long a response stays valid after it was generated.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Whether responses generated with temperature > 0 are cached.
+     * Such responses are samples, so set this to false if every call
+     * should get a fresh answer.
+     */
+    private boolean cacheSampledResponses = true;
+}
@@ -0,0 +1,128 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for routing model calls across several
+ * OpenAI-compatible backends.
+ *
+ * Bound from the generator.routing section of application.yml:
+ *
+ * generator:
+ *   routing:
+ *     strategy: least-latency        # least-latency | weighted-round-robin | failover
+ *     ewma-alpha: 0.3
+ *     ewma-decay: 30s
+ *     failure-threshold: 3
+ *     unhealthy-duration: 30s
+ *     backends:
+ *       - name: primary
+ *         base-url: https://api.openai.com
+ *         api-key: ${OPENAI_API_KEY}
+ *       - name: secondary
+ *         base-url: https://my-proxy.example.com
+ *         api-key: ${SECONDARY_API_KEY}
+ *         weight: 2
+ *
+ * With no backends configured, the single ChatClient from
+ * spring.ai.openai.* is the only backend and routing changes nothing.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.routing.ChatClientRouter
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.routing")
+public class RoutingProperties {
+
+    /**
+     * How the first backend for a call is chosen; the remaining healthy
+     * backends are the failover order.
+     */
+    private Strategy strategy = Strategy.LEAST_LATENCY;
+
+    /**
+     * Weight of the newest latency sample in the moving average (0..1).
+     * Higher values follow latency changes faster but are noisier.
+     */
+    private double ewmaAlpha = 0.3;
+
+    /**
+     * Time constant over which an idle backend's average decays towards
+     * zero, so a backend that was slow once is tried again eventually
+     * instead of being avoided forever.
+     */
+    private Duration ewmaDecay = Duration.ofSeconds(30);
+
+    /**
+     * Consecutive failures after which a backend is taken out of rotation.
+     */
+    private int failureThreshold = 3;
+
+    /**
+     * How long an unhealthy backend is skipped before it gets another call.
+     */
+    private Duration unhealthyDuration = Duration.ofSeconds(30);
+
+    private List<Backend> backends = new ArrayList<>();
+
+    /**
+     * Backend selection strategies.
+     */
+    public enum Strategy {
+
+        /**
+         * Lowest moving-average latency, scaled by the calls already in flight.
+         */
+        LEAST_LATENCY,
+
+        /**
+         * Calls spread in proportion to the backend weights.
+         */
+        WEIGHTED_ROUND_ROBIN,
+
+        /**
+         * Always the first healthy backend in configuration order.
+         */
+        FAILOVER
+    }
+
+    /**
+     * One OpenAI-compatible endpoint.
+     */
+    @Data
+    public static class Backend {
+
+        /**
+         * Name used in logs, metrics and the health endpoint.
+         */
+        private String name;
+
+        /**
+         * Base URL of the OpenAI-compatible API; defaults to spring.ai.openai.base-url.
+         */
+        private String baseUrl;
+
+        /**
+         * API key for this endpoint; defaults to spring.ai.openai.api-key.
+         */
+        private String apiKey;
+
+        /**
+         * Model requested from this endpoint; defaults to
+         * spring.ai.openai.chat.options.model. Cache keys always use the
+         * default model, so backends should serve equivalent models.
+         */
+        private String model;
+
+        /**
+         * Relative share of calls under weighted-round-robin.
+         */
+        private int weight = 1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the fair-share scheduler of upstream calls.
+ *
+ * Bound from the generator.scheduler section of application.yml:
+ *
+ * generator:
+ *   scheduler:
+ *     enabled: false
+ *     slots: 16
+ *     default-class: interactive
+ *     classes:
+ *       interactive:
+ *         weight: 4
+ *         queue-timeout: 10s
+ *       batch:
+ *         weight: 1
+ *         queue-timeout: 60s
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.scheduler")
+public class SchedulerProperties {
+
+    /**
+     * Whether upstream calls wait for a slot. Off by default: the right
+     * slot count depends on the OpenAI account's limits.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Upstream calls in flight at most, across all classes.
+     */
+    private int slots = 16;
+
+    /**
+     * Class of calls that do not name one (POST /generate, sessions), and
+     * of calls naming a class that is not configured.
+     */
+    private String defaultClass = "interactive";
+
+    /**
+     * Scheduling classes by name. Batch items and jobs run as "batch".
+     */
+    private Map<String, SchedulingClass> classes = defaultClasses();
+
+    private static Map<String, SchedulingClass> defaultClasses() {
+        Map<String, SchedulingClass> classes = new LinkedHashMap<>();
+        classes.put("interactive", new SchedulingClass(4, Duration.ofSeconds(10)));
+        classes.put("batch", new SchedulingClass(1, Duration.ofSeconds(60)));
+        return classes;
+    }
+
+    /**
+     * Share and patience of one class of calls.
+     */
+    @Data
+    public static class SchedulingClass {
+
+        /**
+         * Relative share of the slots while several classes are waiting:
+         * with weights 4 and 1, four interactive calls start for every batch call.
+         */
+        private int weight = 1;
+
+        /**
+         * Longest wait for a slot; then the call fails with 503 and Retry-After.
+         */
+        private Duration queueTimeout = Duration.ofSeconds(10);
+
+        public SchedulingClass() {
+        }
+
+        public SchedulingClass(int weight, Duration queueTimeout) {
+            this.weight = weight;
+            this.queueTimeout = queueTimeout;
+        }
+    }
+}
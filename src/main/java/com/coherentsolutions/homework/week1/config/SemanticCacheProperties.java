@@ -0,0 +1,106 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the semantic response cache.
+ *
+ * Bound from the generator.semantic-cache section of application.yml:
+ *
+ * generator:
+ *   semantic-cache:
+ *     enabled: false
+ *     embedding: local
+ *     similarity-threshold: 0.8
+ *     maximum-size: 1000
+ *     ttl: 10m
+ *     local-dimensions: 512
+ *     hnsw:
+ *       m: 16
+ *       ef-construction: 100
+ *       ef-search: 64
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.SemanticCachingTextGeneratorService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.semantic-cache")
+public class SemanticCacheProperties {
+
+    /**
+     * Which embedding model turns prompts into vectors.
+     */
+    public enum Embedding {
+        /**
+         * The in-process LocalHashingEmbeddingModel; works offline.
+         */
+        LOCAL,
+        /**
+         * The application's Spring AI EmbeddingModel bean (OpenAI by default).
+         */
+        MODEL
+    }
+
+    /**
+     * Whether paraphrased prompts may be answered from the cache.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Source of prompt embeddings.
+     */
+    private Embedding embedding = Embedding.LOCAL;
+
+    /**
+     * Minimum cosine similarity between two prompts for one to reuse the
+     * other's answer. Thresholds depend on the embedding model: around 0.8
+     * suits the local model, model embeddings usually need 0.9 or more.
+     */
+    private double similarityThreshold = 0.8;
+
+    /**
+     * Maximum number of indexed prompts; the oldest are evicted first.
+     */
+    private int maximumSize = 1000;
+
+    /**
+     * How long an answer can be reused after it was generated.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Vector size of the local embedding model.
+     */
+    private int localDimensions = 512;
+
+    /**
+     * HNSW index tuning.
+     */
+    private Hnsw hnsw = new Hnsw();
+
+    /**
+     * Tuning parameters of the HNSW vector index.
+     */
+    @Data
+    public static class Hnsw {
+
+        /**
+         * Graph links per node (doubled on the bottom layer).
+         */
+        private int m = 16;
+
+        /**
+         * Candidate list size while inserting; higher builds a better graph.
+         */
+        private int efConstruction = 100;
+
+        /**
+         * Candidate list size while searching; higher improves recall.
+         */
+        private int efSearch = 64;
+    }
+}
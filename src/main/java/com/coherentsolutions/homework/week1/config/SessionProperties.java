@@ -0,0 +1,52 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for server-side conversation sessions
+ * (/generate/sessions).
+ *
+ * Bound from the generator.sessions section of application.yml:
+ *
+ * generator:
+ *   sessions:
+ *     maximum-sessions: 10000
+ *     idle-timeout: 30m
+ *     history-tokens: 2048
+ *     max-turns: 20
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.InMemoryConversationService
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.sessions")
+public class SessionProperties {
+
+    /**
+     * Sessions kept in memory at most. Beyond it, the least recently used
+     * sessions are evicted first.
+     */
+    private int maximumSessions = 10_000;
+
+    /**
+     * A session not used for this long is dropped; its id then answers 404.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Token budget of the history sent with each turn. The oldest turns are
+     * dropped until the history fits. Together with
+     * generator.prompt-tokens.max-prompt-tokens and max-tokens it must fit
+     * into the model's context window.
+     */
+    private int historyTokens = 2048;
+
+    /**
+     * Most earlier turns (prompt and answer) kept per session, however short.
+     */
+    private int maxTurns = 20;
+}
@@ -0,0 +1,167 @@
+package com.coherentsolutions.homework.week1.config;
+
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.diskcache.MappedResponseStore;
+import com.coherentsolutions.homework.week1.service.impl.CachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.CoalescingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.DiskCachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.MicroBatchingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.SemanticCachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.semantic.LocalHashingEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Map;
+
+/**
+ * Assembles the TextGeneratorService that controllers talk to.
+ *
+ * OpenAITextGeneratorService does the actual model call. Cross-cutting
+ * behavior (caching, semantic caching, coalescing, micro-batching, ...) is
+ * layered on top of it as decorators that implement the same interface, so
+ * the controller never needs to know which layers are active.
+ *
+ * Decorator order (outermost first):
+ * 1. CachingTextGeneratorService          - answers repeated prompts from memory
+ * 2. DiskCachingTextGeneratorService     - answers repeated prompts from a file that
+ *                                           survives restarts (optional, off by default)
+ * 3. SemanticCachingTextGeneratorService - answers paraphrases of earlier prompts
+ *                                           (optional, off by default)
+ * 4. CoalescingTextGeneratorService       - merges identical concurrent cache misses
+ *                                           into one model call
+ * 5. MicroBatchingTextGeneratorService    - packs short prompts arriving together
+ *                                           into one model call (optional, off by default)
+ * 6. OpenAITextGeneratorService           - calls the model via ChatClient
+ *
+ * Token budgets are enforced in OpenAITextGeneratorService, below every
+ * cache, so only calls that reach the model count against a tenant.
+ *
+ * The assembled service is exposed as the @Primary TextGeneratorService bean.
+ * With the disk cache enabled, its hottest entries are copied into the
+ * in-memory cache while the service is assembled, i.e. at startup.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({ResponseCacheProperties.class, SemanticCacheProperties.class,
+        CoalescingProperties.class, BatchProperties.class, RateLimitProperties.class,
+        ResilienceProperties.class, RoutingProperties.class, JobProperties.class,
+        MicroBatchProperties.class, DiskCacheProperties.class, PromptTokenProperties.class,
+        SessionProperties.class, SchedulerProperties.class, AccessLogProperties.class,
+        HttpClientProperties.class, GenerationProfileProperties.class, TokenBudgetProperties.class})
+public class TextGeneratorServiceConfig {
+
+    /**
+     * Opens the disk cache file. A bean of its own so that Spring flushes
+     * and closes the file on shutdown.
+     *
+     * @param diskCacheProperties disk cache settings
+     * @return the opened store
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "generator.disk-cache", name = "enabled", havingValue = "true")
+    public MappedResponseStore mappedResponseStore(DiskCacheProperties diskCacheProperties) {
+        return new MappedResponseStore(diskCacheProperties);
+    }
+
+    /**
+     * Builds the decorated text generation service.
+     *
+     * @param openAITextGeneratorService the service that calls the model
+     * @param generationProfiles the configured generation profiles
+     * @param cacheProperties response cache settings
+     * @param diskCacheProperties disk cache settings
+     * @param diskStores the disk cache file, if enabled
+     * @param semanticCacheProperties semantic cache settings
+     * @param coalescingProperties request coalescing settings
+     * @param microBatchProperties micro-batching settings
+     * @param embeddingModels the application's embedding model, if any
+     * @param meterRegistry registry for cache, coalescing and batching metrics
+     * @return the service used by the controllers
+     */
+    @Bean
+    @Primary
+    public TextGeneratorService textGeneratorService(OpenAITextGeneratorService openAITextGeneratorService,
+                                                     GenerationProfiles generationProfiles,
+                                                     ResponseCacheProperties cacheProperties,
+                                                     DiskCacheProperties diskCacheProperties,
+                                                     ObjectProvider<MappedResponseStore> diskStores,
+                                                     SemanticCacheProperties semanticCacheProperties,
+                                                     CoalescingProperties coalescingProperties,
+                                                     MicroBatchProperties microBatchProperties,
+                                                     ObjectProvider<EmbeddingModel> embeddingModels,
+                                                     MeterRegistry meterRegistry) {
+        TextGeneratorService service = openAITextGeneratorService;
+        if (microBatchProperties.isEnabled()) {
+            service = new MicroBatchingTextGeneratorService(openAITextGeneratorService, generationProfiles,
+                    microBatchProperties, meterRegistry);
+        }
+        if (coalescingProperties.isEnabled()) {
+            service = new CoalescingTextGeneratorService(service, generationProfiles, meterRegistry);
+        }
+        if (semanticCacheProperties.isEnabled()) {
+            service = new SemanticCachingTextGeneratorService(service, generationProfiles,
+                    semanticEmbeddingModel(semanticCacheProperties, embeddingModels),
+                    semanticCacheProperties, cacheProperties, meterRegistry);
+        }
+        MappedResponseStore diskStore = diskStores.getIfAvailable();
+        if (diskStore != null) {
+            service = new DiskCachingTextGeneratorService(service, generationProfiles, cacheProperties,
+                    diskStore, meterRegistry);
+        }
+        if (cacheProperties.isEnabled()) {
+            CachingTextGeneratorService cachingService = new CachingTextGeneratorService(
+                    service, generationProfiles, cacheProperties, meterRegistry);
+            if (diskStore != null && diskCacheProperties.getPreload() > 0) {
+                preload(cachingService, diskStore, diskCacheProperties.getPreload());
+            }
+            service = cachingService;
+        }
+        return service;
+    }
+
+    /**
+     * Warms the in-memory cache with the most-hit disk cache entries. A
+     * failure only costs the warm-up, so it is logged instead of failing startup.
+     */
+    private void preload(CachingTextGeneratorService cachingService, MappedResponseStore diskStore, int limit) {
+        try {
+            Map<GenerationKey, GenerateResponse> hottest = diskStore.hottest(limit);
+            cachingService.preload(hottest);
+            log.info("Preloaded {} responses from the disk cache", hottest.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not preload responses from the disk cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Picks the embedding model for the semantic cache: the built-in local
+     * model, or the single EmbeddingModel bean of the application.
+     */
+    private EmbeddingModel semanticEmbeddingModel(SemanticCacheProperties properties,
+                                                  ObjectProvider<EmbeddingModel> embeddingModels) {
+        if (properties.getEmbedding() == SemanticCacheProperties.Embedding.LOCAL) {
+            return new LocalHashingEmbeddingModel(properties.getLocalDimensions());
+        }
+        EmbeddingModel embeddingModel = embeddingModels.getIfUnique();
+        if (embeddingModel == null) {
+            throw new IllegalStateException("generator.semantic-cache.embedding=model requires exactly one "
+                    + "EmbeddingModel bean; use embedding=local to run without one");
+        }
+        return embeddingModel;
+    }
+}
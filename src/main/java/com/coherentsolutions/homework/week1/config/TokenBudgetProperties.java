@@ -0,0 +1,114 @@
+package com.coherentsolutions.homework.week1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for per-tenant token budgets.
+ *
+ * Bound from the generator.budgets section of application.yml:
+ *
+ * generator:
+ *   budgets:
+ *     enabled: true
+ *     tenant-header: X-Tenant-Id
+ *     default-tenant: default
+ *     default-limits:
+ *       tokens-per-day: 200000
+ *     tenants:
+ *       search-team:
+ *         tokens-per-hour: 50000
+ *         tokens-per-month: 5000000
+ *     snapshot-path: cache/token-budgets.json
+ *     snapshot-interval: 30s
+ *
+ * A limit of 0 means unlimited. A tenant's own limits override the defaults
+ * one window at a time; windows it does not set keep the default limit.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.budget.TokenBudgets
+ */
+@Data
+@ConfigurationProperties(prefix = "generator.budgets")
+public class TokenBudgetProperties {
+
+    /**
+     * Whether token usage is counted and budgets are enforced per tenant.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Request header naming the tenant (team) a call is charged to. Only
+     * names configured under tenants are accepted; anything else is charged
+     * to default-tenant. The header is not authenticated, so it should be
+     * set by a gateway, not by end users.
+     */
+    private String tenantHeader = "X-Tenant-Id";
+
+    /**
+     * Tenant charged for requests without the header, or with a header
+     * that names no configured tenant.
+     */
+    private String defaultTenant = "default";
+
+    /**
+     * Limits of tenants without an entry in tenants, and of the windows a
+     * tenant entry leaves unset.
+     */
+    private Limits defaultLimits = new Limits();
+
+    /**
+     * Limits per tenant name. These are also the only names the tenant
+     * header can select.
+     */
+    private Map<String, Limits> tenants = new LinkedHashMap<>();
+
+    /**
+     * Maximum number of tenants counted separately. Once reached, further
+     * unconfigured tenants are charged to default-tenant. The header only
+     * resolves to configured tenants; this bounds tenants named by internal
+     * callers and read back from an older snapshot.
+     */
+    private int maximumTenants = 1000;
+
+    /**
+     * File the counters are written to, and read back from at startup.
+     * Its directory is created if missing. Empty = counters are kept in
+     * memory only.
+     */
+    private String snapshotPath = "cache/token-budgets.json";
+
+    /**
+     * How often the counters are written to snapshot-path. Usage recorded
+     * since the last snapshot is lost if the process is killed; a normal
+     * shutdown writes a final snapshot.
+     */
+    private Duration snapshotInterval = Duration.ofSeconds(30);
+
+    /**
+     * Token limits of one tenant; null = use the default, 0 = unlimited.
+     */
+    @Data
+    public static class Limits {
+
+        /**
+         * Tokens per clock hour (UTC).
+         */
+        private Long tokensPerHour;
+
+        /**
+         * Tokens per calendar day (UTC).
+         */
+        private Long tokensPerDay;
+
+        /**
+         * Tokens per calendar month (UTC).
+         */
+        private Long tokensPerMonth;
+    }
+}
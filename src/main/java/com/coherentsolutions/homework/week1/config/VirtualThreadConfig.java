@@ -0,0 +1,53 @@
+package com.coherentsolutions.homework.week1.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Outbound HTTP configuration for virtual-thread mode.
+ *
+ * Every /generate call blocks its thread for the whole OpenAI round trip.
+ * On platform threads that caps concurrency at the Tomcat pool size (200 by
+ * default) while the CPU sits idle. With spring.threads.virtual.enabled=true
+ * Spring Boot already runs Tomcat request handling and the MVC async executor
+ * on virtual threads; this class covers the other half of the blocking path,
+ * the HTTP client Spring AI uses to reach OpenAI.
+ *
+ * What this configuration does:
+ * - Pins the RestClient behind ChatClient to the JDK HttpClient, whose
+ *   blocking send() parks a virtual thread instead of occupying a carrier,
+ *   regardless of which other HTTP client libraries end up on the classpath
+ *
+ * The HttpClient deliberately keeps its default internal executor. Handing
+ * it a virtual-thread executor as well stalls request bodies that Spring
+ * streams chunked (the OpenAI JSON payloads) when send() is itself called
+ * from a virtual thread.
+ *
+ * Only active when spring.threads.virtual.enabled=true; in platform-thread
+ * mode Spring Boot's default client selection applies unchanged. With
+ * generator.http-client enabled (the default), HttpClientConfig replaces
+ * the request factory with one on the shared, tuned JDK client anyway, so
+ * this pin only matters when that is switched off.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAIConfig
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Request factory used by the auto-configured RestClient.Builder, and
+     * therefore by the OpenAI client behind ChatClient.
+     *
+     * @return JDK HttpClient based request factory builder
+     */
+    @Bean
+    public ClientHttpRequestFactoryBuilder<?> clientHttpRequestFactoryBuilder() {
+        return ClientHttpRequestFactoryBuilder.jdk();
+    }
+}
@@ -0,0 +1,120 @@
+package com.coherentsolutions.homework.week1.config;
+
+import com.coherentsolutions.homework.week1.controller.ContentLengthFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary wire formats next to JSON, chosen per request by content
+ * negotiation.
+ *
+ * A client that sends Accept: application/cbor (or
+ * application/x-jackson-smile) gets the same GenerateResponse, BatchGenerateResponse
+ * or ErrorResponse in that format, and may send its request body in it
+ * too. Both formats keep JSON's structure but drop its text overhead:
+ * numbers are binary, strings carry a length prefix instead of quotes
+ * and escapes, and Smile also back-references repeated field names, which
+ * pays off in batch responses. Clients that ask for nothing in particular
+ * still get JSON.
+ *
+ * Spring would register CBOR and Smile converters by itself once the Jackson
+ * modules are on the classpath, but with mappers of their own. The beans
+ * below are built from Spring Boot's Jackson2ObjectMapperBuilder instead,
+ * so every format follows the same spring.jackson settings (Java time
+ * support, ISO timestamps) and the payloads differ only in encoding.
+ * The binary formats also leave null fields out: they have no existing
+ * clients that expect every field, while JSON keeps its nulls so its
+ * payload stays as it was. Spring Boot puts converter beans where its
+ * defaults would be, so JSON stays first.
+ *
+ * Response compression (server.compression) is configured separately and
+ * applies to all of these formats. On the servlet stack ContentLengthFilter
+ * makes its min-response-size threshold effective; WebFlux already sends
+ * single-value bodies with a Content-Length.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.dto.GenerateResponse
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Converters and the Content-Length filter for the servlet stack
+     * (TextGeneratorController).
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+        }
+
+        @Bean
+        public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+        }
+
+        /**
+         * Buffers the complete-body endpoints; the /stream endpoints are
+         * left out so their events are not held back.
+         */
+        @Bean
+        public FilterRegistrationBean<ContentLengthFilter> contentLengthFilter() {
+            FilterRegistrationBean<ContentLengthFilter> registration =
+                    new FilterRegistrationBean<>(new ContentLengthFilter());
+            registration.addUrlPatterns("/generate", "/generate/batch", "/generate/sessions/*");
+            return registration;
+        }
+    }
+
+    /**
+     * Codecs for the reactive stack (ReactiveTextGeneratorController).
+     * WebFlux has a default Smile codec slot but none for CBOR, so CBOR is
+     * added as a custom codec.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+
+        @Bean
+        public CodecCustomizer binaryCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+            ObjectMapper cbor = cborMapper(builder);
+            ObjectMapper smile = smileMapper(builder);
+            return configurer -> {
+                configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile));
+                configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile));
+                configurer.customCodecs().register(new Jackson2CborEncoder(cbor));
+                configurer.customCodecs().register(new Jackson2CborDecoder(cbor));
+            };
+        }
+    }
+
+    // The builder is a prototype bean, so each injection point gets its own
+    // copy with Spring Boot's customizations applied; only the factory and
+    // the null handling differ
+
+    static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.serializationInclusion(JsonInclude.Include.NON_NULL).factory(new CBORFactory()).build();
+    }
+
+    static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.serializationInclusion(JsonInclude.Include.NON_NULL).factory(new SmileFactory()).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.coherentsolutions.homework.week1.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Buffers a response body so it goes out with a Content-Length header.
+ *
+ * Spring's message converters flush the body as they write it, which
+ * commits the response before its size is known, so Tomcat sends it
+ * chunked. Tomcat applies server.compression.min-response-size only to
+ * responses of known length; chunked ones are always compressed, even a
+ * 300-byte answer that gzip makes barely smaller at the cost of CPU on both
+ * ends. With the body buffered first, the threshold works as configured.
+ *
+ * The buffer holds one response (a few KB, a batch at most a few hundred
+ * KB) and is copied once. Streaming endpoints must not go through this
+ * filter, as it would hold back every event until the stream ends;
+ * WireFormatConfig registers it for the complete-body endpoints only.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.config.WireFormatConfig
+ */
+public class ContentLengthFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            buffered.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.coherentsolutions.homework.week1.controller;
+
+import com.coherentsolutions.homework.week1.dto.BatchGenerateRequest;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.JobNotFoundException;
+import com.coherentsolutions.homework.week1.service.BatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.GenerationJobService;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.ReactiveTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * WebFlux variant of TextGeneratorController, active in the "reactive" profile.
+ *
+ * Serves the same endpoints with the same request and response bodies, but
+ * no handler holds a thread while OpenAI is working: POST /generate returns
+ * a Mono from ReactiveTextGeneratorService, and the streaming endpoints
+ * return the upstream Flux directly. A slow generation costs a connection
+ * and a few objects, not a thread. The server is the embedded Tomcat
+ * (reactor-netty is not a dependency), driven through WebFlux's servlet
+ * adapter, so in-flight requests are still bounded by
+ * server.tomcat.max-connections rather than by an event loop.
+ *
+ * Endpoints (see TextGeneratorController for the full contract):
+ * - POST /generate              - JSON response, non-blocking
+ * - POST /generate/stream       - SSE token/done/error frames
+ * - POST /generate/batch        - JSON per-item results in input order
+ * - POST /generate/batch/stream - SSE item frames in completion order
+ * - POST /generate/jobs         - 202 with the queued job
+ * - GET  /generate/jobs/{id}    - job state and result
+ *
+ * Rate limiting, generate.requests metrics and the access log work as in
+ * the servlet controller. Errors are mapped by ReactiveExceptionHandler, which returns
+ * the same statuses and ErrorResponse bodies as GlobalExceptionHandler.
+ *
+ * Differences from the servlet stack:
+ * - POST /generate skips the response cache, semantic cache and coalescing
+ *   (see OpenAIReactiveTextGeneratorService)
+ * - Batch items and jobs still call the blocking service, on virtual
+ *   threads (ConcurrentBatchTextGeneratorService, QueuedGenerationJobService),
+ *   so the server threads never block
+ * - The tenant of the token budgets is put into the Reactor context
+ *   rather than bound to a thread (TenantFilter); a spent budget on
+ *   /generate/stream ends the stream with an error frame, like any other
+ *   failure once the stream has been subscribed to
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorController
+ * @see ReactiveTextGeneratorService
+ */
+@RestController
+@RequestMapping("/generate")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTextGeneratorController {
+
+    private final ReactiveTextGeneratorService reactiveTextGeneratorService;
+
+    private final StreamingTextGeneratorService streamingTextGeneratorService;
+
+    private final BatchTextGeneratorService batchTextGeneratorService;
+
+    private final GenerationJobService generationJobService;
+
+    private final GenerationMetrics generationMetrics;
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final AccessLog accessLog;
+
+    private final TokenBudgets tokenBudgets;
+
+    /**
+     * Generates text for a prompt without blocking the request thread.
+     *
+     * @param request the text generation request (validated automatically)
+     * @param httpRequest the reactive request, used to identify the client
+     * @return Mono emitting the generated text response
+     */
+    @PostMapping
+    public Mono<GenerateResponse> generateText(@Valid @RequestBody GenerateRequest request,
+                                               ServerHttpRequest httpRequest) {
+        log.debug("Received reactive text generation request with prompt length: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0);
+
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
+        String tenant = tokenBudgets.resolveTenant(httpRequest);
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = generationMetrics.start();
+            return reactiveTextGeneratorService.generateText(request)
+                    .doOnNext(response -> {
+                        rateLimiter.settle(clientKey, request, response);
+                        long elapsedNanos = generationMetrics.recordRequest(
+                                sample, "generate", request.getProfile(), response.getModel(), null);
+                        accessLog.record("generate", request, response, null, elapsedNanos);
+                    })
+                    .doOnError(e -> {
+                        long elapsedNanos = generationMetrics.recordRequest(
+                                sample, "generate", request.getProfile(), null, e);
+                        accessLog.record("generate", request, null, e, elapsedNanos);
+                        rateLimiter.settleFailure(clientKey, request, e);
+                    });
+        }).contextWrite(TokenBudgets.context(tenant));
+    }
+
+    /**
+     * Streams generated text as Server-Sent Events; identical frames to the
+     * servlet endpoint, including the final done or error frame.
+     *
+     * @param request the text generation request (validated automatically)
+     * @param httpRequest the reactive request, used to identify the client
+     * @return stream of SSE frames
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GenerateStreamEvent>> streamText(@Valid @RequestBody GenerateRequest request,
+                                                                  ServerHttpRequest httpRequest) {
+        log.debug("Received reactive streaming request with prompt length: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0);
+
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
+        String tenant = tokenBudgets.resolveTenant(httpRequest);
+
+        return Flux.defer(() -> {
+            Timer.Sample sample = generationMetrics.start();
+            AtomicReference<GenerateStreamEvent> done = new AtomicReference<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            AtomicInteger responseLength = new AtomicInteger();
+            return streamingTextGeneratorService.streamText(request)
+                    .doOnNext(event -> {
+                        if (GenerateStreamEvent.TOKEN.equals(event.getType()) && event.getContent() != null) {
+                            responseLength.addAndGet(event.getContent().length());
+                        } else if (GenerateStreamEvent.DONE.equals(event.getType())) {
+                            done.set(event);
+                            rateLimiter.settleTokens(clientKey, request, event.getTokensUsed());
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        log.error("Streamed text generation failed: {}", e.getMessage(), e);
+                        failure.set(e);
+                        rateLimiter.settleFailure(clientKey, request, e);
+                        return Flux.just(GenerateStreamEvent.error("Failed to generate text. Please try again later."));
+                    })
+                    .doFinally(signal -> {
+                        GenerateStreamEvent last = done.get();
+                        long elapsedNanos = generationMetrics.recordRequest(sample, "generate.stream", request.getProfile(),
+                                last != null ? last.getModel() : null, failure.get());
+                        accessLog.recordStream("generate.stream", request, last, responseLength.get(),
+                                failure.get(), elapsedNanos);
+                    });
+        }).contextWrite(TokenBudgets.context(tenant)).map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+    }
+
+    /**
+     * Generates text for many prompts in one call; the response is assembled
+     * from the batch stream without blocking.
+     *
+     * @param request the batch request (list size validated automatically)
+     * @param httpRequest the reactive request, used to identify the client
+     * @return Mono emitting per-item results in input order
+     */
+    @PostMapping("/batch")
+    public Mono<BatchGenerateResponse> generateBatch(@Valid @RequestBody BatchGenerateRequest request,
+                                                     ServerHttpRequest httpRequest) {
+        log.debug("Received reactive batch request with {} items", request.getRequests().size());
+
+        List<GenerateRequest> requests = request.getRequests();
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, requests);
+        String tenant = tokenBudgets.resolveTenant(httpRequest);
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = generationMetrics.start();
+            long startNanos = System.nanoTime();
+            return batchTextGeneratorService.streamBatch(requests)
+                    .doOnNext(result -> {
+                        GenerateRequest item = requests.get(result.getIndex());
+                        accessLog.record("generate.batch", item, result, System.nanoTime() - startNanos);
+                        rateLimiter.settle(clientKey, item, result);
+                    })
+                    .collectSortedList(Comparator.comparingInt(BatchItemResult::getIndex))
+                    .map(BatchGenerateResponse::of)
+                    .doOnNext(response -> {
+                        generationMetrics.recordRequest(sample, "generate.batch", null, null, null);
+                        log.debug("Batch finished: {} succeeded, {} failed",
+                                response.getSucceeded(), response.getFailed());
+                    })
+                    .doOnError(e -> generationMetrics.recordRequest(sample, "generate.batch", null, null, e));
+        }).contextWrite(TokenBudgets.context(tenant));
+    }
+
+    /**
+     * Streams batch results as Server-Sent Events as soon as each item finishes.
+     *
+     * @param request the batch request (list size validated automatically)
+     * @param httpRequest the reactive request, used to identify the client
+     * @return stream of per-item SSE frames
+     */
+    @PostMapping(value = "/batch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BatchItemResult>> streamBatch(@Valid @RequestBody BatchGenerateRequest request,
+                                                              ServerHttpRequest httpRequest) {
+        log.debug("Received reactive streaming batch request with {} items", request.getRequests().size());
+
+        List<GenerateRequest> requests = request.getRequests();
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, requests);
+        String tenant = tokenBudgets.resolveTenant(httpRequest);
+
+        long startNanos = System.nanoTime();
+        return batchTextGeneratorService.streamBatch(requests)
+                .doOnNext(result -> {
+                    GenerateRequest item = requests.get(result.getIndex());
+                    accessLog.record("generate.batch.stream", item, result, System.nanoTime() - startNanos);
+                    rateLimiter.settle(clientKey, item, result);
+                })
+                .contextWrite(TokenBudgets.context(tenant))
+                .map(result -> ServerSentEvent.builder(result)
+                        .id(String.valueOf(result.getIndex()))
+                        .event("item")
+                        .build());
+    }
+
+    /**
+     * Queues a generation and returns at once. Submitting only enqueues the
+     * job, so it does not block the I/O thread.
+     *
+     * @param request the job request (validated automatically)
+     * @param httpRequest the reactive request, used to identify the client
+     * @return ResponseEntity with the queued job, status 202
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<GenerateJobResponse> submitJob(@Valid @RequestBody GenerateJobRequest request,
+                                                         ServerHttpRequest httpRequest) {
+        log.debug("Received reactive generation job with prompt length: {}, priority: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0, request.getPriority());
+
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
+
+        GenerateJobResponse job;
+        try {
+            job = TokenBudgets.runAs(tokenBudgets.resolveTenant(httpRequest),
+                    () -> generationJobService.submit(request, finished -> {
+                        accessLog.record("generate.jobs", request, finished);
+                        rateLimiter.settle(clientKey, request, finished);
+                    }));
+        } catch (RuntimeException e) {
+            rateLimiter.settleFailure(clientKey, request, e);
+            throw e;
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/generate/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Returns the current state of a generation job.
+     *
+     * @param id the job id returned by POST /generate/jobs
+     * @return the job
+     */
+    @GetMapping("/jobs/{id}")
+    public GenerateJobResponse getJob(@PathVariable String id) {
+        return generationJobService.find(id).orElseThrow(() -> new JobNotFoundException(id));
+    }
+}
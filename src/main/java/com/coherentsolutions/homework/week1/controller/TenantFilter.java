@@ -0,0 +1,50 @@
+package com.coherentsolutions.homework.week1.controller;
+
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the tenant of a servlet request to the request thread, so the
+ * budget check and usage of every upstream call the request makes go to
+ * that tenant without passing it through each service signature.
+ *
+ * A filter rather than code in TextGeneratorController: every endpoint,
+ * including conversation sessions, is covered, and the binding is removed
+ * when the request ends even if the controller throws. Work the request
+ * hands to other threads (batch items, jobs) takes the tenant along itself.
+ *
+ * The reactive stack has no request thread to bind to;
+ * ReactiveTextGeneratorController puts the tenant into the Reactor context
+ * instead.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgets
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TokenBudgets tokenBudgets;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        TokenBudgets.Binding binding = TokenBudgets.bind(tokenBudgets.resolveTenant(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            binding.close();
+        }
+    }
+}
@@ -1,13 +1,40 @@
 package com.coherentsolutions.homework.week1.controller;
 
+import com.coherentsolutions.homework.week1.dto.BatchGenerateRequest;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
 import com.coherentsolutions.homework.week1.dto.GenerateRequest;
 import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.JobNotFoundException;
+import com.coherentsolutions.homework.week1.exception.SessionNotFoundException;
+import com.coherentsolutions.homework.week1.service.BatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.ConversationService;
+import com.coherentsolutions.homework.week1.service.GenerationJobService;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
 import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * REST Controller for text generation operations.
@@ -29,6 +56,63 @@ import org.springframework.web.bind.annotation.*;
  * - Returns: JSON response with generated text
  * - Status Codes: 200 (success), 400 (validation error), 500 (service error)
  * 
+ * POST /generate/stream
+ * - Accepts: JSON payload with prompt
+ * - Returns: text/event-stream of token frames and a final done/error frame
+ * - Status Codes: 200 (stream started), 400 (validation error)
+ * 
+ * POST /generate/batch
+ * - Accepts: JSON payload with a list of requests
+ * - Returns: JSON with per-item results and errors in input order
+ * - Status Codes: 200 (batch processed, items may have failed), 400 (invalid batch)
+ * 
+ * POST /generate/batch/stream
+ * - Accepts: JSON payload with a list of requests
+ * - Returns: text/event-stream with one "item" frame per request, in completion order
+ * - Status Codes: 200 (stream started), 400 (invalid batch)
+ * 
+ * POST /generate/jobs
+ * - Accepts: JSON payload with prompt, optional priority and callbackUrl
+ * - Returns: the queued job with its id, and a Location header to poll
+ * - Status Codes: 202 (queued), 400 (validation error), 503 (queue full)
+ * 
+ * GET /generate/jobs/{id}
+ * - Returns: the job's state, and its response or error once finished
+ * - Status Codes: 200, 404 (unknown or expired)
+ * 
+ * POST /generate/sessions
+ * - Returns: a new, empty conversation session with its id
+ * - Status Codes: 201 (created)
+ * 
+ * POST /generate/sessions/{id}
+ * - Accepts: JSON payload with the next prompt of the conversation
+ * - Returns: JSON response with generated text; earlier turns were sent as context
+ * - Status Codes: 200, 400 (validation error), 404 (unknown or expired session)
+ * 
+ * GET /generate/sessions/{id}, DELETE /generate/sessions/{id}
+ * - Return the session's history, or end the session
+ * - Status Codes: 200 / 204, 404 (unknown or expired session)
+ * 
+ * Every endpoint is rate limited per client (ClientRateLimiter) before any
+ * work starts; a rejected call gets 429 Too Many Requests with Retry-After.
+ * A batch counts as one request per item.
+ * 
+ * With generator.budgets enabled, model calls are also charged to the
+ * tenant named by the X-Tenant-Id header (bound by TenantFilter); a spent
+ * hourly or daily budget answers 429, a spent monthly budget 402 Payment
+ * Required, both with the error "Token Budget Exceeded".
+ * 
+ * Every endpoint records its end-to-end latency in the generate.requests
+ * timer (tagged endpoint, model, outcome, exception). Requests rejected by
+ * @Valid never reach the handler and are not counted; Spring's own
+ * http.server.requests timer covers them.
+ * 
+ * Every generation is also written as one JSON line to the access log
+ * (AccessLog), off the request thread; batch items one line each.
+ * 
+ * Servlet stack only; the "reactive" profile serves the same endpoints
+ * through ReactiveTextGeneratorController.
+ * 
  * Educational Learning Objectives:
  * - Understand REST controller patterns in Spring Boot
  * - Practice request/response DTO design
@@ -50,8 +134,6 @@ import org.springframework.web.bind.annotation.*;
  * - No unnecessary processing or redundant calls
  * - Appropriate logging without performance impact
  * 
- * TODO for students: Complete the controller implementation
- * 
  * @author Student Name
  * @version 1.0
  * @see GenerateRequest
@@ -60,13 +142,26 @@ import org.springframework.web.bind.annotation.*;
  */
 @RestController
 @RequestMapping("/generate")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @Slf4j
 public class TextGeneratorController {
     
-    // TODO: Inject the TextGeneratorService dependency
-    // Hint: Use final field and @RequiredArgsConstructor for constructor injection
-    // private final TextGeneratorService textGeneratorService;
+    private final TextGeneratorService textGeneratorService;
+    
+    private final StreamingTextGeneratorService streamingTextGeneratorService;
+    
+    private final BatchTextGeneratorService batchTextGeneratorService;
+    
+    private final GenerationJobService generationJobService;
+    
+    private final ConversationService conversationService;
+    
+    private final GenerationMetrics generationMetrics;
+    
+    private final ClientRateLimiter rateLimiter;
+    
+    private final AccessLog accessLog;
     
     /**
      * Generates text based on the provided prompt using AI.
@@ -75,7 +170,7 @@ public class TextGeneratorController {
      * and returns an AI-generated text response. It demonstrates the complete
      * request-response cycle in a Spring Boot REST API.
      * 
-     * TODO for students: Implement this method following these steps:
+     * Processing steps:
      * 
      * 1. REQUEST LOGGING
      *    - Log the incoming request (but not sensitive data)
@@ -88,7 +183,8 @@ public class TextGeneratorController {
      *    - Let exceptions propagate to GlobalExceptionHandler
      * 
      * 3. RESPONSE LOGGING
-     *    - Log successful response generation
+     *    - Record the outcome in the access log (one JSON line, written
+     *      off the request thread)
      *    - Include response metadata for monitoring
      *    - Don't log the full response content (too verbose)
      * 
@@ -109,7 +205,7 @@ public class TextGeneratorController {
      * Content-Type: application/json
      * {
      *   "response": "Spring Boot was first released in 2014...",
-     *   "timestamp": "2024-01-15T10:30:00",
+     *   "timestamp": 1705314600000,
      *   "model": "gpt-3.5-turbo"
      * }
      * 
@@ -117,34 +213,365 @@ public class TextGeneratorController {
      * - @Valid annotation triggers validation automatically
      * - Validation errors are handled by GlobalExceptionHandler
      * - Service exceptions are handled by GlobalExceptionHandler
-     * - No need for try-catch in this method
+     * - Rate limit rejections (ours or OpenAI's) become 429 in GlobalExceptionHandler
+     * - The try-catch here only records metrics and settles the rate limiter
      * 
      * @param request the text generation request (validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
      * @return ResponseEntity containing the generated text response
      */
     @PostMapping
-    public ResponseEntity<GenerateResponse> generateText(@Valid @RequestBody GenerateRequest request) {
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("generateText method not implemented yet");
+    public ResponseEntity<GenerateResponse> generateText(@Valid @RequestBody GenerateRequest request,
+                                                         HttpServletRequest httpRequest) {
+        log.debug("Received text generation request with prompt length: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0);
+        
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
+        
+        Timer.Sample sample = generationMetrics.start();
+        GenerateResponse response;
+        try {
+            response = textGeneratorService.generateText(request);
+        } catch (RuntimeException e) {
+            long elapsedNanos = generationMetrics.recordRequest(sample, "generate", request.getProfile(),
+                    null, e);
+            accessLog.record("generate", request, null, e, elapsedNanos);
+            rateLimiter.settleFailure(clientKey, request, e);
+            throw e;
+        }
+        rateLimiter.settle(clientKey, request, response);
+        long elapsedNanos = generationMetrics.recordRequest(sample, "generate", request.getProfile(),
+                response.getModel(), null);
+        accessLog.record("generate", request, response, null, elapsedNanos);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Streams generated text to the client as Server-Sent Events.
+     * 
+     * Tokens are pushed as soon as OpenAI produces them, so the client sees the
+     * first bytes after the model's first token instead of after the whole
+     * completion. Each GenerateStreamEvent is sent with its type as the SSE
+     * event name.
+     * 
+     * Validation errors are reported as a regular 400 JSON response before the
+     * stream starts. Once streaming has begun the status is already 200, so a
+     * failure is reported as a final "error" frame carrying a user-safe message.
+     * 
+     * Response Example:
+     * event:token
+     * data:{"type":"token","content":"Spring Boot"}
+     * 
+     * event:done
+     * data:{"type":"done","model":"gpt-3.5-turbo","tokensUsed":45}
+     * 
+     * @param request the text generation request (validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
+     * @return stream of SSE frames
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GenerateStreamEvent>> streamText(@Valid @RequestBody GenerateRequest request,
+                                                                  HttpServletRequest httpRequest) {
+        log.debug("Received streaming generation request with prompt length: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0);
+        
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
         
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
+        Timer.Sample sample = generationMetrics.start();
+        AtomicReference<GenerateStreamEvent> done = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger responseLength = new AtomicInteger();
+        Flux<GenerateStreamEvent> events;
+        try {
+            events = streamingTextGeneratorService.streamText(request);
+        } catch (RuntimeException e) {
+            long elapsedNanos = generationMetrics.recordRequest(sample, "generate.stream", request.getProfile(),
+                    null, e);
+            accessLog.record("generate.stream", request, null, e, elapsedNanos);
+            rateLimiter.settleFailure(clientKey, request, e);
+            throw e;
+        }
         
-        // Step 1: Log the incoming request
-        log.debug("Received text generation request with prompt length: {}", 
-                 request.getPrompt() != null ? request.getPrompt().length() : 0);
+        return events
+                .doOnNext(event -> {
+                    if (GenerateStreamEvent.TOKEN.equals(event.getType()) && event.getContent() != null) {
+                        responseLength.addAndGet(event.getContent().length());
+                    } else if (GenerateStreamEvent.DONE.equals(event.getType())) {
+                        done.set(event);
+                        rateLimiter.settleTokens(clientKey, request, event.getTokensUsed());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("Streamed text generation failed: {}", e.getMessage(), e);
+                    failure.set(e);
+                    rateLimiter.settleFailure(clientKey, request, e);
+                    return Flux.just(GenerateStreamEvent.error("Failed to generate text. Please try again later."));
+                })
+                .doFinally(signal -> {
+                    GenerateStreamEvent last = done.get();
+                    long elapsedNanos = generationMetrics.recordRequest(sample, "generate.stream", request.getProfile(),
+                            last != null ? last.getModel() : null, failure.get());
+                    accessLog.recordStream("generate.stream", request, last, responseLength.get(), failure.get(),
+                            elapsedNanos);
+                })
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+    }
+    
+    /**
+     * Generates text for many prompts in one call.
+     * 
+     * Items run concurrently (bounded by generator.batch.max-concurrency) and
+     * the response lists one result per request, in input order. A failing
+     * item is reported in its result with the same ErrorResponse body that
+     * POST /generate would have returned; the batch itself still returns 200.
+     * 
+     * Request Example:
+     * POST /generate/batch
+     * {
+     *   "requests": [ { "prompt": "Fun fact about Spring Boot" }, { "prompt": "" } ]
+     * }
+     * 
+     * Response Example:
+     * HTTP 200 OK
+     * {
+     *   "results": [
+     *     { "index": 0, "status": 200, "response": { "response": "...", ... } },
+     *     { "index": 1, "status": 400, "error": { "error": "Validation Error", ... } }
+     *   ],
+     *   "succeeded": 1,
+     *   "failed": 1
+     * }
+     * 
+     * @param request the batch request (list size validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
+     * @return ResponseEntity containing per-item results
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchGenerateResponse> generateBatch(@Valid @RequestBody BatchGenerateRequest request,
+                                                               HttpServletRequest httpRequest) {
+        log.debug("Received batch generation request with {} items", request.getRequests().size());
         
-        // Step 2: Call the service
-        GenerateResponse response = textGeneratorService.generateText(request);
+        List<GenerateRequest> requests = request.getRequests();
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, requests);
         
-        // Step 3: Log successful response
-        log.info("Successfully generated text response (length: {})", 
-                response.getResponse() != null ? response.getResponse().length() : 0);
+        Timer.Sample sample = generationMetrics.start();
+        BatchGenerateResponse response;
+        try {
+            response = batchTextGeneratorService.generateBatch(requests);
+        } catch (RuntimeException e) {
+            long elapsedNanos = generationMetrics.recordRequest(sample, "generate.batch", null, null, e);
+            requests.forEach(item -> {
+                accessLog.record("generate.batch", item, null, e, elapsedNanos);
+                rateLimiter.settleFailure(clientKey, item, e);
+            });
+            throw e;
+        }
+        long elapsedNanos = generationMetrics.recordRequest(sample, "generate.batch", null, null, null);
+        response.getResults().forEach(result -> {
+            GenerateRequest item = requests.get(result.getIndex());
+            accessLog.record("generate.batch", item, result, elapsedNanos);
+            rateLimiter.settle(clientKey, item, result);
+        });
         
-        // Step 4: Return the response
         return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Streams batch results as Server-Sent Events as soon as each item finishes.
+     * 
+     * Every request produces exactly one "item" frame, in completion order.
+     * The SSE id is the item's index in the submitted list, so clients can
+     * slot results into place as they arrive; the stream completes after the
+     * last item.
+     * 
+     * Response Example:
+     * id:1
+     * event:item
+     * data:{"index":1,"status":200,"response":{...}}
+     * 
+     * @param request the batch request (list size validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
+     * @return stream of per-item SSE frames
+     */
+    @PostMapping(value = "/batch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<BatchItemResult>> streamBatch(@Valid @RequestBody BatchGenerateRequest request,
+                                                              HttpServletRequest httpRequest) {
+        log.debug("Received streaming batch request with {} items", request.getRequests().size());
+        
+        List<GenerateRequest> requests = request.getRequests();
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, requests);
+        
+        long startNanos = System.nanoTime();
+        return batchTextGeneratorService.streamBatch(requests)
+                .doOnNext(result -> {
+                    GenerateRequest item = requests.get(result.getIndex());
+                    accessLog.record("generate.batch.stream", item, result, System.nanoTime() - startNanos);
+                    rateLimiter.settle(clientKey, item, result);
+                })
+                .map(result -> ServerSentEvent.builder(result)
+                        .id(String.valueOf(result.getIndex()))
+                        .event("item")
+                        .build());
+    }
+    
+    /**
+     * Queues a generation and returns at once.
+     * 
+     * Long generations otherwise hold a client connection (and a load
+     * balancer slot) for as long as the model takes. Here the client gets
+     * 202 Accepted with the job id and a Location header, then either polls
+     * GET /generate/jobs/{id} or waits for the finished job to be POSTed to
+     * its callbackUrl.
+     * 
+     * The job is rate limited like POST /generate when it is submitted, and
+     * the token charge is settled when it finishes. A full queue answers 503
+     * with Retry-After.
+     * 
+     * Request Example:
+     * POST /generate/jobs
+     * { "prompt": "Write a long story", "priority": "LOW", "callbackUrl": "https://example.com/hook" }
+     * 
+     * Response Example:
+     * HTTP 202 Accepted
+     * Location: /generate/jobs/0b6f...
+     * { "id": "0b6f...", "status": "QUEUED", "priority": "LOW", "callbackStatus": "PENDING", ... }
+     * 
+     * @param request the job request (validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
+     * @return ResponseEntity with the queued job
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<GenerateJobResponse> submitJob(@Valid @RequestBody GenerateJobRequest request,
+                                                         HttpServletRequest httpRequest) {
+        log.debug("Received generation job with prompt length: {}, priority: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0, request.getPriority());
+        
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
+        
+        GenerateJobResponse job;
+        try {
+            job = generationJobService.submit(request, finished -> {
+                accessLog.record("generate.jobs", request, finished);
+                rateLimiter.settle(clientKey, request, finished);
+            });
+        } catch (RuntimeException e) {
+            rateLimiter.settleFailure(clientKey, request, e);
+            throw e;
+        }
+        
+        return ResponseEntity.accepted()
+                .location(URI.create("/generate/jobs/" + job.getId()))
+                .body(job);
+    }
+    
+    /**
+     * Returns the current state of a generation job.
+     * 
+     * Finished jobs are kept for generator.jobs.ttl; after that, like an id
+     * that never existed, they answer 404.
+     * 
+     * @param id the job id returned by POST /generate/jobs
+     * @return ResponseEntity with the job
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<GenerateJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(generationJobService.find(id)
+                .orElseThrow(() -> new JobNotFoundException(id)));
+    }
+    
+    /**
+     * Starts a conversation session.
+     * 
+     * The client then sends each prompt to POST /generate/sessions/{id}
+     * and the server adds the earlier turns as context, instead of the
+     * client pasting the whole exchange into every prompt.
+     * 
+     * Response Example:
+     * HTTP 201 Created
+     * Location: /generate/sessions/5d1c...
+     * { "id": "5d1c...", "createdAt": "...", "lastActiveAt": "...", "historyTokens": 0, "turns": [] }
+     * 
+     * @return ResponseEntity with the new session
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<ConversationSessionResponse> createSession() {
+        ConversationSessionResponse session = conversationService.create();
+        return ResponseEntity.created(URI.create("/generate/sessions/" + session.getId())).body(session);
+    }
+    
+    /**
+     * Generates the next answer of a conversation session.
+     * 
+     * Rate limited and timed like POST /generate. Only the new prompt is
+     * limited to 2000 characters and the prompt token limit; the history is
+     * kept within generator.sessions.history-tokens by dropping old turns.
+     * Turns of one session run one at a time.
+     * 
+     * @param id the session id returned by POST /generate/sessions
+     * @param request the next prompt (validated automatically)
+     * @param httpRequest the servlet request, used to identify the client
+     * @return ResponseEntity containing the generated text response
+     */
+    @PostMapping("/sessions/{id}")
+    public ResponseEntity<GenerateResponse> continueSession(@PathVariable String id,
+                                                            @Valid @RequestBody GenerateRequest request,
+                                                            HttpServletRequest httpRequest) {
+        log.debug("Received conversation turn with prompt length: {}",
+                request.getPrompt() != null ? request.getPrompt().length() : 0);
+        
+        String clientKey = rateLimiter.resolveClientKey(httpRequest);
+        rateLimiter.acquire(clientKey, List.of(request));
         
-        */
+        Timer.Sample sample = generationMetrics.start();
+        GenerateResponse response;
+        try {
+            response = conversationService.send(id, request);
+        } catch (RuntimeException e) {
+            long elapsedNanos = generationMetrics.recordRequest(sample, "generate.session", request.getProfile(),
+                    null, e);
+            accessLog.record("generate.session", request, null, e, elapsedNanos);
+            rateLimiter.settleFailure(clientKey, request, e);
+            throw e;
+        }
+        rateLimiter.settle(clientKey, request, response);
+        long elapsedNanos = generationMetrics.recordRequest(sample, "generate.session", request.getProfile(),
+                response.getModel(), null);
+        accessLog.record("generate.session", request, response, null, elapsedNanos);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Returns a conversation session and the history its next turn will be
+     * sent with.
+     * 
+     * @param id the session id
+     * @return ResponseEntity with the session
+     */
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<ConversationSessionResponse> getSession(@PathVariable String id) {
+        return ResponseEntity.ok(conversationService.find(id)
+                .orElseThrow(() -> new SessionNotFoundException(id)));
+    }
+    
+    /**
+     * Ends a conversation session and drops its history.
+     * 
+     * @param id the session id
+     * @return 204 No Content
+     */
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<Void> deleteSession(@PathVariable String id) {
+        if (!conversationService.delete(id)) {
+            throw new SessionNotFoundException(id);
+        }
+        return ResponseEntity.noContent().build();
     }
     
     // TODO for students: Consider adding additional endpoints as your application grows
@@ -0,0 +1,45 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request DTO for the batch generation endpoint.
+ *
+ * Carries many GenerateRequest items in one HTTP call to POST /generate/batch.
+ * Only the list itself is validated here; each item is validated on its own
+ * when it is processed, so one bad prompt produces a per-item error instead
+ * of rejecting the whole batch.
+ *
+ * Validation Rules:
+ * - requests: Required, between 1 and 500 items
+ *
+ * Example JSON:
+ * {
+ *   "requests": [
+ *     { "prompt": "Tell me a fun fact about Spring Boot" },
+ *     { "prompt": "When was Java 21 released?" }
+ *   ]
+ * }
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see BatchGenerateResponse
+ */
+@Data
+public class BatchGenerateRequest {
+
+    /**
+     * The generation requests, processed concurrently.
+     *
+     * Why a maximum of 500?
+     * - Bounds how long one HTTP call can occupy the service
+     * - Keeps the collected response at a reasonable size
+     */
+    @NotEmpty(message = "Batch must contain at least one request")
+    @Size(max = 500, message = "Batch must not contain more than 500 requests")
+    private List<GenerateRequest> requests;
+}
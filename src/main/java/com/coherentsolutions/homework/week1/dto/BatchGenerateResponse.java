@@ -0,0 +1,66 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for the batch generation endpoint.
+ *
+ * Results are listed in the same order as the submitted requests, whether
+ * they succeeded or failed, so results.get(i) always answers requests.get(i).
+ *
+ * Example JSON:
+ * {
+ *   "results": [
+ *     { "index": 0, "status": 200, "response": { "response": "...", ... } },
+ *     { "index": 1, "status": 400, "error": { "error": "Validation Error", ... } }
+ *   ],
+ *   "succeeded": 1,
+ *   "failed": 1
+ * }
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see BatchGenerateRequest
+ * @see BatchItemResult
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGenerateResponse {
+
+    /**
+     * Per-item results in input order.
+     */
+    private List<BatchItemResult> results;
+
+    /**
+     * Number of items that produced a response.
+     */
+    private int succeeded;
+
+    /**
+     * Number of items that failed.
+     */
+    private int failed;
+
+    /**
+     * Creates a response from results that are already in input order.
+     *
+     * @param results per-item results in input order
+     * @return batch response with success and failure counts
+     */
+    public static BatchGenerateResponse of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::isSuccess).count();
+        return BatchGenerateResponse.builder()
+                .results(results)
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .build();
+    }
+}
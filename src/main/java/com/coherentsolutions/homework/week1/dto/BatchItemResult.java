@@ -0,0 +1,84 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item of a batch generation.
+ *
+ * Exactly one of response or error is set. The status mirrors the HTTP status
+ * the item would have received from POST /generate, so clients can handle
+ * batch items with the same logic as single calls.
+ *
+ * Example JSON:
+ * { "index": 0, "status": 200, "response": { "response": "...", "model": "gpt-3.5-turbo", ... } }
+ * { "index": 1, "status": 400, "error": { "error": "Validation Error", ... } }
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see BatchGenerateResponse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    /**
+     * Position of the item in the submitted request list (zero-based).
+     */
+    private int index;
+
+    /**
+     * HTTP-equivalent status of the item: 200, 400 or 500.
+     */
+    private int status;
+
+    /**
+     * Generated text, for successful items.
+     */
+    private GenerateResponse response;
+
+    /**
+     * Error details, for failed items.
+     */
+    private ErrorResponse error;
+
+    /**
+     * Creates the result of a successful item.
+     *
+     * @param index position of the item in the batch
+     * @param response the generated response
+     * @return successful item result
+     */
+    public static BatchItemResult success(int index, GenerateResponse response) {
+        return BatchItemResult.builder().index(index).status(200).response(response).build();
+    }
+
+    /**
+     * Creates the result of a failed item.
+     *
+     * @param index position of the item in the batch
+     * @param status HTTP-equivalent status of the failure
+     * @param error the error details
+     * @return failed item result
+     */
+    public static BatchItemResult failure(int index, int status, ErrorResponse error) {
+        return BatchItemResult.builder().index(index).status(status).error(error).build();
+    }
+
+    /**
+     * Whether the item produced a response.
+     *
+     * @return true if the item succeeded
+     */
+    @JsonIgnore
+    public boolean isSuccess() {
+        return response != null;
+    }
+}
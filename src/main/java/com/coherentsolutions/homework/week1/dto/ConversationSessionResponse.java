@@ -0,0 +1,62 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of a conversation session, as returned by POST /generate/sessions
+ * and GET /generate/sessions/{id}.
+ *
+ * turns holds the history the next turn will be sent with, oldest first;
+ * turns dropped to stay within the token budget are no longer listed.
+ *
+ * Example JSON:
+ * {
+ *   "id": "5d1c...", "createdAt": "2024-01-15T10:30:00", "lastActiveAt": "2024-01-15T10:31:12",
+ *   "historyTokens": 57,
+ *   "turns": [ { "prompt": "Name a Java web framework", "response": "Spring Boot." } ]
+ * }
+ *
+ * @author Student Name
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSessionResponse {
+
+    /**
+     * Opaque session id; random, so it also serves as the capability to use the session.
+     */
+    private String id;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime lastActiveAt;
+
+    /**
+     * Tokens the history adds to the next prompt.
+     */
+    private int historyTokens;
+
+    private List<Turn> turns;
+
+    /**
+     * One prompt and the answer it got.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Turn {
+
+        private String prompt;
+
+        private String response;
+    }
+}
@@ -1,11 +1,12 @@
 package com.coherentsolutions.homework.week1.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,7 +26,7 @@ import java.util.List;
  *   "error": "Validation Failed",
  *   "message": "The provided prompt is invalid",
  *   "details": ["Prompt cannot be empty", "Prompt must be at least 1 character"],
- *   "timestamp": "2024-01-15T10:30:00",
+ *   "timestamp": "2024-01-15T10:30:00.123",
  *   "path": "/generate"
  * }
  * 
@@ -45,6 +46,11 @@ import java.util.List;
 @AllArgsConstructor
 public class ErrorResponse {
     
+    /**
+     * Error of rejections by a tenant's token budget (402 or 429).
+     */
+    public static final String BUDGET_EXCEEDED = "Token Budget Exceeded";
+    
     /**
      * High-level error category.
      * Examples: "Validation Error", "API Error", "Internal Server Error"
@@ -67,11 +73,15 @@ public class ErrorResponse {
     private List<String> details;
     
     /**
-     * Timestamp when the error occurred.
+     * When the error occurred, in milliseconds since the epoch (UTC), the
+     * same representation as GenerateResponse.timestamp (an ISO local
+     * date-time on the wire).
      * Useful for debugging and correlating with server logs.
      */
     @Builder.Default
-    private LocalDateTime timestamp = LocalDateTime.now();
+    @JsonSerialize(using = IsoTimestamp.Serializer.class)
+    @JsonDeserialize(using = IsoTimestamp.Deserializer.class)
+    private long timestamp = System.currentTimeMillis();
     
     /**
      * The API path where the error occurred.
@@ -103,7 +113,7 @@ public class ErrorResponse {
         return ErrorResponse.builder()
                 .error(error)
                 .message(message)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
     
@@ -119,7 +129,7 @@ public class ErrorResponse {
                 .error("Validation Error")
                 .message(message)
                 .details(details)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
     
@@ -135,7 +145,7 @@ public class ErrorResponse {
                 .error("API Error")
                 .message(message)
                 .path(path)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
     
@@ -151,7 +161,75 @@ public class ErrorResponse {
                 .error("Internal Server Error")
                 .message("An unexpected error occurred. Please try again later.")
                 .path(path)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    /**
+     * Creates an error response for requests rejected by a rate limit.
+     * 
+     * @param message the error message, including when to retry
+     * @param path the request path where error occurred
+     * @return ErrorResponse formatted for rate limit errors
+     */
+    public static ErrorResponse rateLimited(String message, String path) {
+        return ErrorResponse.builder()
+                .error("Rate Limit Exceeded")
+                .message(message)
+                .path(path)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    /**
+     * Creates an error response for calls rejected because the tenant's
+     * token budget is used up. Kept apart from rateLimited so clients can
+     * tell a spent budget from a short-term limit.
+     * 
+     * @param message the error message, including which budget and when it resets
+     * @param path the request path where error occurred
+     * @return ErrorResponse formatted for budget errors
+     */
+    public static ErrorResponse budgetExceeded(String message, String path) {
+        return ErrorResponse.builder()
+                .error(BUDGET_EXCEEDED)
+                .message(message)
+                .path(path)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    /**
+     * Creates an error response for calls rejected because the model
+     * provider is currently unavailable.
+     * 
+     * @param message the error message, including when to retry
+     * @param path the request path where error occurred
+     * @return ErrorResponse formatted for service unavailable errors
+     */
+    public static ErrorResponse serviceUnavailable(String message, String path) {
+        return ErrorResponse.builder()
+                .error("Service Unavailable")
+                .message(message)
+                .path(path)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+    
+    /**
+     * Creates an error response for a resource that does not exist (or no
+     * longer exists).
+     * 
+     * @param message the error message
+     * @param path the request path where error occurred
+     * @return ErrorResponse formatted for not found errors
+     */
+    public static ErrorResponse notFound(String message, String path) {
+        return ErrorResponse.builder()
+                .error("Not Found")
+                .message(message)
+                .path(path)
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Request DTO for POST /generate/jobs.
+ *
+ * Same prompt (and validation) as POST /generate, plus how the job should
+ * be scheduled and where its result should be sent.
+ *
+ * Example JSON:
+ * {
+ *   "prompt": "Write a long story about Spring Boot",
+ *   "priority": "LOW",
+ *   "callbackUrl": "https://example.com/hooks/generation"
+ * }
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.controller.TextGeneratorController
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class GenerateJobRequest extends GenerateRequest {
+
+    /**
+     * Optional URL that receives the finished job (the same JSON as
+     * GET /generate/jobs/{id}) as a POST. Only http and https are allowed,
+     * and only hosts permitted by generator.jobs.callback (checked by the
+     * job service, since it needs DNS).
+     */
+    @Size(max = 2000, message = "Callback URL must be at most 2000 characters")
+    @Pattern(regexp = "^https?://\\S+$", message = "Callback URL must be an absolute http or https URL")
+    private String callbackUrl;
+
+    /**
+     * Scheduling priority; NORMAL when omitted.
+     */
+    private JobPriority priority = JobPriority.NORMAL;
+}
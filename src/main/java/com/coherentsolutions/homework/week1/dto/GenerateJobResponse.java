@@ -0,0 +1,85 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous generation job, as returned by POST /generate/jobs,
+ * GET /generate/jobs/{id} and sent to the callback URL.
+ *
+ * A job moves QUEUED -> RUNNING -> SUCCEEDED or FAILED. Once finished,
+ * exactly one of response or error is set; like BatchItemResult, httpStatus
+ * is the status POST /generate would have answered with.
+ *
+ * Example JSON:
+ * {
+ *   "id": "0b6f...", "status": "SUCCEEDED", "priority": "NORMAL",
+ *   "submittedAt": "2024-01-15T10:30:00", "startedAt": "...", "completedAt": "...",
+ *   "httpStatus": 200, "response": { "response": "...", "model": "gpt-3.5-turbo", ... }
+ * }
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerateJobRequest
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerateJobResponse {
+
+    /**
+     * Lifecycle of a job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    /**
+     * Delivery state of the callback, for jobs that have a callback URL.
+     */
+    public enum CallbackStatus {
+        PENDING, DELIVERED, FAILED
+    }
+
+    /**
+     * Opaque job id; random, so it also serves as the capability to read the job.
+     */
+    private String id;
+
+    private Status status;
+
+    private JobPriority priority;
+
+    private LocalDateTime submittedAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    /**
+     * HTTP-equivalent status of the finished job: 200, 429, 500 or 503.
+     */
+    private Integer httpStatus;
+
+    /**
+     * Generated text, for succeeded jobs.
+     */
+    private GenerateResponse response;
+
+    /**
+     * Error details, for failed jobs.
+     */
+    private ErrorResponse error;
+
+    /**
+     * Webhook delivery state; absent when no callback URL was given.
+     */
+    private CallbackStatus callbackStatus;
+}
@@ -14,6 +14,7 @@ import lombok.Data;
  * 
  * Validation Rules:
  * - prompt: Required, non-empty, with reasonable length limits
+ * - profile: Optional generation profile name, at most 64 characters
  * 
  * Educational Notes:
  * - Uses Bean Validation (JSR-303) annotations for input validation
@@ -22,7 +23,8 @@ import lombok.Data;
  * 
  * Example JSON:
  * {
- *   "prompt": "Tell me a fun fact about Spring Boot"
+ *   "prompt": "Tell me a fun fact about Spring Boot",
+ *   "profile": "precise"
  * }
  * 
  * @author Student Name
@@ -50,6 +52,16 @@ public class GenerateRequest {
     @Size(min = 1, max = 2000, message = "Prompt must be between 1 and 2000 characters")
     private String prompt;
     
+    /**
+     * Name of the generation profile to use (optional).
+     * 
+     * A profile fixes the system prompt, model, temperature and max-tokens
+     * (see generator.profiles in application.yml). Omitted, the default
+     * profile is used; an unknown name is rejected with 400.
+     */
+    @Size(max = 64, message = "Profile must be at most 64 characters")
+    private String profile;
+    
     // TODO for students: Consider adding optional parameters
     // Examples you might want to add:
     // - maxTokens: Allow users to specify response length
@@ -1,12 +1,12 @@
 package com.coherentsolutions.homework.week1.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
 /**
  * Response DTO for text generation endpoint.
  * 
@@ -22,14 +22,19 @@ import java.time.LocalDateTime;
  * Example JSON Response:
  * {
  *   "response": "Spring Boot was first released in 2014 and revolutionized Java development...",
- *   "timestamp": "2024-01-15T10:30:00",
- *   "model": "gpt-3.5-turbo",
- *   "tokensUsed": 45
+ *   "timestamp": "2024-01-15T10:30:00.123",
+ *   "model": "gpt-3.5-turbo-0125",
+ *   "tokensUsed": 45,
+ *   "promptTokens": 18,
+ *   "completionTokens": 27,
+ *   "finishReason": "STOP"
  * }
  * 
  * Educational Notes:
  * - Including metadata helps with debugging and monitoring
  * - Timestamp allows tracking of response times
+ * - The same object is written as JSON, CBOR or Smile, depending on the
+ *   client's Accept header; the binary formats leave null fields out
  * - Model information helps identify which AI model generated the response
  * - Token usage helps with cost tracking and optimization
  * 
@@ -38,7 +43,7 @@ import java.time.LocalDateTime;
  * @see GenerateRequest
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class GenerateResponse {
@@ -50,15 +55,21 @@ public class GenerateResponse {
     private String response;
     
     /**
-     * Timestamp when the response was generated.
+     * When the response was generated, in milliseconds since the epoch (UTC).
      * Useful for debugging, logging, and client-side caching decisions.
+     * 
+     * A plain long is cheaper to take than a LocalDateTime (no time zone
+     * lookup, no object). On the wire it is still an ISO local date-time,
+     * like every other timestamp of the API (see IsoTimestamp).
      */
     @Builder.Default
-    private LocalDateTime timestamp = LocalDateTime.now();
+    @JsonSerialize(using = IsoTimestamp.Serializer.class)
+    @JsonDeserialize(using = IsoTimestamp.Deserializer.class)
+    private long timestamp = System.currentTimeMillis();
     
     /**
-     * The AI model used to generate the response.
-     * Examples: "gpt-3.5-turbo", "gpt-4", etc.
+     * The AI model used to generate the response, as reported by the provider.
+     * Examples: "gpt-3.5-turbo-0125", "gpt-4o-mini-2024-07-18", etc.
      * Helps with debugging and understanding response characteristics.
      */
     private String model;
@@ -72,6 +83,32 @@ public class GenerateResponse {
      */
     private Integer tokensUsed;
     
+    /**
+     * Tokens in the prompt (system and user messages), when reported.
+     * Prompt and completion tokens are usually billed at different rates.
+     */
+    private Integer promptTokens;
+    
+    /**
+     * Tokens in the generated text, when reported.
+     */
+    private Integer completionTokens;
+    
+    /**
+     * Why the model stopped generating, when reported.
+     * "STOP" is a natural end; "LENGTH" means the answer was cut off by
+     * the max-tokens limit.
+     */
+    private String finishReason;
+    
+    /**
+     * Whether this response was served from the response cache, or shared
+     * with an identical in-flight request, instead of a fresh model call.
+     * Cached responses keep the timestamp of the original generation.
+     */
+    @Builder.Default
+    private boolean cached = false;
+    
     // TODO for students: Consider adding additional metadata
     // Examples you might want to include:
     // - requestId: Unique identifier for tracing requests
@@ -95,7 +132,7 @@ public class GenerateResponse {
     public static GenerateResponse simple(String response) {
         return GenerateResponse.builder()
                 .response(response)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
     
@@ -110,7 +147,7 @@ public class GenerateResponse {
         return GenerateResponse.builder()
                 .response(response)
                 .model(model)
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single frame of a streamed text generation.
+ *
+ * The POST /generate/stream endpoint emits these as Server-Sent Events, using
+ * the type as the SSE event name. A stream is zero or more "token" frames
+ * followed by exactly one "done" or "error" frame.
+ *
+ * Example stream:
+ * event:token
+ * data:{"type":"token","content":"Spring Boot was"}
+ *
+ * event:token
+ * data:{"type":"token","content":" first released in 2014"}
+ *
+ * event:done
+ * data:{"type":"done","model":"gpt-3.5-turbo-0125","tokensUsed":45,"promptTokens":18,"completionTokens":27,"finishReason":"STOP"}
+ *
+ * Fields that do not apply to a frame type are omitted from the JSON.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerateResponse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerateStreamEvent {
+
+    /**
+     * Frame type for a chunk of generated text.
+     */
+    public static final String TOKEN = "token";
+
+    /**
+     * Frame type for the final frame of a successful generation.
+     */
+    public static final String DONE = "done";
+
+    /**
+     * Frame type for the final frame of a failed generation.
+     */
+    public static final String ERROR = "error";
+
+    /**
+     * Frame type: "token", "done" or "error".
+     */
+    private String type;
+
+    /**
+     * Generated text of a "token" frame.
+     */
+    private String content;
+
+    /**
+     * Model that generated the stream ("done" frames only).
+     */
+    private String model;
+
+    /**
+     * Total tokens used by the generation, when the provider reports it
+     * ("done" frames only).
+     */
+    private Integer tokensUsed;
+
+    /**
+     * Prompt tokens, when the provider reports usage ("done" frames only).
+     */
+    private Integer promptTokens;
+
+    /**
+     * Completion tokens, when the provider reports usage ("done" frames only).
+     */
+    private Integer completionTokens;
+
+    /**
+     * Why the model stopped generating, when reported ("done" frames only).
+     */
+    private String finishReason;
+
+    /**
+     * User-safe error description ("error" frames only).
+     */
+    private String message;
+
+    /**
+     * Creates a frame carrying a chunk of generated text.
+     *
+     * @param content the text chunk
+     * @return token frame
+     */
+    public static GenerateStreamEvent token(String content) {
+        return GenerateStreamEvent.builder().type(TOKEN).content(content).build();
+    }
+
+    /**
+     * Creates the closing frame of a successful stream.
+     *
+     * @param model the model that generated the text
+     * @param tokensUsed total tokens used, or null if unknown
+     * @return done frame
+     */
+    public static GenerateStreamEvent done(String model, Integer tokensUsed) {
+        return GenerateStreamEvent.builder().type(DONE).model(model).tokensUsed(tokensUsed).build();
+    }
+
+    /**
+     * Creates the closing frame of a successful stream with full usage details.
+     *
+     * @param model the model that generated the text
+     * @param promptTokens prompt tokens, or null if unknown
+     * @param completionTokens completion tokens, or null if unknown
+     * @param tokensUsed total tokens used, or null if unknown
+     * @param finishReason why the model stopped, or null if unknown
+     * @return done frame
+     */
+    public static GenerateStreamEvent done(String model, Integer promptTokens, Integer completionTokens,
+                                           Integer tokensUsed, String finishReason) {
+        return GenerateStreamEvent.builder()
+                .type(DONE)
+                .model(model)
+                .promptTokens(promptTokens)
+                .completionTokens(completionTokens)
+                .tokensUsed(tokensUsed)
+                .finishReason(finishReason)
+                .build();
+    }
+
+    /**
+     * Creates the closing frame of a failed stream.
+     *
+     * @param message user-safe error message
+     * @return error frame
+     */
+    public static GenerateStreamEvent error(String message) {
+        return GenerateStreamEvent.builder().type(ERROR).message(message).build();
+    }
+}
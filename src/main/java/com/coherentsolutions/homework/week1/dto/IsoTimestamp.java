@@ -0,0 +1,96 @@
+package com.coherentsolutions.homework.week1.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Wire form of the epoch-millis timestamps of GenerateResponse and
+ * ErrorResponse.
+ *
+ * Both DTOs keep their timestamp as a long, which is cheaper to take than
+ * a LocalDateTime (no time zone lookup, no object). Clients, however, have
+ * always received an ISO local date-time such as "2024-01-15T10:30:00.123",
+ * and GenerateJobResponse and ConversationSessionResponse still write their
+ * LocalDateTime fields that way. The serializer converts the long at write
+ * time, in the server's time zone, so every DTO shows the same format in
+ * JSON, CBOR and Smile.
+ *
+ * The deserializer reads that string back, and also a plain number, as
+ * written by disk cache records of earlier versions.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerateResponse
+ * @see ErrorResponse
+ */
+public final class IsoTimestamp {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private IsoTimestamp() {
+    }
+
+    /**
+     * Formats epoch millis as an ISO local date-time in the server's zone.
+     *
+     * @param epochMillis milliseconds since the epoch
+     * @return e.g. "2024-01-15T10:30:00.123"
+     */
+    public static String format(long epochMillis) {
+        return FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Parses an ISO local date-time in the server's zone.
+     *
+     * @param text e.g. "2024-01-15T10:30:00.123"
+     * @return milliseconds since the epoch
+     */
+    public static long parse(String text) {
+        return LocalDateTime.parse(text, FORMAT).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Writes an epoch-millis long as an ISO local date-time string.
+     */
+    public static class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(format(value));
+        }
+    }
+
+    /**
+     * Reads an ISO local date-time string, or epoch millis, as a long.
+     */
+    public static class Deserializer extends StdDeserializer<Long> {
+
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return parser.getLongValue();
+            }
+            return parse(parser.getValueAsString());
+        }
+    }
+}
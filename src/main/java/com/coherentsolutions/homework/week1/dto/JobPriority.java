@@ -0,0 +1,21 @@
+package com.coherentsolutions.homework.week1.dto;
+
+/**
+ * Scheduling priority of an asynchronous generation job.
+ *
+ * Workers always take the highest-priority waiting job; jobs of the same
+ * priority run in submission order. Priorities are not preemptive: a
+ * running LOW job is never interrupted.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerateJobRequest
+ */
+public enum JobPriority {
+
+    HIGH,
+
+    NORMAL,
+
+    LOW
+}
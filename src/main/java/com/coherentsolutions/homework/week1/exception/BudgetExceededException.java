@@ -0,0 +1,89 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import com.coherentsolutions.homework.week1.service.budget.BudgetWindow;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Thrown when a tenant has used up its token budget for a window, before
+ * the model is called.
+ *
+ * Which status the client gets depends on the window
+ * (GlobalExceptionHandler):
+ * - hourly or daily budget -> 429 Too Many Requests with Retry-After; the
+ *   budget is back within a day, so waiting is a valid answer
+ * - monthly budget -> 402 Payment Required; waiting for the next month is
+ *   rarely an option, someone has to raise the team's budget
+ * Both use the error "Token Budget Exceeded", so clients can tell them
+ * apart from the per-client rate limit.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.budget.TokenBudgets
+ */
+@Getter
+public class BudgetExceededException extends RetryableGenerationException {
+
+    /**
+     * The tenant whose budget is used up.
+     */
+    private final String tenant;
+
+    /**
+     * The window whose budget is used up.
+     */
+    private final BudgetWindow window;
+
+    /**
+     * The tenant's token limit for the window.
+     */
+    private final long limit;
+
+    /**
+     * Tokens the tenant used in the window so far.
+     */
+    private final long used;
+
+    /**
+     * When the window ends and the budget is available again.
+     */
+    private final Instant resetsAt;
+
+    public BudgetExceededException(String tenant, BudgetWindow window, long limit, long used, Instant resetsAt,
+                                   Duration retryAfter) {
+        super(String.format("Tenant '%s' used %d of %d tokens for this %s", tenant, used, limit,
+                window.name().toLowerCase()), retryAfter);
+        this.tenant = tenant;
+        this.window = window;
+        this.limit = limit;
+        this.used = used;
+        this.resetsAt = resetsAt;
+    }
+
+    /**
+     * HTTP status for the rejection: 402 for the monthly budget, 429 otherwise.
+     *
+     * @return the status code
+     */
+    public int getStatus() {
+        return window == BudgetWindow.MONTH ? 402 : 429;
+    }
+
+    /**
+     * User-safe message for the error response. Tells the tenant which
+     * budget is used up and when it resets, not what other tenants spend.
+     *
+     * @return message for the client
+     */
+    @Override
+    public String getClientMessage() {
+        return window == BudgetWindow.MONTH
+                ? String.format("Monthly token budget of tenant '%s' is used up (%d of %d tokens). It resets at %s.",
+                        tenant, used, limit, resetsAt)
+                : String.format("%s token budget of tenant '%s' is used up (%d of %d tokens). Retry after %d seconds.",
+                        window == BudgetWindow.HOUR ? "Hourly" : "Daily", tenant, used, limit,
+                        getRetryAfterSeconds());
+    }
+}
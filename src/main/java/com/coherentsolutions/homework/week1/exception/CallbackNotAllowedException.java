@@ -0,0 +1,46 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a job's callback URL points at a host the server must not
+ * call: one outside generator.jobs.callback.allowed-hosts, or, without an
+ * allow-list, one that resolves to a loopback, private or link-local
+ * address.
+ *
+ * Without this check any client could make the server POST job results to
+ * its own actuator or to a cloud metadata service. GlobalExceptionHandler
+ * answers 400 Bad Request, like any other invalid field.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.QueuedGenerationJobService
+ */
+@Getter
+public class CallbackNotAllowedException extends TextGenerationException {
+
+    /**
+     * Why the URL was refused, safe to show to the client.
+     */
+    private final String reason;
+
+    /**
+     * Creates the exception.
+     *
+     * @param callbackUrl the refused URL
+     * @param reason why it was refused
+     */
+    public CallbackNotAllowedException(String callbackUrl, String reason) {
+        super("Callback URL not allowed: " + callbackUrl + " (" + reason + ")");
+        this.reason = reason;
+    }
+
+    /**
+     * User-safe message for the error response.
+     *
+     * @return message explaining the refusal
+     */
+    public String getClientMessage() {
+        return "Callback URL is not allowed: " + reason + ".";
+    }
+}
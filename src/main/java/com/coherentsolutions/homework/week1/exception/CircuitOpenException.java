@@ -0,0 +1,41 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a model call is rejected without being attempted because the
+ * circuit breaker is open.
+ *
+ * The circuit opens after OpenAI failed or timed out on too many recent
+ * calls. Failing immediately keeps request threads from queueing behind an
+ * upstream that is not answering; GlobalExceptionHandler turns this into
+ * 503 Service Unavailable with a Retry-After header.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ * @see com.coherentsolutions.homework.week1.service.resilience.CircuitBreaker
+ */
+public class CircuitOpenException extends RetryableGenerationException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the detail message
+     * @param retryAfter time until the circuit half-opens
+     */
+    public CircuitOpenException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+
+    /**
+     * User-safe message for the error response.
+     *
+     * @return message telling the client when to retry
+     */
+    @Override
+    public String getClientMessage() {
+        return String.format("The model provider is currently unavailable. Retry after %d seconds.",
+                getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,75 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+
+import java.util.List;
+
+/**
+ * The HTTP-equivalent status and error body of a failed generation.
+ *
+ * Work that runs outside the request that started it (batch items, async
+ * jobs) cannot throw to GlobalExceptionHandler, so it reports failures as
+ * data instead. This mapping keeps those bodies identical to what
+ * POST /generate would have returned:
+ * - RateLimitExceededException -> 429 Rate Limit Exceeded
+ * - BudgetExceededException -> 429 (hour, day) or 402 (month) Token Budget Exceeded
+ * - CircuitOpenException, ServiceOverloadedException -> 503 Service Unavailable
+ * - PromptTooLongException, UnknownProfileException -> 400 Validation Error
+ * - TextGenerationException -> 500 API Error
+ * - anything else -> 500 Internal Server Error
+ *
+ * @param status HTTP-equivalent status code
+ * @param error user-safe error body, without a path
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ */
+public record GenerationFailure(int status, ErrorResponse error) {
+
+    /**
+     * Maps an exception from the generation pipeline.
+     *
+     * @param e the failure
+     * @return status and body for the failure
+     */
+    public static GenerationFailure of(RuntimeException e) {
+        if (e instanceof RateLimitExceededException rateLimited) {
+            return new GenerationFailure(429, ErrorResponse.rateLimited(rateLimited.getClientMessage(), null));
+        }
+        if (e instanceof BudgetExceededException budgetExceeded) {
+            return new GenerationFailure(budgetExceeded.getStatus(),
+                    ErrorResponse.budgetExceeded(budgetExceeded.getClientMessage(), null));
+        }
+        if (e instanceof CircuitOpenException circuitOpen) {
+            return new GenerationFailure(503, ErrorResponse.serviceUnavailable(circuitOpen.getClientMessage(), null));
+        }
+        if (e instanceof ServiceOverloadedException overloaded) {
+            return new GenerationFailure(503, ErrorResponse.serviceUnavailable(overloaded.getClientMessage(), null));
+        }
+        if (e instanceof PromptTooLongException tooLong) {
+            return new GenerationFailure(400, ErrorResponse.validation(
+                    "Request validation failed. Please check your input.",
+                    List.of("prompt: " + tooLong.getClientMessage())));
+        }
+        if (e instanceof UnknownProfileException unknownProfile) {
+            return new GenerationFailure(400, ErrorResponse.validation(
+                    "Request validation failed. Please check your input.",
+                    List.of("profile: " + unknownProfile.getClientMessage())));
+        }
+        if (e instanceof TextGenerationException) {
+            return new GenerationFailure(500, ErrorResponse.apiError(
+                    "Failed to generate text. Please try again later.", null));
+        }
+        return new GenerationFailure(500, ErrorResponse.internalError(null));
+    }
+
+    /**
+     * Whether the failure is expected under load (rate limit, open circuit,
+     * full queue, spent budget) rather than an error worth a stack trace.
+     *
+     * @return true for 402, 429 and 503
+     */
+    public boolean isTransient() {
+        return status == 402 || status == 429 || status == 503;
+    }
+}
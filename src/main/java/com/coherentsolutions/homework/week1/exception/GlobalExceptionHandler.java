@@ -2,9 +2,14 @@ package com.coherentsolutions.homework.week1.exception;
 
 import com.coherentsolutions.homework.week1.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -22,6 +27,16 @@ import java.util.List;
  * 
  * Exception Handling Strategy:
  * - Business exceptions (TextGenerationException) -> 400 Bad Request or 500 Internal Server Error
+ * - Rate limits (RateLimitExceededException, ours or OpenAI's) -> 429 Too Many Requests with Retry-After
+ * - Spent tenant token budget (BudgetExceededException) -> 429 with Retry-After (hour, day)
+ *   or 402 Payment Required (month)
+ * - Open circuit breaker (CircuitOpenException) -> 503 Service Unavailable with Retry-After
+ * - Full job queue or no upstream slot in time (ServiceOverloadedException) -> 503 Service Unavailable with Retry-After
+ * - Unknown or expired job id (JobNotFoundException) -> 404 Not Found
+ * - Unknown or expired conversation session (SessionNotFoundException) -> 404 Not Found
+ * - Too many prompt tokens (PromptTooLongException) -> 400 Bad Request with the count and limit
+ * - Unknown generation profile (UnknownProfileException) -> 400 Bad Request naming the configured profiles
+ * - Refused job callback URL (CallbackNotAllowedException) -> 400 Bad Request
  * - Validation exceptions -> 400 Bad Request with detailed field errors
  * - Unexpected exceptions -> 500 Internal Server Error with generic message
  * 
@@ -36,7 +51,8 @@ import java.util.List;
  * - Illustrates logging best practices for errors
  * - Teaches security-conscious error message design
  * 
- * TODO for students: Complete the exception handling methods
+ * Servlet stack only; with the "reactive" profile ReactiveExceptionHandler
+ * applies the same mapping to the WebFlux controller.
  * 
  * @author Student Name
  * @version 1.0
@@ -44,13 +60,14 @@ import java.util.List;
  * @see TextGenerationException
  */
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class GlobalExceptionHandler {
     
     /**
      * Handles TextGenerationException thrown by the service layer.
      * 
-     * TODO for students: Implement this method following these guidelines:
+     * Handling guidelines:
      * 
      * 1. LOG THE ERROR
      *    - Use appropriate log level (error for unexpected, warn for expected)
@@ -79,31 +96,256 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleTextGenerationException(
             TextGenerationException ex, WebRequest request) {
         
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("handleTextGenerationException not implemented yet");
-        
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
-        
-        // Log the error for debugging
         log.error("Text generation failed: {}", ex.getMessage(), ex);
         
-        // Create user-friendly error response
         ErrorResponse errorResponse = ErrorResponse.apiError(
-            "Failed to generate text. Please try again later.",
-            request.getDescription(false)
+                "Failed to generate text. Please try again later.",
+                request.getDescription(false)
         );
         
-        // Return with appropriate HTTP status
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    
+    /**
+     * Handles requests rejected by a rate limit, either the client's own
+     * allowance (ClientRateLimiter) or OpenAI's limit for the whole account.
+     * 
+     * Answers 429 Too Many Requests with a Retry-After header in seconds, so
+     * well-behaved clients back off instead of retrying immediately. Being
+     * rate limited is expected under load, so it is logged at warn level
+     * without a stack trace.
+     * 
+     * @param ex the rate limit exception
+     * @param request the web request context
+     * @return ResponseEntity with error details, Retry-After and 429 status
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(
+            RateLimitExceededException ex, WebRequest request) {
+        
+        log.warn("Request rate limited ({}): {}", ex.isUpstream() ? "upstream" : "client", ex.getMessage());
         
-        */
+        ErrorResponse errorResponse = ErrorResponse.rateLimited(
+                ex.getClientMessage(),
+                request.getDescription(false)
+        );
+        
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex, errorResponse);
+    }
+    
+    /**
+     * Handles calls rejected because the tenant's token budget is used up.
+     * 
+     * An hourly or daily budget comes back on its own, so that rejection is
+     * a 429 with Retry-After until the window ends, like a rate limit. A
+     * spent monthly budget needs someone to raise it rather than a retry,
+     * so it is 402 Payment Required without Retry-After. Both carry the
+     * error "Token Budget Exceeded" and are logged at warn level.
+     * 
+     * @param ex the budget exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 429 or 402 status
+     */
+    @ExceptionHandler(BudgetExceededException.class)
+    public ResponseEntity<ErrorResponse> handleBudgetExceededException(
+            BudgetExceededException ex, WebRequest request) {
+        
+        log.warn("Request rejected, token budget used up: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.budgetExceeded(
+                ex.getClientMessage(),
+                request.getDescription(false)
+        );
+        
+        if (ex.getStatus() == HttpStatus.PAYMENT_REQUIRED.value()) {
+            return new ResponseEntity<>(errorResponse, HttpStatus.PAYMENT_REQUIRED);
+        }
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex, errorResponse);
+    }
+    
+    /**
+     * Handles model calls rejected by the open circuit breaker.
+     * 
+     * OpenAI has been failing or timing out, so the call was not attempted.
+     * 503 Service Unavailable tells the client the problem is temporary and
+     * on our side; Retry-After is the time until the circuit lets trial
+     * calls through. Logged at warn level: while the circuit is open every
+     * request ends here, and the failures that opened it were already logged.
+     * 
+     * @param ex the circuit open exception
+     * @param request the web request context
+     * @return ResponseEntity with error details, Retry-After and 503 status
+     */
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpenException(
+            CircuitOpenException ex, WebRequest request) {
+        
+        log.warn("Request rejected by open circuit breaker: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.serviceUnavailable(
+                ex.getClientMessage(),
+                request.getDescription(false)
+        );
+        
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex, errorResponse);
+    }
+    
+    /**
+     * Handles work rejected because the job queue is full.
+     * 
+     * Same answer as an open circuit (503 with Retry-After), since for the
+     * client both mean "not now, try later"; Retry-After is estimated from
+     * the backlog. Logged at warn level without a stack trace.
+     * 
+     * @param ex the overload exception
+     * @param request the web request context
+     * @return ResponseEntity with error details, Retry-After and 503 status
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(
+            ServiceOverloadedException ex, WebRequest request) {
+        
+        log.warn("Request rejected, server overloaded: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.serviceUnavailable(
+                ex.getClientMessage(),
+                request.getDescription(false)
+        );
+        
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex, errorResponse);
+    }
+    
+    /**
+     * Builds the response for a rejection the client may retry, with the
+     * Retry-After header in whole seconds.
+     * 
+     * @param status the response status
+     * @param ex the rejection
+     * @param errorResponse the response body
+     * @return ResponseEntity with error details, Retry-After and the status
+     */
+    private static ResponseEntity<ErrorResponse> retryLater(
+            HttpStatus status, RetryableGenerationException ex, ErrorResponse errorResponse) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+    
+    /**
+     * Handles prompts with more tokens than the model call may take.
+     * 
+     * A client error like a failed @Size check, so it gets the same 400
+     * validation body, with the token count and limit in the details.
+     * 
+     * @param ex the prompt length exception
+     * @param request the web request context
+     * @return ResponseEntity with validation error details and 400 status
+     */
+    @ExceptionHandler(PromptTooLongException.class)
+    public ResponseEntity<ErrorResponse> handlePromptTooLongException(
+            PromptTooLongException ex, WebRequest request) {
+        
+        log.debug("Prompt rejected: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.validation(
+                "Request validation failed. Please check your input.",
+                List.of("prompt: " + ex.getClientMessage())
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles requests that name a generation profile that is not configured.
+     * 
+     * @param ex the unknown profile exception
+     * @param request the web request context
+     * @return ResponseEntity with validation error details and 400 status
+     */
+    @ExceptionHandler(UnknownProfileException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownProfileException(
+            UnknownProfileException ex, WebRequest request) {
+        
+        log.debug("Profile rejected: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.validation(
+                "Request validation failed. Please check your input.",
+                List.of("profile: " + ex.getClientMessage())
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles job callback URLs that point at a host the server must not call.
+     * 
+     * @param ex the refused callback exception
+     * @param request the web request context
+     * @return ResponseEntity with validation error details and 400 status
+     */
+    @ExceptionHandler(CallbackNotAllowedException.class)
+    public ResponseEntity<ErrorResponse> handleCallbackNotAllowedException(
+            CallbackNotAllowedException ex, WebRequest request) {
+        
+        log.warn("Callback URL rejected: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.validation(
+                "Request validation failed. Please check your input.",
+                List.of("callbackUrl: " + ex.getClientMessage())
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles lookups of generation jobs that do not exist or have expired.
+     * 
+     * @param ex the not found exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 404 status
+     */
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFoundException(
+            JobNotFoundException ex, WebRequest request) {
+        
+        log.debug("Job lookup failed: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.notFound(
+                "Job not found. Finished jobs are kept for a limited time only.",
+                request.getDescription(false)
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+    
+    /**
+     * Handles lookups of unknown or expired conversation sessions.
+     * 
+     * Idle sessions are evicted, so a client coming back late gets 404 and
+     * starts a new session.
+     * 
+     * @param ex the session not found exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 404 status
+     */
+    @ExceptionHandler(SessionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSessionNotFoundException(
+            SessionNotFoundException ex, WebRequest request) {
+        
+        log.debug("Session lookup failed: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.notFound(
+                "Conversation session not found. Idle sessions expire; start a new one.",
+                request.getDescription(false)
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
     
     /**
      * Handles validation errors from @Valid annotations on request DTOs.
      * 
-     * TODO for students: Implement this method to handle validation failures:
+     * Handling steps:
      * 
      * 1. EXTRACT VALIDATION ERRORS
      *    - Get all field errors from the exception
@@ -131,13 +373,6 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleValidationException(
             MethodArgumentNotValidException ex, WebRequest request) {
         
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("handleValidationException not implemented yet");
-        
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
-        
-        // Extract field errors
         List<String> errors = new ArrayList<>();
         for (FieldError error : ex.getBindingResult().getFieldErrors()) {
             errors.add(String.format("%s: %s", error.getField(), error.getDefaultMessage()));
@@ -145,21 +380,18 @@ public class GlobalExceptionHandler {
         
         log.debug("Validation failed for request: {}", errors);
         
-        // Create validation error response
         ErrorResponse errorResponse = ErrorResponse.validation(
-            "Request validation failed. Please check your input.",
-            errors
+                "Request validation failed. Please check your input.",
+                errors
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
-        
-        */
     }
     
     /**
      * Handles any unexpected exceptions that aren't caught by other handlers.
      * 
-     * TODO for students: Implement this method as a safety net:
+     * Acts as a safety net:
      * 
      * 1. LOG THE UNEXPECTED ERROR
      *    - Use ERROR level since these are unexpected
@@ -185,23 +417,82 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, WebRequest request) {
         
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("handleGenericException not implemented yet");
-        
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
-        
-        // Log the unexpected error
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
         
-        // Create generic error response (don't expose internal details)
         ErrorResponse errorResponse = ErrorResponse.internalError(
-            request.getDescription(false)
+                request.getDescription(false)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    
+    /**
+     * Handles request bodies that cannot be parsed (malformed JSON, wrong types).
+     * 
+     * These are client mistakes, so they are logged at debug level and answered
+     * with 400 Bad Request instead of falling through to the generic handler.
+     * 
+     * @param ex the parsing exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 400 status
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleMessageNotReadableException(
+            HttpMessageNotReadableException ex, WebRequest request) {
+        
+        log.debug("Malformed request body: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Malformed Request")
+                .message("Request body is missing or is not valid JSON.")
+                .path(request.getDescription(false))
+                .build();
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Handles requests sent with a Content-Type the endpoint does not accept.
+     * 
+     * @param ex the media type exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 415 status
+     */
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ErrorResponse> handleMediaTypeNotSupportedException(
+            HttpMediaTypeNotSupportedException ex, WebRequest request) {
+        
+        log.debug("Unsupported content type: {}", ex.getContentType());
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Unsupported Media Type")
+                .message("Content-Type must be application/json.")
+                .path(request.getDescription(false))
+                .build();
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+    
+    /**
+     * Handles requests that use an HTTP method the endpoint does not support.
+     * 
+     * @param ex the method exception
+     * @param request the web request context
+     * @return ResponseEntity with error details and 405 status
+     */
+    @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+    public ResponseEntity<ErrorResponse> handleMethodNotSupportedException(
+            HttpRequestMethodNotSupportedException ex, WebRequest request) {
+        
+        log.debug("Unsupported HTTP method: {}", ex.getMethod());
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .error("Method Not Allowed")
+                .message(String.format("HTTP method %s is not supported for this endpoint.", ex.getMethod()))
+                .path(request.getDescription(false))
+                .build();
         
-        */
+        return new ResponseEntity<>(errorResponse, HttpStatus.METHOD_NOT_ALLOWED);
     }
     
     // TODO for students: Consider adding more specific exception handlers
@@ -210,8 +501,6 @@ public class GlobalExceptionHandler {
      * Example: Handle specific Spring framework exceptions
      * 
      * TODO: Add handlers for other common exceptions:
-     * - HttpMessageNotReadableException (malformed JSON)
-     * - HttpRequestMethodNotSupportedException (wrong HTTP method)
      * - MissingServletRequestParameterException (missing required parameters)
      * - IllegalArgumentException (invalid arguments)
      * 
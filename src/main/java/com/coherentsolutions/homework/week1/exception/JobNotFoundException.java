@@ -0,0 +1,33 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a generation job id is unknown, either because it never
+ * existed or because the finished job has been evicted after its TTL.
+ *
+ * GlobalExceptionHandler turns this into 404 Not Found. The two cases are
+ * deliberately indistinguishable to the client.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.GenerationJobService
+ */
+@Getter
+public class JobNotFoundException extends RuntimeException {
+
+    /**
+     * The id that was looked up.
+     */
+    private final String jobId;
+
+    /**
+     * Creates the exception.
+     *
+     * @param jobId the unknown job id
+     */
+    public JobNotFoundException(String jobId) {
+        super("Generation job not found: " + jobId);
+        this.jobId = jobId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a prompt has more tokens than the model call may take.
+ *
+ * The prompt is counted locally before the model is called, so the client
+ * gets an immediate 400 Bad Request instead of a slow upstream failure or a
+ * silently truncated answer. GlobalExceptionHandler tells the client both
+ * the count and the limit.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.tokens.PromptAdmission
+ */
+@Getter
+public class PromptTooLongException extends TextGenerationException {
+
+    /**
+     * Tokens in the rejected prompt.
+     */
+    private final int promptTokens;
+
+    /**
+     * Most tokens a prompt may have.
+     */
+    private final int maxPromptTokens;
+
+    /**
+     * Creates the exception.
+     *
+     * @param promptTokens tokens in the prompt
+     * @param maxPromptTokens the limit
+     */
+    public PromptTooLongException(int promptTokens, int maxPromptTokens) {
+        super(String.format("Prompt has %d tokens, limit is %d", promptTokens, maxPromptTokens));
+        this.promptTokens = promptTokens;
+        this.maxPromptTokens = maxPromptTokens;
+    }
+
+    /**
+     * User-safe message for the error response.
+     *
+     * @return message with the token count and limit
+     */
+    public String getClientMessage() {
+        return String.format("Prompt is too long: %d tokens, at most %d allowed.", promptTokens, maxPromptTokens);
+    }
+}
@@ -0,0 +1,66 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is rejected because of a rate limit.
+ *
+ * Two sources share this type so that both end up as 429 Too Many Requests
+ * with a Retry-After header in GlobalExceptionHandler:
+ * - the client used up its own request or token allowance
+ *   (ClientRateLimiter, upstream = false)
+ * - OpenAI rejected the call with its own 429 (upstream = true)
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ * @see com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter
+ */
+@Getter
+public class RateLimitExceededException extends RetryableGenerationException {
+
+    /**
+     * Whether the limit was enforced by the upstream provider rather than
+     * by this application.
+     */
+    private final boolean upstream;
+
+    /**
+     * Creates an exception for a client that exceeded its own allowance.
+     *
+     * @param message the detail message
+     * @param retryAfter how long the client should wait before retrying
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+        this.upstream = false;
+    }
+
+    /**
+     * Creates an exception for a call the upstream provider rate limited.
+     *
+     * @param message the detail message
+     * @param retryAfter how long the client should wait before retrying
+     * @param cause the provider's error
+     */
+    public RateLimitExceededException(String message, Duration retryAfter, Throwable cause) {
+        super(message, retryAfter, cause);
+        this.upstream = true;
+    }
+
+    /**
+     * User-safe message for the error response. The detail message may
+     * contain the provider's raw error and is only logged.
+     *
+     * @return message telling the client when to retry
+     */
+    @Override
+    public String getClientMessage() {
+        return upstream
+                ? String.format("The model provider is rate limiting requests. Retry after %d seconds.",
+                        getRetryAfterSeconds())
+                : String.format("Rate limit exceeded. Retry after %d seconds.", getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,187 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+import java.util.List;
+
+/**
+ * Exception handler for the WebFlux controllers ("reactive" profile).
+ *
+ * GlobalExceptionHandler is written against the servlet request
+ * (WebRequest), which WebFlux cannot supply, so the reactive stack gets its
+ * own advice. The mapping is the same on both stacks, and so are the
+ * bodies, including the "uri=..." form of the path:
+ * - TextGenerationException -> 500 API Error
+ * - RateLimitExceededException -> 429 with Retry-After
+ * - BudgetExceededException -> 429 with Retry-After (hour, day) or 402 (month)
+ * - CircuitOpenException, ServiceOverloadedException -> 503 with Retry-After
+ * - JobNotFoundException -> 404 Not Found
+ * - Validation failures (WebExchangeBindException), PromptTooLongException, UnknownProfileException,
+ *   CallbackNotAllowedException -> 400 with field errors
+ * - Unreadable body -> 400, wrong Content-Type -> 415, wrong method -> 405
+ * - Anything else -> 500 Internal Server Error
+ *
+ * See GlobalExceptionHandler for the reasoning behind each status and log level.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ * @see com.coherentsolutions.homework.week1.controller.ReactiveTextGeneratorController
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(TextGenerationException.class)
+    public ResponseEntity<ErrorResponse> handleTextGenerationException(
+            TextGenerationException ex, ServerHttpRequest request) {
+        log.error("Text generation failed: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ErrorResponse.apiError(
+                "Failed to generate text. Please try again later.", path(request)),
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(
+            RateLimitExceededException ex, ServerHttpRequest request) {
+        log.warn("Request rate limited ({}): {}", ex.isUpstream() ? "upstream" : "client", ex.getMessage());
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex,
+                ErrorResponse.rateLimited(ex.getClientMessage(), path(request)));
+    }
+
+    @ExceptionHandler(BudgetExceededException.class)
+    public ResponseEntity<ErrorResponse> handleBudgetExceededException(
+            BudgetExceededException ex, ServerHttpRequest request) {
+        log.warn("Request rejected, token budget used up: {}", ex.getMessage());
+        ErrorResponse body = ErrorResponse.budgetExceeded(ex.getClientMessage(), path(request));
+        if (ex.getStatus() == HttpStatus.PAYMENT_REQUIRED.value()) {
+            return new ResponseEntity<>(body, HttpStatus.PAYMENT_REQUIRED);
+        }
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex, body);
+    }
+
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpenException(
+            CircuitOpenException ex, ServerHttpRequest request) {
+        log.warn("Request rejected by open circuit breaker: {}", ex.getMessage());
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex,
+                ErrorResponse.serviceUnavailable(ex.getClientMessage(), path(request)));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(
+            ServiceOverloadedException ex, ServerHttpRequest request) {
+        log.warn("Request rejected, server overloaded: {}", ex.getMessage());
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex,
+                ErrorResponse.serviceUnavailable(ex.getClientMessage(), path(request)));
+    }
+
+    @ExceptionHandler(PromptTooLongException.class)
+    public ResponseEntity<ErrorResponse> handlePromptTooLongException(PromptTooLongException ex) {
+        log.debug("Prompt rejected: {}", ex.getMessage());
+        return new ResponseEntity<>(ErrorResponse.validation("Request validation failed. Please check your input.",
+                List.of("prompt: " + ex.getClientMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(UnknownProfileException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownProfileException(UnknownProfileException ex) {
+        log.debug("Profile rejected: {}", ex.getMessage());
+        return new ResponseEntity<>(ErrorResponse.validation("Request validation failed. Please check your input.",
+                List.of("profile: " + ex.getClientMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(CallbackNotAllowedException.class)
+    public ResponseEntity<ErrorResponse> handleCallbackNotAllowedException(CallbackNotAllowedException ex) {
+        log.warn("Callback URL rejected: {}", ex.getMessage());
+        return new ResponseEntity<>(ErrorResponse.validation("Request validation failed. Please check your input.",
+                List.of("callbackUrl: " + ex.getClientMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFoundException(
+            JobNotFoundException ex, ServerHttpRequest request) {
+        log.debug("Job lookup failed: {}", ex.getMessage());
+        return new ResponseEntity<>(ErrorResponse.notFound(
+                "Job not found. Finished jobs are kept for a limited time only.", path(request)),
+                HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(WebExchangeBindException ex) {
+        List<String> errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> String.format("%s: %s", error.getField(), error.getDefaultMessage()))
+                .toList();
+        log.debug("Validation failed for request: {}", errors);
+        return new ResponseEntity<>(ErrorResponse.validation(
+                "Request validation failed. Please check your input.", errors), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInputException(
+            ServerWebInputException ex, ServerHttpRequest request) {
+        log.debug("Malformed request body: {}", ex.getMessage());
+        return new ResponseEntity<>(ErrorResponse.builder()
+                .error("Malformed Request")
+                .message("Request body is missing or is not valid JSON.")
+                .path(path(request))
+                .build(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(UnsupportedMediaTypeStatusException.class)
+    public ResponseEntity<ErrorResponse> handleMediaTypeNotSupportedException(
+            UnsupportedMediaTypeStatusException ex, ServerHttpRequest request) {
+        log.debug("Unsupported content type: {}", ex.getContentType());
+        return new ResponseEntity<>(ErrorResponse.builder()
+                .error("Unsupported Media Type")
+                .message("Content-Type must be application/json.")
+                .path(path(request))
+                .build(), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @ExceptionHandler(MethodNotAllowedException.class)
+    public ResponseEntity<ErrorResponse> handleMethodNotAllowedException(
+            MethodNotAllowedException ex, ServerHttpRequest request) {
+        log.debug("Unsupported HTTP method: {}", ex.getHttpMethod());
+        return new ResponseEntity<>(ErrorResponse.builder()
+                .error("Method Not Allowed")
+                .message(String.format("HTTP method %s is not supported for this endpoint.", ex.getHttpMethod()))
+                .path(path(request))
+                .build(), HttpStatus.METHOD_NOT_ALLOWED);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, ServerHttpRequest request) {
+        log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ErrorResponse.internalError(path(request)), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Adds Retry-After in whole seconds, as GlobalExceptionHandler does.
+     */
+    private static ResponseEntity<ErrorResponse> retryLater(
+            HttpStatus status, RetryableGenerationException ex, ErrorResponse body) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    /**
+     * Formats the path like WebRequest.getDescription(false) on the servlet stack.
+     */
+    private static String path(ServerHttpRequest request) {
+        return "uri=" + request.getPath().value();
+    }
+}
@@ -0,0 +1,68 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Base class for rejections the client may retry after a known wait.
+ *
+ * Rate limits, spent hourly or daily token budgets, an open circuit breaker
+ * and a full queue all tell the client "not now, try later". They share the
+ * wait and its Retry-After form here, so GlobalExceptionHandler and
+ * ReactiveExceptionHandler write the header in one place and every
+ * subclass rounds it the same way.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ */
+@Getter
+public abstract class RetryableGenerationException extends TextGenerationException {
+
+    /**
+     * How long the client should wait before retrying.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the detail message
+     * @param retryAfter how long the client should wait before retrying
+     */
+    protected RetryableGenerationException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Creates the exception for a rejection caused by another error.
+     *
+     * @param message the detail message
+     * @param retryAfter how long the client should wait before retrying
+     * @param cause the underlying error
+     */
+    protected RetryableGenerationException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retry-After value in whole seconds, rounded up and at least 1.
+     *
+     * @return seconds to wait
+     */
+    public long getRetryAfterSeconds() {
+        long seconds = (retryAfter.toMillis() + 999) / 1000;
+        return Math.max(1, seconds);
+    }
+
+    /**
+     * User-safe message for the error response. The detail message may
+     * contain internal details and is only logged.
+     *
+     * @return message telling the client when to retry
+     */
+    public abstract String getClientMessage();
+}
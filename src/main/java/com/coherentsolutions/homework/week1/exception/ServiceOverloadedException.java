@@ -0,0 +1,38 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when work is rejected because the server's own queue is full.
+ *
+ * Unlike RateLimitExceededException this is not about one client's
+ * allowance: every client is turned away until the backlog drains.
+ * GlobalExceptionHandler turns it into 503 Service Unavailable with a
+ * Retry-After header estimated from the backlog.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GlobalExceptionHandler
+ */
+public class ServiceOverloadedException extends RetryableGenerationException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the detail message
+     * @param retryAfter estimated time until the work would be accepted
+     */
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+
+    /**
+     * User-safe message for the error response.
+     *
+     * @return message telling the client when to retry
+     */
+    @Override
+    public String getClientMessage() {
+        return String.format("The server is busy. Retry after %d seconds.", getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,33 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a conversation session id is unknown, either because it never
+ * existed, was deleted, or was evicted after being idle.
+ *
+ * GlobalExceptionHandler turns this into 404 Not Found; the client then
+ * starts a new session.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.ConversationService
+ */
+@Getter
+public class SessionNotFoundException extends RuntimeException {
+
+    /**
+     * The id that was looked up.
+     */
+    private final String sessionId;
+
+    /**
+     * Creates the exception.
+     *
+     * @param sessionId the unknown session id
+     */
+    public SessionNotFoundException(String sessionId) {
+        super("Conversation session not found: " + sessionId);
+        this.sessionId = sessionId;
+    }
+}
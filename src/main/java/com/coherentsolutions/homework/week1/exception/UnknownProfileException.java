@@ -0,0 +1,49 @@
+package com.coherentsolutions.homework.week1.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request names a generation profile that is not configured.
+ *
+ * A client error, like an invalid field: GlobalExceptionHandler answers
+ * 400 Bad Request and lists the profiles that do exist, so the client can
+ * correct the name instead of silently getting the default profile.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.profile.GenerationProfiles
+ */
+@Getter
+public class UnknownProfileException extends TextGenerationException {
+
+    /**
+     * The requested profile name.
+     */
+    private final String profile;
+
+    /**
+     * Names of the configured profiles, for the error message.
+     */
+    private final String available;
+
+    /**
+     * Creates the exception.
+     *
+     * @param profile the unknown name
+     * @param available the configured names, comma separated
+     */
+    public UnknownProfileException(String profile, String available) {
+        super("Unknown generation profile: " + profile);
+        this.profile = profile;
+        this.available = available;
+    }
+
+    /**
+     * User-safe message for the error response.
+     *
+     * @return message naming the configured profiles
+     */
+    public String getClientMessage() {
+        return String.format("Unknown profile '%s'; available profiles: %s.", profile, available);
+    }
+}
@@ -0,0 +1,43 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Service interface for running many generations in one call.
+ *
+ * Items run concurrently with a bounded degree of parallelism. A failing item
+ * never fails the batch: it is reported as a BatchItemResult carrying an
+ * ErrorResponse, next to the successful items.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ * @see com.coherentsolutions.homework.week1.service.impl.ConcurrentBatchTextGeneratorService
+ */
+public interface BatchTextGeneratorService {
+
+    /**
+     * Runs all requests and waits for every item to finish.
+     *
+     * @param requests the generation requests
+     * @return per-item results in input order
+     */
+    BatchGenerateResponse generateBatch(List<GenerateRequest> requests);
+
+    /**
+     * Runs all requests and publishes each item as soon as it finishes.
+     *
+     * Items arrive in completion order; use BatchItemResult.getIndex() to
+     * match them to the submitted requests. Nothing runs until the returned
+     * Flux is subscribed to, and the Flux never terminates with an error.
+     *
+     * @param requests the generation requests
+     * @return a cold Flux of per-item results in completion order
+     */
+    Flux<BatchItemResult> streamBatch(List<GenerateRequest> requests);
+}
@@ -0,0 +1,57 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+
+import java.util.Optional;
+
+/**
+ * Service interface for multi-turn conversations whose history is kept on
+ * the server.
+ *
+ * The client only sends its next prompt; the earlier turns of the session
+ * are added to the model call as chat messages, trimmed to a token budget.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ * @see com.coherentsolutions.homework.week1.service.impl.InMemoryConversationService
+ */
+public interface ConversationService {
+
+    /**
+     * Starts an empty session.
+     *
+     * @return the new session
+     */
+    ConversationSessionResponse create();
+
+    /**
+     * Generates the answer to the next prompt of a session, with the
+     * session's history as context, and adds the turn to the history.
+     *
+     * @param sessionId the session id
+     * @param request the validated request with the next prompt
+     * @return the generated response
+     * @throws com.coherentsolutions.homework.week1.exception.SessionNotFoundException
+     *         if the session is unknown or expired
+     */
+    GenerateResponse send(String sessionId, GenerateRequest request);
+
+    /**
+     * Looks up a session.
+     *
+     * @param sessionId the session id
+     * @return the session with its current history, or empty if unknown or expired
+     */
+    Optional<ConversationSessionResponse> find(String sessionId);
+
+    /**
+     * Ends a session and drops its history.
+     *
+     * @param sessionId the session id
+     * @return true if the session existed
+     */
+    boolean delete(String sessionId);
+}
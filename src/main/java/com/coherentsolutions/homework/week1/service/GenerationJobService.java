@@ -0,0 +1,42 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for generations that run in the background.
+ *
+ * Submitting returns at once with a job id; the generation itself runs
+ * later on a bounded pool of workers, and the result is kept until it is
+ * fetched by id or evicted.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ * @see com.coherentsolutions.homework.week1.service.impl.QueuedGenerationJobService
+ */
+public interface GenerationJobService {
+
+    /**
+     * Queues a generation.
+     *
+     * @param request the validated job request
+     * @param onFinished called once on the worker thread after the job
+     *                   succeeded or failed, before any callback is sent
+     * @return the job in QUEUED state
+     * @throws com.coherentsolutions.homework.week1.exception.ServiceOverloadedException
+     *         if the queue is full
+     */
+    GenerateJobResponse submit(GenerateJobRequest request, Consumer<GenerateJobResponse> onFinished);
+
+    /**
+     * Looks up a job.
+     *
+     * @param id the job id
+     * @return the job's current state, or empty if unknown or evicted
+     */
+    Optional<GenerateJobResponse> find(String id);
+}
@@ -0,0 +1,62 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+
+import java.util.regex.Pattern;
+
+/**
+ * Identity of a text generation: the normalized prompt, the generation
+ * profile and every model option that influences the answer.
+ *
+ * Two requests with equal keys are expected to produce equivalent responses,
+ * which is what makes it safe to reuse one response for the other.
+ *
+ * Normalization:
+ * - Leading and trailing whitespace is removed
+ * - Runs of whitespace (spaces, tabs, newlines) collapse to a single space
+ * - Letter case is preserved, since it can change the meaning of a prompt
+ *
+ * @param prompt the normalized prompt text
+ * @param profile the profile's cacheId, which covers its system prompt
+ * @param model the model name
+ * @param temperature the sampling temperature
+ * @param maxTokens the completion token limit
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.CachingTextGeneratorService
+ * @see com.coherentsolutions.homework.week1.service.impl.CoalescingTextGeneratorService
+ */
+public record GenerationKey(String prompt, String profile, String model, Double temperature, Integer maxTokens) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Builds the key for a request generated with the given profile.
+     *
+     * @param request the generation request (must have a non-null prompt)
+     * @param profile the profile the request will be generated with
+     * @return the generation key
+     */
+    public static GenerationKey of(GenerateRequest request, GenerationProfile profile) {
+        GenerationOptions options = profile.options();
+        return new GenerationKey(
+                normalize(request.getPrompt()),
+                profile.cacheId(),
+                options.model(),
+                options.temperature(),
+                options.maxTokens());
+    }
+
+    /**
+     * Normalizes a prompt for comparison purposes.
+     *
+     * @param prompt the raw prompt
+     * @return the trimmed prompt with whitespace runs collapsed
+     */
+    public static String normalize(String prompt) {
+        return WHITESPACE.matcher(prompt.strip()).replaceAll(" ");
+    }
+}
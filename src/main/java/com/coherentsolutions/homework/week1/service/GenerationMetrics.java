@@ -0,0 +1,201 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer instrumentation for text generation.
+ *
+ * Keeps metric names and tags in one place so that the controller and the
+ * service report consistent series. All meters are tagged with the model
+ * and the generation profile; when the model is not known (for example, the
+ * call failed before the model answered) the profile's configured model is
+ * used. Profile names a client sent that are not configured are tagged
+ * "unknown", so client input cannot create new series.
+ *
+ * Meters (exported to Prometheus as generate_*):
+ * - generate.requests (timer): end-to-end latency per endpoint, tagged
+ *   endpoint, profile, model, outcome (success|error) and exception
+ * - generate.upstream (timer): ChatClient call latency, tagged profile,
+ *   model, outcome and exception
+ * - generate.prompt.length (summary, characters)
+ * - generate.prompt.tokens (summary): prompt tokens counted locally before
+ *   the call, including the system prompt (see PromptTokenizer)
+ * - generate.response.length (summary, characters)
+ * - generate.tokens (summary): tokens per generation, tagged type
+ *   (prompt|completion), when the provider reports usage
+ * - generate.finish.reasons (counter): why the model stopped, tagged reason
+ *   (e.g. STOP, LENGTH when max-tokens truncated the answer)
+ * - generate.errors (counter): failed upstream calls, tagged profile, model and exception
+ *
+ * Timers publish percentile histograms, so p50/p95/p99 can be computed
+ * across instances in Prometheus.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService
+ * @see com.coherentsolutions.homework.week1.controller.TextGeneratorController
+ */
+@Component
+@RequiredArgsConstructor
+public class GenerationMetrics {
+
+    public static final String REQUESTS = "generate.requests";
+
+    public static final String UPSTREAM = "generate.upstream";
+
+    public static final String PROMPT_LENGTH = "generate.prompt.length";
+
+    public static final String PROMPT_TOKENS = "generate.prompt.tokens";
+
+    public static final String RESPONSE_LENGTH = "generate.response.length";
+
+    public static final String TOKENS = "generate.tokens";
+
+    public static final String ERRORS = "generate.errors";
+
+    public static final String FINISH_REASONS = "generate.finish.reasons";
+
+    private final MeterRegistry meterRegistry;
+
+    private final GenerationProfiles generationProfiles;
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return a sample to pass to one of the record methods
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records the end-to-end latency of an API call.
+     *
+     * @param sample the sample started when the request arrived
+     * @param endpoint endpoint name, e.g. "generate"
+     * @param profile the requested profile, or null for the default
+     * @param model the model that answered, or null for the profile's model
+     * @param error the failure, or null on success
+     * @return the recorded duration in nanoseconds
+     */
+    public long recordRequest(Timer.Sample sample, String endpoint, String profile, String model, Throwable error) {
+        return sample.stop(Timer.builder(REQUESTS)
+                .description("End-to-end latency of text generation API calls")
+                .tag("endpoint", endpoint)
+                .tag("profile", generationProfiles.tagOf(profile))
+                .tag("model", modelOrDefault(profile, model))
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("exception", exceptionName(error))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Records the latency of one ChatClient call, and counts it if it failed.
+     *
+     * @param sample the sample started just before the call
+     * @param profile the profile of the call
+     * @param model the model that answered, or null for the profile's model
+     * @param error the failure, or null on success
+     * @return the recorded duration in nanoseconds
+     */
+    public long recordUpstream(Timer.Sample sample, String profile, String model, Throwable error) {
+        if (error != null) {
+            meterRegistry.counter(ERRORS, "profile", generationProfiles.tagOf(profile),
+                    "model", modelOrDefault(profile, model), "exception", exceptionName(error)).increment();
+        }
+        return sample.stop(Timer.builder(UPSTREAM)
+                .description("Latency of calls to the model through ChatClient")
+                .tag("profile", generationProfiles.tagOf(profile))
+                .tag("model", modelOrDefault(profile, model))
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("exception", exceptionName(error))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Records the size of a prompt sent to the model.
+     *
+     * @param profile the profile of the call
+     * @param length prompt length in characters
+     */
+    public void recordPrompt(String profile, int length) {
+        summary(PROMPT_LENGTH, "Prompt length sent to the model", "characters", profile, null).record(length);
+    }
+
+    /**
+     * Records the locally counted prompt tokens of a request about to be sent.
+     *
+     * @param profile the profile of the call
+     * @param tokens prompt tokens including the chat overhead
+     */
+    public void recordPromptTokens(String profile, int tokens) {
+        summary(PROMPT_TOKENS, "Prompt tokens counted before the model call", "tokens", profile, null)
+                .record(tokens);
+    }
+
+    /**
+     * Records the size of a generated response, the tokens it used and why
+     * the model stopped.
+     *
+     * @param profile the profile of the call
+     * @param model the model that answered, or null for the profile's model
+     * @param length response length in characters
+     * @param promptTokens prompt tokens, or null if the provider did not report them
+     * @param completionTokens completion tokens, or null if not reported
+     * @param finishReason the provider's finish reason, or null if not reported
+     */
+    public void recordResponse(String profile, String model, int length, Integer promptTokens,
+                               Integer completionTokens, String finishReason) {
+        summary(RESPONSE_LENGTH, "Generated response length", "characters", profile, model).record(length);
+        if (promptTokens != null) {
+            tokens(profile, model, "prompt").record(promptTokens);
+        }
+        if (completionTokens != null) {
+            tokens(profile, model, "completion").record(completionTokens);
+        }
+        if (finishReason != null && !finishReason.isBlank()) {
+            meterRegistry.counter(FINISH_REASONS, "profile", generationProfiles.tagOf(profile),
+                    "model", modelOrDefault(profile, model), "reason", finishReason).increment();
+        }
+    }
+
+    private DistributionSummary tokens(String profile, String model, String type) {
+        return DistributionSummary.builder(TOKENS)
+                .description("Tokens used per generation")
+                .baseUnit("tokens")
+                .tag("profile", generationProfiles.tagOf(profile))
+                .tag("model", modelOrDefault(profile, model))
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary summary(String name, String description, String unit, String profile,
+                                        String model) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("profile", generationProfiles.tagOf(profile))
+                .tag("model", modelOrDefault(profile, model))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String modelOrDefault(String profile, String model) {
+        if (model != null && !model.isBlank()) {
+            return model;
+        }
+        return generationProfiles.find(profile).orElse(generationProfiles.defaultProfile()).options().model();
+    }
+
+    private static String exceptionName(Throwable error) {
+        return error == null ? "none" : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,48 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of TextGeneratorService.
+ *
+ * TextGeneratorService.generateText holds the calling thread until the
+ * whole completion has arrived. Implementations of this interface return
+ * immediately; the model call runs when the result is subscribed to and
+ * no thread waits for it. This is what a WebFlux server needs (see the
+ * "reactive" profile), and it lets callers compose generations with other
+ * reactive work (timeouts, zip, fan-out) without a thread per call.
+ *
+ * Contract:
+ * - Both methods return cold publishers: nothing is sent to the model
+ *   until subscription, and every subscription is a new model call
+ * - Invalid requests and failures are signalled as TextGenerationException
+ *   errors on the publisher, never thrown from the method itself
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ * @see StreamingTextGeneratorService
+ */
+public interface ReactiveTextGeneratorService {
+
+    /**
+     * Generates the complete response for a prompt.
+     *
+     * @param request the text generation request
+     * @return a Mono emitting the response, with the same fields the
+     *         blocking TextGeneratorService would have returned
+     */
+    Mono<GenerateResponse> generateText(GenerateRequest request);
+
+    /**
+     * Streams the generated text as it is produced.
+     *
+     * @param request the text generation request
+     * @return chunks of generated text in order; concatenated they form the response
+     */
+    Flux<String> streamText(GenerateRequest request);
+}
@@ -0,0 +1,42 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service interface for token-by-token text generation.
+ *
+ * TextGeneratorService returns only after the whole completion has arrived,
+ * so a client's time-to-first-byte equals the total generation time. This
+ * contract instead publishes text as the model produces it.
+ *
+ * Stream Contract:
+ * - Zero or more GenerateStreamEvent.TOKEN frames, in generation order
+ * - Then exactly one GenerateStreamEvent.DONE frame with model and token usage
+ * - Failures are signalled as a TextGenerationException error on the Flux;
+ *   callers decide how to present them (e.g. an ERROR frame)
+ *
+ * Kept separate from TextGeneratorService so that decorators such as the
+ * response cache, which only make sense for complete responses, do not have
+ * to implement streaming.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TextGeneratorService
+ * @see com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService
+ */
+public interface StreamingTextGeneratorService {
+
+    /**
+     * Streams the generated text for the given prompt.
+     *
+     * Nothing is sent to the model until the returned Flux is subscribed to.
+     *
+     * @param request the text generation request
+     * @return a cold Flux of token frames followed by one done frame
+     * @throws TextGenerationException if the request is invalid
+     */
+    Flux<GenerateStreamEvent> streamText(GenerateRequest request) throws TextGenerationException;
+}
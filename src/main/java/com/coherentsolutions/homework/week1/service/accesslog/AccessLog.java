@@ -0,0 +1,491 @@
+package com.coherentsolutions.homework.week1.service.accesslog;
+
+import com.coherentsolutions.homework.week1.config.AccessLogProperties;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.GenerationFailure;
+import com.coherentsolutions.homework.week1.exception.SessionNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Writes one JSON line per generation to the access log, off the request
+ * thread.
+ *
+ * The per-request INFO lines of the controller and the service were
+ * formatted on the request thread, in two different shapes, and went
+ * through the AsyncAppender, which throws away INFO events when its queue
+ * is 80% full without a trace. An access log is only worth having if it is
+ * complete and machine-readable.
+ *
+ * How a record travels:
+ * - record() claims a slot of a preallocated ring buffer with one CAS and
+ *   copies a handful of fields into it: no lock, no string building, no
+ *   allocation on the request thread
+ * - a single writer thread ("access-log") formats the slot as JSON into a
+ *   reused StringBuilder and logs it to the "access" logger, which
+ *   logback-spring.xml sends to its own ACCESS_FILE appender
+ * - the slot is then released for reuse
+ *
+ * Ring buffer: a bounded multi-producer, single-consumer queue. Every slot
+ * carries a sequence number; a producer may take position p when the slot's
+ * sequence is p, publishes it by setting p + 1, and the writer hands it
+ * back by setting p + capacity. The volatile sequence write is what makes
+ * the plain slot fields visible to the other thread.
+ *
+ * Nothing is lost silently: when the buffer is full the record is counted
+ * instead of blocking the request, and the writer logs a
+ * {"event":"dropped","count":N} line at the point of the gap, and warns in
+ * the application log (at most every 10 seconds).
+ *
+ * Line format:
+ * {"timestamp":"2024-01-15T10:30:00.123Z","endpoint":"generate","model":"gpt-3.5-turbo",
+ *  "outcome":"success","status":200,"exception":"none","promptLength":36,"responseLength":512,
+ *  "promptTokens":29,"completionTokens":120,"totalTokens":149,"cached":false,"durationMs":812.4}
+ * Token fields are null when the provider did not report usage. status is
+ * the HTTP status the generation was answered with (for batch items, the
+ * item's status); a stream that fails after it started is logged with the
+ * status its error maps to. Batch items are logged one line each, with the
+ * duration of the whole batch; jobs when they finish, timed from
+ * submission. Prompts and responses themselves are never logged, only
+ * their lengths.
+ *
+ * Metrics:
+ * - accesslog.records (counter): lines written
+ * - accesslog.dropped (counter): records lost to a full buffer
+ * - accesslog.backlog (gauge): records waiting for the writer
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see AccessLogProperties
+ */
+@Component
+@Slf4j
+public class AccessLog {
+
+    /**
+     * Name of the logger the lines are written to.
+     */
+    public static final String LOGGER_NAME = "access";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final boolean enabled;
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong pendingDrops = new AtomicLong();
+
+    private final Consumer<String> sink;
+
+    private final Counter written;
+
+    private final Counter dropped;
+
+    private final Thread writer;
+
+    /**
+     * Position of the next slot the writer reads; only the writer moves it.
+     * Kept in its own object rather than a field, so the writer's stores do
+     * not invalidate the cache line producers read slots and mask from.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Set by the writer before it parks; the first producer to clear it
+     * unparks the writer, the others skip the system call.
+     */
+    private final AtomicBoolean writerParked = new AtomicBoolean();
+
+    private volatile boolean running = true;
+
+    private long lastDropWarningNanos = System.nanoTime() - DROP_WARNING_INTERVAL_NANOS - 1;
+
+    @Autowired
+    public AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, LoggerFactory.getLogger(LOGGER_NAME)::info);
+    }
+
+    /**
+     * Creates the access log with its writer thread.
+     *
+     * @param properties buffer size and whether the log is enabled
+     * @param meterRegistry registry for the accesslog.* meters
+     * @param sink receives every formatted line on the writer thread
+     */
+    public AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry, Consumer<String> sink) {
+        if (properties.getBufferSize() <= 0) {
+            throw new IllegalArgumentException("generator.access-log.buffer-size must be positive");
+        }
+        this.enabled = properties.isEnabled();
+        int capacity = Integer.highestOneBit(properties.getBufferSize() - 1) << 1;
+        capacity = Math.max(capacity, 1);
+        this.slots = new Slot[enabled ? capacity : 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = slots.length - 1;
+        this.sink = sink;
+        this.written = meterRegistry.counter("accesslog.records");
+        this.dropped = meterRegistry.counter("accesslog.dropped");
+        Gauge.builder("accesslog.backlog", this, AccessLog::backlog)
+                .description("Access log records waiting for the writer thread")
+                .register(meterRegistry);
+        if (enabled) {
+            this.writer = Thread.ofPlatform().name("access-log").daemon().start(this::drain);
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Records a finished generation with a full response.
+     *
+     * @param endpoint endpoint name, e.g. "generate"
+     * @param request the request that was served
+     * @param response the response, or null if the call failed
+     * @param error the failure, or null on success
+     * @param elapsedNanos end-to-end latency
+     */
+    public void record(String endpoint, GenerateRequest request, GenerateResponse response, Throwable error,
+                       long elapsedNanos) {
+        record(endpoint, request, response, 0, error, elapsedNanos);
+    }
+
+    /**
+     * Records one item of a batch.
+     *
+     * @param endpoint endpoint name, e.g. "generate.batch"
+     * @param request the item's request
+     * @param result the item's result
+     * @param elapsedNanos latency of the whole batch
+     */
+    public void record(String endpoint, GenerateRequest request, BatchItemResult result, long elapsedNanos) {
+        record(endpoint, request, result.getResponse(), result.getStatus(), null, elapsedNanos);
+    }
+
+    /**
+     * Records a finished stream.
+     *
+     * @param endpoint endpoint name, e.g. "generate.stream"
+     * @param request the request that was served
+     * @param done the stream's done event, or null if it failed or was cancelled before it
+     * @param responseLength characters streamed to the client
+     * @param error the failure, or null
+     * @param elapsedNanos end-to-end latency
+     */
+    public void recordStream(String endpoint, GenerateRequest request, GenerateStreamEvent done, int responseLength,
+                             Throwable error, long elapsedNanos) {
+        if (done == null) {
+            record(endpoint, promptLength(request), null, responseLength, -1, -1, -1, false, 0, error, elapsedNanos);
+            return;
+        }
+        record(endpoint, promptLength(request), done.getModel(), responseLength, orUnknown(done.getPromptTokens()),
+                orUnknown(done.getCompletionTokens()), orUnknown(done.getTokensUsed()), false, 0, error,
+                elapsedNanos);
+    }
+
+    /**
+     * Records a finished generation job, timed from submission to completion.
+     *
+     * @param endpoint endpoint name, e.g. "generate.jobs"
+     * @param request the job's request
+     * @param job the finished job
+     */
+    public void record(String endpoint, GenerateRequest request, GenerateJobResponse job) {
+        long elapsedNanos = job.getSubmittedAt() != null && job.getCompletedAt() != null
+                ? Duration.between(job.getSubmittedAt(), job.getCompletedAt()).toNanos() : 0;
+        record(endpoint, request, job.getResponse(), job.getHttpStatus() != null ? job.getHttpStatus() : 0, null,
+                elapsedNanos);
+    }
+
+    /**
+     * Records a finished generation. Unknown counts are passed as -1 and
+     * written as null.
+     *
+     * @param endpoint endpoint name, e.g. "generate.stream"
+     * @param promptLength prompt length in characters
+     * @param model the model that answered, or null
+     * @param responseLength response length in characters, or -1
+     * @param promptTokens prompt tokens, or -1
+     * @param completionTokens completion tokens, or -1
+     * @param totalTokens total tokens, or -1
+     * @param cached whether the response came from a cache
+     * @param status the HTTP status, or 0 to derive it from the error (200 without one)
+     * @param error the failure, or null on success
+     * @param elapsedNanos end-to-end latency
+     */
+    public void record(String endpoint, int promptLength, String model, int responseLength, int promptTokens,
+                       int completionTokens, int totalTokens, boolean cached, int status, Throwable error,
+                       long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        long position = tail.get();
+        Slot slot;
+        while (true) {
+            slot = slots[(int) (position & mask)];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the writer has not released this slot yet: the buffer is full
+                pendingDrops.incrementAndGet();
+                dropped.increment();
+                wakeWriter();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        slot.timestampMillis = System.currentTimeMillis();
+        slot.endpoint = endpoint;
+        slot.model = model;
+        slot.error = error;
+        slot.promptLength = promptLength;
+        slot.responseLength = responseLength;
+        slot.promptTokens = promptTokens;
+        slot.completionTokens = completionTokens;
+        slot.totalTokens = totalTokens;
+        slot.cached = cached;
+        slot.status = status;
+        slot.elapsedNanos = elapsedNanos;
+        slot.sequence = position + 1;
+        wakeWriter();
+    }
+
+    private void record(String endpoint, GenerateRequest request, GenerateResponse response, int status,
+                        Throwable error, long elapsedNanos) {
+        if (response == null) {
+            record(endpoint, promptLength(request), null, -1, -1, -1, -1, false, status, error, elapsedNanos);
+            return;
+        }
+        record(endpoint, promptLength(request), response.getModel(),
+                response.getResponse() != null ? response.getResponse().length() : -1,
+                orUnknown(response.getPromptTokens()), orUnknown(response.getCompletionTokens()),
+                orUnknown(response.getTokensUsed()), response.isCached(), status, error, elapsedNanos);
+    }
+
+    /**
+     * Writes what is buffered and stops the writer thread.
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeWriter() {
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void drain() {
+        StringBuilder line = new StringBuilder(320);
+        while (true) {
+            if (pendingDrops.get() != 0) {
+                reportDrops(line);
+            }
+            long position = head.get();
+            Slot slot = slots[(int) (position & mask)];
+            if (slot.sequence == position + 1) {
+                format(slot, line);
+                slot.endpoint = null;
+                slot.model = null;
+                slot.error = null;
+                slot.sequence = position + slots.length;
+                head.set(position + 1);
+                write(line);
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            writerParked.set(true);
+            // re-check after announcing the park, so a record published in between is not missed
+            if (slot.sequence != position + 1 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked.set(false);
+        }
+    }
+
+    private void reportDrops(StringBuilder line) {
+        long count = pendingDrops.getAndSet(0);
+        long now = System.nanoTime();
+        if (now - lastDropWarningNanos > DROP_WARNING_INTERVAL_NANOS) {
+            lastDropWarningNanos = now;
+            log.warn("Access log buffer full: {} records dropped; raise generator.access-log.buffer-size", count);
+        }
+        line.setLength(0);
+        line.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.now(), line);
+        line.append("\",\"event\":\"dropped\",\"count\":").append(count).append('}');
+        write(line);
+    }
+
+    private void write(StringBuilder line) {
+        try {
+            sink.accept(line.toString());
+            written.increment();
+        } catch (RuntimeException e) {
+            log.warn("Could not write access log line: {}", e.getMessage());
+        }
+    }
+
+    static void format(Slot slot, StringBuilder line) {
+        line.setLength(0);
+        line.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(slot.timestampMillis), line);
+        line.append("\",\"endpoint\":");
+        appendString(line, slot.endpoint);
+        line.append(",\"model\":");
+        appendString(line, slot.model);
+        int status = slot.status != 0 ? slot.status : statusOf(slot.error);
+        line.append(",\"outcome\":\"").append(status < 400 ? "success" : "error");
+        line.append("\",\"status\":").append(status);
+        line.append(",\"exception\":");
+        if (slot.error != null) {
+            appendString(line, slot.error.getClass().getSimpleName());
+        } else {
+            // batch items and jobs report their failure as a status only
+            appendString(line, status < 400 ? "none" : null);
+        }
+        line.append(",\"promptLength\":").append(slot.promptLength);
+        line.append(",\"responseLength\":");
+        appendCount(line, slot.responseLength);
+        line.append(",\"promptTokens\":");
+        appendCount(line, slot.promptTokens);
+        line.append(",\"completionTokens\":");
+        appendCount(line, slot.completionTokens);
+        line.append(",\"totalTokens\":");
+        appendCount(line, slot.totalTokens);
+        line.append(",\"cached\":").append(slot.cached);
+        long micros = TimeUnit.NANOSECONDS.toMicros(slot.elapsedNanos);
+        line.append(",\"durationMs\":").append(micros / 1000).append('.').append((micros % 1000) / 100);
+        line.append('}');
+    }
+
+    private static void appendCount(StringBuilder line, int count) {
+        if (count < 0) {
+            line.append("null");
+        } else {
+            line.append(count);
+        }
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static int statusOf(Throwable error) {
+        if (error == null) {
+            return 200;
+        }
+        if (error instanceof SessionNotFoundException) {
+            return 404;
+        }
+        return error instanceof RuntimeException e ? GenerationFailure.of(e).status() : 500;
+    }
+
+    private static int promptLength(GenerateRequest request) {
+        return request != null && request.getPrompt() != null ? request.getPrompt().length() : 0;
+    }
+
+    private static int orUnknown(Integer count) {
+        return count != null ? count : -1;
+    }
+
+    private double backlog() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * One preallocated record. Fields are written by a producer before the
+     * volatile sequence store and read by the writer after the volatile load.
+     */
+    static final class Slot {
+
+        volatile long sequence;
+
+        long timestampMillis;
+
+        String endpoint;
+
+        String model;
+
+        Throwable error;
+
+        int promptLength;
+
+        int responseLength;
+
+        int promptTokens;
+
+        int completionTokens;
+
+        int totalTokens;
+
+        boolean cached;
+
+        int status;
+
+        long elapsedNanos;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
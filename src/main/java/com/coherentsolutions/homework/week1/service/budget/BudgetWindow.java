@@ -0,0 +1,79 @@
+package com.coherentsolutions.homework.week1.service.budget;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * The calendar windows a token budget is counted in, all in UTC.
+ *
+ * Windows are fixed, not sliding: a day's budget is back in full at
+ * midnight UTC, whatever was spent at 23:59. Each window is numbered
+ * (its period), so a counter only has to remember the period it counts
+ * for to notice that a new one has begun.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgets
+ */
+public enum BudgetWindow {
+
+    HOUR {
+        @Override
+        public long period(long epochMillis) {
+            return Math.floorDiv(epochMillis, HOUR_MILLIS);
+        }
+
+        @Override
+        public long end(long period) {
+            return (period + 1) * HOUR_MILLIS;
+        }
+    },
+
+    DAY {
+        @Override
+        public long period(long epochMillis) {
+            return Math.floorDiv(epochMillis, DAY_MILLIS);
+        }
+
+        @Override
+        public long end(long period) {
+            return (period + 1) * DAY_MILLIS;
+        }
+    },
+
+    MONTH {
+        @Override
+        public long period(long epochMillis) {
+            YearMonth month = YearMonth.from(Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+            return month.getYear() * 12L + month.getMonthValue() - 1;
+        }
+
+        @Override
+        public long end(long period) {
+            YearMonth next = YearMonth.of((int) Math.floorDiv(period, 12), Math.floorMod(period, 12) + 1)
+                    .plusMonths(1);
+            return next.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+    };
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    /**
+     * Number of the window that contains the given time.
+     *
+     * @param epochMillis the time
+     * @return the window's period number
+     */
+    public abstract long period(long epochMillis);
+
+    /**
+     * Time at which a window ends and the next one begins.
+     *
+     * @param period the window's period number
+     * @return end of the window in epoch milliseconds (exclusive)
+     */
+    public abstract long end(long period);
+}
@@ -0,0 +1,28 @@
+package com.coherentsolutions.homework.week1.service.budget;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A tenant's token usage in the current windows, as reported by the
+ * budgets actuator endpoint.
+ *
+ * @param tenant the tenant name
+ * @param windows usage per window, hour first
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgetEndpoint
+ */
+public record TenantUsage(String tenant, Map<BudgetWindow, Window> windows) {
+
+    /**
+     * Usage in one window.
+     *
+     * @param used tokens used in the window so far
+     * @param limit token limit for the window, 0 = unlimited
+     * @param remaining tokens left, null when unlimited
+     * @param resetsAt when the window ends
+     */
+    public record Window(long used, long limit, Long remaining, Instant resetsAt) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.coherentsolutions.homework.week1.service.budget;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Admin view of the token budgets: /actuator/budgets lists every tenant's
+ * usage, limit and remaining tokens per window, /actuator/budgets/{tenant}
+ * one tenant's (404 for a tenant that is neither configured nor counted).
+ *
+ * An actuator endpoint rather than a controller, so it is exposed, secured
+ * and moved to a management port together with metrics and health. It is
+ * read-only; budgets are changed in configuration.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgets
+ */
+@Component
+@Endpoint(id = "budgets")
+@RequiredArgsConstructor
+public class TokenBudgetEndpoint {
+
+    private final TokenBudgets tokenBudgets;
+
+    @ReadOperation
+    public Map<String, TenantUsage> usage() {
+        return tokenBudgets.usage();
+    }
+
+    @ReadOperation
+    public TenantUsage tenant(@Selector String tenant) {
+        return tokenBudgets.usage(tenant);
+    }
+}
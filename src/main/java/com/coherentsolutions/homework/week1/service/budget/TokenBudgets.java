@@ -0,0 +1,671 @@
+package com.coherentsolutions.homework.week1.service.budget;
+
+import com.coherentsolutions.homework.week1.config.TokenBudgetProperties;
+import com.coherentsolutions.homework.week1.exception.BudgetExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts model tokens per tenant (team) and rejects calls once a tenant's
+ * hourly, daily or monthly budget is used up.
+ *
+ * The rate limiter protects the shared OpenAI account from bursts, over
+ * seconds to a minute. Budgets cap what a team spends over hours to
+ * months: OpenAITextGeneratorService reserves the call's max-tokens for
+ * the calling tenant before every upstream call and settles the
+ * reservation with the reported usage after it.
+ * Answers served from a cache, or shared with an identical call already in
+ * flight (coalescing), cost nothing and are neither charged nor blocked.
+ *
+ * Tenants:
+ * The tenant is taken from the calling thread (runAs), or from the Reactor
+ * context on the reactive stack (context). TenantFilter binds it from the
+ * generator.budgets.tenant-header for every servlet request; batch items
+ * and jobs carry it over to the threads they run on. Calls without a
+ * tenant (tests, benchmarks, internal callers) are not counted.
+ *
+ * Trust:
+ * The application does not authenticate callers, so the header only selects
+ * among the tenants configured under generator.budgets.tenants; any other
+ * value is charged to the default tenant. Rotating the header therefore
+ * cannot open fresh budgets. A caller can still name another configured
+ * team, so the header must be set (and stripped from client requests) by an
+ * authenticating gateway in front of the application.
+ *
+ * Counting:
+ * Every call of every tenant adds to three counters, one per BudgetWindow.
+ * Each is a LongAdder, which stripes its count over per-thread cells, so
+ * concurrent calls of one tenant do not contend on a single CAS; the sum is
+ * only taken by check() and the usage endpoint. A counter remembers the
+ * period it counts for and is replaced by a fresh one (one CAS) by the
+ * first call of the next period.
+ *
+ * Precision:
+ * A budget is checked before the call, when its cost is not known yet. The
+ * check therefore counts the reservations of the tenant's calls in flight
+ * as used, and adds the call's own: concurrent calls cannot all pass on the
+ * same remaining budget. Only completion tokens are reserved, so a tenant
+ * can still end up past its limit by the prompt tokens of its calls in
+ * flight. Reservations are never written to the snapshot, and usage of
+ * providers that report none is not counted.
+ *
+ * Persistence:
+ * The counters are written to generator.budgets.snapshot-path every
+ * snapshot-interval (only if something was recorded) and on shutdown,
+ * through a temporary file and an atomic rename, and read back at startup;
+ * counts of windows that ended while the application was down are dropped.
+ *
+ * Metrics:
+ * - budget.rejected (counter, tag window=hour|day|month): calls rejected
+ * - budget.tenants (gauge): tenants being counted
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgetProperties
+ * @see TokenBudgetEndpoint
+ */
+@Component
+@Slf4j
+public class TokenBudgets {
+
+    /**
+     * Key of the tenant in the Reactor context.
+     */
+    public static final String CONTEXT_KEY = TokenBudgets.class.getName() + ".tenant";
+
+    static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Longest window first: when several are used up, the longest one
+     * decides when the tenant can call again.
+     */
+    private static final BudgetWindow[] CHECK_ORDER = {BudgetWindow.MONTH, BudgetWindow.DAY, BudgetWindow.HOUR};
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private final TokenBudgetProperties properties;
+
+    private final Clock clock;
+
+    /**
+     * Limits per window ordinal of the configured tenants, resolved against
+     * the defaults once.
+     */
+    private final Map<String, long[]> configuredLimits = new HashMap<>();
+
+    private final long[] defaultLimits;
+
+    private final ConcurrentHashMap<String, TenantCounters> tenants = new ConcurrentHashMap<>();
+
+    private final Map<BudgetWindow, Counter> rejected = new EnumMap<>(BudgetWindow.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path snapshotPath;
+
+    private final ScheduledExecutorService snapshotter;
+
+    private final AtomicBoolean overflowLogged = new AtomicBoolean();
+
+    private final Reservation unreserved = new Reservation(null, new Period[0], 0);
+
+    private volatile boolean dirty;
+
+    @Autowired
+    public TokenBudgets(TokenBudgetProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the budgets with an explicit clock, so window rollover can be
+     * tested without waiting for the hour to end.
+     */
+    public TokenBudgets(TokenBudgetProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        if (properties.isEnabled() && properties.getMaximumTenants() < 1) {
+            throw new IllegalArgumentException("generator.budgets.maximum-tenants must be positive");
+        }
+        this.properties = properties;
+        this.clock = clock;
+        this.defaultLimits = resolve(properties.getDefaultLimits(), new long[BudgetWindow.values().length]);
+        properties.getTenants().forEach((tenant, limits) -> configuredLimits.put(tenant, resolve(limits, defaultLimits)));
+        for (BudgetWindow window : BudgetWindow.values()) {
+            rejected.put(window, meterRegistry.counter("budget.rejected", "window", window.name().toLowerCase()));
+        }
+        Gauge.builder("budget.tenants", tenants, Map::size)
+                .description("Tenants whose token usage is being counted")
+                .register(meterRegistry);
+
+        String path = properties.getSnapshotPath();
+        this.snapshotPath = properties.isEnabled() && path != null && !path.isBlank() ? Path.of(path) : null;
+        if (snapshotPath != null) {
+            load();
+            long intervalMillis = properties.getSnapshotInterval().toMillis();
+            this.snapshotter = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("token-budget-snapshot").daemon().factory());
+            snapshotter.scheduleWithFixedDelay(this::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.snapshotter = null;
+        }
+    }
+
+    /**
+     * Runs work on behalf of a tenant: budget checks and usage of the
+     * upstream calls it makes on this thread go to that tenant.
+     *
+     * @param tenant the tenant, or null for uncounted work
+     * @param work the work
+     * @return the work's result
+     */
+    public static <T> T runAs(String tenant, Supplier<T> work) {
+        Binding binding = bind(tenant);
+        try {
+            return work.get();
+        } finally {
+            binding.close();
+        }
+    }
+
+    /**
+     * Binds a tenant to this thread until the returned binding is closed,
+     * for callers that cannot wrap their work in a Supplier (TenantFilter).
+     *
+     * @param tenant the tenant, or null for uncounted work
+     * @return the binding, which restores the previous tenant when closed
+     */
+    public static Binding bind(String tenant) {
+        String previous = CURRENT_TENANT.get();
+        if (tenant != null) {
+            CURRENT_TENANT.set(tenant);
+        } else {
+            CURRENT_TENANT.remove();
+        }
+        return () -> {
+            if (previous != null) {
+                CURRENT_TENANT.set(previous);
+            } else {
+                CURRENT_TENANT.remove();
+            }
+        };
+    }
+
+    /**
+     * Returns the tenant bound to this thread.
+     *
+     * @return the tenant, or null
+     */
+    public static String currentTenant() {
+        return CURRENT_TENANT.get();
+    }
+
+    /**
+     * Returns the tenant of a Reactor context, for work that is subscribed
+     * to on threads that never saw the request.
+     *
+     * @param context the subscriber's context
+     * @param fallback tenant to use if the context carries none, usually
+     *                 currentTenant() captured when the publisher was built
+     * @return the tenant, or the fallback
+     */
+    public static String tenantOf(ContextView context, String fallback) {
+        return context.getOrDefault(CONTEXT_KEY, fallback);
+    }
+
+    /**
+     * Reactor context carrying a tenant, for contextWrite.
+     *
+     * @param tenant the tenant, or null
+     * @return the context, empty for a null tenant
+     */
+    public static Context context(String tenant) {
+        return tenant != null ? Context.of(CONTEXT_KEY, tenant) : Context.empty();
+    }
+
+    /**
+     * Identifies the tenant of a servlet request: the configured header if
+     * it names a configured tenant, otherwise the default tenant.
+     *
+     * @param request the HTTP request
+     * @return the tenant, or null while budgets are disabled
+     */
+    public String resolveTenant(HttpServletRequest request) {
+        return resolveTenant(request.getHeader(properties.getTenantHeader()));
+    }
+
+    /**
+     * Identifies the tenant of a reactive request, like resolveTenant(HttpServletRequest).
+     *
+     * @param request the reactive HTTP request
+     * @return the tenant, or null while budgets are disabled
+     */
+    public String resolveTenant(ServerHttpRequest request) {
+        return resolveTenant(request.getHeaders().getFirst(properties.getTenantHeader()));
+    }
+
+    private String resolveTenant(String header) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String tenant = header != null ? header.trim() : null;
+        return tenant != null && configuredLimits.containsKey(tenant) ? tenant : properties.getDefaultTenant();
+    }
+
+    /**
+     * Rejects the call if the tenant has used up any of its budgets, counting
+     * the reservations of its calls in flight as used. Reserves nothing, for
+     * an early answer before the call is made (see reserve).
+     *
+     * @param tenant the calling tenant, or null for uncounted calls
+     * @throws BudgetExceededException if a budget is used up
+     */
+    public void check(String tenant) {
+        if (!properties.isEnabled() || tenant == null) {
+            return;
+        }
+        long now = clock.millis();
+        TenantCounters counters = counters(tenant);
+        for (BudgetWindow window : CHECK_ORDER) {
+            long limit = counters.limits[window.ordinal()];
+            if (limit > 0) {
+                Period period = counters.windows[window.ordinal()].current(window.period(now));
+                rejectIfSpent(counters, window, limit, period.tokens().sum() + period.reserved().sum(), now);
+            }
+        }
+    }
+
+    /**
+     * Checks the tenant's budgets like check and holds back the tokens the
+     * call may use at most, until the returned reservation is settled with
+     * the actual usage or released.
+     *
+     * @param tenant the calling tenant, or null for uncounted calls
+     * @param tokens tokens to hold back, usually the call's max-tokens
+     * @return the reservation; one that does nothing for uncounted calls
+     * @throws BudgetExceededException if a budget is used up, counting other
+     *         calls' reservations but not this one
+     */
+    public Reservation reserve(String tenant, long tokens) {
+        if (!properties.isEnabled() || tenant == null) {
+            return unreserved;
+        }
+        long now = clock.millis();
+        TenantCounters counters = counters(tenant);
+        Period[] held = new Period[BudgetWindow.values().length];
+        for (BudgetWindow window : BudgetWindow.values()) {
+            held[window.ordinal()] = counters.windows[window.ordinal()].current(window.period(now));
+            held[window.ordinal()].reserved().add(tokens);
+        }
+        Reservation reservation = new Reservation(counters, held, tokens);
+        for (BudgetWindow window : CHECK_ORDER) {
+            long limit = counters.limits[window.ordinal()];
+            if (limit > 0) {
+                Period period = held[window.ordinal()];
+                long used = period.tokens().sum() + period.reserved().sum() - tokens;
+                if (used >= limit) {
+                    reservation.release();
+                    rejectIfSpent(counters, window, limit, used, now);
+                }
+            }
+        }
+        return reservation;
+    }
+
+    /**
+     * Adds the tokens of a finished call to every window of the tenant,
+     * for calls that held no reservation.
+     *
+     * @param tenant the calling tenant, or null for uncounted calls
+     * @param tokens total tokens the provider reported, or null if none
+     */
+    public void record(String tenant, Integer tokens) {
+        if (!properties.isEnabled() || tenant == null) {
+            return;
+        }
+        add(counters(tenant), tokens, clock.millis());
+    }
+
+    /**
+     * Current usage of every configured or counted tenant, by name.
+     *
+     * @return usage per tenant
+     */
+    public Map<String, TenantUsage> usage() {
+        Map<String, TenantUsage> usage = new TreeMap<>();
+        long now = clock.millis();
+        configuredLimits.keySet().forEach(tenant -> usage.put(tenant, usageOf(tenant, now)));
+        tenants.keySet().forEach(tenant -> usage.put(tenant, usageOf(tenant, now)));
+        return usage;
+    }
+
+    /**
+     * Current usage of one tenant.
+     *
+     * @param tenant the tenant
+     * @return the usage, or null if the tenant is neither configured nor counted
+     */
+    public TenantUsage usage(String tenant) {
+        return configuredLimits.containsKey(tenant) || tenants.containsKey(tenant)
+                ? usageOf(tenant, clock.millis())
+                : null;
+    }
+
+    /**
+     * Writes the counters to the snapshot file if anything was recorded
+     * since the last snapshot. Failures are logged and retried on the next run.
+     */
+    void snapshot() {
+        if (snapshotPath == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            log.warn("Could not write token budget snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the snapshot thread and writes a final snapshot, so a restart
+     * continues from the exact counts.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotter == null) {
+            return;
+        }
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    private void rejectIfSpent(TenantCounters counters, BudgetWindow window, long limit, long used, long now) {
+        if (used >= limit) {
+            rejected.get(window).increment();
+            long end = window.end(window.period(now));
+            throw new BudgetExceededException(counters.tenant, window, limit, used, Instant.ofEpochMilli(end),
+                    Duration.ofMillis(end - now));
+        }
+    }
+
+    private void add(TenantCounters counters, Integer tokens, long now) {
+        if (tokens == null || tokens <= 0) {
+            return;
+        }
+        for (BudgetWindow window : BudgetWindow.values()) {
+            counters.windows[window.ordinal()].current(window.period(now)).tokens().add(tokens);
+        }
+        dirty = true;
+    }
+
+    private TenantUsage usageOf(String tenant, long now) {
+        TenantCounters counters = tenants.get(tenant);
+        long[] limits = counters != null ? counters.limits : limitsOf(tenant);
+        Map<BudgetWindow, TenantUsage.Window> windows = new EnumMap<>(BudgetWindow.class);
+        for (BudgetWindow window : BudgetWindow.values()) {
+            long used = counters != null ? counters.windows[window.ordinal()].used(now) : 0;
+            long limit = limits[window.ordinal()];
+            windows.put(window, new TenantUsage.Window(used, limit, limit > 0 ? Math.max(0, limit - used) : null,
+                    Instant.ofEpochMilli(window.end(window.period(now)))));
+        }
+        return new TenantUsage(tenant, windows);
+    }
+
+    private TenantCounters counters(String tenant) {
+        TenantCounters counters = tenants.get(tenant);
+        if (counters != null) {
+            return counters;
+        }
+        if (tenants.size() >= properties.getMaximumTenants() && !configuredLimits.containsKey(tenant)) {
+            if (overflowLogged.compareAndSet(false, true)) {
+                log.warn("More than {} tenants; charging further unconfigured tenants to '{}'",
+                        properties.getMaximumTenants(), properties.getDefaultTenant());
+            }
+            tenant = properties.getDefaultTenant();
+        }
+        return tenants.computeIfAbsent(tenant, name -> new TenantCounters(name, limitsOf(name)));
+    }
+
+    private long[] limitsOf(String tenant) {
+        return configuredLimits.getOrDefault(tenant, defaultLimits);
+    }
+
+    private void load() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            Snapshot snapshot = objectMapper.readValue(snapshotPath.toFile(), Snapshot.class);
+            if (snapshot.version() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring token budget snapshot {} of version {}", snapshotPath, snapshot.version());
+                return;
+            }
+            long now = clock.millis();
+            snapshot.tenants().forEach((tenant, windows) -> {
+                TenantCounters counters = counters(tenant);
+                windows.forEach((window, saved) -> {
+                    if (saved.period() == window.period(now)) {
+                        counters.windows[window.ordinal()].current(saved.period()).tokens().add(saved.tokens());
+                    }
+                });
+            });
+            log.info("Restored token usage of {} tenants from {}", snapshot.tenants().size(), snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read token budget snapshot {}, counting from zero: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private synchronized void writeSnapshot() throws IOException {
+        Map<String, Map<BudgetWindow, SavedPeriod>> saved = new TreeMap<>();
+        tenants.forEach((tenant, counters) -> {
+            Map<BudgetWindow, SavedPeriod> windows = new EnumMap<>(BudgetWindow.class);
+            for (BudgetWindow window : BudgetWindow.values()) {
+                Period period = counters.windows[window.ordinal()].current.get();
+                long tokens = period.tokens().sum();
+                if (tokens > 0) {
+                    windows.put(window, new SavedPeriod(period.period(), tokens));
+                }
+            }
+            if (!windows.isEmpty()) {
+                saved.put(tenant, windows);
+            }
+        });
+
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), new Snapshot(SNAPSHOT_VERSION, clock.millis(), saved));
+        try {
+            Files.move(temporary, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long[] resolve(TokenBudgetProperties.Limits limits, long[] defaults) {
+        long[] resolved = defaults.clone();
+        if (limits != null) {
+            override(resolved, BudgetWindow.HOUR, limits.getTokensPerHour());
+            override(resolved, BudgetWindow.DAY, limits.getTokensPerDay());
+            override(resolved, BudgetWindow.MONTH, limits.getTokensPerMonth());
+        }
+        return resolved;
+    }
+
+    private static void override(long[] limits, BudgetWindow window, Long limit) {
+        if (limit != null) {
+            limits[window.ordinal()] = limit;
+        }
+    }
+
+    /**
+     * Restores the previous tenant of the thread when closed.
+     */
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Tokens held back for one call in flight, in the periods that were
+     * current when it started. Settling or releasing it takes them back
+     * from those same periods, even if a window has rolled over since.
+     */
+    public final class Reservation {
+
+        private final TenantCounters counters;
+
+        private final Period[] held;
+
+        private final long tokens;
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        private Reservation(TenantCounters counters, Period[] held, long tokens) {
+            this.counters = counters;
+            this.held = held;
+            this.tokens = tokens;
+        }
+
+        /**
+         * Charges the call's actual usage to the tenant's current windows
+         * and gives the reserved tokens back. Only the first settle or
+         * release has an effect.
+         *
+         * @param used total tokens the provider reported, or null if none
+         */
+        public void settle(Integer used) {
+            if (open.compareAndSet(true, false) && counters != null) {
+                add(counters, used, clock.millis());
+                giveBack();
+            }
+        }
+
+        /**
+         * Gives the reserved tokens back without charging anything, for
+         * calls that failed or were cancelled. Only the first settle or
+         * release has an effect.
+         */
+        public void release() {
+            if (open.compareAndSet(true, false)) {
+                giveBack();
+            }
+        }
+
+        private void giveBack() {
+            for (Period period : held) {
+                period.reserved().add(-tokens);
+            }
+        }
+    }
+
+    /**
+     * The three window counters of one tenant and its resolved limits.
+     */
+    private static final class TenantCounters {
+
+        private final String tenant;
+
+        private final long[] limits;
+
+        private final WindowCounter[] windows = new WindowCounter[BudgetWindow.values().length];
+
+        TenantCounters(String tenant, long[] limits) {
+            this.tenant = tenant;
+            this.limits = limits;
+            for (int i = 0; i < windows.length; i++) {
+                windows[i] = new WindowCounter(BudgetWindow.values()[i]);
+            }
+        }
+    }
+
+    /**
+     * Tokens of the most recent period of one window. Adds that race with a
+     * rollover may land in the period that just ended and are lost; that is
+     * a few calls' tokens at most once per period.
+     */
+    private static final class WindowCounter {
+
+        private final BudgetWindow window;
+
+        private final AtomicReference<Period> current = new AtomicReference<>(
+                new Period(Long.MIN_VALUE, new LongAdder(), new LongAdder()));
+
+        WindowCounter(BudgetWindow window) {
+            this.window = window;
+        }
+
+        /**
+         * Returns the counts of the given period, starting it if an earlier
+         * one is still current.
+         */
+        Period current(long period) {
+            Period counting = current.get();
+            while (counting.period() < period) {
+                Period next = new Period(period, new LongAdder(), new LongAdder());
+                if (current.compareAndSet(counting, next)) {
+                    return next;
+                }
+                counting = current.get();
+            }
+            return counting;
+        }
+
+        long used(long now) {
+            Period counting = current.get();
+            return counting.period() == window.period(now) ? counting.tokens().sum() : 0;
+        }
+    }
+
+    /**
+     * Tokens charged in one period of a window, and tokens held back for
+     * calls in flight that started in it.
+     */
+    private record Period(long period, LongAdder tokens, LongAdder reserved) {
+    }
+
+    record SavedPeriod(long period, long tokens) {
+    }
+
+    record Snapshot(int version, long savedAt, Map<String, Map<BudgetWindow, SavedPeriod>> tenants) {
+    }
+}
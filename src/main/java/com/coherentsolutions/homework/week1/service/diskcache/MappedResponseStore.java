@@ -0,0 +1,494 @@
+package com.coherentsolutions.homework.week1.service.diskcache;
+
+import com.coherentsolutions.homework.week1.config.DiskCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped file of generated responses that survives restarts.
+ *
+ * The whole file (generator.disk-cache.max-size) is mapped into memory once.
+ * New responses are appended at the end of the log; lookups go through an
+ * in-memory index from GenerationKey to record offset and run Jackson over
+ * a slice of the mapped pages. That saves a read into a heap buffer, but it
+ * is not a zero-copy read: every hit still builds a new GenerateResponse.
+ * The operating system's page cache keeps hot records in RAM and writes
+ * dirty pages back to disk, also when the JVM exits.
+ *
+ * File Layout:
+ * - File header: magic number and format version
+ * - Records, each starting at a multiple of 8 bytes: length, CRC32, hit
+ *   count, write time (epoch ms), key length, key JSON, response JSON
+ * - The length is written last, so a record cut short by a crash reads as
+ *   the end of the log; the CRC catches records whose pages were only
+ *   partly written back
+ * - The hit count is the only field updated in place, with an atomic add
+ *   (which needs the aligned record start); it survives restarts so the
+ *   hottest entries can be preloaded
+ *
+ * Compaction:
+ * - Storing a key again, or storing it after it expired, leaves the old
+ *   record behind as dead space
+ * - Once dead records take generator.disk-cache.compaction-threshold of the
+ *   file, or the next record does not fit, the live records are copied into
+ *   a fresh file that then atomically replaces the old one
+ * - When the file is full even without dead records, only the most-hit
+ *   responses filling half of the file are kept
+ * - The store drops its reference to the old mapping at the swap. Java
+ *   cannot unmap a MappedByteBuffer explicitly, so the old pages (and the
+ *   disk space of the replaced file) are released when the garbage
+ *   collector reclaims that buffer
+ *
+ * The index is rebuilt on startup by scanning the log. Keys and responses
+ * are stored with a private ObjectMapper, so the file format does not change
+ * with the API's JSON settings, and unknown response fields are ignored so
+ * files written by older versions stay readable.
+ *
+ * Thread Safety:
+ * Lookups share a read lock and count their hit with an atomic add on the
+ * mapped hit count; appends and compaction take the write lock.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see DiskCacheProperties
+ * @see com.coherentsolutions.homework.week1.service.impl.DiskCachingTextGeneratorService
+ */
+@Slf4j
+public class MappedResponseStore implements Closeable {
+
+    private static final int MAGIC = 0x47524331;
+
+    /**
+     * Record format version; 2 added the generation profile to the keys,
+     * 3 stores response timestamps as epoch millis, 4 aligns records to
+     * 8 bytes. A file of another version is started over rather than misread.
+     */
+    private static final int VERSION = 4;
+
+    private static final int ALIGNMENT = 8;
+
+    private static final int FILE_HEADER = 8;
+
+    // Record field offsets
+    private static final int LENGTH = 0;
+
+    private static final int CRC = 4;
+
+    private static final int HITS = 8;
+
+    private static final int WRITTEN_AT = 12;
+
+    private static final int KEY_LENGTH = 20;
+
+    private static final int RECORD_HEADER = 24;
+
+    private static final long MIN_SIZE = 4096;
+
+    /**
+     * Atomic int access to the mapped file, in the byte order of getInt and putInt.
+     */
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addMixIn(GenerateResponse.class, StoredResponse.class)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final Path path;
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    private final double compactionThreshold;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<GenerationKey, Entry> index = new ConcurrentHashMap<>();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private int position;
+
+    private long deadBytes;
+
+    private volatile long compactions;
+
+    public MappedResponseStore(DiskCacheProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    /**
+     * Opens (or creates) the store with an explicit wall clock, so expiry
+     * can be tested without waiting. Wall-clock time is used because write
+     * times must stay comparable across restarts.
+     *
+     * @param properties the disk cache settings
+     * @param currentTimeMillis source of the current time in epoch milliseconds
+     * @throws UncheckedIOException if the file cannot be opened or mapped
+     */
+    public MappedResponseStore(DiskCacheProperties properties, LongSupplier currentTimeMillis) {
+        long maxSize = properties.getMaxSize().toBytes();
+        if (maxSize < MIN_SIZE || maxSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "generator.disk-cache.max-size must be between 4KB and 2GB, was " + properties.getMaxSize());
+        }
+        this.path = Path.of(properties.getPath());
+        this.capacity = (int) maxSize;
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.compactionThreshold = properties.getCompactionThreshold();
+        this.currentTimeMillis = currentTimeMillis;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open disk cache " + path, e);
+        }
+    }
+
+    /**
+     * Looks up a stored, unexpired response and counts the hit.
+     *
+     * @param key the generation key
+     * @return the stored response, or empty on a miss
+     * @throws UncheckedIOException if the stored record cannot be read
+     */
+    public Optional<GenerateResponse> get(GenerationKey key) {
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(key);
+            if (entry == null || isExpired(entry, currentTimeMillis.getAsLong())) {
+                return Optional.empty();
+            }
+            INT.getAndAdd(buffer, entry.offset() + HITS, 1);
+            return Optional.of(readResponse(entry));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a response, compacting the file first if needed. Responses
+     * larger than a quarter of the file are not stored.
+     *
+     * @param key the generation key
+     * @param response the generated response
+     * @throws UncheckedIOException if the response cannot be written
+     */
+    public void put(GenerationKey key, GenerateResponse response) {
+        byte[] keyBytes;
+        byte[] valueBytes;
+        try {
+            keyBytes = MAPPER.writeValueAsBytes(key);
+            valueBytes = MAPPER.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize response for the disk cache", e);
+        }
+        int length = RECORD_HEADER + keyBytes.length + valueBytes.length;
+        if (length > capacity / 4) {
+            log.debug("Response of {} bytes is too large for the disk cache", length);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (deadBytes > capacity * compactionThreshold) {
+                compact(false);
+            }
+            if (position + aligned(length) > capacity) {
+                compact(true);
+            }
+            append(key, keyBytes, valueBytes, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact disk cache " + path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the most-hit unexpired responses, hottest first.
+     *
+     * @param limit maximum number of responses
+     * @return the responses by key, in descending hit order
+     */
+    public Map<GenerationKey, GenerateResponse> hottest(int limit) {
+        lock.readLock().lock();
+        try {
+            long now = currentTimeMillis.getAsLong();
+            Map<GenerationKey, GenerateResponse> hottest = new LinkedHashMap<>();
+            index.entrySet().stream()
+                    .filter(e -> !isExpired(e.getValue(), now))
+                    .sorted(Comparator.comparing(Map.Entry<GenerationKey, Entry>::getValue, hottestFirst()))
+                    .limit(limit)
+                    .forEach(e -> hottest.put(e.getKey(), readResponse(e.getValue())));
+            return hottest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed responses, including expired ones not yet compacted away.
+     *
+     * @return entry count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns how far the log extends into the file.
+     *
+     * @return used bytes, including dead records
+     */
+    public long usedBytes() {
+        return position;
+    }
+
+    /**
+     * Returns how often the file has been rewritten since it was opened.
+     *
+     * @return compaction count
+     */
+    public long compactions() {
+        return compactions;
+    }
+
+    /**
+     * Flushes the mapped pages to disk and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long existing = channel.size();
+        if (existing > 0 && (existing < FILE_HEADER || !hasHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER)))) {
+            log.warn("Disk cache {} is not a response cache file; starting empty", path);
+            channel.truncate(0);
+            existing = 0;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(existing, capacity));
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+
+        scan();
+        if (position > capacity) {
+            compact(true);
+        }
+        log.info("Disk cache {} opened with {} responses ({} of {} bytes used)", path, index.size(), position, capacity);
+    }
+
+    private static boolean hasHeader(ByteBuffer header) {
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+    }
+
+    /**
+     * Rebuilds the index from the log, stopping at the first empty or damaged record.
+     */
+    private void scan() {
+        int offset = FILE_HEADER;
+        int limit = buffer.capacity();
+        while (offset + RECORD_HEADER <= limit) {
+            int length = buffer.getInt(offset + LENGTH);
+            if (length == 0) {
+                break;
+            }
+            GenerationKey key = length >= RECORD_HEADER && length <= limit - offset
+                    && buffer.getInt(offset + CRC) == checksum(buffer, offset, length)
+                    ? readKey(offset) : null;
+            if (key == null) {
+                log.warn("Disk cache {} has a damaged record at offset {}; ignoring the rest of the file", path, offset);
+                break;
+            }
+            index(key, new Entry(offset, length, buffer.getLong(offset + WRITTEN_AT)));
+            offset += aligned(length);
+        }
+        position = offset;
+    }
+
+    private void append(GenerationKey key, byte[] keyBytes, byte[] valueBytes, int length) {
+        int offset = position;
+        long now = currentTimeMillis.getAsLong();
+        buffer.putInt(offset + HITS, 0);
+        buffer.putLong(offset + WRITTEN_AT, now);
+        buffer.putInt(offset + KEY_LENGTH, keyBytes.length);
+        buffer.put(offset + RECORD_HEADER, keyBytes);
+        buffer.put(offset + RECORD_HEADER + keyBytes.length, valueBytes);
+        buffer.putInt(offset + CRC, checksum(buffer, offset, length));
+        buffer.putInt(offset + LENGTH, length);
+        position += aligned(length);
+        index(key, new Entry(offset, length, now));
+    }
+
+    private void index(GenerationKey key, Entry entry) {
+        Entry previous = index.put(key, entry);
+        if (previous != null) {
+            deadBytes += previous.length();
+        }
+    }
+
+    /**
+     * Copies the live records into a fresh file and swaps it in. With
+     * {@code full}, only the most-hit records filling half the file are kept.
+     */
+    private void compact(boolean full) throws IOException {
+        long now = currentTimeMillis.getAsLong();
+        List<Map.Entry<GenerationKey, Entry>> live = new ArrayList<>(index.entrySet().stream()
+                .filter(e -> !isExpired(e.getValue(), now))
+                .toList());
+        if (full) {
+            live.sort(Comparator.comparing(Map.Entry::getValue, hottestFirst()));
+            long budget = capacity / 2 - FILE_HEADER;
+            int kept = 0;
+            for (long used = 0; kept < live.size() && used + aligned(live.get(kept).getValue().length()) <= budget;
+                 kept++) {
+                used += aligned(live.get(kept).getValue().length());
+            }
+            live = new ArrayList<>(live.subList(0, kept));
+        }
+        live.sort(Comparator.comparingInt(e -> e.getValue().offset()));
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        FileChannel target = FileChannel.open(compacted,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer targetBuffer = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        targetBuffer.putInt(0, MAGIC);
+        targetBuffer.putInt(4, VERSION);
+
+        Map<GenerationKey, Entry> moved = new ConcurrentHashMap<>();
+        int offset = FILE_HEADER;
+        for (Map.Entry<GenerationKey, Entry> e : live) {
+            Entry entry = e.getValue();
+            targetBuffer.put(offset, buffer, entry.offset(), entry.length());
+            moved.put(e.getKey(), new Entry(offset, entry.length(), entry.writtenAt()));
+            offset += aligned(entry.length());
+        }
+        targetBuffer.force();
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel.close();
+
+        int before = index.size();
+        channel = target;
+        buffer = targetBuffer;
+        position = offset;
+        deadBytes = 0;
+        index.clear();
+        index.putAll(moved);
+        compactions++;
+        log.info("Compacted disk cache {}: kept {} of {} responses ({} bytes)", path, moved.size(), before, offset);
+    }
+
+    private GenerationKey readKey(int offset) {
+        int keyLength = buffer.getInt(offset + KEY_LENGTH);
+        try {
+            return MAPPER.readValue(new ByteBufferBackedInputStream(
+                    buffer.slice(offset + RECORD_HEADER, keyLength)), GenerationKey.class);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private GenerateResponse readResponse(Entry entry) {
+        int valueOffset = entry.offset() + RECORD_HEADER + buffer.getInt(entry.offset() + KEY_LENGTH);
+        ByteBuffer value = buffer.slice(valueOffset, entry.offset() + entry.length() - valueOffset);
+        try {
+            return MAPPER.readValue(new ByteBufferBackedInputStream(value), GenerateResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read response at offset " + entry.offset() + " of " + path, e);
+        }
+    }
+
+    private int hits(Entry entry) {
+        return (int) INT.getVolatile(buffer, entry.offset() + HITS);
+    }
+
+    private Comparator<Entry> hottestFirst() {
+        return Comparator.comparingInt(this::hits).reversed()
+                .thenComparing(Comparator.comparingLong(Entry::writtenAt).reversed());
+    }
+
+    private static int aligned(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.writtenAt() >= ttlMillis;
+    }
+
+    /**
+     * CRC32 of a record, excluding length, CRC and the mutable hit count.
+     */
+    private static int checksum(ByteBuffer source, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(source.slice(offset + WRITTEN_AT, length - WRITTEN_AT));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Index entry: where a record lives. Its hit count is kept in the file only.
+     */
+    private record Entry(int offset, int length, long writtenAt) {
+    }
+
+    /**
+     * Stores the response timestamp as the epoch-millis number it is, not
+     * as the ISO local date-time clients see, so records do not depend on
+     * the server's time zone.
+     */
+    private abstract static class StoredResponse {
+
+        @JsonSerialize(using = JsonSerializer.None.class)
+        private long timestamp;
+    }
+}
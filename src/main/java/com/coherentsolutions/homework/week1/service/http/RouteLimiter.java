@@ -0,0 +1,311 @@
+package com.coherentsolutions.homework.week1.service.http;
+
+import com.coherentsolutions.homework.week1.config.HttpClientProperties;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the requests in flight per route on the outbound HTTP client, and
+ * measures how full each route is.
+ *
+ * The JDK HttpClient never says no: on HTTP/1.1 it opens another
+ * connection for every concurrent request, on HTTP/2 another stream, until
+ * the server or the provider's concurrency limit pushes back with resets
+ * and 429s. Here each route (scheme, host, port) has generator.http-client
+ * max-per-route places; a blocking call that finds its route full waits up
+ * to acquire-timeout, then fails with ServiceOverloadedException (503 with
+ * Retry-After) without touching the network. The place is held until the
+ * response body is closed, since that is when the connection is free again.
+ *
+ * Streams through WebClient take a place as well, so they count towards
+ * the limit the blocking calls see, but they never wait for one: the
+ * reactive stack cannot block, and a stream is cheap to keep waiting on
+ * the upstream side anyway.
+ *
+ * The JDK client does not expose its sockets, so the requests in flight
+ * stand in for the pool: on HTTP/1.1 each is one leased connection, on
+ * HTTP/2 one stream on the route's shared connection.
+ *
+ * Metrics (tagged route, e.g. "https://api.openai.com:443"):
+ * - outbound.route.in.use (gauge): requests in flight
+ * - outbound.route.max (gauge): the route's limit, for utilization = in.use / max
+ * - outbound.route.pending (gauge): blocking calls waiting for a place
+ * - outbound.route.wait (timer): time calls waited, 0 when a place was free
+ * - outbound.route.rejected (counter): calls that gave up waiting
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HttpClientProperties
+ * @see com.coherentsolutions.homework.week1.config.HttpClientConfig
+ */
+@Component
+@Slf4j
+public class RouteLimiter implements ClientHttpRequestInterceptor {
+
+    private final HttpClientProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public RouteLimiter(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMaxPerRoute() <= 0 || properties.getRoutes().values().stream().anyMatch(max -> max <= 0)) {
+            throw new IllegalArgumentException("generator.http-client.max-per-route and routes must be positive");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Blocking calls (RestClient): waits for a place on the route, then
+     * holds it until the response is closed.
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Route route = route(request.getURI());
+        route.acquire();
+        try {
+            return new ReleasingResponse(execution.execute(request, body), route);
+        } catch (IOException | RuntimeException e) {
+            route.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Streaming calls (WebClient): takes a place without waiting and holds
+     * it until the response body completes, fails or is cancelled.
+     *
+     * @return the filter for WebClient.Builder
+     */
+    public ExchangeFilterFunction streamFilter() {
+        return this::exchange;
+    }
+
+    /**
+     * Requests in flight on a route.
+     *
+     * @param uri any URI on the route
+     * @return requests holding a place
+     */
+    public int inUse(URI uri) {
+        return route(uri).inUse();
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Route route = route(request.url());
+            route.enter();
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    route.release();
+                }
+            };
+            return next.exchange(request)
+                    .map(response -> response.mutate()
+                            .body(body -> body.doFinally(signal -> release.run()))
+                            .build())
+                    .doOnError(e -> release.run())
+                    .doOnCancel(release);
+        });
+    }
+
+    private Route route(URI uri) {
+        int port = uri.getPort() >= 0 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        String key = uri.getScheme() + "://" + uri.getHost() + ":" + port;
+        return routes.computeIfAbsent(key, name -> new Route(name, properties.maxFor(uri.getHost(), port)));
+    }
+
+    /**
+     * Places on one route and their meters.
+     */
+    private final class Route {
+
+        private final String name;
+
+        private final int max;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition released = lock.newCondition();
+
+        private final Timer waitTimer;
+
+        private final Counter rejected;
+
+        private int inUse;
+
+        private int pending;
+
+        private Route(String name, int max) {
+            this.name = name;
+            this.max = max;
+            this.waitTimer = Timer.builder("outbound.route.wait")
+                    .description("Time outbound requests waited for a place on their route")
+                    .tag("route", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("outbound.route.rejected")
+                    .description("Outbound requests that timed out waiting for a place on their route")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("outbound.route.in.use", this, Route::inUse)
+                    .description("Outbound requests in flight on the route")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("outbound.route.pending", this, Route::pending)
+                    .description("Outbound requests waiting for a place on the route")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("outbound.route.max", this, route -> route.max)
+                    .description("Outbound requests in flight on the route at most")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+
+        private void acquire() {
+            long startNanos = System.nanoTime();
+            lock.lock();
+            try {
+                long remainingNanos = properties.getAcquireTimeout().toNanos();
+                pending++;
+                try {
+                    while (inUse >= max) {
+                        if (remainingNanos <= 0) {
+                            rejected.increment();
+                            log.warn("Outbound request to {} timed out after {} waiting for a place ({} in flight)",
+                                    name, properties.getAcquireTimeout(), inUse);
+                            throw new ServiceOverloadedException(String.format(
+                                    "No connection to %s free within %s", name, properties.getAcquireTimeout()),
+                                    properties.getAcquireTimeout());
+                        }
+                        remainingNanos = released.awaitNanos(remainingNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TextGenerationException("Interrupted while waiting for an outbound connection", e);
+                } finally {
+                    pending--;
+                }
+                inUse++;
+                waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void enter() {
+            lock.lock();
+            try {
+                inUse++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                inUse--;
+                released.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int inUse() {
+            lock.lock();
+            try {
+                return inUse;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int pending() {
+            lock.lock();
+            try {
+                return pending;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gives the route's place back when RestClient closes the response.
+     */
+    private static final class ReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final Route route;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ReleasingResponse(ClientHttpResponse delegate, Route route) {
+            this.delegate = delegate;
+            this.route = route;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    route.release();
+                }
+            }
+        }
+    }
+}
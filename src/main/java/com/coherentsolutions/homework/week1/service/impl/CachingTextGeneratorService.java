@@ -0,0 +1,142 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * Exact-match response cache in front of another TextGeneratorService.
+ *
+ * Identical prompts arriving from many clients would otherwise each cost a full
+ * model round trip. This decorator keys responses on the normalized prompt,
+ * the generation profile and its model options (see GenerationKey) and
+ * serves repeats from memory.
+ *
+ * Cache Behavior:
+ * - Bounded: at most generator.cache.maximum-size entries, LRU-style eviction
+ * - Time-limited: entries expire generator.cache.ttl after they were generated
+ * - Hits return a copy of the stored response with cached = true
+ * - Failures are never cached; the next request retries the model
+ * - With generator.cache.cache-sampled-responses = false, requests whose
+ *   profile samples (temperature > 0) bypass the cache entirely
+ * - Requests naming an unknown profile pass through, to be rejected below
+ *
+ * Metrics (via Micrometer, visible under /actuator/metrics):
+ * - cache.gets{cache=generate.responses, result=hit|miss}
+ * - cache.evictions{cache=generate.responses}
+ * - cache.size{cache=generate.responses}
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationKey
+ * @see ResponseCacheProperties
+ */
+@Slf4j
+public class CachingTextGeneratorService implements TextGeneratorService {
+
+    /**
+     * Name under which the cache metrics are published.
+     */
+    public static final String CACHE_NAME = "generate.responses";
+
+    private final TextGeneratorService delegate;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final boolean cacheSampledResponses;
+
+    private final Cache<GenerationKey, GenerateResponse> cache;
+
+    public CachingTextGeneratorService(TextGeneratorService delegate,
+                                       GenerationProfiles generationProfiles,
+                                       ResponseCacheProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this(delegate, generationProfiles, properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the cache with an explicit time source, so expiry can be tested
+     * without sleeping.
+     */
+    public CachingTextGeneratorService(TextGeneratorService delegate,
+                                       GenerationProfiles generationProfiles,
+                                       ResponseCacheProperties properties,
+                                       MeterRegistry meterRegistry,
+                                       Ticker ticker) {
+        this.delegate = delegate;
+        this.generationProfiles = generationProfiles;
+        this.cacheSampledResponses = properties.isCacheSampledResponses();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        for (GenerationProfile profile : generationProfiles.all()) {
+            if (bypasses(profile)) {
+                log.info("Response cache bypassed for profile '{}': temperature {} > 0 and sampled responses "
+                        + "are not cached", profile.name(), profile.options().temperature());
+            }
+        }
+    }
+
+    @Override
+    public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
+        GenerationProfile profile = request != null && request.getPrompt() != null
+                ? generationProfiles.find(request.getProfile()).orElse(null) : null;
+        if (profile == null || bypasses(profile)) {
+            return delegate.generateText(request);
+        }
+
+        GenerationKey key = GenerationKey.of(request, profile);
+        GenerateResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            log.debug("Response cache hit for prompt (length: {})", key.prompt().length());
+            return cached.toBuilder().cached(true).build();
+        }
+
+        GenerateResponse response = delegate.generateText(request);
+        cache.put(key, response);
+        return response;
+    }
+
+    private boolean bypasses(GenerationProfile profile) {
+        return profile.options().isSampling() && !cacheSampledResponses;
+    }
+
+    /**
+     * Fills the cache with responses produced earlier, e.g. the hottest
+     * entries of the disk cache at startup. Their expiry starts now.
+     *
+     * @param responses stored responses by key
+     */
+    public void preload(Map<GenerationKey, GenerateResponse> responses) {
+        cache.putAll(responses);
+    }
+
+    /**
+     * Returns the number of responses currently held in the cache.
+     *
+     * @return approximate entry count
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
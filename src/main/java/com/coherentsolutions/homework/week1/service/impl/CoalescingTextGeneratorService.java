@@ -0,0 +1,128 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight deduplication of identical in-flight requests.
+ *
+ * The response cache only helps once a first answer exists. When a popular
+ * prompt bursts, dozens of identical requests miss the cache together and
+ * each would start its own model call. This decorator lets the first request
+ * for a GenerationKey (the leader) call the delegate while every identical
+ * request that arrives before it finishes (a follower) waits for the same
+ * result.
+ *
+ * Coalescing Behavior:
+ * - Only concurrent requests are merged; once the leader finishes, the next
+ *   request for the key starts a new call (or is served by the cache above)
+ * - Followers receive their own copy of the leader's response, marked
+ *   cached: only the leader's call used model tokens, so the rate limiter
+ *   refunds a follower's charge like a cache hit
+ * - If the leader fails, every follower fails with the same exception
+ * - The leader calls the delegate on its own thread; no extra threads are used
+ * - With token budgets on, only requests of the same tenant are merged: the
+ *   leader's call is charged to its tenant, and a follower must not receive
+ *   another tenant's budget rejection while its own budget has room
+ *
+ * Metrics (via Micrometer, visible under /actuator/metrics):
+ * - generate.coalesced: requests answered by another request's model call
+ * - generate.in.flight: distinct generations currently running
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationKey
+ * @see com.coherentsolutions.homework.week1.config.CoalescingProperties
+ */
+@Slf4j
+public class CoalescingTextGeneratorService implements TextGeneratorService {
+
+    private final TextGeneratorService delegate;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final Map<Flight, CompletableFuture<GenerateResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    public CoalescingTextGeneratorService(TextGeneratorService delegate,
+                                          GenerationProfiles generationProfiles,
+                                          MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.generationProfiles = generationProfiles;
+        this.coalesced = Counter.builder("generate.coalesced")
+                .description("Generation requests answered by an identical in-flight request")
+                .register(meterRegistry);
+        Gauge.builder("generate.in.flight", inFlight, Map::size)
+                .description("Distinct generations currently waiting for the model")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
+        GenerationProfile profile = request != null && request.getPrompt() != null
+                ? generationProfiles.find(request.getProfile()).orElse(null) : null;
+        if (profile == null) {
+            return delegate.generateText(request);
+        }
+
+        Flight key = new Flight(GenerationKey.of(request, profile), TokenBudgets.currentTenant());
+        CompletableFuture<GenerateResponse> call = new CompletableFuture<>();
+        CompletableFuture<GenerateResponse> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            log.debug("Joined in-flight generation for prompt (length: {})", key.generation().prompt().length());
+            return await(existing).toBuilder().cached(true).build();
+        }
+
+        try {
+            GenerateResponse response = delegate.generateText(request);
+            call.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private GenerateResponse await(CompletableFuture<GenerateResponse> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TextGenerationException("Interrupted while waiting for an identical request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new TextGenerationException("Failed to generate text: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * What an in-flight call is shared by: the generation, and the tenant it
+     * is charged to (null while token budgets are off).
+     */
+    private record Flight(GenerationKey generation, String tenant) {
+    }
+}
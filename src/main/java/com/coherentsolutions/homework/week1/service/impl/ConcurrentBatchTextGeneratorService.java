@@ -0,0 +1,159 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.BatchProperties;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.exception.GenerationFailure;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.BatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Batch generation on top of the primary TextGeneratorService.
+ *
+ * Each item goes through the same service as POST /generate, so caching and
+ * any other decorators apply per item. Items are fanned out with Reactor's
+ * flatMap, which keeps at most generator.batch.max-concurrency of them
+ * calling the model at once; the rest wait for a free slot. An item that
+ * has not finished generator.batch.item-timeout after it started is
+ * cancelled and fails, so neither a batch response nor a batch stream
+ * waits on a hung call forever.
+ *
+ * Threading:
+ * The model call blocks, so items run on virtual threads rather than on the
+ * caller's thread. A blocked item then costs a few hundred bytes of stack
+ * instead of a platform thread, whatever the server's threading mode is.
+ * Items call the model as UpstreamScheduler's "batch" class, so with the
+ * scheduler enabled a large batch cannot crowd out interactive calls.
+ * The caller's tenant (TokenBudgets), bound to the request thread or put
+ * into the Reactor context, goes along to the item threads, so every item
+ * is checked against and charged to the same budget.
+ *
+ * Error Handling:
+ * - Invalid item (blank prompt, too long, null) -> 400 Validation Error
+ * - OpenAI rate limited the call -> 429 Rate Limit Exceeded
+ * - The tenant's token budget is used up -> 429 or 402 Token Budget Exceeded
+ * - Circuit breaker open, or no upstream slot in time -> 503 Service Unavailable
+ * - TextGenerationException from the model call, or the item timed out -> 500 API Error
+ * - Anything else -> 500 Internal Server Error
+ * The mapping lives in GenerationFailure and follows GlobalExceptionHandler,
+ * so a batch item fails with the same body a single /generate call would
+ * have returned.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see BatchTextGeneratorService
+ * @see BatchProperties
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrentBatchTextGeneratorService implements BatchTextGeneratorService {
+
+    private final TextGeneratorService textGeneratorService;
+
+    private final Validator validator;
+
+    private final BatchProperties batchProperties;
+
+    private final Scheduler scheduler = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "batch-generation");
+
+    @Override
+    public BatchGenerateResponse generateBatch(List<GenerateRequest> requests) {
+        List<BatchItemResult> results = streamBatch(requests)
+                .collectSortedList(Comparator.comparingInt(BatchItemResult::getIndex))
+                .block();
+        BatchGenerateResponse response = BatchGenerateResponse.of(results);
+
+        log.debug("Batch finished: {} succeeded, {} failed", response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    @Override
+    public Flux<BatchItemResult> streamBatch(List<GenerateRequest> requests) {
+        log.debug("Starting batch of {} requests with max concurrency {}",
+                requests.size(), batchProperties.getMaxConcurrency());
+
+        String callerTenant = TokenBudgets.currentTenant();
+        return Flux.deferContextual(context -> {
+            String tenant = TokenBudgets.tenantOf(context, callerTenant);
+            return Flux.range(0, requests.size())
+                    .flatMap(index -> Mono.fromCallable(() -> generateItem(index, requests.get(index), tenant))
+                                    .subscribeOn(scheduler)
+                                    .timeout(batchProperties.getItemTimeout(),
+                                            Mono.fromSupplier(() -> timedOut(index))),
+                            batchProperties.getMaxConcurrency());
+        });
+    }
+
+    /**
+     * Shuts down the virtual-thread executor with the application context.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    private BatchItemResult generateItem(int index, GenerateRequest request, String tenant) {
+        List<String> violations = validate(request);
+        if (!violations.isEmpty()) {
+            log.debug("Batch item {} failed validation: {}", index, violations);
+            return BatchItemResult.failure(index, 400, ErrorResponse.validation(
+                    "Request validation failed. Please check your input.", violations));
+        }
+
+        try {
+            return BatchItemResult.success(index,
+                    TokenBudgets.runAs(tenant, () -> UpstreamScheduler.runAs(UpstreamScheduler.BATCH,
+                            () -> textGeneratorService.generateText(request))));
+        } catch (RuntimeException e) {
+            GenerationFailure failure = GenerationFailure.of(e);
+            if (failure.isTransient()) {
+                log.warn("Batch item {} rejected with {}: {}", index, failure.status(), e.getMessage());
+            } else {
+                log.error("Batch item {} failed: {}", index, e.getMessage(), e);
+            }
+            return BatchItemResult.failure(index, failure.status(), failure.error());
+        }
+    }
+
+    private BatchItemResult timedOut(int index) {
+        log.warn("Batch item {} did not finish within {}; cancelled", index, batchProperties.getItemTimeout());
+        GenerationFailure failure = GenerationFailure.of(new TextGenerationException(
+                "Batch item timed out after " + batchProperties.getItemTimeout()));
+        return BatchItemResult.failure(index, failure.status(), failure.error());
+    }
+
+    private List<String> validate(GenerateRequest request) {
+        if (request == null) {
+            return List.of("request: Batch item cannot be null");
+        }
+        return validator.validate(request).stream()
+                .map(this::describe)
+                .sorted()
+                .toList();
+    }
+
+    private String describe(ConstraintViolation<GenerateRequest> violation) {
+        return String.format("%s: %s", violation.getPropertyPath(), violation.getMessage());
+    }
+}
@@ -0,0 +1,128 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.diskcache.MappedResponseStore;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+
+/**
+ * Second-tier response cache kept in a file, so answers survive restarts.
+ *
+ * Every deploy empties the in-memory cache, and the first requests after it
+ * pay for model calls that were already answered before. This decorator sits
+ * directly behind CachingTextGeneratorService: its misses are looked up in a
+ * MappedResponseStore before the request goes on to the model, and fresh
+ * responses are appended to the file.
+ *
+ * Cache Behavior:
+ * - Same key as the in-memory cache (see GenerationKey)
+ * - Entries expire generator.disk-cache.ttl after they were generated
+ * - Hits return the stored response with cached = true
+ * - Failures are never stored
+ * - Follows generator.cache.cache-sampled-responses like the in-memory cache
+ * - A disk error is logged and treated as a miss; it never fails a request
+ *
+ * Metrics (via Micrometer, visible under /actuator/metrics):
+ * - cache.gets{cache=generate.responses.disk, result=hit|miss}
+ * - cache.size{cache=generate.responses.disk}
+ * - cache.disk.used{cache=generate.responses.disk}: bytes of the file in use
+ * - cache.disk.compactions{cache=generate.responses.disk}
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see MappedResponseStore
+ * @see CachingTextGeneratorService
+ */
+@Slf4j
+public class DiskCachingTextGeneratorService implements TextGeneratorService {
+
+    /**
+     * Name under which the disk cache metrics are published.
+     */
+    public static final String CACHE_NAME = "generate.responses.disk";
+
+    private final TextGeneratorService delegate;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final MappedResponseStore store;
+
+    private final boolean cacheSampledResponses;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public DiskCachingTextGeneratorService(TextGeneratorService delegate,
+                                           GenerationProfiles generationProfiles,
+                                           ResponseCacheProperties cacheProperties,
+                                           MappedResponseStore store,
+                                           MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.generationProfiles = generationProfiles;
+        this.store = store;
+        this.cacheSampledResponses = cacheProperties.isCacheSampledResponses();
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", store, MappedResponseStore::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.disk.used", store, MappedResponseStore::usedBytes)
+                .tag("cache", CACHE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.disk.compactions", store, MappedResponseStore::compactions)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
+        GenerationProfile profile = request != null && request.getPrompt() != null
+                ? generationProfiles.find(request.getProfile()).orElse(null) : null;
+        if (profile == null || (profile.options().isSampling() && !cacheSampledResponses)) {
+            return delegate.generateText(request);
+        }
+
+        GenerationKey key = GenerationKey.of(request, profile);
+        Optional<GenerateResponse> stored = lookup(key);
+        if (stored.isPresent()) {
+            hits.increment();
+            return stored.get().toBuilder().cached(true).build();
+        }
+        misses.increment();
+
+        GenerateResponse response = delegate.generateText(request);
+        try {
+            store.put(key, response);
+        } catch (RuntimeException e) {
+            log.warn("Could not store response in the disk cache: {}", e.getMessage());
+        }
+        return response;
+    }
+
+    private Optional<GenerateResponse> lookup(GenerationKey key) {
+        try {
+            return store.get(key);
+        } catch (RuntimeException e) {
+            log.warn("Disk cache lookup failed, treating it as a miss: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
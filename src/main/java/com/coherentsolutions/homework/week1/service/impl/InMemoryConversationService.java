@@ -0,0 +1,166 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.SessionProperties;
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.SessionNotFoundException;
+import com.coherentsolutions.homework.week1.service.ConversationService;
+import com.coherentsolutions.homework.week1.service.session.ConversationHistory;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps conversation sessions in memory and sends each turn to the model
+ * with the session's history as chat messages.
+ *
+ * Without sessions, a client continuing a conversation pastes the whole
+ * exchange into every prompt: the payload grows with each turn and soon
+ * hits the 2000-character limit. Here the client sends only its next
+ * prompt; the history stays on the server.
+ *
+ * Storage:
+ * Sessions live in a Caffeine cache bounded by
+ * generator.sessions.maximum-sessions (least recently used sessions go
+ * first) and expire after generator.sessions.idle-timeout without a turn or
+ * lookup. Nothing is persisted, and with several instances a session only
+ * exists on the one that created it, so clients need sticky routing.
+ *
+ * Context window:
+ * Every turn is counted with PromptTokenizer once, when it is added. The
+ * oldest turns are dropped whenever the history exceeds
+ * generator.sessions.history-tokens or max-turns, so the request sent to
+ * the model stays bounded however long the conversation runs.
+ *
+ * Turns go straight to OpenAITextGeneratorService: an answer depends on
+ * the history, so the response cache and coalescing, which key on the
+ * prompt alone, are bypassed.
+ *
+ * Metrics:
+ * - sessions.active (gauge): sessions in memory
+ * - sessions.evicted (counter, tagged cause=expired|size): sessions dropped by the store
+ * - sessions.trimmed (counter): turns dropped to stay within the budget
+ * - sessions.history.tokens (summary): history tokens sent with each turn
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ConversationService
+ * @see SessionProperties
+ */
+@Service
+@Slf4j
+public class InMemoryConversationService implements ConversationService {
+
+    private final OpenAITextGeneratorService generatorService;
+
+    private final PromptTokenizer tokenizer;
+
+    private final SessionProperties properties;
+
+    private final Cache<String, ConversationHistory> sessions;
+
+    private final Counter trimmed;
+
+    private final DistributionSummary historyTokens;
+
+    @Autowired
+    public InMemoryConversationService(OpenAITextGeneratorService generatorService, PromptTokenizer tokenizer,
+                                       SessionProperties properties, MeterRegistry meterRegistry) {
+        this(generatorService, tokenizer, properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the service with an explicit time source, so idle expiry can
+     * be tested without sleeping.
+     */
+    public InMemoryConversationService(OpenAITextGeneratorService generatorService, PromptTokenizer tokenizer,
+                                       SessionProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        if (properties.getMaximumSessions() <= 0 || properties.getHistoryTokens() < 0 || properties.getMaxTurns() < 0) {
+            throw new IllegalArgumentException(
+                    "generator.sessions.maximum-sessions must be positive, history-tokens and max-turns not negative");
+        }
+        this.generatorService = generatorService;
+        this.tokenizer = tokenizer;
+        this.properties = properties;
+        this.sessions = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(properties.getMaximumSessions())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .evictionListener((String id, ConversationHistory history, RemovalCause cause) ->
+                        meterRegistry.counter("sessions.evicted", "cause", cause.name().toLowerCase(Locale.ROOT))
+                                .increment())
+                .build();
+        this.trimmed = Counter.builder("sessions.trimmed")
+                .description("Conversation turns dropped to stay within the history budget")
+                .register(meterRegistry);
+        this.historyTokens = DistributionSummary.builder("sessions.history.tokens")
+                .description("History tokens sent with each conversation turn")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        Gauge.builder("sessions.active", sessions, Cache::estimatedSize)
+                .description("Conversation sessions in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ConversationSessionResponse create() {
+        ConversationHistory history = new ConversationHistory(UUID.randomUUID().toString());
+        ConversationSessionResponse session = history.toResponse();
+        sessions.put(session.getId(), history);
+        log.debug("Started conversation session {}", session.getId());
+        return session;
+    }
+
+    @Override
+    public GenerateResponse send(String sessionId, GenerateRequest request) {
+        ConversationHistory history = sessions.getIfPresent(sessionId);
+        if (history == null) {
+            throw new SessionNotFoundException(sessionId);
+        }
+
+        history.turnLock().lock();
+        try {
+            List<Message> messages = history.messages();
+            historyTokens.record(history.tokens());
+            GenerateResponse response = generatorService.generateText(request, messages);
+
+            int turnTokens = tokenizer.countMessageTokens(request.getPrompt())
+                    + tokenizer.countMessageTokens(response.getResponse());
+            int dropped = history.append(request.getPrompt(), response.getResponse(), turnTokens,
+                    properties.getHistoryTokens(), properties.getMaxTurns());
+            if (dropped > 0) {
+                trimmed.increment(dropped);
+                log.debug("Dropped {} old turns of conversation session {}", dropped, sessionId);
+            }
+            return response;
+        } finally {
+            history.turnLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ConversationSessionResponse> find(String sessionId) {
+        return Optional.ofNullable(sessions.getIfPresent(sessionId)).map(ConversationHistory::toResponse);
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        return sessions.asMap().remove(sessionId) != null;
+    }
+}
@@ -0,0 +1,316 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.MicroBatchProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packs short prompts that arrive close together into one model call.
+ *
+ * Classification-style prompts ("Is this review positive?") produce a few
+ * tokens each, so their latency and cost are dominated by the per-call
+ * overhead of the HTTP round trip. This decorator collects such prompts
+ * for a short window, sends them to the model as one JSON-formatted
+ * question list, and hands each caller its own answer.
+ *
+ * Batching Behavior:
+ * - Only prompts up to max-prompt-length characters are batched; longer
+ *   ones go straight to the model
+ * - Only requests of the default generation profile are batched: the packed
+ *   call has one system prompt and one set of options for all its prompts
+ * - Only requests of the same tenant (TokenBudgets) share a batch, so the
+ *   packed call is checked against and charged to the tenant whose prompts
+ *   it carries; each tenant has its own open batch
+ * - The first prompt of a batch (the leader) waits up to window for others
+ *   to join, or until max-batch-size prompts have arrived, then makes the
+ *   call on its own thread; the others wait for their slot of the result
+ * - A batch of one is sent as a normal call, so a quiet server only pays
+ *   the window
+ * - The packed call asks for {"answers": [...]} (OpenAI JSON mode) with
+ *   max-tokens scaled by the batch size. If the answer cannot be split
+ *   back (bad JSON, wrong count, truncated), every prompt is retried on
+ *   its own, concurrently, so a batch never returns worse answers than
+ *   unbatched calls would
+ * - If the packed call fails, every caller of the batch fails with the
+ *   same exception
+ * - Token usage of the packed call is split evenly across its prompts
+ *
+ * Sits directly above OpenAITextGeneratorService, below coalescing, so
+ * identical prompts are merged before they take a batch slot.
+ *
+ * Metrics:
+ * - generate.microbatch.size (summary): prompts per model call made here
+ * - generate.microbatch.fallbacks (counter): packed answers that could not
+ *   be split and were retried one by one
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see MicroBatchProperties
+ * @see OpenAITextGeneratorService#generateText(GenerateRequest, OpenAiChatOptions)
+ */
+@Slf4j
+public class MicroBatchingTextGeneratorService implements TextGeneratorService {
+
+    private static final String INSTRUCTIONS = """
+            Answer each question in the JSON array below independently, as if it had been asked on its own.
+            Reply with a JSON object {"answers": [...]} whose "answers" array holds exactly %d strings: \
+            the answer to question 1 first, then question 2, and so on.
+            Questions:
+            %s""";
+
+    private final OpenAITextGeneratorService upstream;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final MicroBatchProperties properties;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DistributionSummary batchSize;
+
+    private final Counter fallbacks;
+
+    /**
+     * The batches currently collecting prompts, by tenant (null for calls
+     * without one); guarded by this.
+     */
+    private final Map<String, Batch> open = new HashMap<>();
+
+    public MicroBatchingTextGeneratorService(OpenAITextGeneratorService upstream,
+                                             GenerationProfiles generationProfiles,
+                                             MicroBatchProperties properties,
+                                             MeterRegistry meterRegistry) {
+        if (properties.getMaxBatchSize() < 1) {
+            throw new IllegalArgumentException("generator.micro-batch.max-batch-size must be positive");
+        }
+        this.upstream = upstream;
+        this.generationProfiles = generationProfiles;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("generate.microbatch.size")
+                .description("Prompts sent to the model per micro-batched call")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("generate.microbatch.fallbacks")
+                .description("Packed answers that could not be split and were retried per prompt")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
+        if (request == null || request.getPrompt() == null
+                || request.getPrompt().length() > properties.getMaxPromptLength()
+                || !generationProfiles.isDefault(request.getProfile())) {
+            return upstream.generateText(request);
+        }
+
+        String tenant = TokenBudgets.currentTenant();
+        Batch batch;
+        CompletableFuture<GenerateResponse> result;
+        boolean leader;
+        synchronized (this) {
+            batch = open.get(tenant);
+            leader = batch == null;
+            if (leader) {
+                batch = new Batch(tenant);
+                open.put(tenant, batch);
+            }
+            result = batch.add(request);
+            if (batch.size() >= properties.getMaxBatchSize()) {
+                open.remove(tenant);
+                batch.full.countDown();
+            }
+        }
+
+        if (leader) {
+            awaitOthers(batch);
+            synchronized (this) {
+                open.remove(tenant, batch);
+            }
+            send(batch);
+        }
+        return await(result);
+    }
+
+    private void awaitOthers(Batch batch) {
+        try {
+            batch.full.await(properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // send what has been collected so far
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Makes the model call(s) for a closed batch and completes every slot.
+     */
+    private void send(Batch batch) {
+        List<GenerateRequest> requests = batch.requests;
+        batchSize.record(requests.size());
+        try {
+            if (requests.size() == 1) {
+                batch.results.getFirst().complete(upstream.generateText(requests.getFirst()));
+                return;
+            }
+            GenerateResponse packed = upstream.generateText(packedRequest(requests), packedOptions(requests.size()));
+            List<String> answers = unpack(packed, requests.size());
+            if (answers == null) {
+                fallbacks.increment();
+                log.warn("Could not split micro-batched answer for {} prompts (finish reason: {}); retrying one by one",
+                        requests.size(), packed.getFinishReason());
+                sendSeparately(batch);
+                return;
+            }
+            log.debug("Answered {} prompts with one model call", requests.size());
+            for (int i = 0; i < answers.size(); i++) {
+                batch.results.get(i).complete(share(packed, answers.get(i), requests.size()));
+            }
+        } catch (RuntimeException | Error e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private void sendSeparately(Batch batch) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < batch.requests.size(); i++) {
+                GenerateRequest request = batch.requests.get(i);
+                CompletableFuture<GenerateResponse> result = batch.results.get(i);
+                executor.execute(() -> {
+                    try {
+                        result.complete(TokenBudgets.runAs(batch.tenant, () -> upstream.generateText(request)));
+                    } catch (RuntimeException | Error e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            }
+        }
+    }
+
+    private GenerateRequest packedRequest(List<GenerateRequest> requests) {
+        List<String> prompts = requests.stream().map(GenerateRequest::getPrompt).toList();
+        GenerateRequest packed = new GenerateRequest();
+        try {
+            packed.setPrompt(String.format(INSTRUCTIONS, prompts.size(), objectMapper.writeValueAsString(prompts)));
+        } catch (JsonProcessingException e) {
+            throw new TextGenerationException("Failed to build micro-batched prompt", e);
+        }
+        return packed;
+    }
+
+    private OpenAiChatOptions packedOptions(int size) {
+        GenerationProfile profile = generationProfiles.defaultProfile();
+        OpenAiChatOptions options = OpenAiChatOptions.fromOptions(profile.callOptions());
+        options.setResponseFormat(ResponseFormat.builder().type(ResponseFormat.Type.JSON_OBJECT).build());
+        if (profile.options().maxTokens() != null) {
+            options.setMaxTokens(profile.options().maxTokens() * size);
+        }
+        return options;
+    }
+
+    /**
+     * Splits the packed answer, or returns null if it does not hold exactly
+     * one non-blank string per prompt.
+     */
+    private List<String> unpack(GenerateResponse packed, int size) {
+        try {
+            JsonNode answers = objectMapper.readTree(packed.getResponse()).path("answers");
+            if (!answers.isArray() || answers.size() != size) {
+                return null;
+            }
+            List<String> result = new ArrayList<>(size);
+            for (JsonNode answer : answers) {
+                if (!answer.isTextual() || answer.asText().isBlank()) {
+                    return null;
+                }
+                result.add(answer.asText());
+            }
+            return result;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static GenerateResponse share(GenerateResponse packed, String answer, int size) {
+        return packed.toBuilder()
+                .response(answer)
+                .tokensUsed(divide(packed.getTokensUsed(), size))
+                .promptTokens(divide(packed.getPromptTokens(), size))
+                .completionTokens(divide(packed.getCompletionTokens(), size))
+                .build();
+    }
+
+    private static Integer divide(Integer tokens, int size) {
+        return tokens != null ? (tokens + size - 1) / size : null;
+    }
+
+    private static GenerateResponse await(CompletableFuture<GenerateResponse> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TextGenerationException("Interrupted while waiting for a micro-batched request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new TextGenerationException("Failed to generate text: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Prompts collected for one model call; requests and results are only
+     * added to under the service's lock, and only read after the batch is closed.
+     */
+    private static final class Batch {
+
+        private final String tenant;
+
+        private final List<GenerateRequest> requests = new ArrayList<>();
+
+        private final List<CompletableFuture<GenerateResponse>> results = new ArrayList<>();
+
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        Batch(String tenant) {
+            this.tenant = tenant;
+        }
+
+        CompletableFuture<GenerateResponse> add(GenerateRequest request) {
+            CompletableFuture<GenerateResponse> result = new CompletableFuture<>();
+            requests.add(request);
+            results.add(result);
+            return result;
+        }
+
+        int size() {
+            return requests.size();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.ReactiveTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * ReactiveTextGeneratorService backed by ChatClient's streaming API.
+ *
+ * Spring AI's ChatClient.call() is blocking; only ChatClient.stream() is
+ * non-blocking end to end (WebClient to OpenAI). Both methods therefore
+ * build on the StreamingTextGeneratorService stream of OpenAITextGeneratorService:
+ * - generateText collects the token frames into one response and takes
+ *   model, token usage and finish reason from the closing done frame
+ * - streamText passes the token text through
+ *
+ * Reusing that stream keeps validation, metrics and the circuit breaker /
+ * retry guard identical to the blocking path.
+ *
+ * Not on this path: the response cache, semantic cache and request
+ * coalescing. They decorate the blocking TextGeneratorService, and calling
+ * them here would block the thread the publisher runs on; every reactive
+ * call reaches the model.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ReactiveTextGeneratorService
+ * @see OpenAITextGeneratorService#streamText(GenerateRequest)
+ */
+@Service
+@RequiredArgsConstructor
+public class OpenAIReactiveTextGeneratorService implements ReactiveTextGeneratorService {
+
+    private final StreamingTextGeneratorService streamingTextGeneratorService;
+
+    @Override
+    public Mono<GenerateResponse> generateText(GenerateRequest request) {
+        return events(request)
+                .reduceWith(ResponseCollector::new, ResponseCollector::add)
+                .map(ResponseCollector::toResponse);
+    }
+
+    @Override
+    public Flux<String> streamText(GenerateRequest request) {
+        return events(request)
+                .filter(event -> GenerateStreamEvent.TOKEN.equals(event.getType()))
+                .map(GenerateStreamEvent::getContent);
+    }
+
+    /**
+     * Defers the call so that validation errors, which the streaming service
+     * throws eagerly, are signalled on the publisher instead.
+     */
+    private Flux<GenerateStreamEvent> events(GenerateRequest request) {
+        return Flux.defer(() -> streamingTextGeneratorService.streamText(request));
+    }
+
+    /**
+     * Accumulates one generation's frames; reduceWith creates a fresh
+     * instance for every subscription.
+     */
+    private static final class ResponseCollector {
+
+        private final StringBuilder text = new StringBuilder();
+
+        private GenerateStreamEvent done;
+
+        ResponseCollector add(GenerateStreamEvent event) {
+            if (GenerateStreamEvent.TOKEN.equals(event.getType()) && event.getContent() != null) {
+                text.append(event.getContent());
+            } else if (GenerateStreamEvent.DONE.equals(event.getType())) {
+                done = event;
+            }
+            return this;
+        }
+
+        GenerateResponse toResponse() {
+            if (text.toString().isBlank()) {
+                throw new TextGenerationException("Failed to generate text: the model returned an empty response");
+            }
+            return GenerateResponse.builder()
+                    .response(text.toString())
+                    .model(done != null ? done.getModel() : null)
+                    .tokensUsed(done != null ? done.getTokensUsed() : null)
+                    .promptTokens(done != null ? done.getPromptTokens() : null)
+                    .completionTokens(done != null ? done.getCompletionTokens() : null)
+                    .finishReason(done != null ? done.getFinishReason() : null)
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+    }
+}
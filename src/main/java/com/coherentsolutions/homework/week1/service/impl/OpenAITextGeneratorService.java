@@ -2,15 +2,46 @@ package com.coherentsolutions.homework.week1.service.impl;
 
 import com.coherentsolutions.homework.week1.dto.GenerateRequest;
 import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
 import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
 import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.resilience.UpstreamCallGuard;
+import com.coherentsolutions.homework.week1.service.routing.ChatClientRouter;
+import com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler;
+import com.coherentsolutions.homework.week1.service.tokens.PromptAdmission;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * OpenAI implementation of the TextGeneratorService.
+ * OpenAI implementation of the TextGeneratorService and StreamingTextGeneratorService.
  * 
  * This service integrates with OpenAI's GPT models using Spring AI's ChatClient.
  * It demonstrates proper integration patterns, error handling, and logging practices
@@ -35,8 +66,22 @@ import org.springframework.stereotype.Service;
  * - Dependency Injection: Loose coupling with ChatClient
  * - Exception Translation: Internal exceptions to domain exceptions
  * - Structured Logging: Proper logging without sensitive data exposure
- * 
- * TODO for students: Complete the implementation of the generateText method
+ * - Metrics: every ChatClient call is timed and sized through GenerationMetrics
+ * - Resilience: the ChatClient call runs through UpstreamCallGuard (circuit
+ *   breaker, retries of transient failures, optional hedging)
+ * - Routing: ChatClientRouter picks the backend (one ChatClient per
+ *   configured OpenAI-compatible endpoint) and fails over between them
+ * - Admission: PromptAdmission counts prompt tokens locally and rejects or
+ *   truncates prompts over the limit before any network call
+ * - Scheduling: every attempt of a blocking call or stream waits for an
+ *   UpstreamScheduler slot, shared between interactive and batch callers
+ *   by weight (when enabled); the slot is given back between retries, and
+ *   a stream holds its slot until it ends
+ * - Profiles: the request's GenerationProfile supplies the system message
+ *   and options, built once at startup and reused by every call
+ * - Budgets: the call's max-tokens are reserved against the calling
+ *   tenant's token budgets before every upstream call, and the reservation
+ *   is settled with the reported usage after it (TokenBudgets)
  * 
  * @author Student Name
  * @version 1.0
@@ -46,37 +91,78 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class OpenAITextGeneratorService implements TextGeneratorService {
+public class OpenAITextGeneratorService implements TextGeneratorService, StreamingTextGeneratorService {
     
-    // TODO: Inject the ChatClient dependency
-    // Hint: Use final field and @RequiredArgsConstructor for constructor injection
-    // private final ChatClient chatClient;
+    /**
+     * Maximum prompt length in characters, matching the GenerateRequest constraint.
+     */
+    static final int MAX_PROMPT_LENGTH = 2000;
+    
+    /**
+     * Retry-After used for upstream 429s when OpenAI does not say how long to wait.
+     */
+    static final Duration DEFAULT_UPSTREAM_RETRY_AFTER = Duration.ofSeconds(1);
+    
+    /**
+     * OpenAI's rate-limit errors end with e.g. "Please try again in 1.5s" or "in 20ms".
+     */
+    private static final Pattern TRY_AGAIN_IN = Pattern.compile("try again in (\\d+(?:\\.\\d+)?)(ms|s)");
+    
+    private final ChatClientRouter chatClientRouter;
+    
+    private final GenerationProfiles generationProfiles;
+    
+    private final GenerationMetrics generationMetrics;
+    
+    private final UpstreamCallGuard upstreamCallGuard;
+    
+    private final PromptAdmission promptAdmission;
+    
+    private final UpstreamScheduler upstreamScheduler;
+    
+    private final TokenBudgets tokenBudgets;
     
     /**
      * Generates text using OpenAI's GPT model via Spring AI ChatClient.
      * 
-     * TODO for students: Implement this method following these steps:
+     * Processing steps:
      * 
      * 1. INPUT VALIDATION
      *    - Even though DTO validation exists, add service-level validation
      *    - Check for null request
      *    - Validate prompt length and content
+     *    - Count prompt tokens and reject or truncate over-long prompts
+     *      (PromptAdmission)
      *    - Log the incoming request (but not sensitive data)
      * 
      * 2. API CALL PREPARATION
      *    - Use the injected ChatClient to create a prompt
-     *    - Set the user message to the prompt from the request
-     *    - Configure any additional parameters if needed
+     *    - Send the profile's prebuilt system message, then the user message
+     *      with the prompt from the request
+     *    - Pass the profile's prebuilt options (model, temperature, max-tokens)
      * 
      * 3. OPENAI API CALL
-     *    - Execute the API call using chatClient.prompt().user(prompt).call().content()
+     *    - Reserve max-tokens against the calling tenant's token budgets
+     *      (TokenBudgets), which fails with 429 or 402 before anything is
+     *      sent; a failed call gives the reservation back
+     *    - Execute the API call using chatClient.prompt().messages(system).user(prompt).call().chatResponse()
+     *      through UpstreamCallGuard, which fails fast while the circuit is
+     *      open and retries transient failures, on the ChatClient that
+     *      ChatClientRouter picks
+     *    - Each attempt waits for an upstream slot (UpstreamScheduler),
+     *      which fails with 503 if the call's class waited longer than its
+     *      queue timeout; no slot is held during the backoff between retries
+     *    - The full ChatResponse (not just content()) carries the model that
+     *      answered, token usage and the finish reason
      *    - Wrap in try-catch to handle various exception types
      *    - Log the successful API call (without logging the full response to avoid log spam)
      * 
      * 4. RESPONSE BUILDING
      *    - Create GenerateResponse with the AI response
-     *    - Set metadata: timestamp, model name, tokens used (if available)
+     *    - Set metadata: timestamp, model name, prompt/completion/total tokens
+     *      and finish reason (if the provider reports them)
      *    - Use the response builder methods for clean construction
+     *    - Settle the reservation with the reported total tokens
      * 
      * 5. ERROR HANDLING
      *    - Catch specific exceptions and translate to TextGenerationException
@@ -90,113 +176,418 @@ public class OpenAITextGeneratorService implements TextGeneratorService {
      */
     @Override
     public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
-        // TODO: Remove this line and implement the method
-        throw new UnsupportedOperationException("generateText method not implemented yet");
-        
-        // TODO: Implementation template (remove this comment block when implementing):
-        /*
+        logRequest(request);
         
-        // Step 1: Input validation
-        log.debug("Received text generation request with prompt length: {}", 
-                 request.getPrompt() != null ? request.getPrompt().length() : 0);
+        validateRequest(request);
+        GenerationProfile profile = generationProfiles.resolve(request.getProfile());
+        return generate(promptAdmission.admit(request, profile), profile, List.of(), null);
+    }
+    
+    /**
+     * Generates the next answer of a conversation: the earlier messages are
+     * sent as chat messages between the system prompt and the new prompt,
+     * so the model sees them as real turns rather than text pasted into
+     * the prompt.
+     * 
+     * The new prompt is validated and admitted like in generateText; the
+     * history is not, the caller keeps it within its own token budget.
+     * 
+     * @param request the request with the next prompt
+     * @param history earlier user and assistant messages, oldest first
+     * @return GenerateResponse with the generated content and metadata
+     * @throws TextGenerationException for any generation failures
+     * @see com.coherentsolutions.homework.week1.service.ConversationService
+     */
+    public GenerateResponse generateText(GenerateRequest request, List<Message> history)
+            throws TextGenerationException {
+        logRequest(request);
         
-        if (request == null || request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+        validateRequest(request);
+        GenerationProfile profile = generationProfiles.resolve(request.getProfile());
+        return generate(promptAdmission.admit(request, profile), profile, history, null);
+    }
+    
+    /**
+     * Generates text with per-call option overrides, for callers inside the
+     * service layer that build their own prompt (MicroBatchingTextGeneratorService
+     * packs several requests into one).
+     * 
+     * Goes through the same guard, routing and metrics as generateText, with
+     * the system message of the request's profile. The prompt must be
+     * present, but the GenerateRequest length limit does not apply: the
+     * caller is responsible for the size of what it built.
+     * 
+     * @param request the request carrying the prompt to send
+     * @param options options that replace the profile's for this call
+     *                (e.g. a larger max-tokens or a JSON response format)
+     * @return GenerateResponse with the generated content and metadata
+     * @throws TextGenerationException for any generation failures
+     */
+    public GenerateResponse generateText(GenerateRequest request, OpenAiChatOptions options)
+            throws TextGenerationException {
+        if (request == null || request.getPrompt() == null || request.getPrompt().isBlank()) {
             throw new TextGenerationException("Invalid request: prompt cannot be null or empty");
         }
+        return generate(request, generationProfiles.resolve(request.getProfile()), List.of(), options);
+    }
+    
+    /**
+     * Makes the blocking call. The prompt is assembled from the profile's
+     * prebuilt SystemMessage and options rather than from text: nothing is
+     * rendered or copied per request except the user message itself.
+     */
+    private GenerateResponse generate(GenerateRequest request, GenerationProfile profile, List<Message> history,
+                                      OpenAiChatOptions options) {
+        String profileName = profile.name();
+        String tenant = TokenBudgets.currentTenant();
+        String schedulingClass = UpstreamScheduler.currentClass();
+        TokenBudgets.Reservation reservation = tokenBudgets.reserve(tenant,
+                maxTokensOf(options != null ? options.getMaxTokens() : profile.options().maxTokens()));
+        generationMetrics.recordPrompt(profileName, request.getPrompt().length());
         
+        ChatResponse chatResponse;
+        Timer.Sample sample = generationMetrics.start();
         try {
-            // Step 2 & 3: Prepare and execute API call
-            String response = chatClient
-                .prompt()
-                .user(request.getPrompt())
-                .call()
-                .content();
-            
-            log.info("Successfully generated text response for prompt (length: {})", 
-                    request.getPrompt().length());
-            
-            // Step 4: Build response
-            return GenerateResponse.builder()
-                .response(response)
-                .model("gpt-3.5-turbo") // TODO: Get actual model from configuration
-                .timestamp(LocalDateTime.now())
-                // TODO: Add token usage if available from API response
-                .build();
-                
+            Supplier<ChatResponse> modelCall = () -> chatClientRouter.call(chatClient -> {
+                ChatClient.ChatClientRequestSpec prompt = chatClient.prompt().messages(profile.systemMessage());
+                if (!history.isEmpty()) {
+                    prompt = prompt.messages(history);
+                }
+                return prompt.user(request.getPrompt())
+                        .options(options != null ? options : profile.callOptions())
+                        .call()
+                        .chatResponse();
+            });
+            // One slot per attempt, taken in the caller's scheduling class on
+            // whichever thread runs it (a hedged call runs on hedge threads)
+            chatResponse = upstreamCallGuard.call(() -> UpstreamScheduler.runAs(schedulingClass,
+                    () -> upstreamScheduler.call(modelCall)), hedgeFor(tenant));
+        } catch (CircuitOpenException | ServiceOverloadedException e) {
+            reservation.release();
+            generationMetrics.recordUpstream(sample, profileName, null, e);
+            log.warn("Rejected text generation request: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            // Step 5: Error handling
+            reservation.release();
+            generationMetrics.recordUpstream(sample, profileName, null, e);
             log.error("Error generating text: {}", e.getMessage(), e);
-            throw new TextGenerationException("Failed to generate text: " + e.getMessage(), e);
+            throw handleApiException(e);
         }
         
-        */
+        String response = textOf(chatResponse);
+        ChatResponseMetadata metadata = chatResponse != null ? chatResponse.getMetadata() : null;
+        String model = modelOf(metadata, profile);
+        Usage usage = usageOf(metadata);
+        reservation.settle(usage != null ? usage.getTotalTokens() : null);
+        if (response == null || response.isBlank()) {
+            TextGenerationException empty = new TextGenerationException(
+                    "Failed to generate text: the model returned an empty response");
+            generationMetrics.recordUpstream(sample, profileName, model, empty);
+            throw empty;
+        }
+        long elapsedNanos = generationMetrics.recordUpstream(sample, profileName, model, null);
+        
+        GenerateResponse generated = GenerateResponse.builder()
+                .response(response)
+                .model(model)
+                .tokensUsed(usage != null ? usage.getTotalTokens() : null)
+                .promptTokens(usage != null ? usage.getPromptTokens() : null)
+                .completionTokens(usage != null ? usage.getCompletionTokens() : null)
+                .finishReason(finishReasonOf(chatResponse.getResult()))
+                .timestamp(System.currentTimeMillis())
+                .build();
+        
+        generationMetrics.recordResponse(profileName, model, response.length(), generated.getPromptTokens(),
+                generated.getCompletionTokens(), generated.getFinishReason());
+        logResponse(generated, request, elapsedNanos);
+        
+        return generated;
+    }
+    
+    /**
+     * Admits a hedge call like the call it hedges: on its hedge thread it
+     * runs as the caller's tenant (the call itself waits for an
+     * UpstreamScheduler slot of its own). A response that lost the race but
+     * still arrived is charged to the tenant's token budget.
+     */
+    private UpstreamCallGuard.Hedge<ChatResponse> hedgeFor(String tenant) {
+        return new UpstreamCallGuard.Hedge<>() {
+            @Override
+            public ChatResponse admit(Supplier<ChatResponse> hedgeCall) {
+                return TokenBudgets.runAs(tenant, hedgeCall);
+            }
+
+            @Override
+            public void discarded(ChatResponse result) {
+                Usage usage = usageOf(result != null ? result.getMetadata() : null);
+                tokenBudgets.record(tenant, usage != null ? usage.getTotalTokens() : null);
+            }
+        };
+    }
+    
+    /**
+     * Streams text from OpenAI as it is generated, via ChatClient.stream().
+     * 
+     * Each upstream ChatResponse chunk that carries text becomes a token frame.
+     * The upstream stream is guarded by UpstreamCallGuard: it is rejected
+     * while the circuit is open and retried if it fails before its first
+     * chunk. Each attempt waits for an UpstreamScheduler slot without
+     * blocking and holds it until that attempt ends, so no slot is held
+     * during the backoff between retries.
+     * The model name, token usage and finish reason are taken from the chunk
+     * metadata and sent in the closing done frame.
+     * 
+     * OpenAI only reports usage for streams when stream_options.include_usage
+     * is set (it then arrives on a final, text-less chunk). The option is set
+     * in the profile's stream options rather than globally in application.yml:
+     * on blocking calls Spring AI strips it again and logs a warning every time.
+     * 
+     * The tenant's budgets are checked when the stream is requested if a
+     * tenant is bound to the calling thread (servlet stack), so a spent
+     * budget is still a 429 or 402 response; on the reactive stack the
+     * tenant comes from the subscriber's context and the check fails the
+     * stream instead. Each subscription reserves the profile's max-tokens;
+     * the reservation is settled with the usage of the final chunk when the
+     * stream completes, and given back if it fails or is cancelled.
+     * 
+     * @param original the text generation request
+     * @return token frames followed by one done frame
+     * @throws TextGenerationException if the request is invalid, names an
+     *         unknown profile, its prompt has too many tokens or the bound
+     *         tenant's budget is used up; upstream failures are signalled on
+     *         the returned Flux
+     */
+    @Override
+    public Flux<GenerateStreamEvent> streamText(GenerateRequest original) throws TextGenerationException {
+        validateRequest(original);
+        GenerationProfile profile = generationProfiles.resolve(original.getProfile());
+        GenerateRequest request = promptAdmission.admit(original, profile);
+        String profileName = profile.name();
+        String callerTenant = TokenBudgets.currentTenant();
+        tokenBudgets.check(callerTenant);
+        
+        generationMetrics.recordPrompt(profileName, request.getPrompt().length());
+        
+        return Flux.deferContextual(context -> {
+            String tenant = TokenBudgets.tenantOf(context, callerTenant);
+            String schedulingClass = UpstreamScheduler.currentClass();
+            TokenBudgets.Reservation reservation = tokenBudgets.reserve(tenant,
+                    maxTokensOf(profile.options().maxTokens()));
+            AtomicReference<String> model = new AtomicReference<>(profile.options().model());
+            AtomicReference<Usage> usage = new AtomicReference<>();
+            AtomicReference<String> finishReason = new AtomicReference<>();
+            AtomicInteger responseLength = new AtomicInteger();
+            Timer.Sample sample = generationMetrics.start();
+            
+            // Retries are resubscribed on a timer thread, so the class is captured here
+            Flux<GenerateStreamEvent> tokens = upstreamCallGuard.stream(() -> UpstreamScheduler.runAs(schedulingClass,
+                            () -> upstreamScheduler.stream(() -> chatClientRouter.stream(chatClient -> chatClient
+                                    .prompt()
+                                    .messages(profile.systemMessage())
+                                    .user(request.getPrompt())
+                                    .options(profile.streamOptions())
+                                    .stream()
+                                    .chatResponse()))))
+                    .handle((chunk, sink) -> {
+                        ChatResponseMetadata metadata = chunk.getMetadata();
+                        if (metadata != null && metadata.getModel() != null && !metadata.getModel().isEmpty()) {
+                            model.set(metadata.getModel());
+                        }
+                        Usage chunkUsage = usageOf(metadata);
+                        if (chunkUsage != null) {
+                            usage.set(chunkUsage);
+                        }
+                        String chunkFinishReason = finishReasonOf(chunk.getResult());
+                        if (chunkFinishReason != null) {
+                            finishReason.set(chunkFinishReason);
+                        }
+                        String text = textOf(chunk);
+                        if (text != null && !text.isEmpty()) {
+                            responseLength.addAndGet(text.length());
+                            sink.next(GenerateStreamEvent.token(text));
+                        }
+                    });
+            
+            return tokens
+                    .concatWith(Mono.fromSupplier(() -> {
+                        Usage total = usage.get();
+                        return total == null
+                                ? GenerateStreamEvent.done(model.get(), null, null, null, finishReason.get())
+                                : GenerateStreamEvent.done(model.get(), total.getPromptTokens(),
+                                        total.getCompletionTokens(), total.getTotalTokens(), finishReason.get());
+                    }))
+                    .doOnComplete(() -> {
+                        long elapsedNanos = generationMetrics.recordUpstream(sample, profileName, model.get(), null);
+                        Usage total = usage.get();
+                        reservation.settle(total != null ? total.getTotalTokens() : null);
+                        generationMetrics.recordResponse(profileName, model.get(), responseLength.get(),
+                                total != null ? total.getPromptTokens() : null,
+                                total != null ? total.getCompletionTokens() : null,
+                                finishReason.get());
+                        log.debug("Completed streamed generation (prompt length: {}, response length: {}, model: {}, tokens: {}, duration: {} ms)",
+                                request.getPrompt().length(), responseLength.get(), model.get(),
+                                total != null ? total.getTotalTokens() : null,
+                                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                    })
+                    .doOnError(e -> generationMetrics.recordUpstream(sample, profileName, model.get(), e))
+                    .onErrorMap(e -> !(e instanceof TextGenerationException), e -> {
+                        log.error("Error streaming text: {}", e.getMessage(), e);
+                        return handleApiException(e);
+                    })
+                    .doFinally(signal -> reservation.release());
+        });
+    }
+    
+    /**
+     * Extracts the generated text of a (possibly partial) ChatResponse.
+     * 
+     * @param chatResponse the response, may be null
+     * @return the text, or null if the response carries none
+     */
+    private static String textOf(ChatResponse chatResponse) {
+        Generation generation = chatResponse != null ? chatResponse.getResult() : null;
+        return generation != null && generation.getOutput() != null ? generation.getOutput().getText() : null;
+    }
+    
+    /**
+     * Returns the model that actually answered, e.g. "gpt-3.5-turbo-0125"
+     * for a request to "gpt-3.5-turbo", falling back to the profile's model.
+     * 
+     * @param metadata the response metadata, may be null
+     * @param profile the profile of the call
+     * @return the model name
+     */
+    private static String modelOf(ChatResponseMetadata metadata, GenerationProfile profile) {
+        return metadata != null && metadata.getModel() != null && !metadata.getModel().isEmpty()
+                ? metadata.getModel()
+                : profile.options().model();
     }
     
-    // TODO for students: Consider implementing these helper methods
+    /**
+     * Returns the reported token usage, or null when the provider reported
+     * none (Spring AI then supplies an empty usage with zero totals).
+     * 
+     * @param metadata the response metadata, may be null
+     * @return the usage, or null
+     */
+    private static Usage usageOf(ChatResponseMetadata metadata) {
+        Usage usage = metadata != null ? metadata.getUsage() : null;
+        return usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0 ? usage : null;
+    }
+    
+    /**
+     * Returns the tokens to reserve for a call: its max-tokens, or none if
+     * the call sets no limit.
+     * 
+     * @param maxTokens the call's max-tokens, may be null
+     * @return tokens to reserve
+     */
+    private static long maxTokensOf(Integer maxTokens) {
+        return maxTokens != null && maxTokens > 0 ? maxTokens : 0;
+    }
+    
+    /**
+     * Returns the finish reason of a generation, or null if not reported.
+     * 
+     * @param generation the generation, may be null
+     * @return the finish reason, e.g. "STOP" or "LENGTH"
+     */
+    private static String finishReasonOf(Generation generation) {
+        if (generation == null || generation.getMetadata() == null) {
+            return null;
+        }
+        String finishReason = generation.getMetadata().getFinishReason();
+        return finishReason != null && !finishReason.isBlank() ? finishReason : null;
+    }
     
     /**
      * Validates the incoming request at the service level.
      * 
-     * TODO: Implement additional validation beyond DTO validation:
-     * - Check for potentially harmful prompts
-     * - Validate prompt length against cost considerations  
-     * - Check for rate limiting scenarios
+     * The DTO constraints only apply to requests that come through the
+     * controller; the service is also called directly (tests, batch jobs),
+     * so the basic rules are re-checked here:
+     * - Request and prompt must be present
+     * - Prompt must contain non-whitespace characters
+     * - Prompt must not exceed MAX_PROMPT_LENGTH characters
      * 
      * @param request the request to validate
      * @throws TextGenerationException if validation fails
      */
     private void validateRequest(GenerateRequest request) throws TextGenerationException {
-        // TODO: Implement service-level validation
-        // Hint: This is beyond basic null/empty checks - think about business rules
+        if (request == null || request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+            throw new TextGenerationException("Invalid request: prompt cannot be null or empty");
+        }
+        if (request.getPrompt().length() > MAX_PROMPT_LENGTH) {
+            throw new TextGenerationException(String.format(
+                    "Invalid request: prompt exceeds %d characters", MAX_PROMPT_LENGTH));
+        }
     }
     
     /**
-     * Handles different types of exceptions that can occur during OpenAI API calls.
+     * Translates an exception from an OpenAI API call into a domain exception.
      * 
-     * TODO: Implement proper exception translation:
-     * - API authentication errors -> TextGenerationException with user-friendly message
-     * - Rate limiting errors -> TextGenerationException with retry guidance
-     * - Network errors -> TextGenerationException with connectivity message
-     * - Service unavailable -> TextGenerationException with temporary failure message
+     * - Upstream rate limiting (HTTP 429) -> RateLimitExceededException, so the
+     *   client gets 429 with Retry-After and the rate limiter can slow down
+     * - Anything else -> TextGenerationException wrapping the original error
      * 
-     * @param e the exception to handle
-     * @param request the original request for context
-     * @throws TextGenerationException the translated exception
+     * The Retry-After is taken from OpenAI's "try again in ..." hint when the
+     * error message carries one.
+     * 
+     * @param e the exception to translate
+     * @return the translated exception, to be thrown by the caller
      */
-    private void handleApiException(Exception e, GenerateRequest request) throws TextGenerationException {
-        // TODO: Implement exception translation logic
-        // Hint: Use instanceof to check specific exception types and provide appropriate messages
+    private TextGenerationException handleApiException(Throwable e) {
+        if (UpstreamCallGuard.isRateLimited(e)) {
+            return new RateLimitExceededException("OpenAI rate limit reached: " + e.getMessage(),
+                    retryAfter(e.getMessage()), e);
+        }
+        return new TextGenerationException("Failed to generate text: " + e.getMessage(), e);
+    }
+    
+    private static Duration retryAfter(String message) {
+        Matcher matcher = message != null ? TRY_AGAIN_IN.matcher(message) : null;
+        if (matcher == null || !matcher.find()) {
+            return DEFAULT_UPSTREAM_RETRY_AFTER;
+        }
+        double amount = Double.parseDouble(matcher.group(1));
+        return "ms".equals(matcher.group(2))
+                ? Duration.ofMillis((long) Math.ceil(amount))
+                : Duration.ofMillis((long) Math.ceil(amount * 1000));
     }
     
     /**
      * Logs the request for debugging purposes while avoiding sensitive data exposure.
      * 
-     * TODO: Implement safe logging:
-     * - Log prompt length instead of full prompt content
-     * - Include request timestamp
-     * - Add any relevant metadata
-     * - Never log API keys or other sensitive configuration
+     * Only the prompt length is logged; prompts can contain personal data,
+     * so their content never reaches the log. The arrival time is the log
+     * line's own timestamp.
      * 
      * @param request the request to log
      */
     private void logRequest(GenerateRequest request) {
-        // TODO: Implement safe request logging
+        log.debug("Received text generation request with prompt length: {}",
+                request != null && request.getPrompt() != null ? request.getPrompt().length() : 0);
     }
     
     /**
      * Logs the successful response for monitoring purposes.
      * 
-     * TODO: Implement response logging:
-     * - Log response length instead of full content
-     * - Include generation time if measured
-     * - Log token usage for cost tracking
-     * - Add success metrics for monitoring
+     * Logs sizes, model, token usage (prompt/completion/total), finish
+     * reason and the ChatClient call duration, which
+     * is the same value recorded in the generate.upstream timer, so a slow
+     * request in the log can be matched against the latency histogram.
+     * At DEBUG: the per-request record for operations is the access log
+     * line written at the API boundary (AccessLog), not this one.
      * 
      * @param response the response to log
      * @param request the original request for context
+     * @param elapsedNanos duration of the ChatClient call
      */
-    private void logResponse(GenerateResponse response, GenerateRequest request) {
-        // TODO: Implement response logging
+    private void logResponse(GenerateResponse response, GenerateRequest request, long elapsedNanos) {
+        log.debug("Successfully generated text response (prompt length: {}, response length: {}, model: {}, tokens: {}/{}/{}, finish reason: {}, duration: {} ms)",
+                request.getPrompt().length(), response.getResponse().length(), response.getModel(),
+                response.getPromptTokens(), response.getCompletionTokens(), response.getTokensUsed(),
+                response.getFinishReason(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
     }
     
     // Common Mistakes to Avoid (for student reference):
@@ -0,0 +1,498 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.JobProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.JobPriority;
+import com.coherentsolutions.homework.week1.exception.CallbackNotAllowedException;
+import com.coherentsolutions.homework.week1.exception.GenerationFailure;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import com.coherentsolutions.homework.week1.service.GenerationJobService;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs generation jobs on a fixed pool of workers fed by a priority queue,
+ * and keeps their state in memory.
+ *
+ * Scheduling:
+ * The workers are virtual threads of a ThreadPoolExecutor whose work queue
+ * is a PriorityBlockingQueue, so generator.jobs.workers bounds how many jobs
+ * call the model at once and a waiting HIGH job always starts before a
+ * waiting NORMAL one (FIFO within a priority). The queue itself is
+ * unbounded, so its depth is capped here: once generator.jobs.queue-capacity
+ * jobs are waiting, submit throws ServiceOverloadedException (503) with a
+ * Retry-After estimated from the backlog and the mean job duration.
+ *
+ * Jobs call the model as UpstreamScheduler's "batch" class, so with the
+ * scheduler enabled a job backlog cannot crowd out interactive calls, and
+ * on behalf of the tenant that submitted them (TokenBudgets). A job whose
+ * tenant runs out of budget while it waits fails with that error.
+ *
+ * Storage:
+ * Jobs live in a Caffeine cache with a per-entry expiry: queued and running
+ * jobs never expire, a finished job expires generator.jobs.ttl after it
+ * finished. Finished jobs also count against generator.jobs.maximum-jobs,
+ * so a burst of short jobs cannot fill the heap before their TTL runs out;
+ * beyond it finished jobs are evicted early. Queued and running jobs weigh
+ * nothing, so the bound never drops work in progress (their number is
+ * already capped by queue-capacity and workers). Nothing is persisted; jobs
+ * still queued when the application stops are lost.
+ *
+ * Callbacks:
+ * If the job has a callback URL, the finished job is POSTed there as JSON
+ * from a separate virtual thread, so a slow receiver never holds a worker.
+ * Connection errors and 5xx answers are retried with exponential backoff;
+ * the outcome is visible as callbackStatus on the job.
+ *
+ * The server POSTs to whatever the client names, so the URL is checked at
+ * submission (400 if refused) and again before delivery: its host must be
+ * in generator.jobs.callback.allowed-hosts or, without an allow-list,
+ * resolve to public addresses only. That keeps clients from reaching the
+ * actuator, internal services or a cloud metadata endpoint through the
+ * callback. Redirects are not followed. A host whose DNS answer changes
+ * between the check and the connect is not caught; list the receivers in
+ * allowed-hosts where that matters.
+ *
+ * Metrics:
+ * - jobs.queue.depth (gauge): jobs waiting for a worker
+ * - jobs.running (gauge): jobs calling the model
+ * - jobs.queue.wait (timer, tagged priority): time from submission to start
+ * - jobs.run (timer): time the generation itself took
+ * - jobs.completed (counter, tagged status): finished jobs
+ * - jobs.rejected (counter): submissions refused because the queue was full
+ * - jobs.callbacks (counter, tagged outcome): webhook deliveries
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationJobService
+ * @see JobProperties
+ */
+@Service
+@Slf4j
+public class QueuedGenerationJobService implements GenerationJobService {
+
+    private final TextGeneratorService textGeneratorService;
+
+    private final JobProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Ticker ticker;
+
+    private final Cache<String, GenerateJobResponse> jobs;
+
+    private final ThreadPoolExecutor workers;
+
+    private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final HttpClient httpClient;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Timer runTimer;
+
+    @Autowired
+    public QueuedGenerationJobService(TextGeneratorService textGeneratorService, JobProperties properties,
+                                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(textGeneratorService, properties, objectMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the service with an explicit time source, so queue waits and
+     * job expiry can be tested without sleeping.
+     */
+    public QueuedGenerationJobService(TextGeneratorService textGeneratorService, JobProperties properties,
+                                      ObjectMapper objectMapper, MeterRegistry meterRegistry, Ticker ticker) {
+        if (properties.getWorkers() <= 0 || properties.getQueueCapacity() <= 0 || properties.getMaximumJobs() <= 0) {
+            throw new IllegalArgumentException(
+                    "generator.jobs.workers, queue-capacity and maximum-jobs must be positive");
+        }
+        this.textGeneratorService = textGeneratorService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.jobs = Caffeine.newBuilder()
+                .ticker(ticker)
+                .expireAfter(new FinishedJobExpiry(properties.getTtl().toNanos()))
+                .maximumWeight(properties.getMaximumJobs())
+                .weigher((String id, GenerateJobResponse job) -> FinishedJobExpiry.isFinished(job) ? 1 : 0)
+                .build();
+        this.workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                Thread.ofVirtual().name("generation-job-", 0).factory());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getCallback().getTimeout())
+                .executor(callbackExecutor)
+                .build();
+        this.runTimer = Timer.builder("jobs.run")
+                .description("Time generation jobs spent calling the model")
+                .register(meterRegistry);
+        Gauge.builder("jobs.queue.depth", waiting, AtomicInteger::get)
+                .description("Generation jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("jobs.running", running, AtomicInteger::get)
+                .description("Generation jobs calling the model")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GenerateJobResponse submit(GenerateJobRequest request, Consumer<GenerateJobResponse> onFinished) {
+        if (request.getCallbackUrl() != null) {
+            checkCallback(request.getCallbackUrl());
+        }
+        if (waiting.incrementAndGet() > properties.getQueueCapacity()) {
+            int backlog = waiting.decrementAndGet();
+            meterRegistry.counter("jobs.rejected").increment();
+            throw new ServiceOverloadedException(
+                    String.format("Job queue is full (%d waiting)", backlog), estimatedDrainTime(backlog));
+        }
+
+        JobPriority priority = request.getPriority() != null ? request.getPriority() : JobPriority.NORMAL;
+        GenerateJobResponse job = GenerateJobResponse.builder()
+                .id(UUID.randomUUID().toString())
+                .status(GenerateJobResponse.Status.QUEUED)
+                .priority(priority)
+                .submittedAt(LocalDateTime.now())
+                .callbackStatus(request.getCallbackUrl() != null ? GenerateJobResponse.CallbackStatus.PENDING : null)
+                .build();
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(new JobTask(job.getId(), request, priority, sequence.incrementAndGet(),
+                    ticker.read(), TokenBudgets.currentTenant(), onFinished));
+        } catch (RuntimeException e) {
+            // only after shutdown
+            waiting.decrementAndGet();
+            jobs.invalidate(job.getId());
+            throw e;
+        }
+
+        log.debug("Queued generation job {} with priority {} ({} waiting)", job.getId(), priority, waiting.get());
+        return job;
+    }
+
+    @Override
+    public Optional<GenerateJobResponse> find(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    /**
+     * Stops the workers with the application context; queued jobs are dropped.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+
+    private void run(JobTask task) {
+        waiting.decrementAndGet();
+        running.incrementAndGet();
+        long startNanos = ticker.read();
+        Timer.builder("jobs.queue.wait")
+                .description("Time generation jobs waited for a worker")
+                .tag("priority", task.priority.name().toLowerCase())
+                .register(meterRegistry)
+                .record(startNanos - task.submittedNanos, TimeUnit.NANOSECONDS);
+        update(task.id, job -> job.toBuilder()
+                .status(GenerateJobResponse.Status.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        GenerateJobResponse finished;
+        try {
+            GenerateResponse response = TokenBudgets.runAs(task.tenant, () -> UpstreamScheduler.runAs(
+                    UpstreamScheduler.BATCH, () -> textGeneratorService.generateText(task.request)));
+            finished = update(task.id, job -> job.toBuilder()
+                    .status(GenerateJobResponse.Status.SUCCEEDED)
+                    .completedAt(LocalDateTime.now())
+                    .httpStatus(200)
+                    .response(response)
+                    .build());
+        } catch (RuntimeException e) {
+            GenerationFailure failure = GenerationFailure.of(e);
+            if (failure.isTransient()) {
+                log.warn("Generation job {} rejected with {}: {}", task.id, failure.status(), e.getMessage());
+            } else {
+                log.error("Generation job {} failed: {}", task.id, e.getMessage(), e);
+            }
+            finished = update(task.id, job -> job.toBuilder()
+                    .status(GenerateJobResponse.Status.FAILED)
+                    .completedAt(LocalDateTime.now())
+                    .httpStatus(failure.status())
+                    .error(failure.error())
+                    .build());
+        } finally {
+            running.decrementAndGet();
+            runTimer.record(ticker.read() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        meterRegistry.counter("jobs.completed", "status", finished.getStatus().name().toLowerCase()).increment();
+
+        try {
+            task.onFinished.accept(finished);
+        } catch (RuntimeException e) {
+            log.warn("Completion hook of job {} failed: {}", task.id, e.getMessage(), e);
+        }
+        String callbackUrl = task.request.getCallbackUrl();
+        if (callbackUrl != null) {
+            GenerateJobResponse delivered = finished;
+            callbackExecutor.execute(() -> deliver(delivered, callbackUrl));
+        }
+    }
+
+    /**
+     * POSTs the finished job to its callback URL, retrying connection errors
+     * and 5xx answers with exponential backoff.
+     */
+    private void deliver(GenerateJobResponse job, String callbackUrl) {
+        JobProperties.Callback callback = properties.getCallback();
+        HttpRequest request;
+        try {
+            checkCallback(callbackUrl);
+            request = HttpRequest.newBuilder(URI.create(callbackUrl))
+                    .timeout(callback.getTimeout())
+                    .header("Content-Type", "application/json")
+                    .header("X-Generation-Job-Id", job.getId())
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(job)))
+                    .build();
+        } catch (JsonProcessingException | IllegalArgumentException | CallbackNotAllowedException e) {
+            log.warn("Cannot send callback of job {}: {}", job.getId(), e.getMessage());
+            callbackFinished(job.getId(), false);
+            return;
+        }
+
+        Duration backoff = callback.getBackoff();
+        for (int attempt = 1; attempt <= callback.getMaxAttempts(); attempt++) {
+            try {
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 == 2) {
+                    callbackFinished(job.getId(), true);
+                    return;
+                }
+                log.warn("Callback of job {} answered {} (attempt {})", job.getId(), status, attempt);
+                if (status < 500) {
+                    break;
+                }
+            } catch (IOException e) {
+                log.warn("Callback of job {} failed (attempt {}): {}", job.getId(), attempt, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (attempt < callback.getMaxAttempts()) {
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = backoff.multipliedBy(2);
+            }
+        }
+        callbackFinished(job.getId(), false);
+    }
+
+    /**
+     * Refuses callback URLs whose host is not allowed, see the class comment.
+     */
+    private void checkCallback(String callbackUrl) {
+        String host;
+        try {
+            host = URI.create(callbackUrl).getHost();
+        } catch (IllegalArgumentException e) {
+            throw new CallbackNotAllowedException(callbackUrl, "not a valid URL");
+        }
+        if (host == null) {
+            throw new CallbackNotAllowedException(callbackUrl, "the URL has no host");
+        }
+        String name = host.toLowerCase(Locale.ROOT).replace("[", "").replace("]", "");
+
+        List<String> allowedHosts = properties.getCallback().getAllowedHosts();
+        if (!allowedHosts.isEmpty()) {
+            if (allowedHosts.stream().noneMatch(allowed -> hostMatches(name, allowed))) {
+                throw new CallbackNotAllowedException(callbackUrl, "host " + name + " is not in the allowed hosts");
+            }
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(name);
+        } catch (UnknownHostException e) {
+            throw new CallbackNotAllowedException(callbackUrl, "host " + name + " cannot be resolved");
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new CallbackNotAllowedException(callbackUrl,
+                        "host " + name + " resolves to a loopback, private or link-local address");
+            }
+        }
+    }
+
+    private static boolean hostMatches(String host, String allowed) {
+        String pattern = allowed.toLowerCase(Locale.ROOT);
+        return pattern.startsWith("*.") ? host.endsWith(pattern.substring(1)) : host.equals(pattern);
+    }
+
+    private static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // unique local fc00::/7, the IPv6 private range
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        // carrier-grade NAT 100.64.0.0/10
+        return !((bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64);
+    }
+
+    private void callbackFinished(String id, boolean delivered) {
+        meterRegistry.counter("jobs.callbacks", "outcome", delivered ? "delivered" : "failed").increment();
+        update(id, job -> job.toBuilder()
+                .callbackStatus(delivered ? GenerateJobResponse.CallbackStatus.DELIVERED
+                        : GenerateJobResponse.CallbackStatus.FAILED)
+                .build());
+    }
+
+    private GenerateJobResponse update(String id, UnaryOperator<GenerateJobResponse> change) {
+        return jobs.asMap().computeIfPresent(id, (key, job) -> change.apply(job));
+    }
+
+    /**
+     * Time for the workers to get through the given backlog at the mean job
+     * duration so far; one second before any job has finished.
+     */
+    private Duration estimatedDrainTime(int backlog) {
+        double meanNanos = runTimer.mean(TimeUnit.NANOSECONDS);
+        if (meanNanos <= 0) {
+            return Duration.ofSeconds(1);
+        }
+        return Duration.ofNanos((long) (meanNanos * backlog / properties.getWorkers()));
+    }
+
+    /**
+     * Keeps pending jobs forever and finished ones for the TTL, counted from
+     * the update that finished them; later updates (callback status) keep
+     * the deadline.
+     */
+    private record FinishedJobExpiry(long ttlNanos) implements Expiry<String, GenerateJobResponse> {
+
+        @Override
+        public long expireAfterCreate(String id, GenerateJobResponse job, long currentTime) {
+            return isFinished(job) ? ttlNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, GenerateJobResponse job, long currentTime, long currentDuration) {
+            if (!isFinished(job)) {
+                return Long.MAX_VALUE;
+            }
+            return currentDuration > ttlNanos ? ttlNanos : currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String id, GenerateJobResponse job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static boolean isFinished(GenerateJobResponse job) {
+            return job.getStatus() == GenerateJobResponse.Status.SUCCEEDED
+                    || job.getStatus() == GenerateJobResponse.Status.FAILED;
+        }
+    }
+
+    /**
+     * A queued job. The executor's PriorityBlockingQueue orders tasks by
+     * priority, then by submission, so they must be passed to execute()
+     * (submit() would wrap them in a FutureTask that is not Comparable).
+     */
+    private final class JobTask implements Runnable, Comparable<JobTask> {
+
+        private static final Comparator<JobTask> ORDER = Comparator
+                .comparing((JobTask task) -> task.priority)
+                .thenComparingLong(task -> task.sequence);
+
+        private final String id;
+
+        private final GenerateJobRequest request;
+
+        private final JobPriority priority;
+
+        private final long sequence;
+
+        private final long submittedNanos;
+
+        private final String tenant;
+
+        private final Consumer<GenerateJobResponse> onFinished;
+
+        private JobTask(String id, GenerateJobRequest request, JobPriority priority, long sequence,
+                        long submittedNanos, String tenant, Consumer<GenerateJobResponse> onFinished) {
+            this.id = id;
+            this.request = request;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submittedNanos = submittedNanos;
+            this.tenant = tenant;
+            this.onFinished = onFinished;
+        }
+
+        @Override
+        public void run() {
+            QueuedGenerationJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(JobTask other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.coherentsolutions.homework.week1.service.impl;
+
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.config.SemanticCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.semantic.HnswIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Semantic response cache: reuses answers for prompts that mean the same thing.
+ *
+ * The exact-match cache misses paraphrases such as "When was Spring Boot
+ * released?" and "Spring Boot release year?". This decorator embeds every
+ * prompt, looks up the most similar earlier prompts in an HNSW vector index,
+ * and returns the stored answer when the cosine similarity reaches
+ * generator.semantic-cache.similarity-threshold.
+ *
+ * Cache Behavior:
+ * - Only entries generated with the same profile and model options are reused
+ * - Bounded: at most generator.semantic-cache.maximum-size prompts; the
+ *   oldest are evicted first
+ * - Time-limited: entries are ignored and evicted after generator.semantic-cache.ttl
+ * - Hits return a copy of the stored response with cached = true
+ * - Failures are never cached
+ * - If embedding fails, the request goes to the model as if the cache were off
+ * - Follows generator.cache.cache-sampled-responses like the in-memory cache;
+ *   a bypassed request is not embedded either
+ *
+ * Metrics (via Micrometer, visible under /actuator/metrics):
+ * - semantic.cache.gets{result=hit|miss}
+ * - semantic.cache.similarity: best similarity per lookup, for tuning the threshold
+ * - semantic.cache.evictions and semantic.cache.size
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HnswIndex
+ * @see SemanticCacheProperties
+ */
+@Slf4j
+public class SemanticCachingTextGeneratorService implements TextGeneratorService {
+
+    /**
+     * Number of nearest prompts inspected per lookup; more than one so that a
+     * stale or differently configured best match does not hide a usable one.
+     */
+    private static final int CANDIDATES = 4;
+
+    private final TextGeneratorService delegate;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final EmbeddingModel embeddingModel;
+
+    private final double similarityThreshold;
+
+    private final boolean cacheSampledResponses;
+
+    private final long ttlNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final HnswIndex<Entry> index;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final DistributionSummary similarity;
+
+    public SemanticCachingTextGeneratorService(TextGeneratorService delegate,
+                                               GenerationProfiles generationProfiles,
+                                               EmbeddingModel embeddingModel,
+                                               SemanticCacheProperties properties,
+                                               ResponseCacheProperties cacheProperties,
+                                               MeterRegistry meterRegistry) {
+        this(delegate, generationProfiles, embeddingModel, properties, cacheProperties, meterRegistry,
+                System::nanoTime);
+    }
+
+    /**
+     * Creates the cache with an explicit time source, so expiry can be tested
+     * without sleeping.
+     */
+    public SemanticCachingTextGeneratorService(TextGeneratorService delegate,
+                                               GenerationProfiles generationProfiles,
+                                               EmbeddingModel embeddingModel,
+                                               SemanticCacheProperties properties,
+                                               ResponseCacheProperties cacheProperties,
+                                               MeterRegistry meterRegistry,
+                                               LongSupplier nanoTime) {
+        this.delegate = delegate;
+        this.generationProfiles = generationProfiles;
+        this.embeddingModel = embeddingModel;
+        this.similarityThreshold = properties.getSimilarityThreshold();
+        this.cacheSampledResponses = cacheProperties.isCacheSampledResponses();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.nanoTime = nanoTime;
+        SemanticCacheProperties.Hnsw hnsw = properties.getHnsw();
+        this.index = new HnswIndex<>(properties.getMaximumSize(), hnsw.getM(),
+                hnsw.getEfConstruction(), hnsw.getEfSearch());
+
+        this.hits = Counter.builder("semantic.cache.gets").tag("result", "hit")
+                .description("Semantic cache lookups that reused an answer")
+                .register(meterRegistry);
+        this.misses = Counter.builder("semantic.cache.gets").tag("result", "miss")
+                .description("Semantic cache lookups that went to the model")
+                .register(meterRegistry);
+        this.similarity = DistributionSummary.builder("semantic.cache.similarity")
+                .description("Similarity of the closest cached prompt per lookup")
+                .register(meterRegistry);
+        FunctionCounter.builder("semantic.cache.evictions", index, HnswIndex::evictionCount)
+                .description("Prompts evicted from the semantic cache")
+                .register(meterRegistry);
+        Gauge.builder("semantic.cache.size", index, HnswIndex::size)
+                .description("Prompts currently held in the semantic cache")
+                .register(meterRegistry);
+
+        log.info("Semantic cache enabled with {} and similarity threshold {}",
+                embeddingModel.getClass().getSimpleName(), similarityThreshold);
+    }
+
+    /**
+     * A cached answer and the key it was generated for.
+     */
+    private record Entry(GenerationKey key, GenerateResponse response, long createdAt) {
+    }
+
+    @Override
+    public GenerateResponse generateText(GenerateRequest request) throws TextGenerationException {
+        GenerationProfile profile = request != null && request.getPrompt() != null
+                ? generationProfiles.find(request.getProfile()).orElse(null) : null;
+        if (profile == null || (profile.options().isSampling() && !cacheSampledResponses)) {
+            return delegate.generateText(request);
+        }
+
+        GenerationKey key = GenerationKey.of(request, profile);
+        float[] embedding = embed(key.prompt());
+        if (embedding != null) {
+            GenerateResponse cached = lookup(key, embedding);
+            if (cached != null) {
+                hits.increment();
+                return cached.toBuilder().cached(true).build();
+            }
+        }
+        misses.increment();
+
+        GenerateResponse response = delegate.generateText(request);
+        if (embedding != null) {
+            long now = nanoTime.getAsLong();
+            index.evictOldestWhile(entry -> isExpired(entry, now));
+            index.add(embedding, new Entry(key, response, now));
+        }
+        return response;
+    }
+
+    /**
+     * Returns the number of prompts currently held in the cache.
+     *
+     * @return live entry count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    private GenerateResponse lookup(GenerationKey key, float[] embedding) {
+        List<HnswIndex.Match<Entry>> matches = index.search(embedding, CANDIDATES);
+        if (matches.isEmpty()) {
+            return null;
+        }
+        similarity.record(matches.get(0).similarity());
+
+        long now = nanoTime.getAsLong();
+        for (HnswIndex.Match<Entry> match : matches) {
+            if (match.similarity() < similarityThreshold) {
+                break;
+            }
+            Entry entry = match.value();
+            if (!isExpired(entry, now) && sameOptions(entry.key(), key)) {
+                log.debug("Semantic cache hit (similarity {}) for prompt (length: {})",
+                        match.similarity(), key.prompt().length());
+                return entry.response();
+            }
+        }
+        return null;
+    }
+
+    private float[] embed(String prompt) {
+        try {
+            return embeddingModel.embed(prompt);
+        } catch (RuntimeException e) {
+            log.warn("Could not embed prompt, skipping semantic cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt() >= ttlNanos;
+    }
+
+    private static boolean sameOptions(GenerationKey a, GenerationKey b) {
+        return Objects.equals(a.profile(), b.profile())
+                && Objects.equals(a.model(), b.model())
+                && Objects.equals(a.temperature(), b.temperature())
+                && Objects.equals(a.maxTokens(), b.maxTokens());
+    }
+}
@@ -0,0 +1,68 @@
+package com.coherentsolutions.homework.week1.service.profile;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.openai.OpenAiChatOptions;
+
+/**
+ * One generation profile, with everything a call needs built in advance.
+ *
+ * The system message and the option objects are created once, when the
+ * application starts, and handed to every ChatClient call of the profile.
+ * Spring AI copies options before merging them with the model defaults,
+ * so sharing them between concurrent calls is safe as long as nobody
+ * modifies them; treat every component as read-only.
+ *
+ * @param name the profile name, also used as metric tag
+ * @param systemPrompt the system prompt text
+ * @param options the effective model options: the profile's own values over the application defaults
+ * @param cacheId identity of the profile in cache keys: the name plus a hash
+ *                of the system prompt, so answers stored for an earlier
+ *                system prompt are never served for a changed one
+ * @param systemMessage the system message sent first in every call
+ * @param callOptions options for blocking calls, holding only what the
+ *                    profile sets explicitly, so the rest (and a routing
+ *                    backend's model) comes from the chat model defaults
+ * @param streamOptions callOptions plus stream usage reporting
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationProfiles
+ */
+public record GenerationProfile(String name,
+                                String systemPrompt,
+                                GenerationOptions options,
+                                String cacheId,
+                                SystemMessage systemMessage,
+                                OpenAiChatOptions callOptions,
+                                OpenAiChatOptions streamOptions) {
+
+    /**
+     * Builds a profile and its prompt and option objects.
+     *
+     * @param name the profile name
+     * @param systemPrompt the system prompt
+     * @param defaults the application's model options
+     * @param model the profile's model, or null to keep the default
+     * @param temperature the profile's temperature, or null to keep the default
+     * @param maxTokens the profile's completion limit, or null to keep the default
+     * @return the profile
+     */
+    public static GenerationProfile of(String name, String systemPrompt, GenerationOptions defaults,
+                                       String model, Double temperature, Integer maxTokens) {
+        GenerationOptions options = new GenerationOptions(
+                model != null ? model : defaults.model(),
+                temperature != null ? temperature : defaults.temperature(),
+                maxTokens != null ? maxTokens : defaults.maxTokens());
+        OpenAiChatOptions callOptions = OpenAiChatOptions.builder()
+                .model(model)
+                .temperature(temperature)
+                .maxTokens(maxTokens)
+                .build();
+        OpenAiChatOptions streamOptions = OpenAiChatOptions.fromOptions(callOptions);
+        streamOptions.setStreamUsage(true);
+        return new GenerationProfile(name, systemPrompt, options,
+                name + "@" + Integer.toHexString(systemPrompt.hashCode()),
+                new SystemMessage(systemPrompt), callOptions, streamOptions);
+    }
+}
@@ -0,0 +1,139 @@
+package com.coherentsolutions.homework.week1.service.profile;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.OpenAIConfig;
+import com.coherentsolutions.homework.week1.exception.UnknownProfileException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The configured generation profiles, built once at startup.
+ *
+ * Before profiles, every call went through the same ChatClient with one
+ * hardcoded system prompt, and each request rebuilt its option objects.
+ * Now each profile from generator.profiles becomes a GenerationProfile
+ * with its system message and OpenAiChatOptions already built; a request
+ * only looks its profile up by name.
+ *
+ * The profile is also the unit the rest of the pipeline keys on:
+ * - Caches and coalescing key on the profile's cacheId and effective
+ *   options, so two profiles never share an answer
+ * - Prompt admission and the rate limiter use the profile's system prompt
+ *   and max-tokens for their token counts
+ * - GenerationMetrics tags every meter with the profile name
+ *
+ * Requests without a profile get the default profile, which exists even
+ * when it has no definition: the built-in system prompt and
+ * spring.ai.openai.chat.options.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationProfileProperties
+ * @see GenerationProfile
+ */
+@Component
+@Slf4j
+public class GenerationProfiles {
+
+    /**
+     * Metric tag for requests that named a profile that does not exist.
+     * Keeps arbitrary client input out of the tag values.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    private final Map<String, GenerationProfile> profiles = new LinkedHashMap<>();
+
+    private final GenerationProfile defaultProfile;
+
+    public GenerationProfiles(GenerationProfileProperties properties, GenerationOptions defaultGenerationOptions) {
+        String defaultName = properties.getDefaultProfile();
+        if (!StringUtils.hasText(defaultName)) {
+            throw new IllegalStateException("generator.profiles.default-profile must not be empty");
+        }
+        if (!properties.getDefinitions().containsKey(defaultName)) {
+            profiles.put(defaultName, GenerationProfile.of(defaultName, OpenAIConfig.DEFAULT_SYSTEM_PROMPT,
+                    defaultGenerationOptions, null, null, null));
+        }
+        properties.getDefinitions().forEach((name, definition) -> {
+            if (!StringUtils.hasText(name) || UNKNOWN.equals(name)) {
+                throw new IllegalStateException("Invalid generation profile name: '" + name + "'");
+            }
+            if (definition.getMaxTokens() != null && definition.getMaxTokens() <= 0) {
+                throw new IllegalStateException("generator.profiles.definitions." + name + ".max-tokens must be positive");
+            }
+            profiles.put(name, GenerationProfile.of(name,
+                    StringUtils.hasText(definition.getSystemPrompt())
+                            ? definition.getSystemPrompt() : OpenAIConfig.DEFAULT_SYSTEM_PROMPT,
+                    defaultGenerationOptions, definition.getModel(), definition.getTemperature(),
+                    definition.getMaxTokens()));
+        });
+        this.defaultProfile = profiles.get(defaultName);
+        log.info("Generation profiles: {} (default '{}')", profiles.keySet(), defaultName);
+    }
+
+    /**
+     * Looks up the profile a request asked for.
+     *
+     * @param name the requested profile, or null/blank for the default
+     * @return the profile
+     * @throws UnknownProfileException if no profile has that name
+     */
+    public GenerationProfile resolve(String name) {
+        return find(name).orElseThrow(() -> new UnknownProfileException(name, String.join(", ", profiles.keySet())));
+    }
+
+    /**
+     * Looks up a profile without failing.
+     *
+     * @param name the requested profile, or null/blank for the default
+     * @return the profile, or empty if no profile has that name
+     */
+    public Optional<GenerationProfile> find(String name) {
+        return StringUtils.hasText(name) ? Optional.ofNullable(profiles.get(name)) : Optional.of(defaultProfile);
+    }
+
+    /**
+     * Returns the profile of requests that do not name one.
+     *
+     * @return the default profile
+     */
+    public GenerationProfile defaultProfile() {
+        return defaultProfile;
+    }
+
+    /**
+     * Whether a request uses the default profile.
+     *
+     * @param name the requested profile, may be null
+     * @return true for null, blank or the default profile's name
+     */
+    public boolean isDefault(String name) {
+        return !StringUtils.hasText(name) || defaultProfile.name().equals(name);
+    }
+
+    /**
+     * Returns the metric tag value for a requested profile.
+     *
+     * @param name the requested profile, may be null
+     * @return the profile name, or UNKNOWN if it is not configured
+     */
+    public String tagOf(String name) {
+        return find(name).map(GenerationProfile::name).orElse(UNKNOWN);
+    }
+
+    /**
+     * Returns every configured profile, the default included.
+     *
+     * @return the profiles in configuration order
+     */
+    public Collection<GenerationProfile> all() {
+        return profiles.values();
+    }
+}
@@ -0,0 +1,375 @@
+package com.coherentsolutions.homework.week1.service.ratelimit;
+
+import com.coherentsolutions.homework.week1.config.RateLimitProperties;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client rate limiter for the generation endpoints.
+ *
+ * Every client (a known API key from the client header, otherwise the
+ * remote IP) gets two token buckets:
+ * - requests: generator.rate-limit.requests-per-second, burst request-burst
+ * - model tokens: tokens-per-minute, with a full minute as burst
+ *
+ * The token cost of a request is only known after the model answers, so
+ * admission charges an estimate (locally counted prompt tokens + max-tokens,
+ * both for the request's generation profile)
+ * and settle() corrects it with the reported usage. Cache hits and requests
+ * that shared an identical in-flight call are refunded in full, failed calls
+ * as well.
+ *
+ * Upstream backpressure:
+ * When OpenAI answers with its own 429, every client's refill rates are
+ * multiplied by upstream.backoff-factor (down to minimum-factor), then
+ * recover linearly over upstream.recovery. Repeated 429s keep the rate
+ * down; a burst of 429s within one second counts as a single backoff.
+ * The backoff is one immutable Throttle swapped by compare-and-set, so the
+ * factor every admission reads is computed without taking a lock.
+ *
+ * Metrics:
+ * - ratelimit.rejected (counter, tag reason=requests|tokens)
+ * - ratelimit.upstream.throttled (counter): upstream 429s seen
+ * - ratelimit.rate.factor (gauge): current refill rate multiplier
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBucket
+ * @see RateLimitProperties
+ */
+@Component
+@Slf4j
+public class ClientRateLimiter {
+
+    private static final long BACKOFF_DEBOUNCE_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private static final Throttle UNTHROTTLED = new Throttle(1.0, 0);
+
+    private final RateLimitProperties properties;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final PromptTokenizer tokenizer;
+
+    /**
+     * Chat overhead plus max-tokens per profile name: everything in the
+     * estimate except the user prompt, computed once.
+     */
+    private final Map<String, Integer> fixedTokens = new HashMap<>();
+
+    private final LongSupplier nanoTime;
+
+    private final Cache<String, ClientBuckets> clients;
+
+    private final Counter rejectedRequests;
+
+    private final Counter rejectedTokens;
+
+    private final Counter upstreamThrottled;
+
+    private final AtomicReference<Throttle> throttle = new AtomicReference<>(UNTHROTTLED);
+
+    @Autowired
+    public ClientRateLimiter(RateLimitProperties properties, GenerationProfiles generationProfiles,
+                             PromptTokenizer tokenizer, MeterRegistry meterRegistry) {
+        this(properties, generationProfiles, tokenizer, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Creates the limiter with an explicit time source, so refill and
+     * recovery can be tested without sleeping.
+     */
+    public ClientRateLimiter(RateLimitProperties properties, GenerationProfiles generationProfiles,
+                             PromptTokenizer tokenizer, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.generationProfiles = generationProfiles;
+        this.tokenizer = tokenizer;
+        for (GenerationProfile profile : generationProfiles.all()) {
+            Integer maxTokens = profile.options().maxTokens();
+            fixedTokens.put(profile.name(),
+                    tokenizer.chatOverhead(profile.systemPrompt()) + (maxTokens != null ? maxTokens : 0));
+        }
+        this.nanoTime = nanoTime;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClients())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        this.rejectedRequests = meterRegistry.counter("ratelimit.rejected", "reason", "requests");
+        this.rejectedTokens = meterRegistry.counter("ratelimit.rejected", "reason", "tokens");
+        this.upstreamThrottled = meterRegistry.counter("ratelimit.upstream.throttled");
+        Gauge.builder("ratelimit.rate.factor", this, ClientRateLimiter::rateFactor)
+                .description("Multiplier applied to client refill rates after upstream 429s")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identifies the client of a request: the configured header if it holds
+     * one of the client-keys, otherwise the remote address. Unknown header
+     * values are ignored, so rotating them does not reset the limit. Behind
+     * a proxy, set server.forward-headers-strategy so the remote address is
+     * the client's.
+     *
+     * @param request the HTTP request
+     * @return key of the client's buckets
+     */
+    public String resolveClientKey(HttpServletRequest request) {
+        return resolveClientKey(request.getHeader(properties.getClientHeader()), request.getRemoteAddr());
+    }
+
+    /**
+     * Identifies the client of a WebFlux request, with the same rules as
+     * the servlet variant.
+     *
+     * @param request the reactive HTTP request
+     * @return key of the client's buckets
+     */
+    public String resolveClientKey(ServerHttpRequest request) {
+        return resolveClientKey(request.getHeaders().getFirst(properties.getClientHeader()),
+                request.getRemoteAddress() != null ? request.getRemoteAddress().getHostString() : "unknown");
+    }
+
+    private String resolveClientKey(String header, String remoteAddress) {
+        String key = header != null ? header.trim() : null;
+        if (key != null && properties.getClientKeys().contains(key)) {
+            return "key:" + key;
+        }
+        return "ip:" + remoteAddress;
+    }
+
+    /**
+     * Admits the given requests for a client or rejects all of them.
+     *
+     * @param clientKey the client, see resolveClientKey
+     * @param requests the generation requests (one for /generate, all items of a batch)
+     * @throws RateLimitExceededException if either bucket is short; nothing is charged then
+     */
+    public void acquire(String clientKey, List<GenerateRequest> requests) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        double factor = rateFactor(now);
+        ClientBuckets buckets = buckets(clientKey, now);
+
+        long requestWait = buckets.requests().tryConsume(requests.size(), factor, now);
+        if (requestWait > 0) {
+            rejectedRequests.increment();
+            throw new RateLimitExceededException("Request rate limit exceeded for client",
+                    Duration.ofNanos(requestWait));
+        }
+        int estimatedTokens = requests.stream().mapToInt(this::estimateTokens).sum();
+        long tokenWait = buckets.tokens().tryConsume(estimatedTokens, factor, now);
+        if (tokenWait > 0) {
+            buckets.requests().settle(requests.size(), factor, now);
+            rejectedTokens.increment();
+            throw new RateLimitExceededException("Token rate limit exceeded for client",
+                    Duration.ofNanos(tokenWait));
+        }
+    }
+
+    /**
+     * Replaces the estimated token charge of a successful request with its
+     * real usage. Cached and coalesced responses did not call the model and
+     * are refunded.
+     *
+     * @param clientKey the client
+     * @param request the admitted request
+     * @param response the response it received
+     */
+    public void settle(String clientKey, GenerateRequest request, GenerateResponse response) {
+        Integer actual = response.isCached() ? Integer.valueOf(0) : response.getTokensUsed();
+        settleTokens(clientKey, request, actual);
+    }
+
+    /**
+     * Refunds the estimated token charge of a failed request. If OpenAI
+     * rate limited the call, all clients are slowed down.
+     *
+     * @param clientKey the client
+     * @param request the admitted request
+     * @param error why the request failed
+     */
+    public void settleFailure(String clientKey, GenerateRequest request, Throwable error) {
+        settleTokens(clientKey, request, 0);
+        if (error instanceof RateLimitExceededException rateLimited && rateLimited.isUpstream()) {
+            onUpstreamRateLimited();
+        }
+    }
+
+    /**
+     * Settles one item of a batch.
+     *
+     * @param clientKey the client
+     * @param request the item's request
+     * @param result the item's result
+     */
+    public void settle(String clientKey, GenerateRequest request, BatchItemResult result) {
+        if (result.isSuccess()) {
+            settle(clientKey, request, result.getResponse());
+            return;
+        }
+        settleTokens(clientKey, request, 0);
+        if (isUpstreamRateLimited(result.getStatus(), result.getError())) {
+            onUpstreamRateLimited();
+        }
+    }
+
+    /**
+     * Settles a finished asynchronous job.
+     *
+     * @param clientKey the client that submitted the job
+     * @param request the job's request
+     * @param job the finished job
+     */
+    public void settle(String clientKey, GenerateRequest request, GenerateJobResponse job) {
+        if (job.getResponse() != null) {
+            settle(clientKey, request, job.getResponse());
+            return;
+        }
+        settleTokens(clientKey, request, 0);
+        if (job.getHttpStatus() != null && isUpstreamRateLimited(job.getHttpStatus(), job.getError())) {
+            onUpstreamRateLimited();
+        }
+    }
+
+    /**
+     * A failed batch item or job with status 429 was rate limited by OpenAI,
+     * unless its tenant's hourly or daily token budget was used up.
+     */
+    private static boolean isUpstreamRateLimited(int status, ErrorResponse error) {
+        return status == 429 && (error == null || !ErrorResponse.BUDGET_EXCEEDED.equals(error.getError()));
+    }
+
+    /**
+     * Records that OpenAI rejected a call with 429 and lowers every client's
+     * refill rate.
+     */
+    public void onUpstreamRateLimited() {
+        upstreamThrottled.increment();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        RateLimitProperties.Upstream upstream = properties.getUpstream();
+        Throttle current;
+        Throttle next;
+        do {
+            current = throttle.get();
+            if (current.factor() < 1.0 && now - current.atNanos() < BACKOFF_DEBOUNCE_NANOS) {
+                return;
+            }
+            double reduced = factorOf(current, now) * upstream.getBackoffFactor();
+            next = new Throttle(Math.max(upstream.getMinimumFactor(), reduced), now);
+        } while (!throttle.compareAndSet(current, next));
+        log.warn("Upstream rate limit hit; client rates reduced to {}%", Math.round(next.factor() * 100));
+    }
+
+    /**
+     * Current multiplier for client refill rates (1.0 when OpenAI has not
+     * rate limited us recently).
+     *
+     * @return factor in [minimum-factor, 1]
+     */
+    public double rateFactor() {
+        return rateFactor(nanoTime.getAsLong());
+    }
+
+    /**
+     * Estimates the model tokens a request may use before it is sent: the
+     * prompt tokens as the model's tokenizer counts them (system prompt
+     * included) plus the full completion limit, both of the request's
+     * profile. A profile that does not exist is charged like the default;
+     * the request is rejected further on anyway.
+     *
+     * @param request the request
+     * @return estimated prompt + completion tokens
+     */
+    public int estimateTokens(GenerateRequest request) {
+        String prompt = request != null ? request.getPrompt() : null;
+        GenerationProfile profile = request != null
+                ? generationProfiles.find(request.getProfile()).orElse(generationProfiles.defaultProfile())
+                : generationProfiles.defaultProfile();
+        return tokenizer.countTokens(prompt) + fixedTokens.get(profile.name());
+    }
+
+    /**
+     * Replaces the estimated token charge of a request with the given usage.
+     *
+     * @param clientKey the client
+     * @param request the admitted request
+     * @param actualTokens tokens the request used, or null to keep the estimate
+     */
+    public void settleTokens(String clientKey, GenerateRequest request, Integer actualTokens) {
+        if (!properties.isEnabled() || actualTokens == null) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        ClientBuckets buckets = clients.getIfPresent(clientKey);
+        if (buckets != null) {
+            buckets.tokens().settle(estimateTokens(request) - actualTokens, rateFactor(now), now);
+        }
+    }
+
+    private double rateFactor(long now) {
+        Throttle current = throttle.get();
+        if (current == UNTHROTTLED) {
+            return 1.0;
+        }
+        double factor = factorOf(current, now);
+        if (factor >= 1.0) {
+            throttle.compareAndSet(current, UNTHROTTLED);
+        }
+        return factor;
+    }
+
+    private double factorOf(Throttle throttle, long now) {
+        if (throttle.factor() >= 1.0) {
+            return 1.0;
+        }
+        double recovered = throttle.factor()
+                + (double) (now - throttle.atNanos()) / properties.getUpstream().getRecovery().toNanos();
+        return Math.min(recovered, 1.0);
+    }
+
+    private ClientBuckets buckets(String clientKey, long now) {
+        return clients.get(clientKey, key -> new ClientBuckets(
+                new TokenBucket(properties.getRequestBurst(), properties.getRequestsPerSecond(), now),
+                new TokenBucket(properties.getTokensPerMinute(), properties.getTokensPerMinute() / 60.0, now)));
+    }
+
+    /**
+     * The two buckets of one client.
+     */
+    private record ClientBuckets(TokenBucket requests, TokenBucket tokens) {
+    }
+
+    /**
+     * Refill rate multiplier set by the last upstream 429, and when it was set.
+     */
+    private record Throttle(double factor, long atNanos) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.coherentsolutions.homework.week1.service.ratelimit;
+
+/**
+ * A token bucket with a variable refill rate.
+ *
+ * The bucket holds up to capacity permits and refills continuously at
+ * ratePerSecond. Refill is computed lazily from the elapsed time on every
+ * call, so an idle bucket costs nothing.
+ *
+ * The refill rate can be scaled per call (rateFactor), which lets the
+ * limiter slow every client down together without touching each bucket.
+ * The balance may go negative through settle(), for charges that are only
+ * known after the fact (actual model tokens); the client then waits until
+ * the debt is refilled.
+ *
+ * Thread-safe; each bucket is guarded by its own monitor.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ClientRateLimiter
+ */
+public class TokenBucket {
+
+    private final double capacity;
+
+    private final double ratePerNano;
+
+    private double available;
+
+    private long lastRefillNanos;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity maximum number of permits
+     * @param ratePerSecond refill rate at rateFactor 1.0
+     * @param nowNanos current time in nanoseconds
+     */
+    public TokenBucket(double capacity, double ratePerSecond, long nowNanos) {
+        if (capacity <= 0 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and ratePerSecond must be positive");
+        }
+        this.capacity = capacity;
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.available = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes the given number of permits if they are available.
+     *
+     * Requests larger than the capacity are admitted once the bucket is
+     * full, so they are throttled rather than rejected forever.
+     *
+     * @param permits number of permits to take
+     * @param rateFactor multiplier for the refill rate, in (0, 1]
+     * @param nowNanos current time in nanoseconds
+     * @return 0 if the permits were taken, otherwise nanoseconds until they
+     *         will be available at the current rate
+     */
+    public synchronized long tryConsume(double permits, double rateFactor, long nowNanos) {
+        refill(rateFactor, nowNanos);
+        double needed = Math.min(permits, capacity);
+        if (available >= needed) {
+            available -= permits;
+            return 0;
+        }
+        return (long) Math.ceil((needed - available) / (ratePerNano * rateFactor));
+    }
+
+    /**
+     * Adjusts the balance after the real cost of an admitted request is
+     * known. A positive delta returns permits, a negative one charges more.
+     *
+     * @param delta permits to add (may be negative)
+     * @param rateFactor multiplier for the refill rate, in (0, 1]
+     * @param nowNanos current time in nanoseconds
+     */
+    public synchronized void settle(double delta, double rateFactor, long nowNanos) {
+        refill(rateFactor, nowNanos);
+        available = Math.min(capacity, available + delta);
+    }
+
+    /**
+     * Current balance, after refilling up to now.
+     *
+     * @param rateFactor multiplier for the refill rate, in (0, 1]
+     * @param nowNanos current time in nanoseconds
+     * @return available permits (negative while in debt)
+     */
+    public synchronized double available(double rateFactor, long nowNanos) {
+        refill(rateFactor, nowNanos);
+        return available;
+    }
+
+    private void refill(double rateFactor, long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            available = Math.min(capacity, available + elapsed * ratePerNano * rateFactor);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.coherentsolutions.homework.week1.service.resilience;
+
+import com.coherentsolutions.homework.week1.config.ResilienceProperties;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A count-based circuit breaker.
+ *
+ * States:
+ * - CLOSED: calls pass. The outcomes of the last sliding-window-size calls
+ *   are kept; once at least minimum-calls are recorded and the share of
+ *   failures reaches failure-rate-threshold, the circuit opens.
+ * - OPEN: calls are rejected without being attempted. After open-duration
+ *   the next caller moves the circuit to HALF_OPEN.
+ * - HALF_OPEN: up to half-open-calls trial calls pass at once. Any failure
+ *   reopens the circuit; when all trials succeed it closes again.
+ *
+ * Callers must report every permitted call exactly once, through
+ * onSuccess, onFailure or onIgnored (errors that say nothing about the
+ * provider's health, such as a rejected API key).
+ *
+ * Thread-safe; all state is guarded by the breaker's monitor.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see UpstreamCallGuard
+ */
+public class CircuitBreaker {
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ResilienceProperties.CircuitBreaker settings;
+
+    private final LongSupplier nanoTime;
+
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+
+    private int windowPosition;
+
+    private int windowCalls;
+
+    private int windowFailures;
+
+    private long openedAtNanos;
+
+    private int halfOpenInFlight;
+
+    private int halfOpenSucceeded;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param settings thresholds and durations
+     * @param nanoTime time source in nanoseconds
+     */
+    public CircuitBreaker(ResilienceProperties.CircuitBreaker settings, LongSupplier nanoTime) {
+        if (settings.getSlidingWindowSize() <= 0 || settings.getHalfOpenCalls() <= 0) {
+            throw new IllegalArgumentException("sliding-window-size and half-open-calls must be positive");
+        }
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        this.window = new boolean[settings.getSlidingWindowSize()];
+    }
+
+    /**
+     * Asks for permission to make a call.
+     *
+     * @return true if the call may proceed; it must then be reported
+     */
+    public synchronized boolean tryAcquire() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAtNanos < settings.getOpenDuration().toNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSucceeded >= settings.getHalfOpenCalls()) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Reports a call that returned a result. Calls slower than
+     * slow-call-duration count as failures.
+     *
+     * @param elapsedNanos duration of the call
+     */
+    public synchronized void onSuccess(long elapsedNanos) {
+        if (elapsedNanos >= settings.getSlowCallDuration().toNanos()) {
+            onFailure();
+            return;
+        }
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            halfOpenSucceeded++;
+            if (halfOpenSucceeded >= settings.getHalfOpenCalls()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Reports a call that failed because of the provider (server error,
+     * timeout, connection failure).
+     */
+    public synchronized void onFailure() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= settings.getMinimumCalls()
+                    && (double) windowFailures / windowCalls >= settings.getFailureRateThreshold()) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Reports a permitted call whose outcome does not reflect the provider's
+     * health. Only releases a half-open trial slot.
+     */
+    public synchronized void onIgnored() {
+        if (settings.isEnabled() && state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    /**
+     * Current state, without triggering the OPEN to HALF_OPEN transition.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Time until an open circuit lets trial calls through.
+     *
+     * @return remaining open time, zero unless the circuit is open
+     */
+    public synchronized Duration remainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        long remaining = settings.getOpenDuration().toNanos() - (nanoTime.getAsLong() - openedAtNanos);
+        return Duration.ofNanos(Math.max(0, remaining));
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoTime.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowPosition = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+}
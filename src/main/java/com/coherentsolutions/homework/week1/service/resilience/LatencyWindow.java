@@ -0,0 +1,55 @@
+package com.coherentsolutions.homework.week1.service.resilience;
+
+import java.util.Arrays;
+
+/**
+ * The latencies of the most recent successful calls, for percentile lookups.
+ *
+ * A fixed ring buffer: the oldest sample is overwritten, so the percentile
+ * follows the provider's current behavior instead of its all-time average.
+ * Percentiles are computed by sorting a copy, which for a few hundred
+ * samples costs microseconds next to a model call of hundreds of
+ * milliseconds.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see UpstreamCallGuard
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+
+    private int position;
+
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[size];
+    }
+
+    synchronized void record(long nanos) {
+        samples[position] = nanos;
+        position = (position + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Nearest-rank percentile of the recorded samples.
+     *
+     * @param percentile value in (0, 1]
+     * @return the latency in nanoseconds, or -1 without samples
+     */
+    synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * count);
+        return sorted[Math.min(count, Math.max(1, rank)) - 1];
+    }
+}
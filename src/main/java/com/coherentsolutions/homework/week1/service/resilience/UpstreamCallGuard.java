@@ -0,0 +1,474 @@
+package com.coherentsolutions.homework.week1.service.resilience;
+
+import com.coherentsolutions.homework.week1.config.ResilienceProperties;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker, retries and hedged requests around the OpenAI call.
+ *
+ * Circuit breaker:
+ * Every attempt asks the CircuitBreaker first. While OpenAI keeps failing or
+ * timing out the circuit is open and calls fail at once with
+ * CircuitOpenException (503 + Retry-After) instead of holding a request
+ * thread until the HTTP client gives up.
+ *
+ * Retries:
+ * Only errors that may succeed on a second try are retried: connection
+ * failures, timeouts, 5xx and 408 responses. Bad requests, rejected API
+ * keys and rate limits (429, handled by ClientRateLimiter) fail at once.
+ * The wait before retry n is random between 0 and
+ * min(max-backoff, initial-backoff * 2^(n-1)) ("full jitter"), so clients
+ * that failed together do not all come back at the same moment.
+ *
+ * Hedging (blocking calls only, off by default):
+ * If a call has not answered after the configured percentile of recent
+ * latencies, an identical second call is started and whichever answers
+ * first wins; the other one is interrupted. This trims the latency tail at
+ * the price of extra tokens for the hedged share of requests (about 5% at
+ * percentile 0.95). Both calls run on hedge threads, so the call must not
+ * rely on the caller's thread context; OpenAITextGeneratorService's call
+ * takes an upstream scheduler slot per attempt, in the scheduling class it
+ * captured. The caller also passes a Hedge that runs the second call as
+ * the caller's tenant and charges the tokens of a call which answered
+ * after the winner. A call interrupted before it answered
+ * reports no usage and is not charged. The route limiter counts the hedge
+ * as a request of its own, since it sees every HTTP request.
+ *
+ * Streaming calls get the circuit breaker and retries, but a stream is only
+ * retried if it failed before its first chunk; text already sent to the
+ * client cannot be taken back. They are not hedged.
+ *
+ * Spring AI's own retry is switched off in application.yml
+ * (spring.ai.retry.max-attempts: 1); its defaults retry up to 10 times with
+ * waits of up to 3 minutes, which is where requests used to hang.
+ *
+ * Metrics:
+ * - resilience.retries (counter): retried attempts
+ * - resilience.circuit.rejected (counter): calls rejected by the open circuit
+ * - resilience.circuit.state (gauge): 0 closed, 1 half-open, 2 open
+ * - resilience.hedges (counter): hedge calls started
+ * - resilience.hedges.won (counter): hedge calls that answered first
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see CircuitBreaker
+ * @see ResilienceProperties
+ */
+@Component
+@Slf4j
+public class UpstreamCallGuard {
+
+    /**
+     * Successful call latencies kept for the hedge percentile.
+     */
+    private static final int LATENCY_SAMPLES = 200;
+
+    private final ResilienceProperties properties;
+
+    private final LongSupplier nanoTime;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_SAMPLES);
+
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter retries;
+
+    private final Counter circuitRejected;
+
+    private final Counter hedges;
+
+    private final Counter hedgesWon;
+
+    @Autowired
+    public UpstreamCallGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Creates the guard with an explicit time source, so circuit timing can
+     * be tested without sleeping.
+     */
+    public UpstreamCallGuard(ResilienceProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker(), nanoTime);
+        this.retries = meterRegistry.counter("resilience.retries");
+        this.circuitRejected = meterRegistry.counter("resilience.circuit.rejected");
+        this.hedges = meterRegistry.counter("resilience.hedges");
+        this.hedgesWon = meterRegistry.counter("resilience.hedges.won");
+        Gauge.builder("resilience.circuit.state", circuitBreaker, UpstreamCallGuard::stateValue)
+                .description("Circuit breaker state around the OpenAI call: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a blocking model call with circuit breaker, retries and hedging.
+     *
+     * @param call the model call; may run more than once, and on another thread when hedged
+     * @param <T> result type
+     * @return the result of the first successful attempt
+     * @throws CircuitOpenException if the circuit is open
+     * @throws RuntimeException the call's own error if it is not retryable or attempts are used up
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, Hedge.none());
+    }
+
+    /**
+     * Runs a blocking model call with circuit breaker, retries and hedging,
+     * admitting and charging a hedge call through the given Hedge.
+     *
+     * @param call the model call; may run more than once, and on another thread when hedged
+     * @param hedge how a hedge call is admitted and how a late result is charged
+     * @param <T> result type
+     * @return the result of the first successful attempt
+     * @throws CircuitOpenException if the circuit is open
+     * @throws RuntimeException the call's own error if it is not retryable or attempts are used up
+     */
+    public <T> T call(Supplier<T> call, Hedge<T> hedge) {
+        RuntimeException lastError = null;
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                throw circuitOpen(lastError);
+            }
+            long start = nanoTime.getAsLong();
+            try {
+                T result = hedgingReady() ? callHedged(call, hedge) : call.get();
+                long elapsed = nanoTime.getAsLong() - start;
+                circuitBreaker.onSuccess(elapsed);
+                latencies.record(elapsed);
+                return result;
+            } catch (RuntimeException e) {
+                boolean retryable = isRetryable(e);
+                if (retryable) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onIgnored();
+                }
+                if (!retryable || attempt >= properties.getRetry().getMaxAttempts()) {
+                    throw e;
+                }
+                lastError = e;
+                retries.increment();
+                Duration backoff = backoff(attempt);
+                log.warn("Upstream call failed (attempt {} of {}), retrying in {} ms: {}",
+                        attempt, properties.getRetry().getMaxAttempts(), backoff.toMillis(), e.getMessage());
+                sleep(backoff, e);
+            }
+        }
+    }
+
+    /**
+     * Wraps a streaming model call with circuit breaker and retries.
+     *
+     * Slow-call detection uses the time to the first chunk, since a long
+     * answer legitimately streams for a long time.
+     *
+     * @param call creates the upstream stream; invoked again for each retry
+     * @param <T> element type
+     * @return the guarded stream
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> call) {
+        AtomicBoolean emitted = new AtomicBoolean();
+        Flux<T> attempt = Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Flux.error(circuitOpen(null));
+            }
+            long start = nanoTime.getAsLong();
+            AtomicLong firstChunkNanos = new AtomicLong(-1);
+            AtomicBoolean reported = new AtomicBoolean();
+            return call.get()
+                    .doOnNext(chunk -> {
+                        emitted.set(true);
+                        firstChunkNanos.compareAndSet(-1, nanoTime.getAsLong() - start);
+                    })
+                    .doOnComplete(() -> {
+                        if (reported.compareAndSet(false, true)) {
+                            long elapsed = firstChunkNanos.get() >= 0
+                                    ? firstChunkNanos.get() : nanoTime.getAsLong() - start;
+                            circuitBreaker.onSuccess(elapsed);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (reported.compareAndSet(false, true)) {
+                            if (isRetryable(e)) {
+                                circuitBreaker.onFailure();
+                            } else {
+                                circuitBreaker.onIgnored();
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (reported.compareAndSet(false, true)) {
+                            circuitBreaker.onIgnored();
+                        }
+                    });
+        });
+
+        int maxAttempts = properties.getRetry().getMaxAttempts();
+        return attempt.retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            int failedAttempt = (int) signal.totalRetries() + 1;
+            if (emitted.get() || failedAttempt >= maxAttempts || !isRetryable(failure)) {
+                return Mono.error(failure);
+            }
+            retries.increment();
+            Duration backoff = backoff(failedAttempt);
+            log.warn("Upstream stream failed before its first chunk (attempt {} of {}), retrying in {} ms: {}",
+                    failedAttempt, maxAttempts, backoff.toMillis(), failure.getMessage());
+            return Mono.delay(backoff);
+        })));
+    }
+
+    /**
+     * Current circuit breaker state.
+     *
+     * @return the state
+     */
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Whether an error may go away on a second attempt. Walks the cause
+     * chain, since Spring AI and the HTTP clients wrap the original error.
+     *
+     * @param error the error of a failed call
+     * @return true for connection failures, timeouts, 5xx and 408 responses;
+     *         false for rate limits, however Spring AI classified them
+     */
+    public static boolean isRetryable(Throwable error) {
+        if (isRateLimited(error)) {
+            return false;
+        }
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof CircuitOpenException || t instanceof NonTransientAiException) {
+                return false;
+            }
+            if (t instanceof TransientAiException) {
+                return true;
+            }
+            if (t instanceof RestClientResponseException http) {
+                return isRetryableStatus(http.getStatusCode().value());
+            }
+            if (t instanceof WebClientResponseException http) {
+                return isRetryableStatus(http.getStatusCode().value());
+            }
+            if (t instanceof ResourceAccessException || t instanceof WebClientRequestException
+                    || t instanceof IOException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an error, or any of its causes, is an HTTP 429 from the model
+     * provider. Spring AI reports blocking calls as "HTTP 429 - ..." AI
+     * exceptions and streaming calls as WebClient response exceptions.
+     *
+     * @param error the error of a failed call
+     * @return true for rate-limit responses
+     */
+    public static boolean isRateLimited(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof RestClientResponseException http && http.getStatusCode().value() == 429) {
+                return true;
+            }
+            if (t instanceof WebClientResponseException http && http.getStatusCode().value() == 429) {
+                return true;
+            }
+            if (t.getMessage() != null && t.getMessage().startsWith("HTTP 429")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the hedge executor with the application context.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status >= 500 || status == 408;
+    }
+
+    private boolean hedgingReady() {
+        return properties.getHedge().isEnabled() && latencies.size() >= properties.getHedge().getMinSamples();
+    }
+
+    /**
+     * Starts the call, and a second identical call if the first has not
+     * answered within the hedge delay. Returns the first success; fails
+     * only when every started call failed.
+     */
+    private <T> T callHedged(Supplier<T> call, Hedge<T> hedge) {
+        long delay = Math.max(properties.getHedge().getMinDelay().toNanos(),
+                latencies.percentile(properties.getHedge().getPercentile()));
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger(1);
+        AtomicInteger failed = new AtomicInteger();
+        Future<?> primary = hedgeExecutor.submit(() -> race(call, hedge, winner, started, failed, false));
+        Future<?> hedgeCall = null;
+        try {
+            try {
+                return winner.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException slow) {
+                started.incrementAndGet();
+                if (!winner.isDone()) {
+                    hedges.increment();
+                    log.debug("No answer after {} ms, sending hedge request", TimeUnit.NANOSECONDS.toMillis(delay));
+                    hedgeCall = hedgeExecutor.submit(() -> race(call, hedge, winner, started, failed, true));
+                }
+            }
+            return winner.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new TextGenerationException("Model call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TextGenerationException("Interrupted while waiting for the model", e);
+        } finally {
+            primary.cancel(true);
+            if (hedgeCall != null) {
+                hedgeCall.cancel(true);
+            }
+        }
+    }
+
+    private <T> void race(Supplier<T> call, Hedge<T> hedge, CompletableFuture<T> winner,
+                          AtomicInteger started, AtomicInteger failed, boolean isHedge) {
+        try {
+            T result = isHedge ? hedge.admit(call) : call.get();
+            if (!winner.complete(result)) {
+                hedge.discarded(result);
+            } else if (isHedge) {
+                hedgesWon.increment();
+            }
+        } catch (Throwable e) {
+            if (failed.incrementAndGet() >= started.get()) {
+                winner.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        long initial = properties.getRetry().getInitialBackoff().toMillis();
+        long max = properties.getRetry().getMaxBackoff().toMillis();
+        long ceiling = Math.min(max, initial << Math.min(attempt - 1, 30));
+        return Duration.ofMillis(ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0);
+    }
+
+    private static void sleep(Duration backoff, RuntimeException lastError) {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lastError;
+        }
+    }
+
+    private CircuitOpenException circuitOpen(RuntimeException lastError) {
+        circuitRejected.increment();
+        CircuitOpenException rejected = new CircuitOpenException(
+                "Circuit breaker is open: OpenAI is failing, calls are not attempted",
+                circuitBreaker.remainingOpenTime());
+        if (lastError != null) {
+            rejected.addSuppressed(lastError);
+        }
+        return rejected;
+    }
+
+    private static double stateValue(CircuitBreaker breaker) {
+        return switch (breaker.getState()) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+
+    /**
+     * How the caller admits the second call of a hedged request and charges
+     * a result that lost the race.
+     *
+     * @param <T> result type
+     */
+    public interface Hedge<T> {
+
+        /**
+         * A hedge without admission or charging: the second call just runs.
+         *
+         * @param <T> result type
+         * @return the hedge
+         */
+        static <T> Hedge<T> none() {
+            return new Hedge<>() {
+                @Override
+                public T admit(Supplier<T> hedgeCall) {
+                    return hedgeCall.get();
+                }
+
+                @Override
+                public void discarded(T result) {
+                }
+            };
+        }
+
+        /**
+         * Runs the hedge call on its hedge thread, e.g. as the caller's
+         * tenant.
+         *
+         * @param hedgeCall the model call
+         * @return the call's result
+         */
+        T admit(Supplier<T> hedgeCall);
+
+        /**
+         * Receives a result that answered after the winner, e.g. to charge
+         * its tokens.
+         *
+         * @param result the late result
+         */
+        void discarded(T result);
+    }
+}
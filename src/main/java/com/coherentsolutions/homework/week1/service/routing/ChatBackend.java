@@ -0,0 +1,221 @@
+package com.coherentsolutions.homework.week1.service.routing;
+
+import org.springframework.ai.chat.client.ChatClient;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One model endpoint the router can send calls to, with the latency and
+ * health it has observed for it.
+ *
+ * Latency is tracked as an exponentially weighted moving average (EWMA) of
+ * successful call durations: each sample moves the average by alpha of the
+ * difference, so a slowdown shows after a few calls while a single outlier
+ * barely registers. When no calls have been made for a while the average
+ * decays towards zero (time constant ewmaDecay), which lets a backend that
+ * was slow once win a call again and prove whether it has recovered.
+ *
+ * Health is a count of consecutive failures. Reaching the threshold takes
+ * the backend out of rotation for unhealthyDuration; after that it gets
+ * calls again, and the first failure takes it straight back out while the
+ * first success resets the count. A new backend is in rotation whatever
+ * the nanoTime origin, since the deadline only counts once it is set.
+ *
+ * Like TokenBucket, all timing is passed in as nanoTime values. Thread-safe;
+ * latency and health are guarded by the backend's monitor.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ChatClientRouter
+ */
+public class ChatBackend {
+
+    private final String name;
+
+    private final ChatClient chatClient;
+
+    private final int weight;
+
+    private final double alpha;
+
+    private final double decayNanos;
+
+    private final int failureThreshold;
+
+    private final long unhealthyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double ewmaNanos = Double.NaN;
+
+    private long lastSampleNanos;
+
+    private int consecutiveFailures;
+
+    /**
+     * Whether a failure streak has taken the backend out of rotation; only
+     * then is unhealthyUntilNanos meaningful, since nanoTime values may be
+     * negative and no default value of it would mean "healthy".
+     */
+    private boolean unhealthy;
+
+    private long unhealthyUntilNanos;
+
+    private long calls;
+
+    private long failures;
+
+    /**
+     * Smooth weighted round-robin state, only touched under the router's lock.
+     */
+    int currentWeight;
+
+    /**
+     * Creates a backend that has not been called yet.
+     *
+     * @param name name for logs, metrics and health details
+     * @param chatClient client bound to this endpoint
+     * @param weight relative share under weighted round-robin
+     * @param alpha weight of the newest sample in the moving average
+     * @param decayNanos time constant of the idle decay
+     * @param failureThreshold consecutive failures that make the backend unhealthy
+     * @param unhealthyNanos how long an unhealthy backend is skipped
+     */
+    public ChatBackend(String name, ChatClient chatClient, int weight, double alpha,
+                       long decayNanos, int failureThreshold, long unhealthyNanos) {
+        if (weight <= 0 || alpha <= 0 || alpha > 1 || failureThreshold <= 0) {
+            throw new IllegalArgumentException("weight and failureThreshold must be positive, alpha in (0, 1]");
+        }
+        this.name = name;
+        this.chatClient = chatClient;
+        this.weight = weight;
+        this.alpha = alpha;
+        this.decayNanos = decayNanos;
+        this.failureThreshold = failureThreshold;
+        this.unhealthyNanos = unhealthyNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ChatClient getChatClient() {
+        return chatClient;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Calls currently running against this backend.
+     *
+     * @return in-flight call count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Marks the start of a call.
+     */
+    void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a call, whatever its outcome.
+     */
+    void end() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Records a successful call and its duration.
+     *
+     * @param elapsedNanos call duration
+     * @param nowNanos current time
+     */
+    synchronized void recordSuccess(long elapsedNanos, long nowNanos) {
+        ewmaNanos = Double.isNaN(ewmaNanos) ? elapsedNanos : alpha * elapsedNanos + (1 - alpha) * ewmaNanos;
+        lastSampleNanos = nowNanos;
+        consecutiveFailures = 0;
+        unhealthy = false;
+        calls++;
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param nowNanos current time
+     * @return true if this failure took the backend out of rotation
+     */
+    synchronized boolean recordFailure(long nowNanos) {
+        calls++;
+        failures++;
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            unhealthy = true;
+            unhealthyUntilNanos = nowNanos + unhealthyNanos;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a call that failed for reasons unrelated to the backend (bad
+     * request, cancelled stream): counted, but neither latency nor health change.
+     */
+    synchronized void recordIgnored() {
+        calls++;
+    }
+
+    /**
+     * Whether the backend is in rotation.
+     *
+     * @param nowNanos current time
+     * @return false while an unhealthy backend is being skipped
+     */
+    public synchronized boolean isHealthy(long nowNanos) {
+        return !unhealthy || nowNanos - unhealthyUntilNanos >= 0;
+    }
+
+    /**
+     * The moving-average latency, decayed by the time since the last sample.
+     *
+     * @param nowNanos current time
+     * @return estimated latency in nanoseconds; 0 before the first sample
+     */
+    public synchronized double latencyNanos(long nowNanos) {
+        if (Double.isNaN(ewmaNanos)) {
+            return 0;
+        }
+        long idle = Math.max(0, nowNanos - lastSampleNanos);
+        return decayNanos > 0 ? ewmaNanos * Math.exp(-idle / decayNanos) : ewmaNanos;
+    }
+
+    /**
+     * Least-latency score: the expected latency multiplied by the calls
+     * that would share the backend, so equally fast backends take turns
+     * and a burst does not all land on the one with the best average.
+     *
+     * @param nowNanos current time
+     * @param inFlight calls running against the backend, as read by the caller
+     * @return lower is better
+     */
+    double score(long nowNanos, int inFlight) {
+        return latencyNanos(nowNanos) * (inFlight + 1);
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getCalls() {
+        return calls;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,50 @@
+package com.coherentsolutions.homework.week1.service.routing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports the model backends under /actuator/health (component "chatBackends").
+ *
+ * UP while at least one backend is in rotation, DOWN when every backend
+ * has been taken out. The details list each backend with its status,
+ * moving-average latency, calls in flight and failure counts; they are
+ * shown according to management.endpoint.health.show-details. The same
+ * values are available as routing.backend.* metrics.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ChatClientRouter
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatBackendsHealthIndicator implements HealthIndicator {
+
+    private final ChatClientRouter chatClientRouter;
+
+    @Override
+    public Health health() {
+        long now = chatClientRouter.now();
+        boolean anyHealthy = false;
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (ChatBackend backend : chatClientRouter.getBackends()) {
+            boolean healthy = backend.isHealthy(now);
+            anyHealthy |= healthy;
+            Map<String, Object> backendDetails = new LinkedHashMap<>();
+            backendDetails.put("status", healthy ? "UP" : "DOWN");
+            backendDetails.put("latencyMs", Math.round(backend.latencyNanos(now) / 1_000_000.0));
+            backendDetails.put("inFlight", backend.getInFlight());
+            backendDetails.put("weight", backend.getWeight());
+            backendDetails.put("calls", backend.getCalls());
+            backendDetails.put("failures", backend.getFailures());
+            backendDetails.put("consecutiveFailures", backend.getConsecutiveFailures());
+            details.put(backend.getName(), backendDetails);
+        }
+        return (anyHealthy ? Health.up() : Health.down()).withDetails(details).build();
+    }
+}
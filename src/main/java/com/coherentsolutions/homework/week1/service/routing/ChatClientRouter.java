@@ -0,0 +1,332 @@
+package com.coherentsolutions.homework.week1.service.routing;
+
+import com.coherentsolutions.homework.week1.config.RoutingProperties;
+import com.coherentsolutions.homework.week1.service.resilience.UpstreamCallGuard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Dispatches model calls across several ChatClient backends.
+ *
+ * Every call gets an ordered list of candidates: the backend chosen by the
+ * strategy first, then the other healthy backends, then the unhealthy ones
+ * as a last resort. The call goes to the first candidate; if that backend
+ * fails with an error another backend could avoid (connection failure,
+ * timeout, 5xx, 408 or 429), the next candidate is tried. Errors caused by
+ * the request itself (400, rejected content) fail at once, since every
+ * backend would reject it the same way.
+ *
+ * Strategies (generator.routing.strategy):
+ * - least-latency: lowest moving-average latency x (in-flight calls + 1)
+ * - weighted-round-robin: smooth weighted round-robin (as in nginx), so a
+ *   2:1 weighting alternates A A B rather than sending bursts
+ * - failover: the first healthy backend in configuration order; the
+ *   others only see traffic while it is unhealthy
+ *
+ * The router sits inside UpstreamCallGuard: the circuit breaker and retries
+ * see one call per request, however many backends it tried. A hedged call
+ * goes through the router again, and the in-flight factor usually sends
+ * it to a different backend than the slow original.
+ *
+ * Streams are routed the same way, but only fail over before their first
+ * chunk, and their latency sample is the full stream duration.
+ *
+ * Metrics (tagged with backend):
+ * - routing.backend.latency (time gauge): decayed moving-average latency
+ * - routing.backend.healthy (gauge): 1 in rotation, 0 skipped
+ * - routing.backend.in.flight (gauge): calls currently running
+ * - routing.failovers (counter): calls moved off this backend after a failure
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ChatBackend
+ * @see RoutingProperties
+ */
+@Slf4j
+public class ChatClientRouter {
+
+    private final List<ChatBackend> backends;
+
+    private final RoutingProperties.Strategy strategy;
+
+    private final LongSupplier nanoTime;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Guards the weighted round-robin counters.
+     */
+    private final Object roundRobinLock = new Object();
+
+    public ChatClientRouter(List<ChatBackend> backends, RoutingProperties.Strategy strategy,
+                            MeterRegistry meterRegistry) {
+        this(backends, strategy, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Creates the router with an explicit time source, so latency decay and
+     * health timeouts can be tested without sleeping.
+     */
+    public ChatClientRouter(List<ChatBackend> backends, RoutingProperties.Strategy strategy,
+                            MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend is required");
+        }
+        this.backends = List.copyOf(backends);
+        this.strategy = strategy;
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        for (ChatBackend backend : this.backends) {
+            TimeGauge.builder("routing.backend.latency", backend, TimeUnit.NANOSECONDS,
+                            b -> b.latencyNanos(nanoTime.getAsLong()))
+                    .description("Moving-average latency of successful calls, decayed while idle")
+                    .tag("backend", backend.getName())
+                    .register(meterRegistry);
+            Gauge.builder("routing.backend.healthy", backend, b -> b.isHealthy(nanoTime.getAsLong()) ? 1 : 0)
+                    .description("Whether the backend is in rotation")
+                    .tag("backend", backend.getName())
+                    .register(meterRegistry);
+            Gauge.builder("routing.backend.in.flight", backend, ChatBackend::getInFlight)
+                    .description("Calls currently running against the backend")
+                    .tag("backend", backend.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Creates a router over a single client, e.g. when no backends are configured.
+     *
+     * @param name backend name
+     * @param chatClient the only client
+     * @param properties routing settings (health thresholds and EWMA)
+     * @param meterRegistry registry for routing metrics
+     * @return router that always uses the given client
+     */
+    public static ChatClientRouter single(String name, ChatClient chatClient, RoutingProperties properties,
+                                          MeterRegistry meterRegistry) {
+        return new ChatClientRouter(List.of(backend(name, chatClient, 1, properties)),
+                properties.getStrategy(), meterRegistry);
+    }
+
+    /**
+     * Creates a backend with the EWMA and health settings from the properties.
+     *
+     * @param name backend name
+     * @param chatClient client bound to the backend's endpoint
+     * @param weight weighted round-robin share
+     * @param properties routing settings
+     * @return the backend
+     */
+    public static ChatBackend backend(String name, ChatClient chatClient, int weight, RoutingProperties properties) {
+        return new ChatBackend(name, chatClient, weight, properties.getEwmaAlpha(),
+                properties.getEwmaDecay().toNanos(), properties.getFailureThreshold(),
+                properties.getUnhealthyDuration().toNanos());
+    }
+
+    /**
+     * Runs a blocking model call on the best backend, failing over to the
+     * next one while the error is one another backend could avoid.
+     *
+     * @param call the model call against a given client
+     * @param <T> result type
+     * @return the result of the first backend that answered
+     * @throws RuntimeException the last backend's error if all candidates failed
+     */
+    public <T> T call(Function<ChatClient, T> call) {
+        List<ChatBackend> candidates = candidates();
+        for (int i = 0; ; i++) {
+            ChatBackend backend = candidates.get(i);
+            backend.begin();
+            long start = nanoTime.getAsLong();
+            try {
+                T result = call.apply(backend.getChatClient());
+                long now = nanoTime.getAsLong();
+                backend.recordSuccess(now - start, now);
+                return result;
+            } catch (RuntimeException e) {
+                if (!canFailOver(e)) {
+                    backend.recordIgnored();
+                    throw e;
+                }
+                recordFailure(backend, e);
+                if (i + 1 >= candidates.size()) {
+                    throw e;
+                }
+                failedOver(backend, candidates.get(i + 1), e);
+            } finally {
+                backend.end();
+            }
+        }
+    }
+
+    /**
+     * Routes a streaming model call; fails over only while nothing has been
+     * emitted yet.
+     *
+     * @param call creates the stream against a given client
+     * @param <T> element type
+     * @return the routed stream, cold like the streams it wraps
+     */
+    public <T> Flux<T> stream(Function<ChatClient, Flux<T>> call) {
+        return Flux.defer(() -> streamFrom(candidates(), 0, call));
+    }
+
+    /**
+     * The configured backends in configuration order.
+     *
+     * @return the backends
+     */
+    public List<ChatBackend> getBackends() {
+        return backends;
+    }
+
+    /**
+     * Current time of the router's clock, for reading backend state.
+     *
+     * @return nanoTime value
+     */
+    public long now() {
+        return nanoTime.getAsLong();
+    }
+
+    private <T> Flux<T> streamFrom(List<ChatBackend> candidates, int index, Function<ChatClient, Flux<T>> call) {
+        ChatBackend backend = candidates.get(index);
+        AtomicBoolean emitted = new AtomicBoolean();
+        AtomicBoolean reported = new AtomicBoolean();
+        return Flux.defer(() -> {
+                    backend.begin();
+                    long start = nanoTime.getAsLong();
+                    return call.apply(backend.getChatClient())
+                            .doOnNext(chunk -> emitted.set(true))
+                            .doOnComplete(() -> {
+                                if (reported.compareAndSet(false, true)) {
+                                    long now = nanoTime.getAsLong();
+                                    backend.recordSuccess(now - start, now);
+                                }
+                            })
+                            .doOnError(e -> {
+                                if (reported.compareAndSet(false, true)) {
+                                    if (canFailOver(e)) {
+                                        recordFailure(backend, e);
+                                    } else {
+                                        backend.recordIgnored();
+                                    }
+                                }
+                            })
+                            .doOnCancel(() -> {
+                                if (reported.compareAndSet(false, true)) {
+                                    backend.recordIgnored();
+                                }
+                            })
+                            .doFinally(signal -> backend.end());
+                })
+                .onErrorResume(e -> !emitted.get() && canFailOver(e) && index + 1 < candidates.size(), e -> {
+                    failedOver(backend, candidates.get(index + 1), e);
+                    return streamFrom(candidates, index + 1, call);
+                });
+    }
+
+    /**
+     * Orders the backends for one call: the strategy's pick, the remaining
+     * healthy backends, then the unhealthy ones.
+     */
+    List<ChatBackend> candidates() {
+        long now = nanoTime.getAsLong();
+        List<ChatBackend> healthy = new ArrayList<>(backends.size());
+        List<ChatBackend> unhealthy = new ArrayList<>();
+        for (ChatBackend backend : backends) {
+            (backend.isHealthy(now) ? healthy : unhealthy).add(backend);
+        }
+        if (healthy.size() > 1) {
+            switch (strategy) {
+                case LEAST_LATENCY -> sortByScore(healthy, now);
+                case WEIGHTED_ROUND_ROBIN -> {
+                    ChatBackend next = nextWeighted(healthy);
+                    healthy.remove(next);
+                    healthy.addFirst(next);
+                }
+                case FAILOVER -> {
+                    // configuration order
+                }
+            }
+        }
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    /**
+     * Sorts by least-latency score. Scores move while other calls start and
+     * finish, so each is read once before sorting: a comparator reading
+     * live values can contradict itself mid-sort.
+     */
+    private static void sortByScore(List<ChatBackend> healthy, long now) {
+        List<Scored> scored = new ArrayList<>(healthy.size());
+        for (ChatBackend backend : healthy) {
+            int inFlight = backend.getInFlight();
+            scored.add(new Scored(backend, backend.score(now, inFlight), inFlight));
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).thenComparingInt(Scored::inFlight));
+        healthy.clear();
+        for (Scored entry : scored) {
+            healthy.add(entry.backend());
+        }
+    }
+
+    /**
+     * Smooth weighted round-robin: every backend gains its weight, the one
+     * with the highest total is picked and pays back the sum of all weights.
+     */
+    private ChatBackend nextWeighted(List<ChatBackend> healthy) {
+        synchronized (roundRobinLock) {
+            ChatBackend best = null;
+            int totalWeight = 0;
+            for (ChatBackend backend : healthy) {
+                backend.currentWeight += backend.getWeight();
+                totalWeight += backend.getWeight();
+                if (best == null || backend.currentWeight > best.currentWeight) {
+                    best = backend;
+                }
+            }
+            best.currentWeight -= totalWeight;
+            return best;
+        }
+    }
+
+    private void recordFailure(ChatBackend backend, Throwable e) {
+        if (backend.recordFailure(nanoTime.getAsLong())) {
+            log.warn("Backend '{}' taken out of rotation after {} consecutive failures: {}",
+                    backend.getName(), backend.getConsecutiveFailures(), e.getMessage());
+        }
+    }
+
+    private void failedOver(ChatBackend from, ChatBackend to, Throwable e) {
+        meterRegistry.counter("routing.failovers", "backend", from.getName()).increment();
+        log.warn("Backend '{}' failed, failing over to '{}': {}", from.getName(), to.getName(), e.getMessage());
+    }
+
+    /**
+     * Errors another backend might not have: transient failures and rate
+     * limits (backends usually have separate keys and quotas).
+     */
+    private static boolean canFailOver(Throwable e) {
+        return UpstreamCallGuard.isRetryable(e) || UpstreamCallGuard.isRateLimited(e);
+    }
+
+    /**
+     * A backend with the score and in-flight count it had when a call was routed.
+     */
+    private record Scored(ChatBackend backend, double score, int inFlight) {
+    }
+}
@@ -0,0 +1,469 @@
+package com.coherentsolutions.homework.week1.service.scheduling;
+
+import com.coherentsolutions.homework.week1.config.SchedulerProperties;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Hands out a fixed number of upstream call slots by weighted fair queuing
+ * across scheduling classes.
+ *
+ * Without it, calls reach OpenAI first come, first served: at peak a batch
+ * of 100 items or a backlog of jobs takes every connection, and an
+ * interactive /generate waits behind all of them. Here every blocking model
+ * call first takes one of generator.scheduler.slots; when none is free it
+ * queues, and a freed slot goes to the waiting call with the smallest
+ * virtual finish time.
+ *
+ * Weighted fair queuing (self-clocked):
+ * - a call of class c gets finish tag max(V, last tag of c) + 1 / weight(c)
+ * - V is the tag of the call that got the most recent slot
+ * - so while several classes wait, slots go to them in proportion to their
+ *   weights, FIFO within a class; a class that was idle starts at V and
+ *   gets no credit for the time it did not use
+ *
+ * Classes:
+ * The class is taken from the calling thread (runAs). Batch items and jobs
+ * run as "batch"; everything else, e.g. POST /generate and session turns,
+ * is generator.scheduler.default-class. A call that waits longer than its
+ * class's queue-timeout fails with ServiceOverloadedException (503 with
+ * Retry-After) and never reaches OpenAI.
+ *
+ * Streams take a slot too, without blocking a thread for it: stream()
+ * queues the subscription like any other call and subscribes to the
+ * upstream stream once the slot is granted. The slot is held until the
+ * stream completes, fails or is cancelled, i.e. for as long as the answer
+ * streams; slots should be sized with that in mind. A stream that waits
+ * longer than its class's queue-timeout fails with the same 503.
+ *
+ * Metrics:
+ * - scheduler.slots.in.use (gauge): upstream calls holding a slot
+ * - scheduler.queue.length (gauge, tagged class): calls waiting for a slot
+ * - scheduler.queue.wait (timer, tagged class): time calls waited, 0 when a slot was free
+ * - scheduler.rejected (counter, tagged class): calls that timed out in the queue
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see SchedulerProperties
+ */
+@Component
+@Slf4j
+public class UpstreamScheduler {
+
+    /**
+     * Class of batch items and generation jobs.
+     */
+    public static final String BATCH = "batch";
+
+    private static final ThreadLocal<String> CURRENT_CLASS = new ThreadLocal<>();
+
+    private final SchedulerProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>();
+
+    private final Map<String, FlowClass> classes = new HashMap<>();
+
+    private int inUse;
+
+    private double virtualTime;
+
+    private long sequence;
+
+    public UpstreamScheduler(SchedulerProperties properties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled() && (properties.getSlots() <= 0
+                || !properties.getClasses().containsKey(properties.getDefaultClass())
+                || properties.getClasses().values().stream().anyMatch(c -> c.getWeight() <= 0))) {
+            throw new IllegalArgumentException("generator.scheduler.slots and class weights must be positive, "
+                    + "and default-class must be one of the configured classes");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getClasses().forEach((name, settings) -> classes.put(name, new FlowClass(name, settings)));
+        Gauge.builder("scheduler.slots.in.use", this, UpstreamScheduler::slotsInUse)
+                .description("Upstream calls holding a scheduler slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs work with the given scheduling class for the upstream calls it
+     * makes on this thread.
+     *
+     * @param schedulingClass the class, e.g. BATCH
+     * @param work the work
+     * @return the work's result
+     */
+    public static <T> T runAs(String schedulingClass, Supplier<T> work) {
+        String previous = CURRENT_CLASS.get();
+        CURRENT_CLASS.set(schedulingClass);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_CLASS.set(previous);
+            } else {
+                CURRENT_CLASS.remove();
+            }
+        }
+    }
+
+    /**
+     * The scheduling class set on this thread by runAs, if any.
+     *
+     * @return the class name, or null for the default class
+     */
+    public static String currentClass() {
+        return CURRENT_CLASS.get();
+    }
+
+    /**
+     * Makes an upstream call once a slot is free, and frees the slot when
+     * the call returns or fails.
+     *
+     * @param call the upstream call
+     * @return the call's result
+     * @throws ServiceOverloadedException if no slot became free within the class's queue timeout
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        acquire(classOf(CURRENT_CLASS.get()));
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Subscribes to an upstream stream once a slot is free, and frees the
+     * slot when the stream terminates or is cancelled. Waiting for the slot
+     * does not block the subscribing thread. The class is that of the
+     * thread calling this method.
+     *
+     * @param stream creates the upstream stream
+     * @param <T> element type
+     * @return the scheduled stream; fails with ServiceOverloadedException if
+     *         no slot became free within the class's queue timeout
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> stream) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(stream);
+        }
+        FlowClass flow = classOf(CURRENT_CLASS.get());
+        return Flux.usingWhen(slot(flow), held -> stream.get(), Slot::free, (held, error) -> held.free(), Slot::free);
+    }
+
+    /**
+     * Returns the number of slots taken.
+     *
+     * @return upstream calls in flight through the scheduler
+     */
+    public int slotsInUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FlowClass classOf(String name) {
+        FlowClass flow = name != null ? classes.get(name) : null;
+        return flow != null ? flow : classes.get(properties.getDefaultClass());
+    }
+
+    private void acquire(FlowClass flow) {
+        long startNanos = System.nanoTime();
+        Waiter handedOver = null;
+        lock.lock();
+        try {
+            if (inUse < properties.getSlots() && queue.isEmpty()) {
+                inUse++;
+                flow.waitTimer.record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            Waiter waiter = enqueue(flow, lock.newCondition(), null, startNanos);
+
+            long remainingNanos = flow.settings.getQueueTimeout().toNanos();
+            try {
+                while (!waiter.granted) {
+                    if (remainingNanos <= 0) {
+                        queue.remove(waiter);
+                        flow.queued--;
+                        flow.rejected.increment();
+                        log.warn("Upstream call of class {} timed out after {} waiting for a slot ({} queued)",
+                                flow.name, flow.settings.getQueueTimeout(), queue.size());
+                        throw new ServiceOverloadedException(String.format(
+                                "No upstream slot free within %s", flow.settings.getQueueTimeout()),
+                                flow.settings.getQueueTimeout());
+                    }
+                    remainingNanos = waiter.signal.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.granted) {
+                    // the slot was handed over already; pass it on
+                    handedOver = releaseLocked();
+                } else {
+                    queue.remove(waiter);
+                    flow.queued--;
+                }
+                throw new TextGenerationException("Interrupted while waiting for an upstream slot", e);
+            }
+            flow.waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+            startStream(handedOver);
+        }
+    }
+
+    /**
+     * Takes a slot for a stream, queuing without blocking when none is free.
+     */
+    private Mono<Slot> slot(FlowClass flow) {
+        return Mono.create(sink -> {
+            long startNanos = System.nanoTime();
+            Waiter waiter = null;
+            lock.lock();
+            try {
+                if (inUse < properties.getSlots() && queue.isEmpty()) {
+                    inUse++;
+                    flow.waitTimer.record(0, TimeUnit.NANOSECONDS);
+                } else {
+                    waiter = enqueue(flow, null, sink, startNanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (waiter == null) {
+                sink.success(new Slot());
+                return;
+            }
+            Waiter queued = waiter;
+            Disposable timeout = Schedulers.parallel().schedule(() -> expire(queued),
+                    flow.settings.getQueueTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            sink.onDispose(timeout);
+            sink.onCancel(() -> abandon(queued));
+        });
+    }
+
+    private Waiter enqueue(FlowClass flow, Condition signal, MonoSink<Slot> sink, long startNanos) {
+        double finishTag = Math.max(virtualTime, flow.lastFinishTag) + 1.0 / flow.settings.getWeight();
+        flow.lastFinishTag = finishTag;
+        Waiter waiter = new Waiter(finishTag, sequence++, flow, signal, sink, sink != null ? new Slot() : null,
+                startNanos);
+        queue.add(waiter);
+        flow.queued++;
+        return waiter;
+    }
+
+    /**
+     * Fails a stream that is still queued after its class's queue timeout.
+     */
+    private void expire(Waiter waiter) {
+        FlowClass flow = waiter.flow;
+        lock.lock();
+        try {
+            if (waiter.granted || !queue.remove(waiter)) {
+                return;
+            }
+            flow.queued--;
+            flow.rejected.increment();
+            log.warn("Upstream stream of class {} timed out after {} waiting for a slot ({} queued)",
+                    flow.name, flow.settings.getQueueTimeout(), queue.size());
+        } finally {
+            lock.unlock();
+        }
+        waiter.sink.error(new ServiceOverloadedException(String.format(
+                "No upstream slot free within %s", flow.settings.getQueueTimeout()), flow.settings.getQueueTimeout()));
+    }
+
+    /**
+     * Leaves the queue when a waiting stream is cancelled; a slot granted in
+     * the meantime is passed on.
+     */
+    private void abandon(Waiter waiter) {
+        lock.lock();
+        try {
+            if (!waiter.granted) {
+                if (queue.remove(waiter)) {
+                    waiter.flow.queued--;
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        waiter.slot.free().subscribe();
+    }
+
+    private void release() {
+        Waiter handedOver;
+        lock.lock();
+        try {
+            handedOver = releaseLocked();
+        } finally {
+            lock.unlock();
+        }
+        startStream(handedOver);
+    }
+
+    /**
+     * Hands the slot straight to the next waiter, so a call arriving just
+     * now cannot take it first. A blocked call is woken here; a waiting
+     * stream is returned so that it is started after the lock is released,
+     * not while holding it.
+     *
+     * @return the stream waiter that got the slot, or null
+     */
+    private Waiter releaseLocked() {
+        Waiter next = queue.poll();
+        if (next == null) {
+            inUse--;
+            return null;
+        }
+        virtualTime = next.finishTag;
+        next.flow.queued--;
+        next.granted = true;
+        if (next.signal != null) {
+            next.signal.signal();
+            return null;
+        }
+        return next;
+    }
+
+    private void startStream(Waiter waiter) {
+        if (waiter != null) {
+            waiter.flow.waitTimer.record(System.nanoTime() - waiter.startNanos, TimeUnit.NANOSECONDS);
+            waiter.sink.success(waiter.slot);
+        }
+    }
+
+    /**
+     * A slot held by a stream; freed once, whichever of completion, error
+     * and cancellation comes first.
+     */
+    private final class Slot {
+
+        private final AtomicBoolean freed = new AtomicBoolean();
+
+        private Mono<Void> free() {
+            return Mono.fromRunnable(() -> {
+                if (freed.compareAndSet(false, true)) {
+                    release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Per-class scheduling state and meters; guarded by the scheduler lock.
+     */
+    private final class FlowClass {
+
+        private final String name;
+
+        private final SchedulerProperties.SchedulingClass settings;
+
+        private final Timer waitTimer;
+
+        private final Counter rejected;
+
+        private double lastFinishTag;
+
+        private int queued;
+
+        private FlowClass(String name, SchedulerProperties.SchedulingClass settings) {
+            this.name = name;
+            this.settings = settings;
+            this.waitTimer = Timer.builder("scheduler.queue.wait")
+                    .description("Time upstream calls waited for a scheduler slot")
+                    .tag("class", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("scheduler.rejected")
+                    .description("Upstream calls that timed out waiting for a scheduler slot")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("scheduler.queue.length", this, FlowClass::queueLength)
+                    .description("Upstream calls waiting for a scheduler slot")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        }
+
+        private int queueLength() {
+            lock.lock();
+            try {
+                return queued;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A call waiting for a slot, ordered by finish tag, then arrival. A
+     * blocked call waits on signal, a stream on sink.
+     */
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final double finishTag;
+
+        private final long sequence;
+
+        private final FlowClass flow;
+
+        private final Condition signal;
+
+        private final MonoSink<Slot> sink;
+
+        private final Slot slot;
+
+        private final long startNanos;
+
+        private boolean granted;
+
+        private Waiter(double finishTag, long sequence, FlowClass flow, Condition signal, MonoSink<Slot> sink,
+                       Slot slot, long startNanos) {
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+            this.flow = flow;
+            this.signal = signal;
+            this.sink = sink;
+            this.slot = slot;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byTag = Double.compare(finishTag, other.finishTag);
+            return byTag != 0 ? byTag : Long.compare(sequence, other.sequence);
+        }
+    }
+}
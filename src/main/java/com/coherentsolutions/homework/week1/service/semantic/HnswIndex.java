@@ -0,0 +1,438 @@
+package com.coherentsolutions.homework.week1.service.semantic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory approximate nearest neighbour index (HNSW) for embedding vectors.
+ *
+ * Hierarchical Navigable Small World graphs answer "which stored vectors are
+ * most similar to this one?" by walking a layered proximity graph instead of
+ * comparing against every entry: a few long-range hops on the sparse upper
+ * layers, then a bounded best-first search (ef candidates) on the dense
+ * bottom layer. Lookups stay fast as the index grows, at the cost of
+ * occasionally missing the exact best match.
+ *
+ * Similarity is cosine similarity. Vectors are normalized on the way in, so
+ * it is computed as a plain dot product.
+ *
+ * Size Bound and Eviction:
+ * - At most maximumSize live entries; adding one more evicts the oldest
+ * - evictOldestWhile() drops entries from the old end, e.g. expired ones
+ * - Evicted nodes are only marked deleted, since unlinking a node from an
+ *   HNSW graph is expensive; they still route searches but are never
+ *   returned. Once deleted nodes outnumber live ones the graph is rebuilt
+ *   from the live entries
+ *
+ * Thread Safety:
+ * Searches share a read lock; additions and evictions take the write lock.
+ *
+ * @param <V> the value stored with each vector
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.SemanticCachingTextGeneratorService
+ */
+public class HnswIndex<V> {
+
+    private final int maximumSize;
+
+    private final int m;
+
+    private final int maxNeighborsLevel0;
+
+    private final int efConstruction;
+
+    private final int efSearch;
+
+    private final double levelMultiplier;
+
+    private final Random random = new Random(42);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<Node<V>> nodes = new ArrayList<>();
+
+    private Deque<Node<V>> insertionOrder = new ArrayDeque<>();
+
+    private Node<V> entryPoint;
+
+    private int dimensions = -1;
+
+    private int deletedCount;
+
+    private long evictionCount;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maximumSize maximum number of live entries
+     * @param m neighbours kept per node on the upper layers (twice as many on layer 0)
+     * @param efConstruction candidate list size while inserting; higher builds a better graph
+     * @param efSearch candidate list size while searching; higher improves recall
+     */
+    public HnswIndex(int maximumSize, int m, int efConstruction, int efSearch) {
+        if (maximumSize < 1 || m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("HNSW parameters must be positive (and m at least 2)");
+        }
+        this.maximumSize = maximumSize;
+        this.m = m;
+        this.maxNeighborsLevel0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * A search result.
+     *
+     * @param value the stored value
+     * @param similarity cosine similarity to the query, between -1 and 1
+     * @param <V> the value type
+     */
+    public record Match<V>(V value, double similarity) {
+    }
+
+    /**
+     * Adds a vector, evicting the oldest entry if the index is full.
+     *
+     * @param vector the embedding (any non-zero length; copied and normalized)
+     * @param value the value to return when this vector matches
+     */
+    public void add(float[] vector, V value) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            checkDimensions(normalized);
+            Node<V> node = new Node<>(nodes.size(), normalized, value, randomLevel(), m, maxNeighborsLevel0);
+            insert(node);
+            insertionOrder.addLast(node);
+            while (insertionOrder.size() > maximumSize) {
+                markDeleted(insertionOrder.pollFirst());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evicts entries from the oldest end for as long as they match the condition.
+     *
+     * @param condition evicts an entry while this returns true for its value
+     * @return number of evicted entries
+     */
+    public int evictOldestWhile(Predicate<V> condition) {
+        lock.writeLock().lock();
+        try {
+            int evicted = 0;
+            while (!insertionOrder.isEmpty() && condition.test(insertionOrder.peekFirst().value)) {
+                markDeleted(insertionOrder.pollFirst());
+                evicted++;
+            }
+            compactIfNeeded();
+            return evicted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the live entries most similar to the query.
+     *
+     * @param query the query embedding
+     * @param k maximum number of results
+     * @return up to k matches, most similar first
+     */
+    public List<Match<V>> search(float[] query, int k) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == null) {
+                return List.of();
+            }
+            checkDimensions(normalized);
+
+            Node<V> current = entryPoint;
+            for (int level = entryPoint.level; level > 0; level--) {
+                current = greedyClosest(normalized, current, level);
+            }
+            PriorityQueue<Scored<V>> candidates = searchLayer(normalized, current, Math.max(efSearch, k), 0);
+
+            List<Scored<V>> ranked = new ArrayList<>(candidates);
+            ranked.sort(Comparator.comparingDouble((Scored<V> s) -> s.similarity).reversed());
+            List<Match<V>> matches = new ArrayList<>(k);
+            for (Scored<V> scored : ranked) {
+                if (!scored.node.deleted) {
+                    matches.add(new Match<>(scored.node.value, scored.similarity));
+                    if (matches.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of live entries.
+     *
+     * @return live entry count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return insertionOrder.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns how many entries have been evicted since the index was created.
+     *
+     * @return total eviction count
+     */
+    public long evictionCount() {
+        lock.readLock().lock();
+        try {
+            return evictionCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Node<V> node) {
+        nodes.add(node);
+        if (entryPoint == null) {
+            entryPoint = node;
+            return;
+        }
+
+        Node<V> current = entryPoint;
+        for (int level = entryPoint.level; level > node.level; level--) {
+            current = greedyClosest(node.vector, current, level);
+        }
+        for (int level = Math.min(node.level, entryPoint.level); level >= 0; level--) {
+            PriorityQueue<Scored<V>> candidates = searchLayer(node.vector, current, efConstruction, level);
+            List<Scored<V>> neighbors = closest(candidates, m);
+            for (Scored<V> neighbor : neighbors) {
+                node.addNeighbor(level, neighbor.node.id);
+                connect(neighbor.node, node, level);
+            }
+            current = neighbors.get(0).node;
+        }
+        if (node.level > entryPoint.level) {
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Links node to newNode, pruning node's neighbour list back to capacity by
+     * keeping the closest neighbours.
+     */
+    private void connect(Node<V> node, Node<V> newNode, int level) {
+        if (node.addNeighbor(level, newNode.id)) {
+            return;
+        }
+        PriorityQueue<Scored<V>> all = new PriorityQueue<>(Comparator.comparingDouble(s -> s.similarity));
+        all.add(new Scored<>(newNode, dot(node.vector, newNode.vector)));
+        for (int i = 0; i < node.neighborCounts[level]; i++) {
+            Node<V> neighbor = nodes.get(node.neighbors[level][i]);
+            all.add(new Scored<>(neighbor, dot(node.vector, neighbor.vector)));
+        }
+        List<Scored<V>> kept = closest(all, node.neighbors[level].length);
+        node.neighborCounts[level] = 0;
+        for (Scored<V> scored : kept) {
+            node.addNeighbor(level, scored.node.id);
+        }
+    }
+
+    /**
+     * Hill-climbs towards the query on one layer, returning the closest node found.
+     */
+    private Node<V> greedyClosest(float[] query, Node<V> start, int level) {
+        Node<V> best = start;
+        double bestSimilarity = dot(query, start.vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < best.neighborCounts[level]; i++) {
+                Node<V> neighbor = nodes.get(best.neighbors[level][i]);
+                double similarity = dot(query, neighbor.vector);
+                if (similarity > bestSimilarity) {
+                    best = neighbor;
+                    bestSimilarity = similarity;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first search on one layer keeping the ef most similar nodes seen.
+     *
+     * @return the ef best nodes, least similar at the head of the queue
+     */
+    private PriorityQueue<Scored<V>> searchLayer(float[] query, Node<V> start, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Scored<V>> candidates = new PriorityQueue<>(
+                Comparator.comparingDouble((Scored<V> s) -> s.similarity).reversed());
+        PriorityQueue<Scored<V>> results = new PriorityQueue<>(Comparator.comparingDouble(s -> s.similarity));
+
+        Scored<V> first = new Scored<>(start, dot(query, start.vector));
+        visited.set(start.id);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Scored<V> candidate = candidates.poll();
+            if (results.size() >= ef && candidate.similarity < results.peek().similarity) {
+                break;
+            }
+            Node<V> node = candidate.node;
+            for (int i = 0; i < node.neighborCounts[level]; i++) {
+                int neighborId = node.neighbors[level][i];
+                if (visited.get(neighborId)) {
+                    continue;
+                }
+                visited.set(neighborId);
+                Node<V> neighbor = nodes.get(neighborId);
+                double similarity = dot(query, neighbor.vector);
+                if (results.size() < ef || similarity > results.peek().similarity) {
+                    Scored<V> scored = new Scored<>(neighbor, similarity);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<Scored<V>> closest(PriorityQueue<Scored<V>> leastSimilarFirst, int count) {
+        List<Scored<V>> ranked = new ArrayList<>(leastSimilarFirst);
+        ranked.sort(Comparator.comparingDouble((Scored<V> s) -> s.similarity).reversed());
+        return ranked.subList(0, Math.min(count, ranked.size()));
+    }
+
+    private void markDeleted(Node<V> node) {
+        node.deleted = true;
+        deletedCount++;
+        evictionCount++;
+    }
+
+    /**
+     * Rebuilds the graph from the live entries once deleted nodes outnumber them.
+     */
+    private void compactIfNeeded() {
+        if (deletedCount <= insertionOrder.size()) {
+            return;
+        }
+        Deque<Node<V>> live = insertionOrder;
+        nodes = new ArrayList<>(live.size());
+        insertionOrder = new ArrayDeque<>(live.size());
+        entryPoint = null;
+        deletedCount = 0;
+        for (Node<V> old : live) {
+            Node<V> node = new Node<>(nodes.size(), old.vector, old.value, old.level, m, maxNeighborsLevel0);
+            insert(node);
+            insertionOrder.addLast(node);
+        }
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private void checkDimensions(float[] vector) {
+        if (dimensions < 0) {
+            dimensions = vector.length;
+        } else if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                    "Expected a vector of " + dimensions + " dimensions but got " + vector.length);
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            throw new IllegalArgumentException("Cannot index a zero vector");
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Scored<V>(Node<V> node, double similarity) {
+    }
+
+    private static final class Node<V> {
+
+        private final int id;
+
+        private final float[] vector;
+
+        private final V value;
+
+        private final int level;
+
+        private final int[][] neighbors;
+
+        private final int[] neighborCounts;
+
+        private boolean deleted;
+
+        private Node(int id, float[] vector, V value, int level, int m, int maxNeighborsLevel0) {
+            this.id = id;
+            this.vector = vector;
+            this.value = value;
+            this.level = level;
+            this.neighbors = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                this.neighbors[l] = new int[l == 0 ? maxNeighborsLevel0 : m];
+            }
+            this.neighborCounts = new int[level + 1];
+        }
+
+        /**
+         * Appends a neighbour if there is room.
+         *
+         * @return false if the neighbour list is full
+         */
+        private boolean addNeighbor(int level, int neighborId) {
+            if (neighborCounts[level] == neighbors[level].length) {
+                return false;
+            }
+            neighbors[level][neighborCounts[level]++] = neighborId;
+            return true;
+        }
+    }
+}
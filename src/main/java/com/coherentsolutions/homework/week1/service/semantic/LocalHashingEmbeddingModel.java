@@ -0,0 +1,144 @@
+package com.coherentsolutions.homework.week1.service.semantic;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Embedding model that runs entirely in-process, without network or model files.
+ *
+ * Uses feature hashing: each prompt is reduced to lower-cased, lightly stemmed
+ * words (minus common stop words) and the character trigrams of those words,
+ * and every feature is hashed into one of a fixed number of dimensions.
+ * Prompts that share vocabulary and word stems therefore get similar vectors:
+ * "When was Spring Boot released?" and "Spring Boot release year?" score far
+ * above unrelated prompts.
+ *
+ * This captures lexical overlap, not meaning; synonyms with no shared stem are
+ * not recognized. It is meant for offline environments and tests, and as a
+ * zero-cost default. A real embedding model (for example OpenAI's) can be
+ * plugged in through the regular Spring AI EmbeddingModel bean instead.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HnswIndex
+ */
+public class LocalHashingEmbeddingModel implements EmbeddingModel {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "can", "could", "did", "do", "does", "for", "how", "i", "in",
+            "is", "it", "me", "of", "on", "or", "please", "the", "to", "was", "were", "what",
+            "when", "where", "which", "who", "why", "with", "would", "you");
+
+    private static final List<String> SUFFIXES = List.of("ing", "ed", "es", "s", "e");
+
+    private static final float WORD_WEIGHT = 1.0f;
+
+    private static final float TRIGRAM_WEIGHT = 0.3f;
+
+    private final int dimensions;
+
+    /**
+     * Creates the model.
+     *
+     * @param dimensions size of the produced vectors; more dimensions mean fewer
+     *                   hash collisions between unrelated features
+     */
+    public LocalHashingEmbeddingModel(int dimensions) {
+        if (dimensions < 16) {
+            throw new IllegalArgumentException("Local embeddings need at least 16 dimensions");
+        }
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> texts = request.getInstructions();
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(embedText(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embedText(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private float[] embedText(String text) {
+        float[] vector = new float[dimensions];
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) {
+                continue;
+            }
+            String stem = stem(word);
+            addFeature(vector, "w:" + stem, WORD_WEIGHT);
+            String padded = "#" + stem + "#";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, "t:" + padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+        }
+        if (isZero(vector)) {
+            // Prompts made only of stop words or punctuation still need a
+            // non-zero vector; hash the raw text as a single feature.
+            addFeature(vector, "raw:" + text.strip(), WORD_WEIGHT);
+        }
+        return vector;
+    }
+
+    /**
+     * Strips one common English suffix so that "released", "releases" and
+     * "release" share a stem.
+     */
+    private static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= 3) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    private void addFeature(float[] vector, String feature, float weight) {
+        int hash = mix(feature.hashCode());
+        int index = Math.floorMod(hash, dimensions);
+        vector[index] += (hash & 0x80000000) == 0 ? weight : -weight;
+    }
+
+    /**
+     * Murmur3 finalizer; spreads String.hashCode() bits across the int range.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean isZero(float[] vector) {
+        for (float v : vector) {
+            if (v != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
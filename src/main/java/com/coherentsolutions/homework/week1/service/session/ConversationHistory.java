@@ -0,0 +1,138 @@
+package com.coherentsolutions.homework.week1.service.session;
+
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The turns of one conversation session, bounded by a token budget.
+ *
+ * Each turn is stored with its token count (counted once, when it is
+ * added), so trimming is a walk from the oldest turn that never re-encodes
+ * text. A turn is dropped as a whole: a lone answer without its prompt
+ * would confuse the model more than it helps.
+ *
+ * Two locks with different jobs:
+ * - turnLock() is held by the caller for a whole turn, including the model
+ *   call, so two requests to the same session run one after the other and
+ *   the second one sees the first one's answer
+ * - the object's own monitor guards the turn list for the short reads and
+ *   updates, so GET /generate/sessions/{id} never waits for a model call
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.impl.InMemoryConversationService
+ */
+public class ConversationHistory {
+
+    /**
+     * One prompt, the answer it got, and their tokens as chat messages.
+     */
+    private record Turn(String prompt, String response, int tokens) {
+    }
+
+    private final String id;
+
+    private final LocalDateTime createdAt;
+
+    private final ReentrantLock turnLock = new ReentrantLock();
+
+    private final Deque<Turn> turns = new ArrayDeque<>();
+
+    private int tokens;
+
+    private LocalDateTime lastActiveAt;
+
+    /**
+     * Creates an empty history.
+     *
+     * @param id the session id
+     */
+    public ConversationHistory(String id) {
+        this.id = id;
+        this.createdAt = LocalDateTime.now();
+        this.lastActiveAt = createdAt;
+    }
+
+    /**
+     * Returns the lock a caller holds for the duration of one turn.
+     *
+     * @return the per-session turn lock
+     */
+    public ReentrantLock turnLock() {
+        return turnLock;
+    }
+
+    /**
+     * Returns the history as chat messages, oldest first: a user message
+     * and an assistant message per turn.
+     *
+     * @return a copy of the messages
+     */
+    public synchronized List<Message> messages() {
+        List<Message> messages = new ArrayList<>(turns.size() * 2);
+        for (Turn turn : turns) {
+            messages.add(new UserMessage(turn.prompt()));
+            messages.add(new AssistantMessage(turn.response()));
+        }
+        return messages;
+    }
+
+    /**
+     * Returns the tokens the history adds to a chat request.
+     *
+     * @return sum of the turns' tokens
+     */
+    public synchronized int tokens() {
+        return tokens;
+    }
+
+    /**
+     * Adds a finished turn, then drops the oldest turns until at most
+     * maxTurns remain and they fit into tokenBudget.
+     *
+     * @param prompt the user prompt
+     * @param response the model's answer
+     * @param turnTokens tokens of both as chat messages
+     * @param tokenBudget most tokens the history may have
+     * @param maxTurns most turns the history may have
+     * @return number of turns dropped
+     */
+    public synchronized int append(String prompt, String response, int turnTokens, int tokenBudget, int maxTurns) {
+        turns.addLast(new Turn(prompt, response, turnTokens));
+        tokens += turnTokens;
+        lastActiveAt = LocalDateTime.now();
+
+        int dropped = 0;
+        while (!turns.isEmpty() && (tokens > tokenBudget || turns.size() > maxTurns)) {
+            tokens -= turns.removeFirst().tokens();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the session's current state for the API.
+     *
+     * @return session id, timestamps, token count and turns
+     */
+    public synchronized ConversationSessionResponse toResponse() {
+        return ConversationSessionResponse.builder()
+                .id(id)
+                .createdAt(createdAt)
+                .lastActiveAt(lastActiveAt)
+                .historyTokens(tokens)
+                .turns(turns.stream()
+                        .map(turn -> new ConversationSessionResponse.Turn(turn.prompt(), turn.response()))
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.coherentsolutions.homework.week1.service.tokens;
+
+import com.coherentsolutions.homework.week1.config.PromptTokenProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.exception.PromptTooLongException;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfile;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks the token count of a prompt right before the model call.
+ *
+ * A prompt within GenerateRequest's character limit can still be too
+ * expensive, or too large for the context window once the system prompt and
+ * the completion limit are added. Sent anyway, it fails slowly upstream or
+ * comes back with a truncated answer. Counting locally (PromptTokenizer)
+ * takes microseconds, so such prompts are handled before any network I/O.
+ *
+ * Limit: the smaller of generator.prompt-tokens.max-prompt-tokens and what
+ * is left of context-window after the chat overhead and max-tokens. Both
+ * depend on the generation profile (its system prompt and max-tokens), so
+ * the limit is computed once per profile at startup.
+ *
+ * Over the limit, depending on generator.prompt-tokens.overflow:
+ * - reject: PromptTooLongException, answered with 400
+ * - truncate: the prompt is cut down to the limit and sent
+ *
+ * Every admitted prompt's chat token count is recorded as
+ * generate.prompt.tokens, also when the provider reports no usage (for
+ * example on streams).
+ *
+ * Metrics:
+ * - generate.prompt.tokens (summary): locally counted prompt tokens
+ * - generate.prompt.admission (counter, tag outcome=admitted|truncated|rejected)
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see PromptTokenizer
+ * @see PromptTokenProperties
+ */
+@Component
+@Slf4j
+public class PromptAdmission {
+
+    private final PromptTokenizer tokenizer;
+
+    private final PromptTokenProperties properties;
+
+    private final GenerationProfiles generationProfiles;
+
+    private final GenerationMetrics generationMetrics;
+
+    /**
+     * Prompt token limit and chat overhead per profile name, computed once.
+     */
+    private final Map<String, Budget> budgets = new HashMap<>();
+
+    private final Counter admitted;
+
+    private final Counter truncated;
+
+    private final Counter rejected;
+
+    /**
+     * Creates the admission check.
+     *
+     * @throws IllegalStateException if a profile's max-tokens and system prompt leave no room in the context window
+     */
+    public PromptAdmission(PromptTokenizer tokenizer, PromptTokenProperties properties,
+                           GenerationProfiles generationProfiles, GenerationMetrics generationMetrics,
+                           MeterRegistry meterRegistry) {
+        this.tokenizer = tokenizer;
+        this.properties = properties;
+        this.generationProfiles = generationProfiles;
+        this.generationMetrics = generationMetrics;
+        for (GenerationProfile profile : generationProfiles.all()) {
+            int overhead = tokenizer.chatOverhead(profile.systemPrompt());
+            int completionTokens = profile.options().maxTokens() != null ? profile.options().maxTokens() : 0;
+            int contextRoom = properties.getContextWindow() - overhead - completionTokens;
+            if (properties.isEnabled() && contextRoom <= 0) {
+                throw new IllegalStateException(String.format(
+                        "generator.prompt-tokens.context-window %d leaves no room for a prompt of profile '%s' "
+                                + "after max-tokens %d and %d tokens of system prompt", properties.getContextWindow(),
+                        profile.name(), completionTokens, overhead));
+            }
+            budgets.put(profile.name(), new Budget(Math.min(properties.getMaxPromptTokens(), contextRoom), overhead));
+        }
+        this.admitted = meterRegistry.counter("generate.prompt.admission", "outcome", "admitted");
+        this.truncated = meterRegistry.counter("generate.prompt.admission", "outcome", "truncated");
+        this.rejected = meterRegistry.counter("generate.prompt.admission", "outcome", "rejected");
+        log.info("Prompt admission using {} encoding, limit {} tokens ({})", tokenizer.encodingName(),
+                maxPromptTokens(), properties.getOverflow());
+    }
+
+    /**
+     * What one profile leaves for the user prompt.
+     */
+    private record Budget(int maxPromptTokens, int chatOverhead) {
+    }
+
+    /**
+     * Admits a request whose prompt is present, under the limit of the
+     * profile it names.
+     *
+     * @param request the request
+     * @return the request itself, or a copy with a truncated prompt
+     * @throws PromptTooLongException if the prompt is over the limit and overflow is reject
+     * @throws com.coherentsolutions.homework.week1.exception.UnknownProfileException if the profile is not configured
+     */
+    public GenerateRequest admit(GenerateRequest request) {
+        return admit(request, generationProfiles.resolve(request.getProfile()));
+    }
+
+    /**
+     * Admits a request whose prompt is present and whose profile is resolved.
+     *
+     * @param request the request
+     * @param profile the request's profile
+     * @return the request itself, or a copy with a truncated prompt
+     * @throws PromptTooLongException if the prompt is over the limit and overflow is reject
+     */
+    public GenerateRequest admit(GenerateRequest request, GenerationProfile profile) {
+        if (!properties.isEnabled()) {
+            return request;
+        }
+        Budget budget = budgets.get(profile.name());
+        int tokens = tokenizer.countTokens(request.getPrompt());
+        if (tokens <= budget.maxPromptTokens()) {
+            admitted.increment();
+            generationMetrics.recordPromptTokens(profile.name(), tokens + budget.chatOverhead());
+            return request;
+        }
+        if (properties.getOverflow() == PromptTokenProperties.Overflow.REJECT) {
+            rejected.increment();
+            throw new PromptTooLongException(tokens, budget.maxPromptTokens());
+        }
+
+        truncated.increment();
+        log.debug("Truncating prompt from {} to {} tokens", tokens, budget.maxPromptTokens());
+        GenerateRequest shortened = new GenerateRequest();
+        shortened.setPrompt(tokenizer.truncate(request.getPrompt(), budget.maxPromptTokens()));
+        shortened.setProfile(request.getProfile());
+        generationMetrics.recordPromptTokens(profile.name(),
+                tokenizer.countTokens(shortened.getPrompt()) + budget.chatOverhead());
+        return shortened;
+    }
+
+    /**
+     * Returns the effective prompt token limit of the default profile.
+     *
+     * @return most tokens a user prompt may have
+     */
+    public int maxPromptTokens() {
+        return maxPromptTokens(generationProfiles.defaultProfile().name());
+    }
+
+    /**
+     * Returns the effective prompt token limit of a profile.
+     *
+     * @param profile the profile name
+     * @return most tokens a user prompt of that profile may have
+     */
+    public int maxPromptTokens(String profile) {
+        return budgets.get(profile).maxPromptTokens();
+    }
+}
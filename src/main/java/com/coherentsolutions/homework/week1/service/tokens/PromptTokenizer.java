@@ -0,0 +1,167 @@
+package com.coherentsolutions.homework.week1.service.tokens;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.OpenAIConfig;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts tokens locally, with the same byte-pair encoding the model uses.
+ *
+ * OpenAI limits and bills by tokens, not characters, and the ratio varies a
+ * lot: plain English is about four characters per token, while code,
+ * non-Latin scripts and emoji can take one token per character or more.
+ * This class runs the model's BPE vocabulary (via JTokkit, bundled in the
+ * jar, no network) so a prompt can be measured before it is sent.
+ *
+ * Encoding Selection:
+ * - Chosen from the configured model name, e.g. cl100k_base for
+ *   gpt-3.5-turbo and gpt-4, o200k_base for gpt-4o
+ * - Unknown models fall back to cl100k_base; counts are then estimates
+ * - With several routing backends or generation profiles on different
+ *   models, counts follow the default model only
+ *
+ * Special tokens such as "<|endoftext|>" in a prompt are counted as plain
+ * text, which is how the chat API treats user content.
+ *
+ * Chat overhead: besides the message text, every chat request carries the
+ * system prompt, a few tokens per message for roles and separators, and
+ * tokens that prime the reply. countChatTokens() includes them, so it
+ * matches the prompt tokens OpenAI reports.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see PromptAdmission
+ */
+@Component
+@Slf4j
+public class PromptTokenizer {
+
+    /**
+     * Tokens OpenAI adds per chat message for the role and separators.
+     */
+    static final int TOKENS_PER_MESSAGE = 3;
+
+    /**
+     * Tokens that prime the assistant's reply.
+     */
+    static final int REPLY_PRIMING_TOKENS = 3;
+
+    private final Encoding encoding;
+
+    private final int chatOverhead;
+
+    @Autowired
+    public PromptTokenizer(GenerationOptions generationOptions) {
+        this(generationOptions.model(), OpenAIConfig.DEFAULT_SYSTEM_PROMPT);
+    }
+
+    /**
+     * Creates a tokenizer for a model and system prompt.
+     *
+     * @param model the model name, e.g. "gpt-3.5-turbo"
+     * @param systemPrompt the system prompt sent with every request
+     */
+    public PromptTokenizer(String model, String systemPrompt) {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        this.encoding = registry.getEncodingForModel(model).orElseGet(() -> {
+            log.warn("No tokenizer known for model {}; counting tokens with {}", model,
+                    EncodingType.CL100K_BASE.getName());
+            return registry.getEncoding(EncodingType.CL100K_BASE);
+        });
+        this.chatOverhead = chatOverhead(systemPrompt);
+    }
+
+    /**
+     * Counts the tokens of a text.
+     *
+     * @param text the text, may be null
+     * @return token count, 0 for null
+     */
+    public int countTokens(String text) {
+        return text != null ? encoding.countTokensOrdinary(text) : 0;
+    }
+
+    /**
+     * Counts the prompt tokens of a chat request with this user prompt:
+     * the prompt itself plus the chat overhead.
+     *
+     * @param userPrompt the user message
+     * @return prompt tokens as OpenAI would report them
+     */
+    public int countChatTokens(String userPrompt) {
+        return chatOverhead + countTokens(userPrompt);
+    }
+
+    /**
+     * Counts the tokens one earlier message of a conversation adds to a chat
+     * request: its text plus the role and separators.
+     *
+     * @param content the message text
+     * @return tokens of the message
+     */
+    public int countMessageTokens(String content) {
+        return TOKENS_PER_MESSAGE + countTokens(content);
+    }
+
+    /**
+     * Returns the tokens every chat request carries besides the user prompt.
+     *
+     * @return system prompt and message framing tokens
+     */
+    public int chatOverhead() {
+        return chatOverhead;
+    }
+
+    /**
+     * Returns the tokens every chat request with another system prompt
+     * carries besides the user prompt.
+     *
+     * @param systemPrompt the system prompt of the request
+     * @return system prompt and message framing tokens
+     */
+    public int chatOverhead(String systemPrompt) {
+        return 2 * TOKENS_PER_MESSAGE + REPLY_PRIMING_TOKENS + countTokens(systemPrompt);
+    }
+
+    /**
+     * Cuts a text down to at most the given number of tokens. The cut is
+     * made on a character boundary in the original text, so no character
+     * is split into invalid bytes.
+     *
+     * @param text the text
+     * @param maxTokens the token limit
+     * @return the text itself if it fits, otherwise its longest prefix that does
+     */
+    public String truncate(String text, int maxTokens) {
+        EncodingResult result = encoding.encodeOrdinary(text, maxTokens);
+        if (!result.isTruncated()) {
+            return text;
+        }
+        int end = result.getLastProcessedCharacterIndex() + 1;
+        if (end < text.length() && Character.isLowSurrogate(text.charAt(end))) {
+            end++;
+        }
+        // the last processed character may be only partly covered by the kept tokens
+        String prefix = text.substring(0, end);
+        while (!prefix.isEmpty() && countTokens(prefix) > maxTokens) {
+            prefix = prefix.substring(0, prefix.offsetByCodePoints(prefix.length(), -1));
+        }
+        return prefix;
+    }
+
+    /**
+     * Returns the name of the encoding in use.
+     *
+     * @return e.g. "cl100k_base"
+     */
+    public String encodingName() {
+        return encoding.getName();
+    }
+}
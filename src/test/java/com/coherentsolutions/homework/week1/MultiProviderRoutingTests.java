@@ -0,0 +1,157 @@
+package com.coherentsolutions.homework.week1;
+
+import com.coherentsolutions.homework.week1.stub.LatencyDistribution;
+import com.coherentsolutions.homework.week1.stub.OpenAiStubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end test for routing across several model backends.
+ *
+ * Runs the full application against two local stubs of the chat completions
+ * API, configured as generator.routing backends: "slow" answers after
+ * SLOW_DELAY, "fast" at once and asks for its own model. The tests check
+ * that least-latency routing settles on the fast backend, that calls fail
+ * over to the slow one when the fast one starts returning 503, and that
+ * /actuator/health reports both.
+ *
+ * No OpenAI key or network access is needed.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.service.routing.ChatClientRouter
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.ai.openai.api-key=test-key",
+                "generator.cache.enabled=false",
+                "generator.coalescing.enabled=false",
+                "generator.rate-limit.enabled=false",
+                "generator.resilience.retry.max-attempts=1",
+                "generator.routing.strategy=least-latency",
+                "generator.routing.failure-threshold=2",
+                "management.endpoint.health.show-details=always",
+                "logging.level.com.coherentsolutions.homework.week1=WARN"
+        })
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class MultiProviderRoutingTests {
+
+    private static final Duration SLOW_DELAY = Duration.ofMillis(400);
+
+    private static final OpenAiStubServer slow = OpenAiStubServer.builder()
+            .latency(LatencyDistribution.fixed(SLOW_DELAY))
+            .completionTokens(3)
+            .start();
+
+    private static final OpenAiStubServer fast = OpenAiStubServer.builder()
+            .latency(LatencyDistribution.fixed(Duration.ZERO))
+            .completionTokens(3)
+            .start();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Declares both backends here: Spring Boot binds a list from a single
+     * property source, so they cannot be split across annotation and registry.
+     */
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        registry.add("generator.routing.backends[0].name", () -> "slow");
+        registry.add("generator.routing.backends[0].base-url", slow::baseUrl);
+        registry.add("generator.routing.backends[1].name", () -> "fast");
+        registry.add("generator.routing.backends[1].base-url", fast::baseUrl);
+        registry.add("generator.routing.backends[1].model", () -> "gpt-4o-mini");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        slow.close();
+        fast.close();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Should send most calls to the faster backend, with that backend's model")
+    void leastLatency_SettlesOnFastBackend() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            HttpResponse<String> response = generate("Prompt number " + i);
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+
+        assertThat(slow.calls()).isBetween(1, 2);
+        assertThat(fast.calls()).isGreaterThanOrEqualTo(18);
+        assertThat(fast.lastModel()).isEqualTo("gpt-4o-mini");
+        assertThat(slow.lastModel()).isEqualTo("gpt-3.5-turbo");
+        // both backends are reached through the shared outbound client and its route limits
+        assertThat(meterRegistry.get("outbound.route.wait").tag("route", fast.baseUrl()).timer().count())
+                .isGreaterThanOrEqualTo(18);
+
+        JsonNode backends = healthDetails();
+        assertThat(backends.path("fast").path("status").asText()).isEqualTo("UP");
+        assertThat(backends.path("slow").path("latencyMs").asLong()).isGreaterThanOrEqualTo(SLOW_DELAY.toMillis() / 2);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Should fail over to the remaining backend and report the failing one as down")
+    void failingBackend_CallsFailOver() throws Exception {
+        fast.forceStatus(503);
+        int slowCallsBefore = slow.calls();
+
+        for (int i = 0; i < 5; i++) {
+            HttpResponse<String> response = generate("Failover prompt " + i);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).contains("Spring Boot makes");
+        }
+
+        assertThat(slow.calls() - slowCallsBefore).isEqualTo(5);
+        JsonNode backends = healthDetails();
+        assertThat(backends.path("fast").path("status").asText()).isEqualTo("DOWN");
+        assertThat(backends.path("fast").path("consecutiveFailures").asInt()).isEqualTo(2);
+        assertThat(backends.path("slow").path("status").asText()).isEqualTo("UP");
+    }
+
+    private HttpResponse<String> generate(String prompt) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/generate"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"prompt\":\"" + prompt + "\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode healthDetails() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return objectMapper.readTree(body).path("components").path("chatBackends").path("details");
+    }
+}
@@ -0,0 +1,179 @@
+package com.coherentsolutions.homework.week1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for virtual-thread mode.
+ *
+ * Runs the full application (Tomcat, controller, service, ChatClient and the
+ * real OpenAI HTTP client) against a local stub of the chat completions API.
+ * The stub holds every upstream call open until IN_FLIGHT calls have arrived
+ * at the same time. On platform threads the Tomcat pool (200 threads) would
+ * cap concurrency long before that and the latch would never open; with
+ * virtual threads all generations wait concurrently and complete together.
+ * The outbound per-route limit is raised above IN_FLIGHT for the same reason.
+ *
+ * No OpenAI key or network access is needed. It takes about a minute, so
+ * it is tagged "load" and left out of the default build; run it with
+ * mvn -Pload-tests test.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.config.VirtualThreadConfig
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.ai.openai.api-key=test-key",
+                "spring.threads.virtual.enabled=true",
+                "spring.ai.retry.max-attempts=1",
+                "generator.cache.enabled=false",
+                "generator.rate-limit.enabled=false",
+                "generator.http-client.max-per-route=5000",
+                "logging.level.com.coherentsolutions.homework.week1=WARN"
+        })
+@Tag("load")
+class VirtualThreadLoadTests {
+
+    /**
+     * Number of generations that must be in flight simultaneously; an order
+     * of magnitude above the default Tomcat platform thread pool.
+     */
+    private static final int IN_FLIGHT = 2000;
+
+    private static final String WARM_UP_PROMPT = "warm-up";
+
+    private static final CountDownLatch allArrived = new CountDownLatch(IN_FLIGHT);
+
+    private static final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private static final HttpServer stubOpenAi = startStubOpenAi();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void openAiBaseUrl(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.openai.base-url",
+                () -> "http://localhost:" + stubOpenAi.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStubOpenAi() {
+        stubOpenAi.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should hold thousands of generations in flight without exhausting threads")
+    void generateText_ThousandsInFlight_AllComplete() throws Exception {
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            // Answered immediately by the stub; lets both HTTP clients settle on
+            // HTTP/1.1 for the plain-text connections before the burst starts
+            HttpResponse<String> warmUp = client.send(generateRequest(WARM_UP_PROMPT), HttpResponse.BodyHandlers.ofString());
+            assertThat(warmUp.statusCode()).isEqualTo(200);
+
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < IN_FLIGHT; i++) {
+                responses.add(client.sendAsync(generateRequest("Prompt number " + i), HttpResponse.BodyHandlers.ofString()));
+            }
+
+            assertThat(allArrived.await(60, TimeUnit.SECONDS))
+                    .as("all %d generations in flight at once (reached %d)", IN_FLIGHT, upstreamCalls.get())
+                    .isTrue();
+
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertThat(response.join().statusCode()).isEqualTo(200);
+                assertThat(response.join().body()).contains("\"response\":\"stubbed answer\"");
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private HttpRequest generateRequest(String prompt) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/generate"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(90))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"prompt\":\"" + prompt + "\"}"))
+                .build();
+    }
+
+    /**
+     * Starts a minimal chat completions endpoint that parks each call until
+     * IN_FLIGHT calls are waiting, then answers all of them.
+     */
+    private static HttpServer startStubOpenAi() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), IN_FLIGHT);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/v1/chat/completions", VirtualThreadLoadTests::completeWhenAllArrived);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start stub OpenAI server", e);
+        }
+    }
+
+    private static void completeWhenAllArrived(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (!request.contains(WARM_UP_PROMPT)) {
+                upstreamCalls.incrementAndGet();
+                allArrived.countDown();
+                if (!allArrived.await(60, TimeUnit.SECONDS)) {
+                    exchange.sendResponseHeaders(504, -1);
+                    return;
+                }
+            }
+            byte[] body = """
+                    {"id":"chatcmpl-stub","object":"chat.completion","created":0,"model":"gpt-3.5-turbo",
+                     "choices":[{"index":0,"message":{"role":"assistant","content":"stubbed answer"},
+                                 "finish_reason":"stop"}],
+                     "usage":{"prompt_tokens":5,"completion_tokens":2,"total_tokens":7}}
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.coherentsolutions.homework.week1;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
 
 /**
  * Integration tests for Week1HomeworkApplication
@@ -22,6 +23,7 @@ import org.springframework.boot.test.context.SpringBootTest;
  * - Test both success and failure scenarios
  */
 @SpringBootTest
+@TestPropertySource(properties = "spring.ai.openai.api-key=test-key")
 class Week1HomeworkApplicationTests {
 
     /**
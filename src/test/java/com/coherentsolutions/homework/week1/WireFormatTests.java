@@ -0,0 +1,160 @@
+package com.coherentsolutions.homework.week1;
+
+import com.coherentsolutions.homework.week1.dto.IsoTimestamp;
+import com.coherentsolutions.homework.week1.stub.OpenAiStubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end test for the wire formats and response compression.
+ *
+ * Runs the full application against a local stub of the chat completions
+ * API and checks that responses are negotiated by the Accept header (JSON,
+ * CBOR, Smile), that request bodies are accepted in the binary formats too,
+ * that the binary formats leave null fields out while JSON keeps its
+ * payload as it was, and that gzip is applied to bodies above
+ * server.compression.min-response-size only.
+ *
+ * No OpenAI key or network access is needed.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see com.coherentsolutions.homework.week1.config.WireFormatConfig
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.ai.openai.api-key=test-key",
+                "generator.cache.enabled=false",
+                "generator.rate-limit.enabled=false",
+                "logging.level.com.coherentsolutions.homework.week1=WARN"
+        })
+class WireFormatTests {
+
+    private static final String APPLICATION_CBOR = "application/cbor";
+
+    private static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final OpenAiStubServer stub = OpenAiStubServer.builder()
+            .completionTokens(40)
+            .start();
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void openAiBaseUrl(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.openai.base-url", stub::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Should answer in CBOR when asked, with an ISO timestamp")
+    void generate_AcceptCbor_ReturnsCbor() throws Exception {
+        long before = System.currentTimeMillis();
+
+        HttpResponse<byte[]> response = post("/generate", "application/json",
+                json.writeValueAsBytes(json.createObjectNode().put("prompt", "Hello")), APPLICATION_CBOR, null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith(APPLICATION_CBOR));
+        JsonNode body = new CBORMapper().readTree(response.body());
+        assertThat(body.path("response").asText()).contains("Spring Boot makes");
+        assertThat(body.path("timestamp").isTextual()).isTrue();
+        assertThat(IsoTimestamp.parse(body.path("timestamp").asText())).isGreaterThanOrEqualTo(before);
+        assertThat(response.body().length).isLessThan(json.writeValueAsBytes(body).length);
+    }
+
+    @Test
+    @DisplayName("Should accept a Smile request body and leave null fields out of the error response")
+    void generate_SmileBody_ValidationErrorInSmile() throws Exception {
+        SmileMapper smile = new SmileMapper();
+
+        HttpResponse<byte[]> response = post("/generate", APPLICATION_SMILE,
+                smile.writeValueAsBytes(smile.createObjectNode().put("prompt", "")), APPLICATION_SMILE, null);
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        JsonNode body = smile.readTree(response.body());
+        assertThat(body.path("error").asText()).isEqualTo("Validation Error");
+        assertThat(body.path("details").isArray()).isTrue();
+        assertThat(body.has("path")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the JSON error payload as it was: ISO timestamp and null fields included")
+    void generate_JsonValidationError_KeepsNullsAndIsoTimestamp() throws Exception {
+        HttpResponse<byte[]> response = post("/generate", "application/json",
+                json.writeValueAsBytes(json.createObjectNode().put("prompt", "")), "application/json", null);
+
+        assertThat(response.statusCode()).isEqualTo(400);
+        JsonNode body = json.readTree(response.body());
+        assertThat(body.path("timestamp").asText()).matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.*");
+        assertThat(body.has("path")).isTrue();
+        assertThat(body.get("path").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should gzip large responses and leave small ones uncompressed")
+    void compression_AppliedAboveMinimumSize() throws Exception {
+        var batch = json.createObjectNode();
+        var requests = batch.putArray("requests");
+        for (int i = 0; i < 10; i++) {
+            requests.addObject().put("prompt", "Prompt number " + i);
+        }
+
+        HttpResponse<byte[]> large = post("/generate/batch", "application/json",
+                json.writeValueAsBytes(batch), "application/json", "gzip");
+        HttpResponse<byte[]> small = post("/generate", "application/json",
+                json.writeValueAsBytes(json.createObjectNode().put("prompt", "Hello")), "application/json", "gzip");
+
+        assertThat(large.statusCode()).isEqualTo(200);
+        assertThat(large.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            assertThat(json.readTree(body).path("succeeded").asInt()).isEqualTo(10);
+        }
+        assertThat(small.statusCode()).isEqualTo(200);
+        assertThat(small.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(json.readTree(small.body()).path("response").asText()).isNotEmpty();
+    }
+
+    private HttpResponse<byte[]> post(String path, String contentType, byte[] body, String accept,
+                                      String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", contentType)
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,340 @@
+package com.coherentsolutions.homework.week1.controller;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.BudgetExceededException;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.BatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.GenerationJobService;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.ReactiveTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import com.coherentsolutions.homework.week1.service.budget.BudgetWindow;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * WebFlux tests for ReactiveTextGeneratorController and ReactiveExceptionHandler.
+ *
+ * Checks that the reactive stack answers with the same statuses and bodies
+ * as the servlet stack (see TextGeneratorControllerTest).
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ReactiveTextGeneratorController
+ */
+@WebFluxTest(ReactiveTextGeneratorController.class)
+class ReactiveTextGeneratorControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public ReactiveTextGeneratorService reactiveTextGeneratorService() {
+            return mock(ReactiveTextGeneratorService.class);
+        }
+
+        @Bean
+        @Primary
+        public StreamingTextGeneratorService streamingTextGeneratorService() {
+            return mock(StreamingTextGeneratorService.class);
+        }
+
+        @Bean
+        @Primary
+        public BatchTextGeneratorService batchTextGeneratorService() {
+            return mock(BatchTextGeneratorService.class);
+        }
+
+        @Bean
+        @Primary
+        public GenerationJobService generationJobService() {
+            return mock(GenerationJobService.class);
+        }
+
+        @Bean
+        @Primary
+        public ClientRateLimiter clientRateLimiter() {
+            return mock(ClientRateLimiter.class);
+        }
+
+        @Bean
+        @Primary
+        public AccessLog accessLog() {
+            return mock(AccessLog.class);
+        }
+
+        @Bean
+        @Primary
+        public TokenBudgets tokenBudgets() {
+            return mock(TokenBudgets.class);
+        }
+
+        @Bean
+        @Primary
+        public SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public GenerationMetrics generationMetrics(SimpleMeterRegistry meterRegistry) {
+            return new GenerationMetrics(meterRegistry, new GenerationProfiles(new GenerationProfileProperties(),
+                    new GenerationOptions("gpt-3.5-turbo", 0.7, 150)));
+        }
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveTextGeneratorService reactiveTextGeneratorService;
+
+    @Autowired
+    private StreamingTextGeneratorService streamingTextGeneratorService;
+
+    @Autowired
+    private BatchTextGeneratorService batchTextGeneratorService;
+
+    @Autowired
+    private GenerationJobService generationJobService;
+
+    @Autowired
+    private ClientRateLimiter rateLimiter;
+
+    @Autowired
+    private TokenBudgets tokenBudgets;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetMocks() {
+        reset(reactiveTextGeneratorService, streamingTextGeneratorService, batchTextGeneratorService,
+                generationJobService, rateLimiter, tokenBudgets);
+        meterRegistry.clear();
+        when(rateLimiter.resolveClientKey(any(ServerHttpRequest.class))).thenReturn("ip:127.0.0.1");
+    }
+
+    @Test
+    @DisplayName("Should return the generated response and settle the rate limiter")
+    void generateText_ValidRequest_ReturnsResponse() {
+        GenerateResponse response = GenerateResponse.builder()
+                .response("Spring Boot was released in 2014").model("gpt-3.5-turbo").tokensUsed(20).build();
+        when(reactiveTextGeneratorService.generateText(any())).thenReturn(Mono.just(response));
+
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "Tell me a fun fact about Spring Boot"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.response").isEqualTo("Spring Boot was released in 2014")
+                .jsonPath("$.model").isEqualTo("gpt-3.5-turbo");
+
+        verify(rateLimiter).acquire(eq("ip:127.0.0.1"), any());
+        verify(rateLimiter).settle(eq("ip:127.0.0.1"), any(), eq(response));
+        assertThat(meterRegistry.get(GenerationMetrics.REQUESTS).tag("endpoint", "generate")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pass the tenant in the Reactor context and return 429 when its daily budget is spent")
+    void generateText_DailyBudgetSpent_ReturnsTooManyRequests() {
+        when(tokenBudgets.resolveTenant(any(ServerHttpRequest.class))).thenReturn("team-a");
+        when(reactiveTextGeneratorService.generateText(any())).thenReturn(Mono.deferContextual(context ->
+                Mono.error(new BudgetExceededException(TokenBudgets.tenantOf(context, null), BudgetWindow.DAY,
+                        1000, 1000, Instant.parse("2026-10-19T00:00:00Z"), Duration.ofMinutes(90)))));
+
+        webTestClient.post().uri("/generate")
+                .header("X-Tenant-Id", "team-a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "Tell me a fun fact about Spring Boot"))
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "5400")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Token Budget Exceeded")
+                .jsonPath("$.message").value(message -> assertThat(message.toString()).contains("team-a"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 with field errors for an invalid request")
+    void generateText_BlankPrompt_ReturnsValidationError() {
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", ""))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Error")
+                .jsonPath("$.details[0]").value(detail -> assertThat(detail.toString()).startsWith("prompt:"));
+
+        verifyNoInteractions(reactiveTextGeneratorService);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a malformed body")
+    void generateText_MalformedJson_ReturnsBadRequest() {
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"prompt\": ")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Malformed Request");
+    }
+
+    @Test
+    @DisplayName("Should map generation failures to 500 without internal details")
+    void generateText_ServiceFails_ReturnsApiError() {
+        when(reactiveTextGeneratorService.generateText(any()))
+                .thenReturn(Mono.error(new TextGenerationException("HTTP 500 - internal detail")));
+
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "fact"))
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("API Error")
+                .jsonPath("$.path").isEqualTo("uri=/generate")
+                .jsonPath("$.message").value(message -> assertThat(message.toString()).doesNotContain("internal detail"));
+
+        verify(rateLimiter).settleFailure(eq("ip:127.0.0.1"), any(), any(TextGenerationException.class));
+    }
+
+    @Test
+    @DisplayName("Should return 429 with Retry-After when the client is rate limited")
+    void generateText_RateLimited_ReturnsTooManyRequests() {
+        doThrow(new RateLimitExceededException("Request rate limit exceeded", Duration.ofMillis(1500)))
+                .when(rateLimiter).acquire(any(), any());
+
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "fact"))
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "2")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Rate Limit Exceeded");
+
+        verifyNoInteractions(reactiveTextGeneratorService);
+    }
+
+    @Test
+    @DisplayName("Should return 503 with Retry-After when the circuit breaker is open")
+    void generateText_CircuitOpen_ReturnsServiceUnavailable() {
+        when(reactiveTextGeneratorService.generateText(any()))
+                .thenReturn(Mono.error(new CircuitOpenException("Circuit breaker is open", Duration.ofSeconds(12))));
+
+        webTestClient.post().uri("/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "fact"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "12")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Service Unavailable");
+    }
+
+    @Test
+    @DisplayName("Should stream token frames, then an error frame when the upstream fails")
+    void streamText_UpstreamFails_EndsWithErrorFrame() {
+        when(streamingTextGeneratorService.streamText(any())).thenReturn(Flux.concat(
+                Flux.just(GenerateStreamEvent.token("Spring")),
+                Flux.error(new TextGenerationException("HTTP 503"))));
+
+        List<GenerateStreamEvent> frames = webTestClient.post().uri("/generate/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(Map.of("prompt", "fact"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(GenerateStreamEvent.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(frames).extracting(GenerateStreamEvent::getType)
+                .containsExactly(GenerateStreamEvent.TOKEN, GenerateStreamEvent.ERROR);
+        verify(rateLimiter).settleFailure(eq("ip:127.0.0.1"), any(), any(TextGenerationException.class));
+    }
+
+    @Test
+    @DisplayName("Should assemble batch results in input order")
+    void generateBatch_ReturnsResultsInInputOrder() {
+        when(batchTextGeneratorService.streamBatch(any())).thenReturn(Flux.just(
+                BatchItemResult.success(1, GenerateResponse.builder().response("second").build()),
+                BatchItemResult.success(0, GenerateResponse.builder().response("first").build())));
+
+        webTestClient.post().uri("/generate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("requests", List.of(Map.of("prompt", "a"), Map.of("prompt", "b"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[0].response.response").isEqualTo("first")
+                .jsonPath("$.results[1].response.response").isEqualTo("second")
+                .jsonPath("$.succeeded").isEqualTo(2);
+
+        verify(rateLimiter, times(2)).settle(eq("ip:127.0.0.1"), any(), any(BatchItemResult.class));
+    }
+
+    @Test
+    @DisplayName("Should queue a job with 202 and answer 404 for an unknown job")
+    void jobs_SubmitAndUnknownId() {
+        when(generationJobService.submit(any(), any())).thenReturn(GenerateJobResponse.builder()
+                .id("job-1").status(GenerateJobResponse.Status.QUEUED).build());
+        when(generationJobService.find("gone")).thenReturn(Optional.empty());
+
+        webTestClient.post().uri("/generate/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("prompt", "long story"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().valueEquals("Location", "/generate/jobs/job-1")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("QUEUED");
+
+        webTestClient.get().uri("/generate/jobs/gone")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not Found")
+                .jsonPath("$.path").isEqualTo("uri=/generate/jobs/gone");
+        verify(rateLimiter).acquire(eq("ip:127.0.0.1"), any());
+    }
+}
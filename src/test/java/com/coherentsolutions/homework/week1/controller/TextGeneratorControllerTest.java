@@ -1,12 +1,45 @@
 package com.coherentsolutions.homework.week1.controller;
 
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateRequest;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import com.coherentsolutions.homework.week1.dto.ErrorResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
 import com.coherentsolutions.homework.week1.dto.GenerateRequest;
 import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.dto.JobPriority;
+import com.coherentsolutions.homework.week1.exception.BudgetExceededException;
+import com.coherentsolutions.homework.week1.exception.CallbackNotAllowedException;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.PromptTooLongException;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import com.coherentsolutions.homework.week1.exception.SessionNotFoundException;
 import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.exception.UnknownProfileException;
+import com.coherentsolutions.homework.week1.service.BatchTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.ConversationService;
+import com.coherentsolutions.homework.week1.service.GenerationJobService;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.StreamingTextGeneratorService;
 import com.coherentsolutions.homework.week1.service.TextGeneratorService;
+import com.coherentsolutions.homework.week1.service.accesslog.AccessLog;
+import com.coherentsolutions.homework.week1.service.budget.BudgetWindow;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -14,11 +47,29 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -42,8 +93,6 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - Teaches validation testing techniques
  * - Shows error handling testing
  * 
- * TODO for students: Complete the test implementations
- * 
  * @author Student Name
  * @version 1.0
  * @see TextGeneratorController
@@ -63,6 +112,60 @@ class TextGeneratorControllerTest {
         public TextGeneratorService textGeneratorService() {
             return mock(TextGeneratorService.class);
         }
+        
+        @Bean
+        @Primary
+        public StreamingTextGeneratorService streamingTextGeneratorService() {
+            return mock(StreamingTextGeneratorService.class);
+        }
+        
+        @Bean
+        @Primary
+        public BatchTextGeneratorService batchTextGeneratorService() {
+            return mock(BatchTextGeneratorService.class);
+        }
+        
+        @Bean
+        @Primary
+        public GenerationJobService generationJobService() {
+            return mock(GenerationJobService.class);
+        }
+        
+        @Bean
+        @Primary
+        public ConversationService conversationService() {
+            return mock(ConversationService.class);
+        }
+        
+        @Bean
+        @Primary
+        public ClientRateLimiter clientRateLimiter() {
+            return mock(ClientRateLimiter.class);
+        }
+        
+        @Bean
+        @Primary
+        public AccessLog accessLog() {
+            return mock(AccessLog.class);
+        }
+        
+        @Bean
+        @Primary
+        public TokenBudgets tokenBudgets() {
+            return mock(TokenBudgets.class);
+        }
+        
+        @Bean
+        @Primary
+        public SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+        
+        @Bean
+        public GenerationMetrics generationMetrics(SimpleMeterRegistry meterRegistry) {
+            return new GenerationMetrics(meterRegistry, new GenerationProfiles(new GenerationProfileProperties(),
+                    new GenerationOptions("gpt-3.5-turbo", 0.7, 150)));
+        }
     }
     
     @Autowired
@@ -71,160 +174,239 @@ class TextGeneratorControllerTest {
     @Autowired
     private TextGeneratorService textGeneratorService;
     
+    @Autowired
+    private StreamingTextGeneratorService streamingTextGeneratorService;
+    
+    @Autowired
+    private BatchTextGeneratorService batchTextGeneratorService;
+    
+    @Autowired
+    private GenerationJobService generationJobService;
+    
+    @Autowired
+    private ConversationService conversationService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
-    // TODO for students: Implement these test methods
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+    
+    @Autowired
+    private ClientRateLimiter rateLimiter;
+    
+    @Autowired
+    private TokenBudgets tokenBudgets;
+    
+    @Autowired
+    private AccessLog accessLog;
+    
+    @BeforeEach
+    void resetService() {
+        reset(textGeneratorService, streamingTextGeneratorService, batchTextGeneratorService, generationJobService,
+                conversationService, rateLimiter, accessLog, tokenBudgets);
+        meterRegistry.clear();
+    }
     
     @Test
     @DisplayName("Should return generated text for valid prompt")
     void generateText_ValidPrompt_ReturnsSuccess() throws Exception {
-        // TODO: Implement this test following these steps:
-        //
-        // 1. ARRANGE: Prepare test data
-        //    - Create a valid GenerateRequest with a test prompt
-        //    - Create a mock GenerateResponse that the service should return
-        //    - Configure the mocked service to return the mock response
-        //
-        // 2. ACT: Perform the HTTP request
-        //    - Use MockMvc to POST to /generate
-        //    - Include the request JSON in the request body
-        //    - Set appropriate Content-Type header
-        //
-        // 3. ASSERT: Verify the response
-        //    - Check HTTP status is 200 OK
-        //    - Verify Content-Type is application/json
-        //    - Assert the response contains expected fields
-        //    - Verify the service was called exactly once with correct parameters
-        //
-        // Example implementation structure:
-        // Given
-        // GenerateRequest request = new GenerateRequest();
-        // request.setPrompt("Test prompt");
-        // GenerateResponse mockResponse = GenerateResponse.builder()...
-        // when(textGeneratorService.generateText(any())).thenReturn(mockResponse);
-        //
-        // When & Then
-        // mockMvc.perform(post("/generate")...)
-        //     .andExpect(status().isOk())
-        //     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-        //     .andExpect(jsonPath("$.response").value("Expected response"));
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        GenerateRequest request = createValidRequest();
+        when(textGeneratorService.generateText(any())).thenReturn(createMockResponse());
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.response").value("Spring Boot was first released in 2014..."));
+        
+        verify(textGeneratorService, times(1)).generateText(request);
+        assertThat(meterRegistry.get(GenerationMetrics.REQUESTS)
+                .tags("endpoint", "generate", "model", "gpt-3.5-turbo", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        verify(accessLog).record(eq("generate"), eq(request), any(GenerateResponse.class), isNull(), anyLong());
     }
     
     @Test
     @DisplayName("Should return 400 for empty prompt")
     void generateText_EmptyPrompt_ReturnsBadRequest() throws Exception {
-        // TODO: Implement validation error testing
-        //
-        // This test should verify that:
-        // 1. Empty prompts are rejected with 400 Bad Request
-        // 2. The response contains validation error details
-        // 3. The service is never called for invalid requests
-        //
-        // Test scenarios to cover:
-        // - Null prompt
-        // - Empty string prompt
-        // - Whitespace-only prompt
-        // - Prompt exceeding maximum length
-        //
-        // Example structure:
-        // GenerateRequest request = new GenerateRequest();
-        // request.setPrompt(""); // or null, or very long string
-        //
-        // mockMvc.perform(post("/generate")...)
-        //     .andExpect(status().isBadRequest())
-        //     .andExpect(jsonPath("$.error").value("Validation Error"));
-        //
-        // verify(textGeneratorService, never()).generateText(any());
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        for (String prompt : new String[]{null, "", "   "}) {
+            GenerateRequest request = new GenerateRequest();
+            request.setPrompt(prompt);
+            
+            mockMvc.perform(post("/generate")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Validation Error"))
+                    .andExpect(jsonPath("$.details").isArray());
+        }
+        
+        verify(textGeneratorService, never()).generateText(any());
     }
     
     @Test
     @DisplayName("Should return 500 when service throws exception")
     void generateText_ServiceThrowsException_ReturnsInternalServerError() throws Exception {
-        // TODO: Implement service error testing
-        //
-        // This test should verify that:
-        // 1. Service exceptions are properly handled
-        // 2. HTTP 500 status is returned
-        // 3. Error response format is correct
-        // 4. Internal error details are not exposed to clients
-        //
-        // Example structure:
-        // GenerateRequest request = new GenerateRequest();
-        // request.setPrompt("Valid prompt");
-        // when(textGeneratorService.generateText(any()))
-        //     .thenThrow(new TextGenerationException("Service error"));
-        //
-        // mockMvc.perform(post("/generate")...)
-        //     .andExpect(status().isInternalServerError())
-        //     .andExpect(jsonPath("$.error").value("API Error"));
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        when(textGeneratorService.generateText(any()))
+                .thenThrow(new TextGenerationException("Service error: internal detail"));
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("API Error"))
+                .andExpect(jsonPath("$.message").value(not(containsString("internal detail"))));
+        
+        assertThat(meterRegistry.get(GenerationMetrics.REQUESTS)
+                .tags("outcome", "error", "exception", "TextGenerationException")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should return 429 with Retry-After when the client is rate limited")
+    void generateText_ClientRateLimited_ReturnsTooManyRequests() throws Exception {
+        when(rateLimiter.resolveClientKey(any(HttpServletRequest.class))).thenReturn("key:client-1");
+        doThrow(new RateLimitExceededException("Request rate limit exceeded", Duration.ofMillis(1500)))
+                .when(rateLimiter).acquire(eq("key:client-1"), any());
+        
+        mockMvc.perform(post("/generate")
+                        .header("X-API-Key", "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Rate Limit Exceeded"));
+        
+        verify(textGeneratorService, never()).generateText(any());
+    }
+    
+    @Test
+    @DisplayName("Should return 429 and notify the limiter when OpenAI rate limits the call")
+    void generateText_UpstreamRateLimited_ReturnsTooManyRequests() throws Exception {
+        RateLimitExceededException upstream = new RateLimitExceededException(
+                "OpenAI rate limit reached: HTTP 429 - secret org id", Duration.ofSeconds(1), new RuntimeException());
+        when(textGeneratorService.generateText(any())).thenThrow(upstream);
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value(not(containsString("secret"))));
+        
+        verify(rateLimiter).settleFailure(any(), any(), eq(upstream));
+    }
+    
+    @Test
+    @DisplayName("Should return 402 when the tenant of the X-Tenant-Id header has spent its monthly budget")
+    void generateText_MonthlyBudgetSpent_ReturnsPaymentRequired() throws Exception {
+        when(tokenBudgets.resolveTenant(any(HttpServletRequest.class))).thenReturn("team-a");
+        when(textGeneratorService.generateText(any())).thenAnswer(invocation -> {
+            throw new BudgetExceededException(TokenBudgets.currentTenant(), BudgetWindow.MONTH, 1000, 1012,
+                    Instant.parse("2026-11-01T00:00:00Z"), Duration.ofDays(13));
+        });
+        
+        mockMvc.perform(post("/generate")
+                        .header("X-Tenant-Id", "team-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isPaymentRequired())
+                .andExpect(header().doesNotExist("Retry-After"))
+                .andExpect(jsonPath("$.error").value("Token Budget Exceeded"))
+                .andExpect(jsonPath("$.message").value(containsString("team-a")));
+        
+        assertThat(TokenBudgets.currentTenant()).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should return 503 with Retry-After when the circuit breaker is open")
+    void generateText_CircuitOpen_ReturnsServiceUnavailable() throws Exception {
+        when(textGeneratorService.generateText(any()))
+                .thenThrow(new CircuitOpenException("Circuit breaker is open", Duration.ofSeconds(12)));
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+    
+    @Test
+    @DisplayName("Should return 400 with the token count when the prompt has too many tokens")
+    void generateText_TooManyPromptTokens_ReturnsBadRequest() throws Exception {
+        when(textGeneratorService.generateText(any())).thenThrow(new PromptTooLongException(1500, 1024));
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("prompt: Prompt is too long: 1500 tokens, at most 1024 allowed."));
+    }
+    
+    @Test
+    @DisplayName("Should return 400 naming the available profiles for an unknown profile")
+    void generateText_UnknownProfile_ReturnsBadRequest() throws Exception {
+        when(textGeneratorService.generateText(any()))
+                .thenThrow(new UnknownProfileException("poetic", "default, precise"));
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Hello\",\"profile\":\"poetic\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]")
+                        .value("profile: Unknown profile 'poetic'; available profiles: default, precise."));
     }
     
     @Test
     @DisplayName("Should handle malformed JSON request")
     void generateText_MalformedJson_ReturnsBadRequest() throws Exception {
-        // TODO: Implement malformed JSON testing
-        //
-        // This test should verify that:
-        // 1. Malformed JSON is rejected with 400 Bad Request
-        // 2. Appropriate error message is returned
-        // 3. Service is never called
-        //
-        // Example:
-        // String malformedJson = "{ invalid json }";
-        //
-        // mockMvc.perform(post("/generate")
-        //         .contentType(MediaType.APPLICATION_JSON)
-        //         .content(malformedJson))
-        //     .andExpect(status().isBadRequest());
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ invalid json }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Malformed Request"));
+        
+        verify(textGeneratorService, never()).generateText(any());
     }
     
     @Test
     @DisplayName("Should handle missing Content-Type header")
     void generateText_MissingContentType_ReturnsBadRequest() throws Exception {
-        // TODO: Implement missing Content-Type testing
-        //
-        // This test verifies that requests without proper Content-Type
-        // are handled appropriately.
+        mockMvc.perform(post("/generate")
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.error").value("Unsupported Media Type"));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        verify(textGeneratorService, never()).generateText(any());
     }
     
     @Test
     @DisplayName("Should validate prompt length limits")
     void generateText_PromptTooLong_ReturnsBadRequest() throws Exception {
-        // TODO: Implement prompt length validation testing
-        //
-        // Create a prompt that exceeds the maximum length (2000 characters)
-        // and verify it's rejected with appropriate validation error.
-        //
-        // String longPrompt = "a".repeat(2001);
-        // GenerateRequest request = new GenerateRequest();
-        // request.setPrompt(longPrompt);
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt("a".repeat(2001));
+        
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value(containsString("between 1 and 2000")));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        verify(textGeneratorService, never()).generateText(any());
     }
     
-    // TODO for students: Add more comprehensive tests
-    
     /**
      * Example: Test different HTTP methods
      */
     @Test
     @DisplayName("Should return 405 for GET request to generate endpoint")
     void generateText_GetMethod_ReturnsMethodNotAllowed() throws Exception {
-        // TODO: Verify that GET requests are rejected
-        // This teaches students about proper HTTP method usage
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        mockMvc.perform(get("/generate"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(jsonPath("$.error").value("Method Not Allowed"));
     }
     
     /**
@@ -233,13 +415,16 @@ class TextGeneratorControllerTest {
     @Test
     @DisplayName("Should return properly structured JSON response")
     void generateText_ValidRequest_ReturnsWellFormedResponse() throws Exception {
-        // TODO: Verify the complete response structure
-        // - All required fields are present
-        // - Field types are correct
-        // - Timestamp format is valid
-        // - Response follows API contract
+        when(textGeneratorService.generateText(any())).thenReturn(createMockResponse());
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        mockMvc.perform(post("/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").isString())
+                .andExpect(jsonPath("$.model").value("gpt-3.5-turbo"))
+                .andExpect(jsonPath("$.tokensUsed").value(45))
+                .andExpect(jsonPath("$.timestamp").value(matchesPattern("\\d{4}-\\d{2}-\\d{2}T.*")));
     }
     
     /**
@@ -248,10 +433,286 @@ class TextGeneratorControllerTest {
     @Test
     @DisplayName("Should handle concurrent requests properly")
     void generateText_ConcurrentRequests_HandlesCorrectly() throws Exception {
-        // TODO: Test concurrent request handling
-        // This is more advanced but shows how to test thread safety
+        when(textGeneratorService.generateText(any())).thenReturn(createMockResponse());
+        String body = objectMapper.writeValueAsString(createValidRequest());
+        int requests = 20;
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statuses.add(executor.submit(() -> mockMvc.perform(post("/generate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get(10, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        verify(textGeneratorService, times(requests)).generateText(any());
+    }
+    
+    @Test
+    @DisplayName("Should stream tokens as Server-Sent Events ending with a done frame")
+    void streamText_ValidPrompt_StreamsTokensAndDoneFrame() throws Exception {
+        when(streamingTextGeneratorService.streamText(any())).thenReturn(Flux.just(
+                GenerateStreamEvent.token("Spring Boot"),
+                GenerateStreamEvent.token(" rocks"),
+                GenerateStreamEvent.done("gpt-3.5-turbo", 12)));
+        
+        MvcResult result = mockMvc.perform(post("/generate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(body)
+                .contains("event:token")
+                .contains("\"content\":\"Spring Boot\"")
+                .contains("event:done")
+                .contains("\"tokensUsed\":12");
+        assertThat(body.indexOf("event:done")).isGreaterThan(body.lastIndexOf("event:token"));
+    }
+    
+    @Test
+    @DisplayName("Should end the stream with an error frame when generation fails")
+    void streamText_ServiceFails_EmitsErrorFrame() throws Exception {
+        when(streamingTextGeneratorService.streamText(any())).thenReturn(Flux.concat(
+                Flux.just(GenerateStreamEvent.token("partial")),
+                Flux.error(new TextGenerationException("upstream detail"))));
+        
+        MvcResult result = mockMvc.perform(post("/generate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(body).contains("event:error").doesNotContain("upstream detail");
+        assertThat(meterRegistry.get(GenerationMetrics.REQUESTS)
+                .tags("endpoint", "generate.stream", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should reject invalid streaming requests before the stream starts")
+    void streamText_EmptyPrompt_ReturnsBadRequest() throws Exception {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt("");
+        
+        mockMvc.perform(post("/generate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Error"));
+        
+        verify(streamingTextGeneratorService, never()).streamText(any());
+    }
+    
+    @Test
+    @DisplayName("Should return per-item results and errors for a batch")
+    void generateBatch_MixedResults_ReturnsItemsInOrder() throws Exception {
+        when(batchTextGeneratorService.generateBatch(any())).thenReturn(BatchGenerateResponse.of(List.of(
+                BatchItemResult.success(0, createMockResponse()),
+                BatchItemResult.failure(1, 400, ErrorResponse.validation(
+                        "Request validation failed. Please check your input.",
+                        List.of("prompt: Prompt cannot be empty or contain only whitespace"))))));
+        
+        mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBatchRequest(2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].response.response").exists())
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[1].error.error").value("Validation Error"));
+    }
+    
+    @Test
+    @DisplayName("Should reject empty and oversized batches")
+    void generateBatch_InvalidSize_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBatchRequest(0))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Error"));
+        
+        mockMvc.perform(post("/generate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBatchRequest(501))))
+                .andExpect(status().isBadRequest());
+        
+        verify(batchTextGeneratorService, never()).generateBatch(any());
+    }
+    
+    @Test
+    @DisplayName("Should stream batch items as they complete")
+    void streamBatch_ValidBatch_StreamsItemFrames() throws Exception {
+        when(batchTextGeneratorService.streamBatch(any())).thenReturn(Flux.just(
+                BatchItemResult.success(1, createMockResponse()),
+                BatchItemResult.success(0, createMockResponse())));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        MvcResult result = mockMvc.perform(post("/generate/batch/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(createBatchRequest(2))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        assertThat(body).contains("id:1\nevent:item").contains("id:0\nevent:item");
+        assertThat(body.indexOf("id:1")).isLessThan(body.indexOf("id:0"));
+    }
+    
+    @Test
+    @DisplayName("Should queue a job and answer 202 with its location, settling the rate limiter when it finishes")
+    @SuppressWarnings("unchecked")
+    void submitJob_ValidRequest_ReturnsAccepted() throws Exception {
+        GenerateJobResponse queued = GenerateJobResponse.builder()
+                .id("job-1").status(GenerateJobResponse.Status.QUEUED).priority(JobPriority.HIGH).build();
+        when(generationJobService.submit(any(), any())).thenReturn(queued);
+        when(rateLimiter.resolveClientKey(any(HttpServletRequest.class))).thenReturn("client-a");
+        
+        mockMvc.perform(post("/generate/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Write a long story\",\"priority\":\"HIGH\","
+                                + "\"callbackUrl\":\"https://example.com/hook\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/generate/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+        
+        ArgumentCaptor<GenerateJobRequest> request = ArgumentCaptor.forClass(GenerateJobRequest.class);
+        ArgumentCaptor<Consumer<GenerateJobResponse>> onFinished = ArgumentCaptor.forClass(Consumer.class);
+        verify(generationJobService).submit(request.capture(), onFinished.capture());
+        assertThat(request.getValue().getPriority()).isEqualTo(JobPriority.HIGH);
+        assertThat(request.getValue().getCallbackUrl()).isEqualTo("https://example.com/hook");
+        verify(rateLimiter).acquire("client-a", List.of(request.getValue()));
+        
+        GenerateJobResponse finished = queued.toBuilder()
+                .status(GenerateJobResponse.Status.SUCCEEDED).response(createMockResponse()).build();
+        onFinished.getValue().accept(finished);
+        verify(rateLimiter).settle("client-a", request.getValue(), finished);
+    }
+    
+    @Test
+    @DisplayName("Should return 400 for a job whose callback host is not allowed")
+    void submitJob_CallbackHostNotAllowed_ReturnsBadRequest() throws Exception {
+        when(generationJobService.submit(any(), any())).thenThrow(new CallbackNotAllowedException(
+                "http://169.254.169.254/latest", "host 169.254.169.254 resolves to a loopback, private or link-local address"));
+        
+        mockMvc.perform(post("/generate/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Hello\",\"callbackUrl\":\"http://169.254.169.254/latest\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value(containsString("callbackUrl: Callback URL is not allowed")));
+    }
+    
+    @Test
+    @DisplayName("Should return 400 for a job with a non-http callback URL")
+    void submitJob_InvalidCallbackUrl_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/generate/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Hello\",\"callbackUrl\":\"file:///etc/passwd\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value(containsString("callbackUrl")));
+        
+        verify(generationJobService, never()).submit(any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should return 503 with Retry-After when the job queue is full")
+    void submitJob_QueueFull_ReturnsServiceUnavailable() throws Exception {
+        when(generationJobService.submit(any(), any()))
+                .thenThrow(new ServiceOverloadedException("Job queue is full", Duration.ofMillis(4200)));
+        
+        mockMvc.perform(post("/generate/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+        
+        verify(rateLimiter).settleFailure(any(), any(), any(ServiceOverloadedException.class));
+    }
+    
+    @Test
+    @DisplayName("Should return a job by id, and 404 for unknown or expired ids")
+    void getJob_KnownAndUnknownIds() throws Exception {
+        when(generationJobService.find("job-1")).thenReturn(Optional.of(GenerateJobResponse.builder()
+                .id("job-1").status(GenerateJobResponse.Status.SUCCEEDED).httpStatus(200)
+                .response(createMockResponse()).build()));
+        when(generationJobService.find("gone")).thenReturn(Optional.empty());
+        
+        mockMvc.perform(get("/generate/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.response.response").value("Spring Boot was first released in 2014..."))
+                .andExpect(jsonPath("$.error").doesNotExist());
+        
+        mockMvc.perform(get("/generate/jobs/gone"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Not Found"));
+    }
+    
+    @Test
+    @DisplayName("Should create a session and answer its turns with rate limiting and metrics")
+    void sessions_CreateAndContinue() throws Exception {
+        when(conversationService.create()).thenReturn(ConversationSessionResponse.builder()
+                .id("session-1").turns(List.of()).build());
+        when(conversationService.send(eq("session-1"), any())).thenReturn(createMockResponse());
+        
+        mockMvc.perform(post("/generate/sessions"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/generate/sessions/session-1"))
+                .andExpect(jsonPath("$.id").value("session-1"));
+        mockMvc.perform(post("/generate/sessions/session-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").value("Spring Boot was first released in 2014..."));
+        
+        verify(rateLimiter).acquire(any(), any());
+        verify(rateLimiter).settle(any(), any(), any(GenerateResponse.class));
+        assertThat(meterRegistry.get(GenerationMetrics.REQUESTS)
+                .tags("endpoint", "generate.session", "outcome", "success").timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should return 404 for unknown or expired sessions")
+    void sessions_UnknownId_ReturnsNotFound() throws Exception {
+        when(conversationService.send(eq("gone"), any())).thenThrow(new SessionNotFoundException("gone"));
+        when(conversationService.find("gone")).thenReturn(Optional.empty());
+        
+        mockMvc.perform(post("/generate/sessions/gone")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Not Found"));
+        mockMvc.perform(get("/generate/sessions/gone"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/generate/sessions/gone"))
+                .andExpect(status().isNotFound());
+        
+        verify(rateLimiter).settleFailure(any(), any(), any(SessionNotFoundException.class));
     }
     
     // Helper methods for test data creation
@@ -265,6 +726,19 @@ class TextGeneratorControllerTest {
         return request;
     }
     
+    /**
+     * Creates a batch of valid requests for testing
+     */
+    private BatchGenerateRequest createBatchRequest(int size) {
+        List<GenerateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            requests.add(createValidRequest());
+        }
+        BatchGenerateRequest batch = new BatchGenerateRequest();
+        batch.setRequests(requests);
+        return batch;
+    }
+    
     /**
      * Creates a mock GenerateResponse for testing
      */
@@ -272,7 +746,7 @@ class TextGeneratorControllerTest {
         return GenerateResponse.builder()
                 .response("Spring Boot was first released in 2014...")
                 .model("gpt-3.5-turbo")
-                .timestamp(LocalDateTime.now())
+                .timestamp(System.currentTimeMillis())
                 .tokensUsed(45)
                 .build();
     }
@@ -0,0 +1,175 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.impl.CachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CachingTextGeneratorService.
+ *
+ * The delegate service is mocked so each test can count how many generations
+ * actually reach the model. Time is driven by a manual ticker so expiry is
+ * verified without sleeping.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see CachingTextGeneratorService
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingTextGeneratorServiceTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    @Mock
+    private TextGeneratorService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private ResponseCacheProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated prompts from the cache")
+    void generateText_RepeatedPrompt_ReturnsCachedResponse() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.withModel("answer", "gpt-3.5-turbo"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        GenerateResponse first = service.generateText(request("Tell me a fun fact"));
+        GenerateResponse second = service.generateText(request("Tell me a fun fact"));
+
+        assertFalse(first.isCached());
+        assertTrue(second.isCached());
+        assertEquals("answer", second.getResponse());
+        assertEquals(first.getTimestamp(), second.getTimestamp());
+        verify(delegate, times(1)).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should treat prompts differing only in whitespace as identical")
+    void generateText_WhitespaceVariants_ShareCacheEntry() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        service.generateText(request("Tell me   a fun\nfact"));
+        GenerateResponse second = service.generateText(request("  Tell me a fun fact "));
+
+        assertTrue(second.isCached());
+        verify(delegate, times(1)).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the configured TTL")
+    void generateText_AfterTtl_CallsDelegateAgain() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        service.generateText(request("prompt"));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        GenerateResponse afterTtl = service.generateText(request("prompt"));
+
+        assertFalse(afterTtl.isCached());
+        verify(delegate, times(2)).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache for sampled responses when configured")
+    void generateText_SamplingOptOut_AlwaysCallsDelegate() {
+        properties.setCacheSampledResponses(false);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        service.generateText(request("prompt"));
+        GenerateResponse second = service.generateText(request("prompt"));
+
+        assertFalse(second.isCached());
+        verify(delegate, times(2)).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should still cache deterministic responses when sampled responses are excluded")
+    void generateText_SamplingOptOutWithZeroTemperature_UsesCache() {
+        properties.setCacheSampledResponses(false);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(new GenerationOptions("gpt-3.5-turbo", 0.0, 150));
+
+        service.generateText(request("prompt"));
+
+        assertTrue(service.generateText(request("prompt")).isCached());
+    }
+
+    @Test
+    @DisplayName("Should not cache failures")
+    void generateText_DelegateFails_DoesNotCache() {
+        when(delegate.generateText(any()))
+                .thenThrow(new TextGenerationException("boom"))
+                .thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        assertThrows(TextGenerationException.class, () -> service.generateText(request("prompt")));
+        GenerateResponse retry = service.generateText(request("prompt"));
+
+        assertFalse(retry.isCached());
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    @DisplayName("Should publish hit, miss and eviction metrics")
+    void generateText_PublishesCacheMetrics() {
+        properties.setMaximumSize(1);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        CachingTextGeneratorService service = createService(OPTIONS);
+
+        service.generateText(request("first"));
+        service.generateText(request("first"));
+        service.generateText(request("second"));
+        service.generateText(request("third"));
+        service.size();
+
+        String cache = CachingTextGeneratorService.CACHE_NAME;
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", cache, "result", "hit")
+                .functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tags("cache", cache, "result", "miss")
+                .functionCounter().count());
+        assertTrue(meterRegistry.get("cache.evictions").tags("cache", cache)
+                .functionCounter().count() >= 1.0);
+    }
+
+    private CachingTextGeneratorService createService(GenerationOptions options) {
+        return new CachingTextGeneratorService(delegate, new GenerationProfiles(new GenerationProfileProperties(), options),
+                properties, meterRegistry, nanos::get);
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,232 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.RateLimitProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
+import com.coherentsolutions.homework.week1.service.impl.CoalescingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.ratelimit.ClientRateLimiter;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CoalescingTextGeneratorService.
+ *
+ * The fake delegate blocks until the test releases it, which keeps the
+ * leader's call in flight while identical requests pile up behind it.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see CoalescingTextGeneratorService
+ */
+class CoalescingTextGeneratorServiceTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private static final GenerationProfiles PROFILES = new GenerationProfiles(new GenerationProfileProperties(), OPTIONS);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile RuntimeException failure;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CoalescingTextGeneratorService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CoalescingTextGeneratorService(this::blockingGenerate, PROFILES, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should share one model call between identical concurrent requests")
+    void generateText_IdenticalConcurrentRequests_CallDelegateOnce() throws Exception {
+        List<Future<GenerateResponse>> responses = submit(10, "Tell me a fun fact");
+        awaitCoalesced(9);
+        release.countDown();
+
+        for (Future<GenerateResponse> response : responses) {
+            assertEquals("answer to Tell me a fun fact", response.get(5, TimeUnit.SECONDS).getResponse());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(9.0, meterRegistry.get("generate.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should coalesce prompts that differ only in whitespace")
+    void generateText_WhitespaceVariants_AreCoalesced() throws Exception {
+        List<Future<GenerateResponse>> responses = new ArrayList<>(submit(1, "Tell me  a fun fact"));
+        responses.addAll(submit(1, " Tell me a fun fact\n"));
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<GenerateResponse> response : responses) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not coalesce different prompts")
+    void generateText_DifferentPrompts_CallDelegateForEach() throws Exception {
+        List<Future<GenerateResponse>> responses = new ArrayList<>(submit(1, "first"));
+        responses.addAll(submit(1, "second"));
+        awaitCalls(2);
+        release.countDown();
+
+        for (Future<GenerateResponse> response : responses) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0.0, meterRegistry.get("generate.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fail every waiting request when the shared call fails")
+    void generateText_SharedCallFails_AllRequestsFail() throws Exception {
+        failure = new TextGenerationException("Failed to generate text: boom");
+        List<Future<GenerateResponse>> responses = submit(5, "prompt");
+        awaitCoalesced(4);
+        release.countDown();
+
+        for (Future<GenerateResponse> response : responses) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not share a call between tenants")
+    void generateText_DifferentTenants_CallDelegateForEach() throws Exception {
+        List<Future<GenerateResponse>> responses = new ArrayList<>();
+        for (String tenant : List.of("team-a", "team-b")) {
+            responses.add(executor.submit(() -> TokenBudgets.runAs(tenant, () -> service.generateText(request("prompt")))));
+        }
+        awaitCalls(2);
+        release.countDown();
+
+        for (Future<GenerateResponse> response : responses) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0.0, meterRegistry.get("generate.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should charge only the leader's client for a shared call")
+    void generateText_Follower_IsRefundedByRateLimiter() throws Exception {
+        RateLimitProperties limits = new RateLimitProperties();
+        limits.setRequestBurst(100);
+        limits.setTokensPerMinute(400);
+        ClientRateLimiter limiter = new ClientRateLimiter(limits, PROFILES, new PromptTokenizer(OPTIONS),
+                meterRegistry, () -> 0L);
+        GenerateRequest request = request("prompt");
+        limiter.acquire("leader", List.of(request));
+        limiter.acquire("follower", List.of(request));
+
+        Future<GenerateResponse> leader = submit(1, "prompt").get(0);
+        awaitCalls(1);
+        Future<GenerateResponse> follower = submit(1, "prompt").get(0);
+        awaitCoalesced(1);
+        release.countDown();
+        GenerateResponse leaderResponse = leader.get(5, TimeUnit.SECONDS);
+        GenerateResponse followerResponse = follower.get(5, TimeUnit.SECONDS);
+        limiter.settle("leader", request, leaderResponse);
+        limiter.settle("follower", request, followerResponse);
+
+        assertFalse(leaderResponse.isCached());
+        assertTrue(followerResponse.isCached());
+        // 400 tokens per minute fit two 172-token estimates only if the follower was refunded in full
+        assertDoesNotThrow(() -> limiter.acquire("follower", List.of(request, request)));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("leader", List.of(request, request)));
+    }
+
+    @Test
+    @DisplayName("Should start a new call once the previous one has finished")
+    void generateText_SequentialRequests_AreNotCoalesced() {
+        release.countDown();
+
+        service.generateText(request("prompt"));
+        service.generateText(request("prompt"));
+
+        assertEquals(2, calls.get());
+        assertEquals(0.0, meterRegistry.get("generate.in.flight").gauge().value());
+    }
+
+    private List<Future<GenerateResponse>> submit(int count, String prompt) {
+        List<Future<GenerateResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(executor.submit(() -> service.generateText(request(prompt))));
+        }
+        return responses;
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("generate.coalesced").counter().count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for coalesced requests");
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() < expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for delegate calls");
+            Thread.sleep(5);
+        }
+    }
+
+    private GenerateResponse blockingGenerate(GenerateRequest request) {
+        calls.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return GenerateResponse.builder()
+                .response("answer to " + request.getPrompt())
+                .tokensUsed(100)
+                .build();
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.BatchProperties;
+import com.coherentsolutions.homework.week1.dto.BatchGenerateResponse;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.impl.ConcurrentBatchTextGeneratorService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConcurrentBatchTextGeneratorService.
+ *
+ * The delegate is a hand-written fake rather than a Mockito mock because the
+ * tests need per-prompt delays and a live count of concurrent calls.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ConcurrentBatchTextGeneratorService
+ */
+class ConcurrentBatchTextGeneratorServiceTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private ValidatorFactory validatorFactory;
+
+    private BatchProperties properties;
+
+    private ConcurrentBatchTextGeneratorService service;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        properties = new BatchProperties();
+        properties.setMaxConcurrency(3);
+        service = new ConcurrentBatchTextGeneratorService(this::fakeGenerate, validatorFactory.getValidator(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Should return results in input order regardless of completion order")
+    void generateBatch_ItemsFinishOutOfOrder_ReturnsInputOrder() {
+        BatchGenerateResponse response = service.generateBatch(List.of(
+                request("sleep:150 first"), request("sleep:0 second"), request("sleep:50 third")));
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(List.of(0, 1, 2), response.getResults().stream().map(BatchItemResult::getIndex).toList());
+        assertEquals("answer to sleep:150 first", response.getResults().get(0).getResponse().getResponse());
+    }
+
+    @Test
+    @DisplayName("Should never run more items at once than the configured limit")
+    void generateBatch_ManyItems_RespectsMaxConcurrency() {
+        List<GenerateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(request("sleep:20 prompt " + i));
+        }
+
+        BatchGenerateResponse response = service.generateBatch(requests);
+
+        assertEquals(20, response.getSucceeded());
+        assertEquals(20, calls.get());
+        assertTrue(maxInFlight.get() <= 3, "max in flight was " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "items should run in parallel");
+    }
+
+    @Test
+    @DisplayName("Should report invalid items as validation errors without calling the model")
+    void generateBatch_InvalidItem_ReturnsValidationErrorForThatItem() {
+        List<GenerateRequest> requests = new ArrayList<>();
+        requests.add(request("valid prompt"));
+        requests.add(request("   "));
+        requests.add(null);
+
+        BatchGenerateResponse response = service.generateBatch(requests);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        BatchItemResult blank = response.getResults().get(1);
+        assertEquals(400, blank.getStatus());
+        assertEquals("Validation Error", blank.getError().getError());
+        assertTrue(blank.getError().getDetails().stream().allMatch(detail -> detail.startsWith("prompt: ")));
+        assertEquals(400, response.getResults().get(2).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should map model failures to per-item API errors without leaking details")
+    void generateBatch_ItemFails_OtherItemsStillSucceed() {
+        BatchGenerateResponse response = service.generateBatch(List.of(
+                request("fail: upstream secret"), request("valid prompt")));
+
+        BatchItemResult failed = response.getResults().get(0);
+        assertEquals(500, failed.getStatus());
+        assertNull(failed.getResponse());
+        assertEquals("API Error", failed.getError().getError());
+        assertFalse(failed.getError().getMessage().contains("upstream secret"));
+        assertTrue(response.getResults().get(1).isSuccess());
+    }
+
+    @Test
+    @DisplayName("Should fail an item that runs past the item timeout and still answer the batch")
+    void generateBatch_ItemHangs_FailsThatItemAfterTimeout() {
+        properties.setItemTimeout(Duration.ofMillis(200));
+
+        BatchGenerateResponse response = service.generateBatch(List.of(
+                request("sleep:60000 hung"), request("valid prompt")));
+
+        BatchItemResult hung = response.getResults().get(0);
+        assertEquals(500, hung.getStatus());
+        assertEquals("API Error", hung.getError().getError());
+        assertTrue(response.getResults().get(1).isSuccess());
+    }
+
+    @Test
+    @DisplayName("Should stream items in completion order")
+    void streamBatch_ItemsFinishOutOfOrder_EmitsAsCompleted() {
+        List<BatchItemResult> results = service.streamBatch(List.of(
+                request("sleep:200 slow"), request("sleep:0 fast"))).collectList().block();
+
+        assertNotNull(results);
+        assertEquals(List.of(1, 0), results.stream().map(BatchItemResult::getIndex).toList());
+    }
+
+    /**
+     * Fake delegate: "sleep:N ..." waits N ms, "fail:..." throws.
+     */
+    private GenerateResponse fakeGenerate(GenerateRequest request) {
+        calls.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            String prompt = request.getPrompt();
+            if (prompt.startsWith("fail:")) {
+                throw new TextGenerationException("Failed to generate text: " + prompt);
+            }
+            if (prompt.startsWith("sleep:")) {
+                Thread.sleep(Long.parseLong(prompt.substring(6, prompt.indexOf(' '))));
+            }
+            return GenerateResponse.simple("answer to " + prompt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TextGenerationException("interrupted", e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.DiskCacheProperties;
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.service.diskcache.MappedResponseStore;
+import com.coherentsolutions.homework.week1.service.impl.CachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.DiskCachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DiskCachingTextGeneratorService.
+ *
+ * Uses a real MappedResponseStore in a temporary directory and a delegate
+ * that counts model calls, so a "restart" is simply a new service and store
+ * on the same file.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see DiskCachingTextGeneratorService
+ */
+class DiskCachingTextGeneratorServiceTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private static final GenerationProfiles PROFILES = new GenerationProfiles(new GenerationProfileProperties(), OPTIONS);
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger modelCalls = new AtomicInteger();
+
+    private final TextGeneratorService delegate = request -> GenerateResponse.withModel(
+            "answer " + modelCalls.incrementAndGet() + " to " + request.getPrompt(), "gpt-3.5-turbo");
+
+    private DiskCacheProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MappedResponseStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DiskCacheProperties();
+        properties.setPath(directory.resolve("responses.db").toString());
+        meterRegistry = new SimpleMeterRegistry();
+        store = new MappedResponseStore(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated prompt from disk after a restart")
+    void generateText_AfterRestart_ServedFromDisk() throws IOException {
+        GenerateResponse first = createService().generateText(request("Tell me a fun fact"));
+        store.close();
+        store = new MappedResponseStore(properties);
+
+        GenerateResponse second = createService().generateText(request("  Tell me a   fun fact"));
+
+        assertThat(first.isCached()).isFalse();
+        assertThat(second.isCached()).isTrue();
+        assertThat(second.getResponse()).isEqualTo(first.getResponse());
+        assertThat(modelCalls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should warm the in-memory cache with the most-hit disk entries")
+    void preload_HottestEntries_ServedFromMemory() {
+        DiskCachingTextGeneratorService service = createService();
+        service.generateText(request("popular"));
+        service.generateText(request("popular"));
+        service.generateText(request("rare"));
+
+        TextGeneratorService disk = mock(TextGeneratorService.class);
+        when(disk.generateText(any())).thenReturn(GenerateResponse.simple("from the disk tier"));
+        CachingTextGeneratorService memory = new CachingTextGeneratorService(
+                disk, PROFILES, new ResponseCacheProperties(), new SimpleMeterRegistry());
+        memory.preload(store.hottest(1));
+
+        assertThat(memory.generateText(request("popular")).isCached()).isTrue();
+        verify(disk, never()).generateText(any());
+        memory.generateText(request("rare"));
+        verify(disk).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should still answer when the disk cache fails")
+    void generateText_StoreFails_CallsModel() {
+        MappedResponseStore broken = mock(MappedResponseStore.class);
+        when(broken.get(any())).thenThrow(new IllegalStateException("disk gone"));
+        doThrow(new IllegalStateException("disk gone")).when(broken).put(any(), any());
+        DiskCachingTextGeneratorService service = new DiskCachingTextGeneratorService(
+                delegate, PROFILES, new ResponseCacheProperties(), broken, meterRegistry);
+
+        GenerateResponse response = service.generateText(request("Tell me a fun fact"));
+
+        assertThat(response.getResponse()).isEqualTo("answer 1 to Tell me a fun fact");
+    }
+
+    private DiskCachingTextGeneratorService createService() {
+        return new DiskCachingTextGeneratorService(delegate, PROFILES, new ResponseCacheProperties(), store,
+                meterRegistry);
+    }
+
+    private static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
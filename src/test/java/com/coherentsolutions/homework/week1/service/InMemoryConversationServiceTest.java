@@ -0,0 +1,172 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.SessionProperties;
+import com.coherentsolutions.homework.week1.dto.ConversationSessionResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.SessionNotFoundException;
+import com.coherentsolutions.homework.week1.service.impl.InMemoryConversationService;
+import com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for InMemoryConversationService.
+ *
+ * The model is a mock that answers "answer to <prompt>" and records the
+ * history it was sent; time is a fake ticker, so idle expiry is checked
+ * without sleeping.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see InMemoryConversationService
+ */
+class InMemoryConversationServiceTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private final PromptTokenizer tokenizer = new PromptTokenizer(OPTIONS);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final List<List<Message>> sentHistories = new ArrayList<>();
+
+    private OpenAITextGeneratorService generatorService;
+
+    private SessionProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        generatorService = mock(OpenAITextGeneratorService.class);
+        when(generatorService.generateText(any(GenerateRequest.class), anyList())).thenAnswer(invocation -> {
+            sentHistories.add(invocation.getArgument(1));
+            GenerateRequest request = invocation.getArgument(0);
+            return GenerateResponse.withModel("answer to " + request.getPrompt(), "gpt-3.5-turbo");
+        });
+        properties = new SessionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should send earlier turns as user and assistant messages, oldest first")
+    void send_SecondTurn_SendsHistoryAsMessages() {
+        InMemoryConversationService service = createService();
+        String id = service.create().getId();
+
+        service.send(id, request("Name a Java web framework"));
+        GenerateResponse second = service.send(id, request("Who maintains it?"));
+
+        assertThat(second.getResponse()).isEqualTo("answer to Who maintains it?");
+        assertThat(sentHistories.get(0)).isEmpty();
+        assertThat(sentHistories.get(1)).hasSize(2);
+        assertThat(sentHistories.get(1).get(0)).isInstanceOf(UserMessage.class);
+        assertThat(sentHistories.get(1).get(0).getText()).isEqualTo("Name a Java web framework");
+        assertThat(sentHistories.get(1).get(1)).isInstanceOf(AssistantMessage.class);
+        assertThat(sentHistories.get(1).get(1).getText()).isEqualTo("answer to Name a Java web framework");
+
+        ConversationSessionResponse session = service.find(id).orElseThrow();
+        assertThat(session.getTurns()).extracting(ConversationSessionResponse.Turn::getPrompt)
+                .containsExactly("Name a Java web framework", "Who maintains it?");
+        assertThat(session.getHistoryTokens()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should drop the oldest turns once the history exceeds its token budget")
+    void send_OverBudget_DropsOldestTurns() {
+        int turnTokens = tokenizer.countMessageTokens("first") + tokenizer.countMessageTokens("answer to first");
+        properties.setHistoryTokens(turnTokens * 2);
+        InMemoryConversationService service = createService();
+        String id = service.create().getId();
+
+        service.send(id, request("first"));
+        service.send(id, request("second"));
+        service.send(id, request("third"));
+
+        ConversationSessionResponse session = service.find(id).orElseThrow();
+        assertThat(session.getTurns()).extracting(ConversationSessionResponse.Turn::getPrompt)
+                .containsExactly("second", "third");
+        assertThat(session.getHistoryTokens()).isLessThanOrEqualTo(turnTokens * 2);
+        assertThat(meterRegistry.get("sessions.trimmed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep at most max-turns turns, however short")
+    void send_OverMaxTurns_DropsOldestTurns() {
+        properties.setMaxTurns(1);
+        InMemoryConversationService service = createService();
+        String id = service.create().getId();
+
+        service.send(id, request("first"));
+        service.send(id, request("second"));
+
+        verify(generatorService).generateText(any(GenerateRequest.class), eq(List.of(
+                new UserMessage("first"), new AssistantMessage("answer to first"))));
+        assertThat(service.find(id).orElseThrow().getTurns()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should expire idle sessions and forget deleted ones")
+    void sessions_IdleOrDeleted_NotFound() {
+        properties.setIdleTimeout(Duration.ofMinutes(30));
+        InMemoryConversationService service = createService();
+        String idle = service.create().getId();
+        String deleted = service.create().getId();
+
+        assertThat(service.delete(deleted)).isTrue();
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertThat(service.find(idle)).isEmpty();
+        assertThat(service.delete(deleted)).isFalse();
+        assertThatThrownBy(() -> service.send(idle, request("hello")))
+                .isInstanceOf(SessionNotFoundException.class);
+        verify(generatorService, never()).generateText(any(GenerateRequest.class), anyList());
+    }
+
+    @Test
+    @DisplayName("Should not record a turn whose generation failed")
+    void send_GenerationFails_HistoryUnchanged() {
+        InMemoryConversationService service = createService();
+        String id = service.create().getId();
+        doThrow(new IllegalStateException("upstream down"))
+                .when(generatorService).generateText(any(GenerateRequest.class), anyList());
+
+        assertThatThrownBy(() -> service.send(id, request("hello"))).isInstanceOf(IllegalStateException.class);
+
+        assertThat(service.find(id).orElseThrow().getTurns()).isEmpty();
+        assertThat(service.find(id).orElseThrow().getId()).isEqualTo(id);
+        ArgumentCaptor<GenerateRequest> sent = ArgumentCaptor.forClass(GenerateRequest.class);
+        verify(generatorService).generateText(sent.capture(), anyList());
+        assertThat(sent.getValue().getPrompt()).isEqualTo("hello");
+    }
+
+    private InMemoryConversationService createService() {
+        return new InMemoryConversationService(generatorService, tokenizer, properties, meterRegistry, nanos::get);
+    }
+
+    private static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
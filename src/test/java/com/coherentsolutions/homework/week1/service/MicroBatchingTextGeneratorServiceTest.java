@@ -0,0 +1,195 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.MicroBatchProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.service.impl.MicroBatchingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MicroBatchingTextGeneratorService.
+ *
+ * The OpenAI service is a Mockito mock. Its packed-call stub reads the
+ * question list out of the packed prompt and answers every question with
+ * "answer to <question>", so the tests can check that each caller gets
+ * the answer to its own prompt.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see MicroBatchingTextGeneratorService
+ */
+class MicroBatchingTextGeneratorServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OpenAITextGeneratorService upstream;
+
+    private MicroBatchProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MicroBatchingTextGeneratorService service;
+
+    @BeforeEach
+    void setUp() {
+        upstream = mock(OpenAITextGeneratorService.class);
+        properties = new MicroBatchProperties();
+        properties.setWindow(Duration.ofSeconds(2));
+        properties.setMaxBatchSize(4);
+        properties.setMaxPromptLength(50);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new MicroBatchingTextGeneratorService(upstream, new GenerationProfiles(
+                new GenerationProfileProperties(), new GenerationOptions("gpt-3.5-turbo", 0.7, 150)),
+                properties, meterRegistry);
+        when(upstream.generateText(any(GenerateRequest.class)))
+                .thenAnswer(invocation -> response("single " + invocation.<GenerateRequest>getArgument(0).getPrompt()));
+    }
+
+    @Test
+    @DisplayName("Should answer concurrent short prompts with one packed call and hand out each answer")
+    void generateText_FullBatch_OnePackedCall() throws Exception {
+        when(upstream.generateText(any(GenerateRequest.class), any(OpenAiChatOptions.class)))
+                .thenAnswer(invocation -> packedResponse(invocation.getArgument(0), 0));
+
+        Map<String, GenerateResponse> responses = generateConcurrently("Is 7 prime?", "Is 8 prime?",
+                "Positive or negative: \"great\"", "Capital of France?");
+
+        responses.forEach((prompt, response) -> assertThat(response.getResponse()).isEqualTo("answer to " + prompt));
+        assertThat(responses.get("Is 7 prime?").getTokensUsed()).isEqualTo(25);
+        ArgumentCaptor<OpenAiChatOptions> options = ArgumentCaptor.forClass(OpenAiChatOptions.class);
+        verify(upstream).generateText(any(GenerateRequest.class), options.capture());
+        verify(upstream, never()).generateText(any(GenerateRequest.class));
+        assertThat(options.getValue().getMaxTokens()).isEqualTo(600);
+        assertThat(options.getValue().getResponseFormat().getType()).isEqualTo(ResponseFormat.Type.JSON_OBJECT);
+        assertThat(meterRegistry.get("generate.microbatch.size").summary().max()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should send a lone prompt as a normal call once the window has passed")
+    void generateText_SinglePromptInWindow_SentUnpacked() {
+        properties.setWindow(Duration.ofMillis(20));
+
+        GenerateResponse response = service.generateText(request("Is 7 prime?"));
+
+        assertThat(response.getResponse()).isEqualTo("single Is 7 prime?");
+        verify(upstream, never()).generateText(any(GenerateRequest.class), any(OpenAiChatOptions.class));
+    }
+
+    @Test
+    @DisplayName("Should not batch or delay prompts longer than the limit")
+    void generateText_LongPrompt_BypassesBatching() {
+        properties.setWindow(Duration.ofMinutes(1));
+        String prompt = "x".repeat(51);
+
+        GenerateResponse response = service.generateText(request(prompt));
+
+        assertThat(response.getResponse()).isEqualTo("single " + prompt);
+        assertThat(meterRegistry.get("generate.microbatch.size").summary().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry every prompt on its own when the packed answer cannot be split")
+    void generateText_WrongAnswerCount_FallsBackToSingleCalls() throws Exception {
+        when(upstream.generateText(any(GenerateRequest.class), any(OpenAiChatOptions.class)))
+                .thenAnswer(invocation -> packedResponse(invocation.getArgument(0), 1));
+
+        Map<String, GenerateResponse> responses = generateConcurrently("a?", "b?", "c?", "d?");
+
+        responses.forEach((prompt, response) -> assertThat(response.getResponse()).isEqualTo("single " + prompt));
+        verify(upstream, times(4)).generateText(any(GenerateRequest.class));
+        assertThat(meterRegistry.get("generate.microbatch.fallbacks").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of the batch when the packed call fails")
+    void generateText_PackedCallFails_AllCallersFail() throws Exception {
+        CircuitOpenException failure = new CircuitOpenException("circuit open", Duration.ofSeconds(5));
+        when(upstream.generateText(any(GenerateRequest.class), any(OpenAiChatOptions.class))).thenThrow(failure);
+
+        List<Future<GenerateResponse>> calls = submitConcurrently("a?", "b?", "c?", "d?");
+
+        for (Future<GenerateResponse> call : calls) {
+            assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+    }
+
+    private Map<String, GenerateResponse> generateConcurrently(String... prompts) throws Exception {
+        List<Future<GenerateResponse>> calls = submitConcurrently(prompts);
+        Map<String, GenerateResponse> responses = new ConcurrentHashMap<>();
+        for (int i = 0; i < prompts.length; i++) {
+            responses.put(prompts[i], calls.get(i).get(5, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private List<Future<GenerateResponse>> submitConcurrently(String... prompts) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<GenerateResponse>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String prompt : prompts) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return service.generateText(request(prompt));
+                }));
+            }
+            start.countDown();
+        }
+        return calls;
+    }
+
+    /**
+     * Answers every question of a packed prompt, dropping the last
+     * {@code missing} answers.
+     */
+    private GenerateResponse packedResponse(GenerateRequest packed, int missing) throws Exception {
+        String prompt = packed.getPrompt();
+        List<String> questions = List.of(objectMapper.readValue(
+                prompt.substring(prompt.indexOf("Questions:") + "Questions:".length()).trim(), String[].class));
+        List<String> answers = questions.stream().map(question -> "answer to " + question)
+                .limit(questions.size() - missing).toList();
+        GenerateResponse response = response(objectMapper.writeValueAsString(Map.of("answers", answers)));
+        response.setTokensUsed(100);
+        return response;
+    }
+
+    private static GenerateResponse response(String text) {
+        return GenerateResponse.builder().response(text).model("gpt-3.5-turbo").build();
+    }
+
+    private static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,118 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.impl.OpenAIReactiveTextGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OpenAIReactiveTextGeneratorService.
+ *
+ * The streaming service is mocked with fixed frame sequences; the
+ * ChatClient side of the stream is covered by OpenAITextGeneratorServiceTest.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAIReactiveTextGeneratorService
+ */
+class OpenAIReactiveTextGeneratorServiceTest {
+
+    private StreamingTextGeneratorService streamingService;
+
+    private OpenAIReactiveTextGeneratorService service;
+
+    @BeforeEach
+    void setUp() {
+        streamingService = mock(StreamingTextGeneratorService.class);
+        service = new OpenAIReactiveTextGeneratorService(streamingService);
+    }
+
+    @Test
+    @DisplayName("Should collect token frames into one response with the done frame's metadata")
+    void generateText_CollectsTokensAndUsage() {
+        when(streamingService.streamText(any())).thenReturn(Flux.just(
+                GenerateStreamEvent.token("Spring Boot"),
+                GenerateStreamEvent.token(" was released in 2014"),
+                GenerateStreamEvent.done("gpt-3.5-turbo-0125", 12, 8, 20, "STOP")));
+
+        GenerateResponse response = service.generateText(request("fact")).block();
+
+        assertNotNull(response);
+        assertEquals("Spring Boot was released in 2014", response.getResponse());
+        assertEquals("gpt-3.5-turbo-0125", response.getModel());
+        assertEquals(20, response.getTokensUsed());
+        assertEquals(12, response.getPromptTokens());
+        assertEquals(8, response.getCompletionTokens());
+        assertEquals("STOP", response.getFinishReason());
+    }
+
+    @Test
+    @DisplayName("Should stream the token text only")
+    void streamText_EmitsTokenTextOnly() {
+        when(streamingService.streamText(any())).thenReturn(Flux.just(
+                GenerateStreamEvent.token("a"),
+                GenerateStreamEvent.token("b"),
+                GenerateStreamEvent.done("gpt-3.5-turbo", 10)));
+
+        List<String> tokens = service.streamText(request("fact")).collectList().block();
+
+        assertEquals(List.of("a", "b"), tokens);
+    }
+
+    @Test
+    @DisplayName("Should not call the model before subscription, and call it again per subscription")
+    void generateText_IsColdAndRepeatable() {
+        AtomicInteger calls = new AtomicInteger();
+        when(streamingService.streamText(any())).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            return Flux.just(GenerateStreamEvent.token("text"), GenerateStreamEvent.done("gpt-3.5-turbo", 3));
+        });
+
+        Mono<GenerateResponse> response = service.generateText(request("fact"));
+        assertEquals(0, calls.get());
+
+        assertEquals("text", response.block().getResponse());
+        assertEquals("text", response.block().getResponse());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should signal validation errors on the Mono instead of throwing")
+    void generateText_InvalidRequest_SignalsError() {
+        when(streamingService.streamText(any())).thenThrow(new TextGenerationException("Invalid request"));
+
+        Mono<GenerateResponse> response = assertDoesNotThrow(() -> service.generateText(request("")));
+
+        assertThrows(TextGenerationException.class, response::block);
+    }
+
+    @Test
+    @DisplayName("Should fail when the model returns no text")
+    void generateText_EmptyResponse_SignalsError() {
+        when(streamingService.streamText(any())).thenReturn(Flux.just(GenerateStreamEvent.done("gpt-3.5-turbo", 3)));
+
+        TextGenerationException exception = assertThrows(TextGenerationException.class,
+                () -> service.generateText(request("fact")).block());
+
+        assertTrue(exception.getMessage().contains("empty response"));
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -1,19 +1,73 @@
 package com.coherentsolutions.homework.week1.service;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.OpenAIConfig;
+import com.coherentsolutions.homework.week1.config.PromptTokenProperties;
+import com.coherentsolutions.homework.week1.config.ResilienceProperties;
+import com.coherentsolutions.homework.week1.config.RoutingProperties;
+import com.coherentsolutions.homework.week1.config.SchedulerProperties;
+import com.coherentsolutions.homework.week1.config.TokenBudgetProperties;
 import com.coherentsolutions.homework.week1.dto.GenerateRequest;
 import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateStreamEvent;
+import com.coherentsolutions.homework.week1.exception.BudgetExceededException;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.PromptTooLongException;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
 import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.exception.UnknownProfileException;
+import com.coherentsolutions.homework.week1.service.budget.BudgetWindow;
+import com.coherentsolutions.homework.week1.service.budget.TokenBudgets;
 import com.coherentsolutions.homework.week1.service.impl.OpenAITextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.resilience.UpstreamCallGuard;
+import com.coherentsolutions.homework.week1.service.routing.ChatClientRouter;
+import com.coherentsolutions.homework.week1.service.scheduling.UpstreamScheduler;
+import com.coherentsolutions.homework.week1.service.tokens.PromptAdmission;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,8 +90,6 @@ import static org.mockito.Mockito.*;
  * - Teaches validation testing at service level
  * - Shows how to verify method calls and arguments
  * 
- * TODO for students: Complete the test implementations
- * 
  * @author Student Name
  * @version 1.0
  * @see OpenAITextGeneratorService
@@ -49,215 +101,615 @@ class OpenAITextGeneratorServiceTest {
     private ChatClient chatClient;
     
     @Mock
-    private ChatClient.PromptSpec promptSpec;
+    private ChatClient.ChatClientRequestSpec requestSpec;
+    
+    @Mock
+    private ChatClient.CallResponseSpec callSpec;
     
     @Mock
-    private ChatClient.CallSpec callSpec;
+    private ChatClient.StreamResponseSpec streamSpec;
     
     private OpenAITextGeneratorService service;
     
+    private SimpleMeterRegistry meterRegistry;
+    
+    private GenerationProfiles profiles;
+    
+    private TokenBudgets tokenBudgets;
+    
     @BeforeEach
     void setUp() {
-        // TODO: Initialize the service with mocked ChatClient
-        // This will require modifying the service to accept ChatClient injection
-        // service = new OpenAITextGeneratorService(chatClient);
-        
-        // For now, we'll throw an exception to remind students to implement
-        throw new UnsupportedOperationException("Service setup not implemented yet - need to inject ChatClient");
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+        GenerationProfileProperties profileProperties = new GenerationProfileProperties();
+        GenerationProfileProperties.Definition precise = new GenerationProfileProperties.Definition();
+        precise.setSystemPrompt("Answer in one short sentence.");
+        precise.setTemperature(0.0);
+        precise.setMaxTokens(40);
+        profileProperties.getDefinitions().put("precise", precise);
+        profiles = new GenerationProfiles(profileProperties, options);
+        meterRegistry = new SimpleMeterRegistry();
+        GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry, profiles);
+        TokenBudgetProperties budgetProperties = new TokenBudgetProperties();
+        budgetProperties.setEnabled(true);
+        budgetProperties.setSnapshotPath("");
+        budgetProperties.getDefaultLimits().setTokensPerDay(100L);
+        tokenBudgets = new TokenBudgets(budgetProperties, meterRegistry);
+        service = new OpenAITextGeneratorService(
+                ChatClientRouter.single("openai", chatClient, new RoutingProperties(), meterRegistry),
+                profiles, generationMetrics,
+                new UpstreamCallGuard(fastResilience(), meterRegistry),
+                new PromptAdmission(new PromptTokenizer(options), new PromptTokenProperties(), profiles,
+                        generationMetrics, meterRegistry),
+                new UpstreamScheduler(new SchedulerProperties(), meterRegistry), tokenBudgets);
     }
     
-    // TODO for students: Implement these test methods
-    
     @Test
     @DisplayName("Should generate text for valid request")
     void generateText_ValidRequest_ReturnsResponse() {
-        // TODO: Implement this test following these steps:
-        //
-        // 1. ARRANGE: Set up test data and mock behavior
-        //    - Create a valid GenerateRequest
-        //    - Mock the ChatClient chain: chatClient.prompt().user().call().content()
-        //    - Define what the mock should return
-        //
-        // 2. ACT: Call the service method
-        //    - Call service.generateText(request)
-        //    - Capture the response
-        //
-        // 3. ASSERT: Verify the results
-        //    - Assert the response is not null
-        //    - Verify the response content matches expectations
-        //    - Check that metadata is properly set (timestamp, model, etc.)
-        //    - Verify the ChatClient was called with correct parameters
-        //
-        // Example structure:
-        // GenerateRequest request = new GenerateRequest();
-        // request.setPrompt("Test prompt");
-        // 
-        // when(chatClient.prompt()).thenReturn(promptSpec);
-        // when(promptSpec.user(anyString())).thenReturn(callSpec);
-        // when(callSpec.call()).thenReturn(chatResponse);
-        // when(chatResponse.content()).thenReturn("Generated response");
-        //
-        // GenerateResponse response = service.generateText(request);
-        //
-        // assertNotNull(response);
-        // assertEquals("Generated response", response.getResponse());
-        // verify(chatClient).prompt();
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        GenerateRequest request = createValidRequest();
+        mockChatClientResponse("Generated response");
+        
+        GenerateResponse response = service.generateText(request);
+        
+        assertNotNull(response);
+        assertEquals("Generated response", response.getResponse());
+        verify(chatClient).prompt();
+        verify(requestSpec).messages(new SystemMessage(OpenAIConfig.DEFAULT_SYSTEM_PROMPT));
+        verify(requestSpec).user(request.getPrompt());
+    }
+    
+    @Test
+    @DisplayName("Should send the selected profile's prebuilt system message and options")
+    void generateText_Profile_UsesProfileMessageAndOptions() {
+        GenerateRequest request = createValidRequest();
+        request.setProfile("precise");
+        mockChatClientResponse("Generated response");
+        
+        service.generateText(request);
+        service.generateText(request);
+        
+        verify(requestSpec, times(2)).messages(profiles.resolve("precise").systemMessage());
+        verify(requestSpec, times(2)).options(same(profiles.resolve("precise").callOptions()));
+        assertEquals(2, meterRegistry.get(GenerationMetrics.UPSTREAM)
+                .tags("profile", "precise", "outcome", "success").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Should reject an unknown profile before calling ChatClient")
+    void generateText_UnknownProfile_ThrowsUnknownProfile() {
+        GenerateRequest request = createValidRequest();
+        request.setProfile("poetic");
+        
+        UnknownProfileException exception = assertThrows(UnknownProfileException.class,
+                () -> service.generateText(request));
+        
+        assertTrue(exception.getClientMessage().contains("default, precise"));
+        verify(chatClient, never()).prompt();
     }
     
     @Test
     @DisplayName("Should throw exception for null request")
     void generateText_NullRequest_ThrowsException() {
-        // TODO: Test null request handling
-        //
-        // This test should verify that:
-        // 1. Null requests are rejected
-        // 2. Appropriate exception is thrown
-        // 3. ChatClient is never called
-        //
-        // Example:
-        // assertThrows(TextGenerationException.class, () -> {
-        //     service.generateText(null);
-        // });
-        // verify(chatClient, never()).prompt();
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        assertThrows(TextGenerationException.class, () -> service.generateText(null));
+        verify(chatClient, never()).prompt();
     }
     
     @Test
     @DisplayName("Should throw exception for empty prompt")
     void generateText_EmptyPrompt_ThrowsException() {
-        // TODO: Test empty prompt handling
-        //
-        // Create a request with empty/null prompt and verify
-        // that appropriate validation exception is thrown.
+        assertThrows(TextGenerationException.class, () -> service.generateText(createInvalidRequest()));
+        
+        GenerateRequest whitespaceOnly = new GenerateRequest();
+        whitespaceOnly.setPrompt("   ");
+        assertThrows(TextGenerationException.class, () -> service.generateText(whitespaceOnly));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        verify(chatClient, never()).prompt();
     }
     
     @Test
     @DisplayName("Should handle ChatClient exceptions gracefully")
     void generateText_ChatClientThrowsException_ThrowsTextGenerationException() {
-        // TODO: Test exception handling from ChatClient
-        //
-        // This test should verify that:
-        // 1. Exceptions from ChatClient are caught
-        // 2. They are translated to TextGenerationException
-        // 3. Original exception is preserved as cause
-        // 4. User-friendly error message is provided
-        //
-        // Example:
-        // GenerateRequest request = createValidRequest();
-        // when(chatClient.prompt()).thenThrow(new RuntimeException("API Error"));
-        //
-        // TextGenerationException exception = assertThrows(
-        //     TextGenerationException.class, 
-        //     () -> service.generateText(request)
-        // );
-        // 
-        // assertNotNull(exception.getCause());
-        // assertTrue(exception.getMessage().contains("user-friendly message"));
-        
-        throw new UnsupportedOperationException("Test not implemented yet");
+        GenerateRequest request = createValidRequest();
+        RuntimeException apiError = new RuntimeException("API Error");
+        when(chatClient.prompt()).thenThrow(apiError);
+        
+        TextGenerationException exception = assertThrows(
+                TextGenerationException.class,
+                () -> service.generateText(request)
+        );
+        
+        assertSame(apiError, exception.getCause());
+        assertTrue(exception.getMessage().startsWith("Failed to generate text"));
+        assertEquals(1.0, meterRegistry.get(GenerationMetrics.ERRORS)
+                .tag("exception", "RuntimeException").counter().count());
+        assertEquals(1, meterRegistry.get(GenerationMetrics.UPSTREAM).tag("outcome", "error").timer().count());
     }
     
     @Test
     @DisplayName("Should handle authentication errors appropriately")
     void generateText_AuthenticationError_ThrowsAppropriateException() {
-        // TODO: Test authentication error handling
-        //
-        // Simulate an authentication error (invalid API key) and verify
-        // that it's handled with an appropriate user-friendly message.
+        mockChatClientFailure(new NonTransientAiException("HTTP 401 - Incorrect API key provided"));
+        
+        TextGenerationException exception = assertThrows(
+                TextGenerationException.class,
+                () -> service.generateText(createValidRequest())
+        );
+        
+        assertInstanceOf(NonTransientAiException.class, exception.getCause());
+        verify(requestSpec, times(1)).call();
+    }
+    
+    @Test
+    @DisplayName("Should retry transient failures and return the successful attempt")
+    void generateText_TransientFailure_RetriesAndSucceeds() {
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.messages(any(Message.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.options(any())).thenReturn(requestSpec);
+        when(requestSpec.call()).thenThrow(new TransientAiException("HTTP 503 - Service Unavailable"))
+                .thenReturn(callSpec);
+        when(callSpec.chatResponse()).thenReturn(
+                new ChatResponse(List.of(new Generation(new AssistantMessage("Recovered")))));
+        
+        GenerateResponse response = service.generateText(createValidRequest());
+        
+        assertEquals("Recovered", response.getResponse());
+        verify(requestSpec, times(2)).call();
+        assertEquals(1.0, meterRegistry.get("resilience.retries").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should take an upstream slot per attempt and give it back between retries")
+    void generateText_TransientFailure_SlotPerAttempt() {
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+        GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry, profiles);
+        SchedulerProperties schedulerProperties = new SchedulerProperties();
+        schedulerProperties.setEnabled(true);
+        schedulerProperties.setSlots(1);
+        UpstreamScheduler scheduler = spy(new UpstreamScheduler(schedulerProperties, meterRegistry));
+        OpenAITextGeneratorService scheduled = new OpenAITextGeneratorService(
+                ChatClientRouter.single("openai", chatClient, new RoutingProperties(), meterRegistry),
+                profiles, generationMetrics, new UpstreamCallGuard(fastResilience(), meterRegistry),
+                new PromptAdmission(new PromptTokenizer(options), new PromptTokenProperties(), profiles,
+                        generationMetrics, meterRegistry),
+                scheduler, tokenBudgets);
+        List<Integer> slotsInUse = new ArrayList<>();
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.messages(any(Message.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.options(any())).thenReturn(requestSpec);
+        when(requestSpec.call()).thenAnswer(invocation -> {
+            slotsInUse.add(scheduler.slotsInUse());
+            if (slotsInUse.size() == 1) {
+                throw new TransientAiException("HTTP 503 - Service Unavailable");
+            }
+            return callSpec;
+        });
+        when(callSpec.chatResponse()).thenReturn(
+                new ChatResponse(List.of(new Generation(new AssistantMessage("Recovered")))));
+        
+        assertEquals("Recovered", scheduled.generateText(createValidRequest()).getResponse());
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        verify(scheduler, times(2)).call(any());
+        assertEquals(List.of(1, 1), slotsInUse);
+        assertEquals(0, scheduler.slotsInUse());
     }
     
     @Test
-    @DisplayName("Should handle rate limiting errors")
+    @DisplayName("Should fail fast with CircuitOpenException once OpenAI keeps failing")
+    void generateText_RepeatedFailures_OpenCircuit() {
+        mockChatClientFailure(new TransientAiException("HTTP 503 - Service Unavailable"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TextGenerationException.class, () -> service.generateText(createValidRequest()));
+        }
+        clearInvocations(requestSpec);
+        
+        CircuitOpenException exception = assertThrows(
+                CircuitOpenException.class,
+                () -> service.generateText(createValidRequest())
+        );
+        
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        verify(requestSpec, never()).call();
+    }
+    
+    @Test
+    @DisplayName("Should pass a scheduler queue timeout through unchanged, without calling OpenAI")
+    void generateText_NoUpstreamSlot_ThrowsServiceOverloaded() {
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+        GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry, profiles);
+        UpstreamScheduler scheduler = mock(UpstreamScheduler.class);
+        when(scheduler.call(any())).thenThrow(new ServiceOverloadedException("No upstream slot free within 10s",
+                Duration.ofSeconds(10)));
+        OpenAITextGeneratorService scheduled = new OpenAITextGeneratorService(
+                ChatClientRouter.single("openai", chatClient, new RoutingProperties(), meterRegistry),
+                profiles, generationMetrics, new UpstreamCallGuard(fastResilience(), meterRegistry),
+                new PromptAdmission(new PromptTokenizer(options), new PromptTokenProperties(), profiles,
+                        generationMetrics, meterRegistry),
+                scheduler, tokenBudgets);
+        
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> scheduled.generateText(createValidRequest()));
+        
+        assertEquals(10, exception.getRetryAfterSeconds());
+        verify(chatClient, never()).prompt();
+    }
+    
+    @Test
+    @DisplayName("Should translate upstream rate limiting into RateLimitExceededException")
     void generateText_RateLimitError_ThrowsAppropriateException() {
-        // TODO: Test rate limiting error handling
-        //
-        // Simulate a rate limiting error and verify proper handling
-        // with guidance for the user to retry later.
+        mockChatClientFailure(new TransientAiException(
+                "HTTP 429 - Rate limit reached for gpt-3.5-turbo. Please try again in 2.5s."));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        RateLimitExceededException exception = assertThrows(
+                RateLimitExceededException.class,
+                () -> service.generateText(createValidRequest())
+        );
+        
+        assertInstanceOf(TransientAiException.class, exception.getCause());
+        assertTrue(exception.isUpstream());
+        assertEquals(2500, exception.getRetryAfter().toMillis());
+        assertEquals(3, exception.getRetryAfterSeconds());
     }
     
     @Test
     @DisplayName("Should validate prompt length at service level")
     void generateText_PromptTooLong_ThrowsException() {
-        // TODO: Test service-level prompt validation
-        //
-        // Even though DTO validation exists, the service should have
-        // additional business rule validation.
+        assertThrows(TextGenerationException.class, () -> service.generateText(createLongPromptRequest()));
+        verify(chatClient, never()).prompt();
+    }
+    
+    @Test
+    @DisplayName("Should reject a prompt within the character limit but over the token limit")
+    void generateText_TooManyTokens_ThrowsPromptTooLong() {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt("😀".repeat(600)); // 1200 chars, about 1200 tokens
+        
+        PromptTooLongException exception = assertThrows(PromptTooLongException.class,
+                () -> service.generateText(request));
+        
+        assertEquals(1024, exception.getMaxPromptTokens());
+        assertTrue(exception.getPromptTokens() > 1024);
+        verify(chatClient, never()).prompt();
+        assertEquals(1.0, meterRegistry.get("generate.prompt.admission").tag("outcome", "rejected").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should apply per-call options and skip the length limit for internally built prompts")
+    void generateTextWithOptions_AppliesOptions() {
+        mockChatClientResponse("{\"answers\": []}");
+        OpenAiChatOptions options = OpenAiChatOptions.builder().maxTokens(600).build();
+        
+        GenerateResponse response = service.generateText(createLongPromptRequest(), options);
+        
+        assertEquals("{\"answers\": []}", response.getResponse());
+        verify(requestSpec).options(options);
+    }
+    
+    @Test
+    @DisplayName("Should send conversation history as chat messages before the new prompt")
+    void generateTextWithHistory_SendsMessages() {
+        mockChatClientResponse("It is maintained by Broadcom.");
+        when(requestSpec.messages(anyList())).thenReturn(requestSpec);
+        List<Message> history = List.of(new UserMessage("Name a Java web framework"),
+                new AssistantMessage("Spring Boot."));
+        
+        GenerateResponse response = service.generateText(createValidRequest(), history);
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        assertEquals("It is maintained by Broadcom.", response.getResponse());
+        InOrder inOrder = inOrder(requestSpec);
+        inOrder.verify(requestSpec).messages(new SystemMessage(OpenAIConfig.DEFAULT_SYSTEM_PROMPT));
+        inOrder.verify(requestSpec).messages(history);
+        inOrder.verify(requestSpec).user("Tell me a fun fact about Spring Boot");
     }
     
     @Test
     @DisplayName("Should set response metadata correctly")
     void generateText_ValidRequest_SetsMetadataCorrectly() {
-        // TODO: Test that response metadata is properly populated
-        //
-        // Verify that the response includes:
-        // - Timestamp (recent)
-        // - Model name
-        // - Token usage (if available)
-        // - Other relevant metadata
+        mockChatClientResponse("Generated response");
+        long before = System.currentTimeMillis();
+        
+        GenerateResponse response = service.generateText(createValidRequest());
+        
+        assertEquals("gpt-3.5-turbo", response.getModel());
+        assertTrue(response.getTimestamp() >= before);
+        assertFalse(response.isCached());
+    }
+    
+    @Test
+    @DisplayName("Should take model, token usage and finish reason from the ChatResponse")
+    void generateText_ResponseWithMetadata_PopulatesUsageFields() {
+        Generation generation = new Generation(new AssistantMessage("Generated response"),
+                ChatGenerationMetadata.builder().finishReason("LENGTH").build());
+        mockChatClientResponse(new ChatResponse(List.of(generation), ChatResponseMetadata.builder()
+                .model("gpt-3.5-turbo-0125")
+                .usage(new DefaultUsage(18, 27))
+                .build()));
+        
+        GenerateResponse response = service.generateText(createValidRequest());
+        
+        assertEquals("gpt-3.5-turbo-0125", response.getModel());
+        assertEquals(18, response.getPromptTokens());
+        assertEquals(27, response.getCompletionTokens());
+        assertEquals(45, response.getTokensUsed());
+        assertEquals("LENGTH", response.getFinishReason());
+        assertEquals(27, meterRegistry.get(GenerationMetrics.TOKENS)
+                .tags("model", "gpt-3.5-turbo-0125", "type", "completion").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get(GenerationMetrics.FINISH_REASONS).tag("reason", "LENGTH").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should record upstream latency and prompt/response sizes per model")
+    void generateText_ValidRequest_RecordsMetrics() {
+        GenerateRequest request = createValidRequest();
+        mockChatClientResponse("Generated response");
+        
+        service.generateText(request);
+        
+        assertEquals(1, meterRegistry.get(GenerationMetrics.UPSTREAM)
+                .tags("model", "gpt-3.5-turbo", "outcome", "success").timer().count());
+        assertEquals(request.getPrompt().length(),
+                meterRegistry.get(GenerationMetrics.PROMPT_LENGTH).summary().totalAmount());
+        assertEquals("Generated response".length(),
+                meterRegistry.get(GenerationMetrics.RESPONSE_LENGTH).summary().totalAmount());
+        assertTrue(meterRegistry.find(GenerationMetrics.ERRORS).counters().isEmpty());
+        assertTrue(meterRegistry.find(GenerationMetrics.TOKENS).summaries().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should charge the reported usage to the calling tenant")
+    void generateText_Tenant_ChargesReportedUsage() {
+        mockChatClientResponse(new ChatResponse(List.of(new Generation(new AssistantMessage("Generated response"))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(18, 27)).build()));
+        
+        TokenBudgets.runAs("team-a", () -> service.generateText(createValidRequest()));
+        service.generateText(createValidRequest());
+        
+        assertEquals(45, tokenBudgets.usage("team-a").windows().get(BudgetWindow.DAY).used());
+        assertEquals(55, tokenBudgets.usage("team-a").windows().get(BudgetWindow.DAY).remaining());
+        assertNull(tokenBudgets.usage("default"));
+    }
+    
+    @Test
+    @DisplayName("Should reject a tenant with a spent budget before calling ChatClient")
+    void generateText_TenantBudgetSpent_ThrowsBudgetExceeded() {
+        tokenBudgets.record("team-a", 100);
+        
+        BudgetExceededException exception = assertThrows(BudgetExceededException.class,
+                () -> TokenBudgets.runAs("team-a", () -> service.generateText(createValidRequest())));
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        assertEquals(BudgetWindow.DAY, exception.getWindow());
+        assertEquals(429, exception.getStatus());
+        verify(chatClient, never()).prompt();
+    }
+    
+    @Test
+    @DisplayName("Should take the tenant of a stream from the Reactor context and charge its usage")
+    void streamText_TenantInContext_ChargesUsage() {
+        mockChatClientStream(Flux.just(chunk("Spring", null), chunk("", new DefaultUsage(10, 2))));
+        
+        service.streamText(createValidRequest())
+                .contextWrite(TokenBudgets.context("team-b"))
+                .blockLast();
+        tokenBudgets.record("team-b", 88);
+        Flux<GenerateStreamEvent> rejected = service.streamText(createValidRequest())
+                .contextWrite(TokenBudgets.context("team-b"));
+        
+        assertEquals(100, tokenBudgets.usage("team-b").windows().get(BudgetWindow.DAY).used());
+        assertThrows(BudgetExceededException.class, rejected::blockLast);
+        verify(chatClient, times(1)).prompt();
     }
     
     @Test
     @DisplayName("Should handle empty response from ChatClient")
     void generateText_EmptyResponseFromChatClient_HandlesGracefully() {
-        // TODO: Test handling of empty responses
-        //
-        // What should happen if ChatClient returns empty or null content?
-        // Should it throw an exception or return a default message?
+        mockChatClientResponse("");
+        
+        TextGenerationException exception = assertThrows(
+                TextGenerationException.class,
+                () -> service.generateText(createValidRequest())
+        );
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        assertTrue(exception.getMessage().contains("empty response"));
     }
     
     @Test
     @DisplayName("Should log requests and responses appropriately")
     void generateText_ValidRequest_LogsAppropriately() {
-        // TODO: Test logging behavior
-        //
-        // This is more advanced testing, but you can verify that:
-        // 1. Requests are logged (without sensitive data)
-        // 2. Responses are logged (without full content)
-        // 3. Errors are logged with appropriate level
-        //
-        // You might use a custom appender or verify log statements
+        Logger logger = (Logger) LoggerFactory.getLogger(OpenAITextGeneratorService.class);
+        Level originalLevel = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            GenerateRequest request = createValidRequest();
+            mockChatClientResponse("Secret generated answer");
+            
+            service.generateText(request);
+            
+            assertFalse(appender.list.isEmpty());
+            for (ILoggingEvent event : appender.list) {
+                assertFalse(event.getFormattedMessage().contains(request.getPrompt()));
+                assertFalse(event.getFormattedMessage().contains("Secret generated answer"));
+            }
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(originalLevel);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should stream tokens followed by a done frame with usage metadata")
+    void streamText_ValidRequest_EmitsTokensThenDone() {
+        mockChatClientStream(Flux.just(
+                chunk("Spring", null),
+                chunk(" Boot", null),
+                chunk("", new DefaultUsage(10, 2))));
+        
+        List<GenerateStreamEvent> events = service.streamText(createValidRequest()).collectList().block();
+        
+        assertNotNull(events);
+        assertEquals(3, events.size());
+        assertEquals(GenerateStreamEvent.token("Spring"), events.get(0));
+        assertEquals(GenerateStreamEvent.token(" Boot"), events.get(1));
+        assertEquals(GenerateStreamEvent.done("gpt-3.5-turbo-0125", 10, 2, 12, null), events.get(2));
+        assertEquals(1, meterRegistry.get(GenerationMetrics.UPSTREAM)
+                .tags("model", "gpt-3.5-turbo-0125", "outcome", "success").timer().count());
+        assertEquals(10, meterRegistry.get(GenerationMetrics.TOKENS).tag("type", "prompt").summary().totalAmount());
+        assertEquals(2, meterRegistry.get(GenerationMetrics.TOKENS).tag("type", "completion").summary().totalAmount());
+        verify(requestSpec).options(argThat(options ->
+                options instanceof OpenAiChatOptions openAiOptions && Boolean.TRUE.equals(openAiOptions.getStreamUsage())));
+        assertEquals("Spring Boot".length(),
+                meterRegistry.get(GenerationMetrics.RESPONSE_LENGTH).summary().totalAmount());
+    }
+    
+    @Test
+    @DisplayName("Should hold an upstream scheduler slot while a stream is running")
+    void streamText_SchedulerEnabled_HoldsSlotUntilComplete() {
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+        GenerationMetrics generationMetrics = new GenerationMetrics(meterRegistry, profiles);
+        SchedulerProperties schedulerProperties = new SchedulerProperties();
+        schedulerProperties.setEnabled(true);
+        schedulerProperties.setSlots(1);
+        UpstreamScheduler scheduler = new UpstreamScheduler(schedulerProperties, meterRegistry);
+        OpenAITextGeneratorService scheduled = new OpenAITextGeneratorService(
+                ChatClientRouter.single("openai", chatClient, new RoutingProperties(), meterRegistry),
+                profiles, generationMetrics, new UpstreamCallGuard(fastResilience(), meterRegistry),
+                new PromptAdmission(new PromptTokenizer(options), new PromptTokenProperties(), profiles,
+                        generationMetrics, meterRegistry),
+                scheduler, tokenBudgets);
+        Sinks.Many<ChatResponse> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        mockChatClientStream(upstream.asFlux());
+        List<GenerateStreamEvent> events = new ArrayList<>();
+        
+        scheduled.streamText(createValidRequest()).subscribe(events::add);
+        upstream.tryEmitNext(chunk("Spring", null));
+        
+        assertEquals(1, scheduler.slotsInUse());
         
-        throw new UnsupportedOperationException("Test not implemented yet");
+        upstream.tryEmitComplete();
+        assertEquals(0, scheduler.slotsInUse());
+        assertEquals(2, events.size());
     }
     
-    // TODO for students: Add integration tests
+    @Test
+    @DisplayName("Should translate streaming failures to TextGenerationException")
+    void streamText_UpstreamFails_SignalsTextGenerationException() {
+        mockChatClientStream(Flux.error(new TransientAiException("HTTP 503")));
+        
+        Flux<GenerateStreamEvent> stream = service.streamText(createValidRequest());
+        
+        TextGenerationException exception = assertThrows(TextGenerationException.class, stream::blockLast);
+        assertInstanceOf(TransientAiException.class, exception.getCause());
+        assertEquals(2.0, meterRegistry.get("resilience.retries").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should reject invalid streaming requests before calling ChatClient")
+    void streamText_EmptyPrompt_ThrowsException() {
+        assertThrows(TextGenerationException.class, () -> service.streamText(createInvalidRequest()));
+        verify(chatClient, never()).prompt();
+    }
     
     /**
-     * Example: Integration test with real ChatClient (optional)
+     * Integration test with a real ChatClient.
      * 
-     * This would be a separate test class or marked with @IntegrationTest
-     * to distinguish from unit tests.
+     * Only runs when OPENAI_API_KEY is set, and uses a tiny token limit
+     * to keep the cost negligible.
      */
     @Test
     @DisplayName("Integration: Should work with real ChatClient")
+    @EnabledIfEnvironmentVariable(named = "OPENAI_API_KEY", matches = ".+")
     void generateText_RealChatClient_ReturnsActualResponse() {
-        // TODO: Create an integration test that uses a real ChatClient
-        // 
-        // Note: This test should:
-        // 1. Be marked as integration test (separate profile)
-        // 2. Use real API key (from test environment)
-        // 3. Be skipped in CI/CD if no API key available
-        // 4. Use minimal token limits to control costs
-        //
-        // @Profile("integration")
-        // @Disabled("Requires real API key and incurs costs")
-        
-        throw new UnsupportedOperationException("Integration test not implemented yet");
+        OpenAiApi openAiApi = OpenAiApi.builder()
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .build();
+        OpenAiChatModel chatModel = OpenAiChatModel.builder()
+                .openAiApi(openAiApi)
+                .defaultOptions(OpenAiChatOptions.builder().model("gpt-3.5-turbo").maxTokens(20).build())
+                .build();
+        GenerationOptions options = new GenerationOptions("gpt-3.5-turbo", 0.7, 20);
+        GenerationProfiles realProfiles = new GenerationProfiles(new GenerationProfileProperties(), options);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GenerationMetrics generationMetrics = new GenerationMetrics(registry, realProfiles);
+        OpenAITextGeneratorService realService = new OpenAITextGeneratorService(
+                ChatClientRouter.single("openai", ChatClient.create(chatModel), new RoutingProperties(), registry),
+                realProfiles, generationMetrics, new UpstreamCallGuard(new ResilienceProperties(), registry),
+                new PromptAdmission(new PromptTokenizer(options), new PromptTokenProperties(), realProfiles,
+                        generationMetrics, registry),
+                new UpstreamScheduler(new SchedulerProperties(), registry),
+                new TokenBudgets(new TokenBudgetProperties(), registry));
+        
+        GenerateResponse response = realService.generateText(createValidRequest());
+        
+        assertNotNull(response.getResponse());
+        assertFalse(response.getResponse().isBlank());
+    }
+    
+    /**
+     * Stubs the fluent ChatClient chain to return the given content.
+     */
+    private void mockChatClientResponse(String content) {
+        mockChatClientResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(content)))));
+    }
+    
+    /**
+     * Stubs the fluent ChatClient chain to return the given ChatResponse.
+     */
+    private void mockChatClientResponse(ChatResponse chatResponse) {
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.messages(any(Message.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.options(any())).thenReturn(requestSpec);
+        when(requestSpec.call()).thenReturn(callSpec);
+        when(callSpec.chatResponse()).thenReturn(chatResponse);
+    }
+    
+    /**
+     * Stubs the fluent ChatClient chain to stream the given chunks.
+     */
+    private void mockChatClientStream(Flux<ChatResponse> chunks) {
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.messages(any(Message.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.options(any())).thenReturn(requestSpec);
+        when(requestSpec.stream()).thenReturn(streamSpec);
+        when(streamSpec.chatResponse()).thenReturn(chunks);
+    }
+    
+    /**
+     * Stubs the fluent ChatClient chain to fail at call time.
+     */
+    private void mockChatClientFailure(RuntimeException failure) {
+        when(chatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.messages(any(Message.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.options(any())).thenReturn(requestSpec);
+        when(requestSpec.call()).thenThrow(failure);
+    }
+    
+    /**
+     * Builds one streamed ChatResponse chunk.
+     */
+    private ChatResponse chunk(String text, DefaultUsage usage) {
+        ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder().model("gpt-3.5-turbo-0125");
+        if (usage != null) {
+            metadata.usage(usage);
+        }
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata.build());
+    }
+    
+    /**
+     * Resilience settings with millisecond backoffs, so retries do not slow
+     * the tests down, and a circuit that opens after 5 failed attempts.
+     */
+    private ResilienceProperties fastResilience() {
+        ResilienceProperties resilience = new ResilienceProperties();
+        resilience.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        resilience.getRetry().setMaxBackoff(Duration.ofMillis(1));
+        resilience.getCircuitBreaker().setMinimumCalls(5);
+        return resilience;
     }
     
     // Helper methods for test data creation
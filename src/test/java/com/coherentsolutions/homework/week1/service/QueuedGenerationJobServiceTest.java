@@ -0,0 +1,333 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.JobProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateJobRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateJobResponse;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.dto.JobPriority;
+import com.coherentsolutions.homework.week1.exception.CallbackNotAllowedException;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import com.coherentsolutions.homework.week1.service.impl.QueuedGenerationJobService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for QueuedGenerationJobService.
+ *
+ * The delegate is a fake that records the order of its calls and blocks on
+ * prompts starting with "block" until released, so tests can fill the queue
+ * behind a busy worker. Job expiry runs on a manual ticker; callbacks go to
+ * a local HTTP server.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see QueuedGenerationJobService
+ */
+class QueuedGenerationJobServiceTest {
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private volatile RuntimeException failure;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JobProperties properties;
+
+    private QueuedGenerationJobService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new JobProperties();
+        properties.setWorkers(1);
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.getCallback().setBackoff(Duration.ofMillis(10));
+        // the receivers below listen on localhost, which only an allow-list admits
+        properties.getCallback().setAllowedHosts(List.of("localhost"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should start waiting jobs by priority, then in submission order")
+    void submit_WaitingJobs_RunByPriority() throws Exception {
+        service = createService();
+        GenerateJobResponse blocker = service.submit(request("block", JobPriority.LOW), job -> { });
+        await(() -> calls.size() == 1);
+
+        service.submit(request("low", JobPriority.LOW), job -> { });
+        service.submit(request("normal 1", JobPriority.NORMAL), job -> { });
+        service.submit(request("high", JobPriority.HIGH), job -> { });
+        service.submit(request("normal 2", null), job -> { });
+        assertThat(service.find(blocker.getId())).get()
+                .extracting(GenerateJobResponse::getStatus).isEqualTo(GenerateJobResponse.Status.RUNNING);
+        assertThat(meterRegistry.get("jobs.queue.depth").gauge().value()).isEqualTo(4);
+
+        release.countDown();
+        await(() -> calls.size() == 5);
+
+        assertThat(calls).containsExactly("block", "high", "normal 1", "normal 2", "low");
+        await(() -> meterRegistry.get("jobs.run").timer().count() == 5);
+        assertThat(meterRegistry.get("jobs.queue.wait").tag("priority", "normal").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("jobs.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject submissions with 503 once the queue is full")
+    void submit_QueueFull_ThrowsServiceOverloaded() throws Exception {
+        properties.setQueueCapacity(2);
+        service = createService();
+        service.submit(request("block", JobPriority.NORMAL), job -> { });
+        await(() -> calls.size() == 1);
+        service.submit(request("first", JobPriority.NORMAL), job -> { });
+        service.submit(request("second", JobPriority.NORMAL), job -> { });
+
+        assertThatThrownBy(() -> service.submit(request("third", JobPriority.HIGH), job -> { }))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfterSeconds()).isEqualTo(1));
+        assertThat(meterRegistry.get("jobs.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        await(() -> calls.size() == 3);
+        assertThat(calls).doesNotContain("third");
+    }
+
+    @Test
+    @DisplayName("Should record a failed job with the status /generate would have answered")
+    void run_GenerationFails_JobFailedWithErrorBody() throws Exception {
+        failure = new CircuitOpenException("circuit open", Duration.ofSeconds(7));
+        service = createService();
+        AtomicReference<GenerateJobResponse> finished = new AtomicReference<>();
+
+        GenerateJobResponse queued = service.submit(request("fails", JobPriority.NORMAL), finished::set);
+        await(() -> finished.get() != null);
+
+        GenerateJobResponse job = service.find(queued.getId()).orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(GenerateJobResponse.Status.FAILED);
+        assertThat(job.getHttpStatus()).isEqualTo(503);
+        assertThat(job.getError().getError()).isEqualTo("Service Unavailable");
+        assertThat(job.getError().getMessage()).contains("Retry after 7 seconds");
+        assertThat(job.getResponse()).isNull();
+        assertThat(finished.get().getCompletedAt()).isNotNull();
+        assertThat(meterRegistry.get("jobs.completed").tag("status", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep unfinished jobs and evict finished ones after the TTL")
+    void find_FinishedJobAfterTtl_IsEvicted() throws Exception {
+        service = createService();
+        GenerateJobResponse blocker = service.submit(request("block", JobPriority.NORMAL), job -> { });
+        await(() -> calls.size() == 1);
+
+        ticker.addAndGet(Duration.ofHours(5).toNanos());
+        assertThat(service.find(blocker.getId())).isPresent();
+
+        release.countDown();
+        await(() -> service.find(blocker.getId()).map(GenerateJobResponse::getResponse).isPresent());
+
+        ticker.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertThat(service.find(blocker.getId())).isPresent();
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertThat(service.find(blocker.getId())).isEmpty();
+        assertThat(service.find("no-such-job")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should evict finished jobs beyond maximum-jobs before their TTL, but never a running one")
+    void find_MoreFinishedJobsThanMaximum_EvictedBeforeTtl() throws Exception {
+        properties.setMaximumJobs(2);
+        service = createService();
+        List<String> finished = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            finished.add(service.submit(request("quick " + i, JobPriority.NORMAL), job -> { }).getId());
+        }
+        await(() -> meterRegistry.find("jobs.completed").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum() == 3);
+        GenerateJobResponse blocker = service.submit(request("block", JobPriority.NORMAL), job -> { });
+        await(() -> calls.size() == 4);
+
+        await(() -> finished.stream().filter(id -> service.find(id).isPresent()).count() == 2);
+        assertThat(service.find(blocker.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should POST the finished job to the callback URL, retrying 5xx answers")
+    void callback_ReceiverFailsOnce_IsRetriedAndDelivered() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<String> body = new AtomicReference<>();
+        AtomicReference<String> jobHeader = new AtomicReference<>();
+        HttpServer receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/hook", exchange -> {
+            try (exchange) {
+                body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                jobHeader.set(exchange.getRequestHeaders().getFirst("X-Generation-Job-Id"));
+                exchange.sendResponseHeaders(attempts.incrementAndGet() == 1 ? 500 : 204, -1);
+            }
+        });
+        receiver.start();
+        try {
+            service = createService();
+            GenerateJobRequest request = request("with callback", JobPriority.NORMAL);
+            request.setCallbackUrl("http://localhost:" + receiver.getAddress().getPort() + "/hook");
+
+            GenerateJobResponse queued = service.submit(request, job -> { });
+            assertThat(queued.getCallbackStatus()).isEqualTo(GenerateJobResponse.CallbackStatus.PENDING);
+            await(() -> service.find(queued.getId()).map(GenerateJobResponse::getCallbackStatus)
+                    .filter(status -> status != GenerateJobResponse.CallbackStatus.PENDING).isPresent());
+
+            assertThat(service.find(queued.getId()).orElseThrow().getCallbackStatus())
+                    .isEqualTo(GenerateJobResponse.CallbackStatus.DELIVERED);
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(jobHeader.get()).isEqualTo(queued.getId());
+            JsonNode delivered = objectMapper.readTree(body.get());
+            assertThat(delivered.path("status").asText()).isEqualTo("SUCCEEDED");
+            assertThat(delivered.path("response").path("response").asText()).isEqualTo("answer to with callback");
+            assertThat(meterRegistry.get("jobs.callbacks").tag("outcome", "delivered").counter().count()).isEqualTo(1);
+        } finally {
+            receiver.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give up on a callback that is refused with 4xx")
+    void callback_ReceiverRejects_MarkedFailedWithoutRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        HttpServer receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/hook", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                attempts.incrementAndGet();
+                exchange.sendResponseHeaders(404, -1);
+            }
+        });
+        receiver.start();
+        try {
+            service = createService();
+            GenerateJobRequest request = request("with callback", JobPriority.NORMAL);
+            request.setCallbackUrl("http://localhost:" + receiver.getAddress().getPort() + "/hook");
+
+            GenerateJobResponse queued = service.submit(request, job -> { });
+            await(() -> service.find(queued.getId()).map(GenerateJobResponse::getCallbackStatus)
+                    .filter(status -> status == GenerateJobResponse.CallbackStatus.FAILED).isPresent());
+
+            assertThat(attempts.get()).isEqualTo(1);
+            assertThat(meterRegistry.get("jobs.callbacks").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        } finally {
+            receiver.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse callbacks to loopback, private and link-local hosts without queuing the job")
+    void submit_CallbackToInternalHost_IsRefused() {
+        properties.getCallback().setAllowedHosts(List.of());
+        service = createService();
+
+        for (String url : List.of("http://localhost:8080/actuator/env", "http://127.0.0.1/hook",
+                "http://169.254.169.254/latest/meta-data/", "http://10.0.0.5/hook", "http://[::1]:8080/hook",
+                "http://[fd00::1]/hook")) {
+            GenerateJobRequest request = request("with callback", JobPriority.NORMAL);
+            request.setCallbackUrl(url);
+
+            assertThatThrownBy(() -> service.submit(request, job -> { }))
+                    .as(url)
+                    .isInstanceOf(CallbackNotAllowedException.class)
+                    .hasMessageContaining("loopback, private or link-local");
+        }
+        assertThat(meterRegistry.get("jobs.queue.depth").gauge().value()).isZero();
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should only accept callback hosts on the allow-list when one is configured")
+    void submit_CallbackHostNotAllowed_IsRefused() {
+        properties.getCallback().setAllowedHosts(List.of("hooks.example.com", "*.partner.io"));
+        service = createService();
+        release.countDown();
+
+        GenerateJobRequest refused = request("with callback", JobPriority.NORMAL);
+        refused.setCallbackUrl("https://evil.example.com/hook");
+        GenerateJobRequest subdomain = request("with callback", JobPriority.NORMAL);
+        subdomain.setCallbackUrl("https://eu.partner.io/hook");
+
+        assertThatThrownBy(() -> service.submit(refused, job -> { }))
+                .isInstanceOfSatisfying(CallbackNotAllowedException.class,
+                        e -> assertThat(e.getClientMessage()).contains("evil.example.com", "allowed hosts"));
+        assertThat(service.submit(subdomain, job -> { }).getCallbackStatus())
+                .isEqualTo(GenerateJobResponse.CallbackStatus.PENDING);
+    }
+
+    private QueuedGenerationJobService createService() {
+        return new QueuedGenerationJobService(this::fakeGenerate, properties, objectMapper, meterRegistry, ticker::get);
+    }
+
+    private GenerateResponse fakeGenerate(GenerateRequest request) {
+        calls.add(request.getPrompt());
+        if (request.getPrompt().startsWith("block")) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return GenerateResponse.builder()
+                .response("answer to " + request.getPrompt())
+                .model("gpt-3.5-turbo")
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private GenerateJobRequest request(String prompt, JobPriority priority) {
+        GenerateJobRequest request = new GenerateJobRequest();
+        request.setPrompt(prompt);
+        request.setPriority(priority);
+        return request;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out waiting for jobs").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
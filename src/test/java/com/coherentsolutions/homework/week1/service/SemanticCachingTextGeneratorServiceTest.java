@@ -0,0 +1,200 @@
+package com.coherentsolutions.homework.week1.service;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.ResponseCacheProperties;
+import com.coherentsolutions.homework.week1.config.SemanticCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.TextGenerationException;
+import com.coherentsolutions.homework.week1.service.impl.SemanticCachingTextGeneratorService;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.semantic.LocalHashingEmbeddingModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SemanticCachingTextGeneratorService.
+ *
+ * Runs fully offline: prompts are embedded with LocalHashingEmbeddingModel
+ * and the delegate service is mocked.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see SemanticCachingTextGeneratorService
+ */
+@ExtendWith(MockitoExtension.class)
+class SemanticCachingTextGeneratorServiceTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private static final GenerationProfiles PROFILES = new GenerationProfiles(new GenerationProfileProperties(), OPTIONS);
+
+    @Mock
+    private TextGeneratorService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final EmbeddingModel embeddingModel = new LocalHashingEmbeddingModel(512);
+
+    private SemanticCacheProperties properties;
+
+    private ResponseCacheProperties cacheProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SemanticCacheProperties();
+        properties.setSimilarityThreshold(0.8);
+        properties.setTtl(Duration.ofMinutes(10));
+        cacheProperties = new ResponseCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should answer a paraphrased prompt from the cache")
+    void generateText_Paraphrase_ReturnsCachedResponse() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("Spring Boot 1.0 was released in 2014."));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        GenerateResponse first = service.generateText(request("When was Spring Boot released?"));
+        GenerateResponse second = service.generateText(request("Spring Boot release year?"));
+
+        assertFalse(first.isCached());
+        assertTrue(second.isCached());
+        assertEquals("Spring Boot 1.0 was released in 2014.", second.getResponse());
+        verify(delegate, times(1)).generateText(any());
+        assertEquals(1.0, meterRegistry.get("semantic.cache.gets").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should call the model for unrelated prompts")
+    void generateText_UnrelatedPrompt_CallsDelegate() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        service.generateText(request("When was Spring Boot released?"));
+        GenerateResponse second = service.generateText(request("Explain Java virtual threads"));
+
+        assertFalse(second.isCached());
+        verify(delegate, times(2)).generateText(any());
+        assertEquals(2, service.size());
+    }
+
+    @Test
+    @DisplayName("Should respect the configured similarity threshold")
+    void generateText_ThresholdAboveSimilarity_CallsDelegate() {
+        properties.setSimilarityThreshold(0.99);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        service.generateText(request("When was Spring Boot released?"));
+        GenerateResponse second = service.generateText(request("Spring Boot release year?"));
+
+        assertFalse(second.isCached());
+        assertEquals(1, meterRegistry.get("semantic.cache.similarity").summary().count());
+    }
+
+    @Test
+    @DisplayName("Should ignore and evict entries older than the TTL")
+    void generateText_AfterTtl_CallsDelegateAgain() {
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        service.generateText(request("When was Spring Boot released?"));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        GenerateResponse afterTtl = service.generateText(request("When was Spring Boot released?"));
+
+        assertFalse(afterTtl.isCached());
+        assertEquals(1, service.size());
+        verify(delegate, times(2)).generateText(any());
+    }
+
+    @Test
+    @DisplayName("Should keep at most the configured number of prompts")
+    void generateText_BeyondMaximumSize_EvictsOldest() {
+        properties.setMaximumSize(2);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        service.generateText(request("Explain Java virtual threads"));
+        service.generateText(request("Describe the HTTP caching headers"));
+        service.generateText(request("Tell me a fun fact about penguins"));
+
+        assertEquals(2, service.size());
+        assertEquals(1.0, meterRegistry.get("semantic.cache.evictions").functionCounter().count());
+        assertFalse(service.generateText(request("Explain Java virtual threads")).isCached());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the model when embedding fails")
+    void generateText_EmbeddingFails_CallsDelegate() {
+        EmbeddingModel failing = mock(EmbeddingModel.class);
+        when(failing.embed(anyString())).thenThrow(new IllegalStateException("embedding service down"));
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(failing);
+
+        GenerateResponse response = service.generateText(request("prompt"));
+
+        assertEquals("answer", response.getResponse());
+        assertEquals(0, service.size());
+    }
+
+    @Test
+    @DisplayName("Should not cache failures")
+    void generateText_DelegateFails_DoesNotCache() {
+        when(delegate.generateText(any()))
+                .thenThrow(new TextGenerationException("boom"))
+                .thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(embeddingModel);
+
+        assertThrows(TextGenerationException.class, () -> service.generateText(request("prompt text")));
+
+        assertEquals(0, service.size());
+        assertFalse(service.generateText(request("prompt text")).isCached());
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache for sampled responses when they are not cached")
+    void generateText_SampledResponsesNotCached_BypassesCache() {
+        cacheProperties.setCacheSampledResponses(false);
+        EmbeddingModel model = spy(embeddingModel);
+        when(delegate.generateText(any())).thenReturn(GenerateResponse.simple("answer"));
+        SemanticCachingTextGeneratorService service = createService(model);
+
+        service.generateText(request("When was Spring Boot released?"));
+        GenerateResponse second = service.generateText(request("When was Spring Boot released?"));
+
+        assertFalse(second.isCached());
+        assertEquals(0, service.size());
+        verify(delegate, times(2)).generateText(any());
+        verify(model, never()).embed(anyString());
+    }
+
+    private SemanticCachingTextGeneratorService createService(EmbeddingModel model) {
+        return new SemanticCachingTextGeneratorService(delegate, PROFILES, model, properties, cacheProperties,
+                meterRegistry, nanos::get);
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.coherentsolutions.homework.week1.service.accesslog;
+
+import com.coherentsolutions.homework.week1.config.AccessLogProperties;
+import com.coherentsolutions.homework.week1.dto.BatchItemResult;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.PromptTooLongException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AccessLog.
+ *
+ * The sink collects lines into a queue, so each test waits for the writer
+ * thread instead of sleeping. Lines are parsed back with Jackson to check
+ * that they are valid JSON.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see AccessLog
+ */
+class AccessLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    private AccessLogProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccessLog accessLog;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AccessLogProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (accessLog != null) {
+            accessLog.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write one JSON line per generation with sizes, tokens and duration")
+    void record_Success_WritesJsonLine() throws Exception {
+        accessLog = new AccessLog(properties, meterRegistry, lines::add);
+        GenerateResponse response = GenerateResponse.builder()
+                .response("Spring Boot was first released in 2014.")
+                .model("gpt-\"3.5\"-turbo")
+                .promptTokens(29)
+                .completionTokens(11)
+                .tokensUsed(40)
+                .build();
+
+        accessLog.record("generate", request("Tell me a fun fact about Spring Boot"), response, null,
+                TimeUnit.MICROSECONDS.toNanos(812_456));
+
+        JsonNode line = nextLine();
+        assertThat(line.get("endpoint").asText()).isEqualTo("generate");
+        assertThat(line.get("model").asText()).isEqualTo("gpt-\"3.5\"-turbo");
+        assertThat(line.get("outcome").asText()).isEqualTo("success");
+        assertThat(line.get("status").asInt()).isEqualTo(200);
+        assertThat(line.get("exception").asText()).isEqualTo("none");
+        assertThat(line.get("promptLength").asInt()).isEqualTo(36);
+        assertThat(line.get("responseLength").asInt()).isEqualTo(39);
+        assertThat(line.get("promptTokens").asInt()).isEqualTo(29);
+        assertThat(line.get("completionTokens").asInt()).isEqualTo(11);
+        assertThat(line.get("totalTokens").asInt()).isEqualTo(40);
+        assertThat(line.get("cached").asBoolean()).isFalse();
+        assertThat(line.get("durationMs").asDouble()).isEqualTo(812.4);
+        assertThat(line.get("timestamp").asText()).endsWith("Z");
+        assertThat(meterRegistry.get("accesslog.records").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should log failures with their status and exception, and unknown tokens as null")
+    void record_Failure_WritesStatusAndNulls() throws Exception {
+        accessLog = new AccessLog(properties, meterRegistry, lines::add);
+
+        accessLog.record("generate", request("日本語のテキスト😀😀"), null, new PromptTooLongException(12, 10), 1_000);
+        accessLog.record("generate.batch", request("Hi"), BatchItemResult.builder().index(0).status(429).build(),
+                2_000);
+
+        JsonNode rejected = nextLine();
+        assertThat(rejected.get("outcome").asText()).isEqualTo("error");
+        assertThat(rejected.get("status").asInt()).isEqualTo(400);
+        assertThat(rejected.get("exception").asText()).isEqualTo("PromptTooLongException");
+        assertThat(rejected.get("model").isNull()).isTrue();
+        assertThat(rejected.get("totalTokens").isNull()).isTrue();
+        JsonNode batchItem = nextLine();
+        assertThat(batchItem.get("endpoint").asText()).isEqualTo("generate.batch");
+        assertThat(batchItem.get("outcome").asText()).isEqualTo("error");
+        assertThat(batchItem.get("status").asInt()).isEqualTo(429);
+        assertThat(batchItem.get("exception").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should count records that find the buffer full and report them in the log")
+    void record_BufferFull_ReportsDrops() throws Exception {
+        properties.setBufferSize(2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        accessLog = new AccessLog(properties, meterRegistry, line -> {
+            writing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(line);
+        });
+
+        accessLog.record("generate", request("first"), null, null, 1_000);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // the writer is stuck on the first line: two records fit, two do not
+        for (int i = 0; i < 4; i++) {
+            accessLog.record("generate", request("next"), null, null, 1_000);
+        }
+        assertThat(meterRegistry.get("accesslog.dropped").counter().count()).isEqualTo(2.0);
+        release.countDown();
+
+        int written = 0;
+        long reported = 0;
+        for (int i = 0; i < 4; i++) {
+            JsonNode line = nextLine();
+            if (line.has("event")) {
+                assertThat(line.get("event").asText()).isEqualTo("dropped");
+                reported += line.get("count").asLong();
+            } else {
+                written++;
+            }
+        }
+        assertThat(written).isEqualTo(3);
+        assertThat(reported).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should write nothing and start no thread when disabled")
+    void record_Disabled_WritesNothing() throws Exception {
+        properties.setEnabled(false);
+        accessLog = new AccessLog(properties, meterRegistry, lines::add);
+
+        accessLog.record("generate", request("Hi"), null, null, 1_000);
+
+        assertThat(lines.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(meterRegistry.get("accesslog.dropped").counter().count()).isZero();
+    }
+
+    private JsonNode nextLine() throws Exception {
+        String line = lines.poll(5, TimeUnit.SECONDS);
+        assertThat(line).isNotNull();
+        return objectMapper.readTree(line);
+    }
+
+    private static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
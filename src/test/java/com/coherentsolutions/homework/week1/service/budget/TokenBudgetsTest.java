@@ -0,0 +1,313 @@
+package com.coherentsolutions.homework.week1.service.budget;
+
+import com.coherentsolutions.homework.week1.config.TokenBudgetProperties;
+import com.coherentsolutions.homework.week1.exception.BudgetExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for TokenBudgets.
+ *
+ * A settable clock moves time across hour, day and month boundaries
+ * without waiting; snapshots go to a temporary directory.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see TokenBudgets
+ */
+class TokenBudgetsTest {
+
+    private static final Instant START = Instant.parse("2026-10-31T22:30:00Z");
+
+    private final TestClock clock = new TestClock(START);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should reject a tenant once a window's usage reaches its limit, until the window ends")
+    void check_HourlyLimitReached_RejectsUntilNextHour() {
+        TokenBudgets budgets = new TokenBudgets(properties(limits(100L, null, null)), meterRegistry, clock);
+
+        budgets.check("team-a");
+        budgets.record("team-a", 60);
+        budgets.check("team-a");
+        budgets.record("team-a", 60);
+
+        assertThatThrownBy(() -> budgets.check("team-a"))
+                .isInstanceOfSatisfying(BudgetExceededException.class, e -> {
+                    assertThat(e.getWindow()).isEqualTo(BudgetWindow.HOUR);
+                    assertThat(e.getUsed()).isEqualTo(120);
+                    assertThat(e.getStatus()).isEqualTo(429);
+                    assertThat(e.getResetsAt()).isEqualTo(Instant.parse("2026-10-31T23:00:00Z"));
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(1800);
+                });
+        budgets.check("team-b");
+        assertThat(meterRegistry.get("budget.rejected").tag("window", "hour").counter().count()).isEqualTo(1.0);
+
+        clock.advance(Duration.ofMinutes(30));
+        budgets.check("team-a");
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.HOUR).used()).isZero();
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.DAY).used()).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Should count the reservations of calls in flight against the limit, and settle them with the usage")
+    void reserve_CallsInFlight_CountAgainstLimit() {
+        TokenBudgets budgets = new TokenBudgets(properties(limits(100L, null, null)), meterRegistry, clock);
+
+        TokenBudgets.Reservation first = budgets.reserve("team-a", 60);
+        TokenBudgets.Reservation second = budgets.reserve("team-a", 60);
+
+        assertThatThrownBy(() -> budgets.reserve("team-a", 60))
+                .isInstanceOfSatisfying(BudgetExceededException.class, e -> assertThat(e.getUsed()).isEqualTo(120));
+        assertThatThrownBy(() -> budgets.check("team-a")).isInstanceOf(BudgetExceededException.class);
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.HOUR).used()).isZero();
+
+        first.settle(25);
+        first.settle(25);
+        second.release();
+
+        budgets.check("team-a");
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.HOUR).used()).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("Should give a reservation back to the period it was taken from after a rollover")
+    void settle_AfterRollover_ChargesCurrentPeriod() {
+        TokenBudgets budgets = new TokenBudgets(properties(limits(100L, 1000L, null)), meterRegistry, clock);
+        TokenBudgets.Reservation reservation = budgets.reserve("team-a", 90);
+
+        clock.advance(Duration.ofMinutes(45));
+        budgets.reserve("team-a", 90).release();
+        reservation.settle(30);
+
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.HOUR).used()).isEqualTo(30);
+        TokenBudgets.Reservation next = budgets.reserve("team-a", 70);
+        assertThatThrownBy(() -> budgets.reserve("team-a", 1)).isInstanceOf(BudgetExceededException.class);
+        next.release();
+    }
+
+    @Test
+    @DisplayName("Should report the longest spent window, with 402 for the month")
+    void check_SeveralWindowsSpent_ReportsMonth() {
+        TokenBudgets budgets = new TokenBudgets(properties(limits(100L, 100L, 100L)), meterRegistry, clock);
+        budgets.record("team-a", 100);
+
+        assertThatThrownBy(() -> budgets.check("team-a"))
+                .isInstanceOfSatisfying(BudgetExceededException.class, e -> {
+                    assertThat(e.getWindow()).isEqualTo(BudgetWindow.MONTH);
+                    assertThat(e.getStatus()).isEqualTo(402);
+                    assertThat(e.getResetsAt()).isEqualTo(Instant.parse("2026-11-01T00:00:00Z"));
+                    assertThat(e.getClientMessage()).contains("team-a", "2026-11-01T00:00:00Z");
+                });
+
+        clock.advance(Duration.ofHours(2));
+        budgets.check("team-a");
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.MONTH).used()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should layer a tenant's limits over the defaults per window and treat 0 as unlimited")
+    void usage_TenantLimits_OverrideDefaultsPerWindow() {
+        TokenBudgetProperties properties = properties(limits(1000L, 5000L, 0L));
+        properties.getTenants().put("search-team", limits(null, 20000L, null));
+        TokenBudgets budgets = new TokenBudgets(properties, meterRegistry, clock);
+        budgets.record("search-team", 300);
+
+        TenantUsage usage = budgets.usage("search-team");
+
+        assertThat(usage.windows().get(BudgetWindow.HOUR).limit()).isEqualTo(1000);
+        assertThat(usage.windows().get(BudgetWindow.HOUR).remaining()).isEqualTo(700);
+        assertThat(usage.windows().get(BudgetWindow.DAY).limit()).isEqualTo(20000);
+        assertThat(usage.windows().get(BudgetWindow.MONTH).remaining()).isNull();
+        assertThat(budgets.usage()).containsOnlyKeys("search-team");
+        assertThat(budgets.usage("unknown")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should restore the current windows from the snapshot and drop the ones that ended")
+    void snapshot_Restart_RestoresCurrentWindows() throws Exception {
+        TokenBudgetProperties properties = properties(limits(null, null, null));
+        properties.setSnapshotPath(directory.resolve("budgets/token-budgets.json").toString());
+        TestClock clock = new TestClock(Instant.parse("2026-10-14T22:30:00Z"));
+        TokenBudgets before = new TokenBudgets(properties, meterRegistry, clock);
+        before.record("team-a", 250);
+        before.close();
+
+        clock.advance(Duration.ofHours(1));
+        TokenBudgets sameDay = new TokenBudgets(properties, meterRegistry, clock);
+        sameDay.close();
+
+        assertThat(Files.exists(directory.resolve("budgets/token-budgets.json"))).isTrue();
+        assertThat(sameDay.usage("team-a").windows().get(BudgetWindow.HOUR).used()).isZero();
+        assertThat(sameDay.usage("team-a").windows().get(BudgetWindow.DAY).used()).isEqualTo(250);
+
+        clock.advance(Duration.ofHours(24));
+        TokenBudgets nextDay = new TokenBudgets(properties, meterRegistry, clock);
+        nextDay.close();
+
+        assertThat(nextDay.usage("team-a").windows().get(BudgetWindow.DAY).used()).isZero();
+        assertThat(nextDay.usage("team-a").windows().get(BudgetWindow.MONTH).used()).isEqualTo(250);
+    }
+
+    @Test
+    @DisplayName("Should count every token recorded concurrently")
+    void record_Concurrent_CountsExactly() throws Exception {
+        TokenBudgets budgets = new TokenBudgets(properties(limits(null, null, null)), meterRegistry, clock);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        budgets.record("team-a", 3);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(budgets.usage("team-a").windows().get(BudgetWindow.MONTH).used()).isEqualTo(240_000);
+    }
+
+    @Test
+    @DisplayName("Should charge unconfigured tenants beyond maximum-tenants to the default tenant")
+    void record_TooManyTenants_ChargesDefaultTenant() {
+        TokenBudgetProperties properties = properties(limits(null, null, null));
+        properties.setMaximumTenants(2);
+        TokenBudgets budgets = new TokenBudgets(properties, meterRegistry, clock);
+
+        budgets.record("team-a", 1);
+        budgets.record("team-b", 1);
+        budgets.record("team-c", 5);
+
+        assertThat(budgets.usage()).containsOnlyKeys("team-a", "team-b", "default");
+        assertThat(budgets.usage("default").windows().get(BudgetWindow.DAY).used()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should accept only configured tenants from the header and charge anything else to the default")
+    void resolveTenant_UnknownHeader_ResolvesToDefaultTenant() {
+        TokenBudgetProperties properties = properties(limits(null, null, null));
+        properties.getTenants().put("search-team", limits(null, 20000L, null));
+        TokenBudgets budgets = new TokenBudgets(properties, meterRegistry, clock);
+
+        assertThat(budgets.resolveTenant(withTenantHeader(" search-team "))).isEqualTo("search-team");
+        assertThat(budgets.resolveTenant(withTenantHeader("random-" + System.nanoTime()))).isEqualTo("default");
+        assertThat(budgets.resolveTenant(withTenantHeader(null))).isEqualTo("default");
+    }
+
+    @Test
+    @DisplayName("Should neither count nor reject while disabled or without a tenant")
+    void check_DisabledOrNoTenant_DoesNothing() {
+        TokenBudgetProperties disabled = properties(limits(1L, null, null));
+        disabled.setEnabled(false);
+        TokenBudgets off = new TokenBudgets(disabled, meterRegistry, clock);
+        TokenBudgets on = new TokenBudgets(properties(limits(1L, null, null)), meterRegistry, clock);
+
+        off.record("team-a", 10);
+        off.check("team-a");
+        on.record(null, 10);
+        on.check(null);
+
+        assertThat(off.usage()).isEmpty();
+        assertThat(on.usage()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should restore the previous tenant of the thread after runAs")
+    void runAs_Nested_RestoresPreviousTenant() {
+        String inner = TokenBudgets.runAs("team-a", () -> {
+            String nested = TokenBudgets.runAs("team-b", TokenBudgets::currentTenant);
+            return nested + "," + TokenBudgets.currentTenant();
+        });
+
+        assertThat(inner).isEqualTo("team-b,team-a");
+        assertThat(TokenBudgets.currentTenant()).isNull();
+    }
+
+    private static TokenBudgetProperties properties(TokenBudgetProperties.Limits defaults) {
+        TokenBudgetProperties properties = new TokenBudgetProperties();
+        properties.setEnabled(true);
+        properties.setSnapshotPath("");
+        properties.setDefaultLimits(defaults);
+        return properties;
+    }
+
+    private static MockHttpServletRequest withTenantHeader(String tenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (tenant != null) {
+            request.addHeader("X-Tenant-Id", tenant);
+        }
+        return request;
+    }
+
+    private static TokenBudgetProperties.Limits limits(Long perHour, Long perDay, Long perMonth) {
+        TokenBudgetProperties.Limits limits = new TokenBudgetProperties.Limits();
+        limits.setTokensPerHour(perHour);
+        limits.setTokensPerDay(perDay);
+        limits.setTokensPerMonth(perMonth);
+        return limits;
+    }
+
+    /**
+     * A clock that only moves when told to.
+     */
+    private static final class TestClock extends Clock {
+
+        private final AtomicLong millis;
+
+        TestClock(Instant start) {
+            this.millis = new AtomicLong(start.toEpochMilli());
+        }
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.coherentsolutions.homework.week1.service.diskcache;
+
+import com.coherentsolutions.homework.week1.config.DiskCacheProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.service.GenerationKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MappedResponseStore.
+ *
+ * Each test works on a file in a temporary directory; "restarts" close the
+ * store and open a new one on the same file. Expiry runs on a manual clock.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see MappedResponseStore
+ */
+class MappedResponseStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private DiskCacheProperties properties;
+
+    private MappedResponseStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DiskCacheProperties();
+        properties.setPath(directory.resolve("responses.db").toString());
+        properties.setMaxSize(DataSize.ofKilobytes(64));
+        properties.setTtl(Duration.ofHours(1));
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should keep responses and hit counts across a restart")
+    void reopen_KeepsResponsesAndHotness() throws IOException {
+        GenerateResponse stored = response("answer one");
+        store.put(key("one"), stored);
+        store.put(key("two"), response("answer two"));
+        store.get(key("two"));
+        store.get(key("two"));
+
+        store.close();
+        store = open();
+
+        GenerateResponse loaded = store.get(key("one")).orElseThrow();
+        assertThat(loaded.getResponse()).isEqualTo("answer one");
+        assertThat(loaded.getTokensUsed()).isEqualTo(42);
+        assertThat(loaded.getTimestamp()).isEqualTo(stored.getTimestamp());
+        assertThat(store.get(key("three"))).isEmpty();
+        assertThat(store.hottest(1)).containsOnlyKeys(key("two"));
+        assertThat(store.hottest(10).keySet()).containsExactly(key("two"), key("one"));
+    }
+
+    @Test
+    @DisplayName("Should count every hit of concurrent lookups in the file")
+    void get_Concurrent_CountsEveryHit() throws Exception {
+        store.put(key("one"), response("answer one"));
+        store.put(key("two"), response("answer two"));
+        for (int i = 0; i < 3999; i++) {
+            store.get(key("one"));
+        }
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        store.get(key("two"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        store.close();
+        store = open();
+
+        assertThat(store.hottest(10).keySet()).containsExactly(key("two"), key("one"));
+    }
+
+    @Test
+    @DisplayName("Should treat responses older than the TTL as misses")
+    void get_AfterTtl_IsMiss() {
+        store.put(key("one"), response("answer one"));
+
+        clock.addAndGet(Duration.ofMinutes(59).toMillis());
+        assertThat(store.get(key("one"))).isPresent();
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        assertThat(store.get(key("one"))).isEmpty();
+        assertThat(store.hottest(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rewrite the file once superseded records pass the threshold")
+    void put_SupersededRecords_TriggerCompaction() throws IOException {
+        properties.setCompactionThreshold(0.1);
+        store.close();
+        store = open();
+        store.put(key("kept"), response("kept answer"));
+        for (int i = 0; store.compactions() == 0; i++) {
+            store.put(key("rewritten"), response("version " + i));
+        }
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.usedBytes()).isLessThan(DataSize.ofKilobytes(64).toBytes() / 10);
+        assertThat(store.get(key("kept")).orElseThrow().getResponse()).isEqualTo("kept answer");
+        assertThat(store.get(key("rewritten")).orElseThrow().getResponse()).startsWith("version ");
+    }
+
+    @Test
+    @DisplayName("Should keep the most-hit responses when the file is full")
+    void put_FileFull_EvictsColdestEntries() {
+        store.put(key("hot"), response("hot answer"));
+        store.get(key("hot"));
+        int i = 0;
+        while (store.compactions() == 0) {
+            clock.incrementAndGet();
+            store.put(key("cold " + i++), response("x".repeat(500)));
+        }
+
+        assertThat(store.get(key("hot"))).isPresent();
+        assertThat(store.size()).isLessThan(i);
+        assertThat(store.get(key("cold 0"))).isEmpty();
+        assertThat(store.usedBytes()).isLessThanOrEqualTo(DataSize.ofKilobytes(64).toBytes());
+    }
+
+    @Test
+    @DisplayName("Should ignore a damaged record at the end of the log and keep the ones before it")
+    void reopen_DamagedTail_KeepsEarlierRecords() throws IOException {
+        store.put(key("one"), response("answer one"));
+        long end = store.usedBytes();
+        store.put(key("two"), response("answer two"));
+        store.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(properties.getPath(), "rw")) {
+            file.seek(end + 30);
+            file.write(new byte[] {1, 2, 3});
+        }
+        store = open();
+
+        assertThat(store.get(key("one"))).isPresent();
+        assertThat(store.get(key("two"))).isEmpty();
+        store.put(key("three"), response("answer three"));
+        assertThat(store.get(key("three"))).isPresent();
+    }
+
+    private MappedResponseStore open() {
+        return new MappedResponseStore(properties, clock::get);
+    }
+
+    private static GenerationKey key(String prompt) {
+        return new GenerationKey(prompt, "default@0", "gpt-3.5-turbo", 0.7, 150);
+    }
+
+    private static GenerateResponse response(String text) {
+        return GenerateResponse.builder()
+                .response(text)
+                .model("gpt-3.5-turbo")
+                .tokensUsed(42)
+                .timestamp(1705314600000L)
+                .build();
+    }
+}
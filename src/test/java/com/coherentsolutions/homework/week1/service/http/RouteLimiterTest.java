@@ -0,0 +1,126 @@
+package com.coherentsolutions.homework.week1.service.http;
+
+import com.coherentsolutions.homework.week1.config.HttpClientProperties;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RouteLimiter.
+ *
+ * The interceptor and the WebClient filter are driven directly with
+ * Spring's mock HTTP request and response types, so no connection is
+ * opened.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see RouteLimiter
+ */
+class RouteLimiterTest {
+
+    private static final URI OPENAI = URI.create("https://api.openai.com/v1/chat/completions");
+
+    private static final URI PROXY = URI.create("http://localhost:8089/v1/chat/completions");
+
+    private HttpClientProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HttpClientProperties();
+        properties.setMaxPerRoute(1);
+        properties.setAcquireTimeout(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should hold a place until the response is closed and reject calls that wait too long")
+    void intercept_RouteFull_WaitsThenRejects() throws Exception {
+        RouteLimiter limiter = new RouteLimiter(properties, meterRegistry);
+
+        ClientHttpResponse first = call(limiter, OPENAI);
+        assertThat(limiter.inUse(OPENAI)).isEqualTo(1);
+
+        assertThatThrownBy(() -> call(limiter, OPENAI)).isInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("outbound.route.rejected").tag("route", "https://api.openai.com:443")
+                .counter().count()).isEqualTo(1.0);
+
+        CompletableFuture<ClientHttpResponse> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(limiter, OPENAI);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(20);
+        first.close();
+        first.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+
+        assertThat(limiter.inUse(OPENAI)).isZero();
+        assertThat(meterRegistry.get("outbound.route.wait").tag("route", "https://api.openai.com:443")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep routes apart and apply per-host limits")
+    void intercept_PerRouteLimits() throws Exception {
+        properties.getRoutes().put("localhost", 2);
+        RouteLimiter limiter = new RouteLimiter(properties, meterRegistry);
+
+        call(limiter, OPENAI);
+        call(limiter, PROXY);
+        call(limiter, PROXY);
+
+        assertThat(limiter.inUse(PROXY)).isEqualTo(2);
+        assertThat(meterRegistry.get("outbound.route.max").tag("route", "http://localhost:8089").gauge().value())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("outbound.route.in.use").tag("route", "https://api.openai.com:443")
+                .gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should count streams without making them wait, until their body completes")
+    void streamFilter_CountsUntilBodyCompletes() {
+        RouteLimiter limiter = new RouteLimiter(properties, meterRegistry);
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, OPENAI).build();
+
+        ClientResponse first = limiter.streamFilter()
+                .filter(request, r -> Mono.just(
+                        ClientResponse.create(HttpStatus.OK).body("data: one").build()))
+                .block();
+        ClientResponse second = limiter.streamFilter()
+                .filter(request, r -> Mono.just(
+                        ClientResponse.create(HttpStatus.OK).body("data: two").build()))
+                .block();
+        assertThat(limiter.inUse(OPENAI)).isEqualTo(2);
+
+        assertThat(first.bodyToMono(String.class).block()).isEqualTo("data: one");
+        assertThat(second.bodyToMono(String.class).block()).isEqualTo("data: two");
+        assertThat(limiter.inUse(OPENAI)).isZero();
+    }
+
+    private static ClientHttpResponse call(RouteLimiter limiter, URI uri) throws Exception {
+        return limiter.intercept(new MockClientHttpRequest(HttpMethod.POST, uri), new byte[0],
+                (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+    }
+}
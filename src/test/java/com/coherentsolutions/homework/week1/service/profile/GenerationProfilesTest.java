@@ -0,0 +1,105 @@
+package com.coherentsolutions.homework.week1.service.profile;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.OpenAIConfig;
+import com.coherentsolutions.homework.week1.exception.UnknownProfileException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for GenerationProfiles and the prebuilt GenerationProfile
+ * objects.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see GenerationProfiles
+ */
+class GenerationProfilesTest {
+
+    private static final GenerationOptions DEFAULTS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    @Test
+    @DisplayName("Should provide a default profile with the built-in prompt when none is configured")
+    void defaultProfile_NotConfigured_UsesBuiltInPrompt() {
+        GenerationProfiles profiles = new GenerationProfiles(new GenerationProfileProperties(), DEFAULTS);
+
+        GenerationProfile profile = profiles.resolve(null);
+
+        assertThat(profile.name()).isEqualTo("default");
+        assertThat(profile.systemPrompt()).isEqualTo(OpenAIConfig.DEFAULT_SYSTEM_PROMPT);
+        assertThat(profile.options()).isEqualTo(DEFAULTS);
+        assertThat(profile.callOptions().getModel()).isNull();
+        assertThat(profile.callOptions().getTemperature()).isNull();
+        assertThat(profile.streamOptions().getStreamUsage()).isTrue();
+        assertThat(profiles.resolve(" ")).isSameAs(profile);
+        assertThat(profiles.isDefault("default")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should layer a profile's fields over the defaults and send only those it sets")
+    void resolve_Definition_OverridesOnlyItsFields() {
+        GenerationProfileProperties properties = new GenerationProfileProperties();
+        properties.getDefinitions().put("precise", definition("Answer in one sentence.", 0.0, 40));
+        GenerationProfiles profiles = new GenerationProfiles(properties, DEFAULTS);
+
+        GenerationProfile profile = profiles.resolve("precise");
+
+        assertThat(profile.options()).isEqualTo(new GenerationOptions("gpt-3.5-turbo", 0.0, 40));
+        assertThat(profile.systemMessage().getText()).isEqualTo("Answer in one sentence.");
+        assertThat(profile.callOptions().getModel()).isNull();
+        assertThat(profile.callOptions().getTemperature()).isEqualTo(0.0);
+        assertThat(profile.callOptions().getMaxTokens()).isEqualTo(40);
+        assertThat(profiles.all()).extracting(GenerationProfile::name).containsExactly("default", "precise");
+        assertThat(profiles.isDefault("precise")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown names and tag them as unknown")
+    void resolve_UnknownName_Throws() {
+        GenerationProfiles profiles = new GenerationProfiles(new GenerationProfileProperties(), DEFAULTS);
+
+        assertThatThrownBy(() -> profiles.resolve("poetic"))
+                .isInstanceOf(UnknownProfileException.class)
+                .hasMessageContaining("poetic");
+        assertThat(profiles.find("poetic")).isEmpty();
+        assertThat(profiles.tagOf("poetic")).isEqualTo(GenerationProfiles.UNKNOWN);
+        assertThat(profiles.tagOf(null)).isEqualTo("default");
+    }
+
+    @Test
+    @DisplayName("Should change the cache identity when the system prompt changes")
+    void cacheId_ChangesWithSystemPrompt() {
+        GenerationProfile before = GenerationProfile.of("precise", "Be brief.", DEFAULTS, null, null, null);
+        GenerationProfile after = GenerationProfile.of("precise", "Be very brief.", DEFAULTS, null, null, null);
+
+        assertThat(before.cacheId()).startsWith("precise@").isNotEqualTo(after.cacheId());
+    }
+
+    @Test
+    @DisplayName("Should refuse invalid profile definitions at startup")
+    void constructor_InvalidDefinition_Throws() {
+        GenerationProfileProperties reserved = new GenerationProfileProperties();
+        reserved.getDefinitions().put(GenerationProfiles.UNKNOWN, definition(null, null, null));
+        GenerationProfileProperties zeroTokens = new GenerationProfileProperties();
+        zeroTokens.getDefinitions().put("empty", definition(null, null, 0));
+
+        assertThatThrownBy(() -> new GenerationProfiles(reserved, DEFAULTS))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new GenerationProfiles(zeroTokens, DEFAULTS))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("max-tokens");
+    }
+
+    private static GenerationProfileProperties.Definition definition(String systemPrompt, Double temperature,
+                                                                     Integer maxTokens) {
+        GenerationProfileProperties.Definition definition = new GenerationProfileProperties.Definition();
+        definition.setSystemPrompt(systemPrompt);
+        definition.setTemperature(temperature);
+        definition.setMaxTokens(maxTokens);
+        return definition;
+    }
+}
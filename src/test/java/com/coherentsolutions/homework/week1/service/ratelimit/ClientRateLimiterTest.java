@@ -0,0 +1,176 @@
+package com.coherentsolutions.homework.week1.service.ratelimit;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.RateLimitProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.dto.GenerateResponse;
+import com.coherentsolutions.homework.week1.exception.RateLimitExceededException;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import com.coherentsolutions.homework.week1.service.tokens.PromptTokenizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClientRateLimiter.
+ *
+ * Time is driven by a fake clock, so refill and recovery are checked
+ * exactly and without sleeping.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ClientRateLimiter
+ */
+class ClientRateLimiterTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private static final GenerationProfiles PROFILES = new GenerationProfiles(new GenerationProfileProperties(), OPTIONS);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private RateLimitProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setRequestsPerSecond(2);
+        properties.setRequestBurst(2);
+        properties.setTokensPerMinute(100_000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should allow the burst, then reject with the time until the next request refills")
+    void acquire_BeyondBurst_RejectsWithRetryAfter() {
+        ClientRateLimiter limiter = createLimiter();
+
+        limiter.acquire("a", List.of(request("one")));
+        limiter.acquire("a", List.of(request("two")));
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("a", List.of(request("three"))));
+
+        assertFalse(rejected.isUpstream());
+        assertEquals(500, rejected.getRetryAfter().toMillis());
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("ratelimit.rejected").tag("reason", "requests").counter().count());
+
+        advance(501, TimeUnit.MILLISECONDS);
+        assertDoesNotThrow(() -> limiter.acquire("a", List.of(request("three"))));
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client")
+    void acquire_DifferentClients_AreIndependent() {
+        ClientRateLimiter limiter = createLimiter();
+
+        limiter.acquire("a", List.of(request("one"), request("two")));
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("a", List.of(request("x"))));
+        assertDoesNotThrow(() -> limiter.acquire("b", List.of(request("x"))));
+    }
+
+    @Test
+    @DisplayName("Should limit estimated tokens and correct the charge with real usage")
+    void acquire_TokenBudget_SettledWithActualUsage() {
+        properties.setRequestBurst(100);
+        properties.setTokensPerMinute(400);
+        ClientRateLimiter limiter = createLimiter();
+        GenerateRequest request = request("prompt");
+        int estimate = limiter.estimateTokens(request);
+        // 1 prompt token + 21 tokens of system prompt and chat framing + 150 max-tokens
+        assertEquals(172, estimate);
+
+        limiter.acquire("a", List.of(request));
+        limiter.acquire("a", List.of(request));
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("a", List.of(request)));
+        assertEquals(1.0, meterRegistry.get("ratelimit.rejected").tag("reason", "tokens").counter().count());
+
+        limiter.settle("a", request, GenerateResponse.builder().response("ok").tokensUsed(20).build());
+        limiter.settle("a", request, GenerateResponse.builder().response("ok").cached(true).build());
+
+        assertFalse(rejected.isUpstream());
+        assertDoesNotThrow(() -> limiter.acquire("a", List.of(request)));
+        assertDoesNotThrow(() -> limiter.acquire("a", List.of(request)));
+    }
+
+    @Test
+    @DisplayName("Should slow every client down after an upstream 429 and recover over time")
+    void onUpstreamRateLimited_ReducesRateThenRecovers() {
+        ClientRateLimiter limiter = createLimiter();
+        limiter.acquire("a", List.of(request("one"), request("two")));
+
+        limiter.settleFailure("a", request("one"),
+                new RateLimitExceededException("429", Duration.ofSeconds(1), new RuntimeException("HTTP 429")));
+        limiter.onUpstreamRateLimited();
+
+        assertEquals(0.5, limiter.rateFactor(), 1e-9);
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("a", List.of(request("three"))));
+        assertEquals(1000, rejected.getRetryAfter().toMillis());
+        assertEquals(2.0, meterRegistry.get("ratelimit.upstream.throttled").counter().count());
+
+        advance(30, TimeUnit.SECONDS);
+        assertEquals(1.0, limiter.rateFactor(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("ratelimit.rate.factor").gauge().value(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should never reject when disabled")
+    void acquire_Disabled_NeverRejects() {
+        properties.setEnabled(false);
+        ClientRateLimiter limiter = createLimiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("a", List.of(request("prompt")));
+        }
+        limiter.onUpstreamRateLimited();
+
+        assertEquals(1.0, limiter.rateFactor());
+    }
+
+    @Test
+    @DisplayName("Should key clients by a known API key, falling back to the remote address")
+    void resolveClientKey_KnownHeaderOrRemoteAddress() {
+        properties.getClientKeys().add("client-1");
+        ClientRateLimiter limiter = createLimiter();
+        MockHttpServletRequest withKey = new MockHttpServletRequest();
+        withKey.addHeader("X-API-Key", "client-1");
+        MockHttpServletRequest withUnknownKey = new MockHttpServletRequest();
+        withUnknownKey.addHeader("X-API-Key", "rotated-" + System.nanoTime());
+        withUnknownKey.setRemoteAddr("10.0.0.7");
+        MockHttpServletRequest withoutKey = new MockHttpServletRequest();
+        withoutKey.setRemoteAddr("10.0.0.7");
+
+        assertEquals("key:client-1", limiter.resolveClientKey(withKey));
+        assertEquals("ip:10.0.0.7", limiter.resolveClientKey(withUnknownKey));
+        assertEquals("ip:10.0.0.7", limiter.resolveClientKey(withoutKey));
+    }
+
+    private ClientRateLimiter createLimiter() {
+        return new ClientRateLimiter(properties, PROFILES, new PromptTokenizer(OPTIONS), meterRegistry, nanos::get);
+    }
+
+    private void advance(long amount, TimeUnit unit) {
+        nanos.addAndGet(unit.toNanos(amount));
+    }
+
+    private GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
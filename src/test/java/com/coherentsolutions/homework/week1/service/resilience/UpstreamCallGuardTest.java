@@ -0,0 +1,259 @@
+package com.coherentsolutions.homework.week1.service.resilience;
+
+import com.coherentsolutions.homework.week1.config.ResilienceProperties;
+import com.coherentsolutions.homework.week1.exception.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UpstreamCallGuard and its CircuitBreaker.
+ *
+ * Circuit timing runs on a fake clock; retry backoffs are set to a
+ * millisecond so the retry tests do not sleep noticeably.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see UpstreamCallGuard
+ * @see CircuitBreaker
+ */
+class UpstreamCallGuardTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private ResilienceProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UpstreamCallGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(1));
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setHalfOpenCalls(2);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should retry transient failures up to max-attempts")
+    void call_TransientFailures_RetriedUntilSuccess() {
+        guard = createGuard();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = guard.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.get("resilience.retries").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not retry client errors or rate limits")
+    void call_NonRetryableFailures_FailImmediately() {
+        guard = createGuard();
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(NonTransientAiException.class, () -> guard.call(() -> {
+            attempts.incrementAndGet();
+            throw new NonTransientAiException("HTTP 401 - Incorrect API key provided");
+        }));
+        assertThrows(TransientAiException.class, () -> guard.call(() -> {
+            attempts.incrementAndGet();
+            throw new TransientAiException("HTTP 429 - Rate limit reached");
+        }));
+
+        assertEquals(2, attempts.get());
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit, fail fast, then close it after successful trial calls")
+    void call_FailureRateReached_OpensThenRecovers() {
+        properties.getRetry().setMaxAttempts(1);
+        guard = createGuard();
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TransientAiException.class, () -> guard.call(() -> {
+                attempts.incrementAndGet();
+                throw new TransientAiException("HTTP 503");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+
+        CircuitOpenException rejected = assertThrows(CircuitOpenException.class,
+                () -> guard.call(() -> attempts.incrementAndGet()));
+        assertEquals(4, attempts.get());
+        assertEquals(30, rejected.getRetryAfterSeconds());
+        assertEquals(2.0, meterRegistry.get("resilience.circuit.state").gauge().value());
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals("trial", guard.call(() -> "trial"));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, guard.circuitState());
+        assertEquals("trial", guard.call(() -> "trial"));
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    @DisplayName("Should reopen the circuit when a half-open trial call fails")
+    void call_HalfOpenTrialFails_Reopens() {
+        properties.getRetry().setMaxAttempts(1);
+        guard = createGuard();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TransientAiException.class,
+                    () -> guard.call(() -> { throw new TransientAiException("HTTP 503"); }));
+        }
+
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThrows(TransientAiException.class,
+                () -> guard.call(() -> { throw new TransientAiException("HTTP 503"); }));
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+        assertThrows(CircuitOpenException.class, () -> guard.call(() -> "rejected"));
+    }
+
+    @Test
+    @DisplayName("Should count calls slower than slow-call-duration as failures")
+    void call_SlowCalls_OpenCircuit() {
+        properties.getCircuitBreaker().setSlowCallDuration(Duration.ofSeconds(5));
+        guard = createGuard();
+
+        for (int i = 0; i < 4; i++) {
+            guard.call(() -> {
+                nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+                return "slow";
+            });
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+    }
+
+    @Test
+    @DisplayName("Should retry a stream that fails before its first chunk, but not after")
+    void stream_RetriedOnlyBeforeFirstChunk() {
+        guard = createGuard();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        List<String> recovered = guard.stream(() -> subscriptions.incrementAndGet() == 1
+                        ? Flux.<String>error(new TransientAiException("HTTP 503"))
+                        : Flux.just("a", "b"))
+                .collectList()
+                .block();
+        assertEquals(List.of("a", "b"), recovered);
+        assertEquals(2, subscriptions.get());
+
+        subscriptions.set(0);
+        Flux<String> failsMidStream = guard.stream(() -> {
+            subscriptions.incrementAndGet();
+            return Flux.just("a").concatWith(Flux.error(new TransientAiException("HTTP 503")));
+        });
+        assertThrows(TransientAiException.class, failsMidStream::blockLast);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName("Should send a hedge request when the first call is slow and return the first answer")
+    void call_SlowPrimary_HedgeWins() throws InterruptedException {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(1);
+        properties.getHedge().setMinDelay(Duration.ofMillis(20));
+        guard = new UpstreamCallGuard(properties, meterRegistry);
+        guard.call(() -> "warm-up");
+
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+        String result = guard.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                }
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(1.0, meterRegistry.get("resilience.hedges").counter().count());
+        assertEquals(1.0, meterRegistry.get("resilience.hedges.won").counter().count());
+        assertTrue(primaryInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should admit only the hedge call through the Hedge and hand it the late primary answer")
+    void call_SlowPrimary_HedgeAdmittedAndLateAnswerDiscarded() throws InterruptedException {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinSamples(1);
+        properties.getHedge().setMinDelay(Duration.ofMillis(20));
+        guard = new UpstreamCallGuard(properties, meterRegistry);
+        guard.call(() -> "warm-up");
+
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger admitted = new AtomicInteger();
+        BlockingQueue<String> discarded = new LinkedBlockingQueue<>();
+        String result = guard.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    return "late primary";
+                }
+            }
+            return "hedge";
+        }, new UpstreamCallGuard.Hedge<>() {
+            @Override
+            public String admit(Supplier<String> hedgeCall) {
+                admitted.incrementAndGet();
+                return hedgeCall.get();
+            }
+
+            @Override
+            public void discarded(String late) {
+                discarded.add(late);
+            }
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(1, admitted.get());
+        assertEquals("late primary", discarded.poll(5, TimeUnit.SECONDS));
+    }
+
+    private UpstreamCallGuard createGuard() {
+        return new UpstreamCallGuard(properties, meterRegistry, nanos::get);
+    }
+}
@@ -0,0 +1,246 @@
+package com.coherentsolutions.homework.week1.service.routing;
+
+import com.coherentsolutions.homework.week1.config.RoutingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ChatClientRouter and ChatBackend.
+ *
+ * The ChatClients are plain mocks that only serve as identities: each test
+ * call looks up the backend's simulated latency and failure on a manual
+ * clock, so EWMA, decay and health timeouts are tested without sleeping.
+ * MultiProviderRoutingTests covers routing against real HTTP stub servers.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see ChatClientRouter
+ */
+class ChatClientRouterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Map<ChatClient, String> names = new HashMap<>();
+
+    private final Map<ChatClient, Long> latencyMillis = new HashMap<>();
+
+    private final Map<ChatClient, RuntimeException> failures = new HashMap<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RoutingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RoutingProperties();
+        properties.setFailureThreshold(2);
+        properties.setUnhealthyDuration(Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Should prefer the backend with the lowest moving-average latency")
+    void leastLatency_PrefersFasterBackend() {
+        ChatClientRouter router = router(RoutingProperties.Strategy.LEAST_LATENCY,
+                backend("slow", 300, 1), backend("fast", 100, 1));
+
+        List<String> picks = callTimes(router, 10);
+
+        // both are probed once, then the fast one wins every call
+        assertThat(picks.subList(0, 2)).containsExactlyInAnyOrder("slow", "fast");
+        assertThat(picks.subList(2, 10)).containsOnly("fast");
+        assertThat(meterRegistry.get("routing.backend.latency").tag("backend", "fast")
+                .timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Should move away from a backend whose latency goes up")
+    void leastLatency_FollowsLatencyChange() {
+        ChatBackend first = backend("first", 100, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.LEAST_LATENCY, first, backend("second", 200, 1));
+        callTimes(router, 4);
+
+        latencyMillis.put(first.getChatClient(), 1000L);
+
+        // one slow call lifts first's average to 370 ms, above second's 200 ms
+        assertThat(callTimes(router, 3)).containsExactly("first", "second", "second");
+    }
+
+    @Test
+    @DisplayName("Should try a slow backend again once its idle average has decayed")
+    void leastLatency_RetriesIdleBackendAfterDecay() {
+        properties.setEwmaDecay(Duration.ofSeconds(1));
+        ChatClientRouter router = router(RoutingProperties.Strategy.LEAST_LATENCY,
+                backend("slow", 500, 1), backend("fast", 100, 1));
+
+        List<String> picks = callTimes(router, 30);
+
+        // 500 ms decays below 100 ms after ln(5) s, i.e. about 16 fast calls
+        assertThat(picks.subList(2, 12)).containsOnly("fast");
+        assertThat(picks.subList(12, 30)).contains("slow");
+    }
+
+    @Test
+    @DisplayName("Should spread calls in proportion to the weights")
+    void weightedRoundRobin_FollowsWeights() {
+        ChatClientRouter router = router(RoutingProperties.Strategy.WEIGHTED_ROUND_ROBIN,
+                backend("a", 10, 2), backend("b", 10, 1));
+
+        assertThat(callTimes(router, 6)).containsExactly("a", "b", "a", "a", "b", "a");
+    }
+
+    @Test
+    @DisplayName("Should use the first backend until it fails, then move on and come back after the cooldown")
+    void failover_UsesPrimaryUntilUnhealthy() {
+        ChatBackend primary = backend("primary", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, primary, backend("secondary", 10, 1));
+        assertThat(callTimes(router, 2)).containsOnly("primary");
+
+        failures.put(primary.getChatClient(), new TransientAiException("HTTP 503 - overloaded"));
+        assertThat(callTimes(router, 3)).containsOnly("secondary");
+        assertThat(primary.isHealthy(clock.get())).isFalse();
+        assertThat(primary.getFailures()).isEqualTo(2);
+        assertThat(meterRegistry.get("routing.failovers").tag("backend", "primary").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("routing.backend.healthy").tag("backend", "primary").gauge().value()).isZero();
+
+        failures.remove(primary.getChatClient());
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(callTimes(router, 1)).containsOnly("primary");
+        assertThat(primary.getConsecutiveFailures()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail over on upstream rate limits, since backends have their own quotas")
+    void call_RateLimited_FailsOver() {
+        ChatBackend first = backend("first", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, first, backend("second", 10, 1));
+        failures.put(first.getChatClient(), new NonTransientAiException("HTTP 429 - Rate limit reached"));
+
+        assertThat(callTimes(router, 1)).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("Should keep backends in rotation on a negative nanoTime origin")
+    void isHealthy_NegativeClock_NewAndRecoveredBackendsInRotation() {
+        clock.set(-TimeUnit.HOURS.toNanos(1));
+        ChatBackend first = backend("first", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, first, backend("second", 10, 1));
+
+        assertThat(first.isHealthy(clock.get())).isTrue();
+        assertThat(callTimes(router, 1)).containsExactly("first");
+
+        failures.put(first.getChatClient(), new TransientAiException("HTTP 503 - first"));
+        callTimes(router, 2);
+        assertThat(first.isHealthy(clock.get())).isFalse();
+
+        failures.remove(first.getChatClient());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertThat(callTimes(router, 2)).containsExactly("first", "first");
+        assertThat(first.isHealthy(clock.get())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not fail over errors caused by the request itself")
+    void call_BadRequest_FailsWithoutFailover() {
+        ChatBackend first = backend("first", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, first, backend("second", 10, 1));
+        failures.put(first.getChatClient(), new NonTransientAiException("HTTP 400 - invalid request"));
+
+        assertThatThrownBy(() -> router.call(this::simulate)).isInstanceOf(NonTransientAiException.class);
+        assertThat(first.isHealthy(clock.get())).isTrue();
+        assertThat(first.getFailures()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should throw the last error when every backend failed, and still try unhealthy backends")
+    void call_AllBackendsFail_ThrowsLastError() {
+        ChatBackend first = backend("first", 10, 1);
+        ChatBackend second = backend("second", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, first, second);
+        failures.put(first.getChatClient(), new TransientAiException("HTTP 503 - first"));
+        failures.put(second.getChatClient(), new TransientAiException("HTTP 503 - second"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> router.call(this::simulate)).hasMessageContaining("second");
+        }
+        assertThat(first.isHealthy(clock.get())).isFalse();
+        assertThat(second.isHealthy(clock.get())).isFalse();
+
+        failures.remove(second.getChatClient());
+        assertThat(callTimes(router, 1)).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("Should fail a stream over before its first chunk, but not after")
+    void stream_FailsOverOnlyBeforeFirstChunk() {
+        ChatBackend first = backend("first", 10, 1);
+        ChatBackend second = backend("second", 10, 1);
+        ChatClientRouter router = router(RoutingProperties.Strategy.FAILOVER, first, second);
+
+        List<String> chunks = router.stream(client -> client == first.getChatClient()
+                        ? Flux.<String>error(new TransientAiException("HTTP 502"))
+                        : Flux.just("from ", names.get(client)))
+                .collectList().block();
+        assertThat(chunks).containsExactly("from ", "second");
+
+        Function<ChatClient, Flux<String>> failsMidway = client -> Flux.concat(
+                Flux.just(names.get(client)), Flux.error(new TransientAiException("HTTP 502")));
+        List<String> received = new ArrayList<>();
+        assertThatThrownBy(() -> router.stream(failsMidway).doOnNext(received::add).blockLast())
+                .isInstanceOf(TransientAiException.class);
+        assertThat(received).hasSize(1);
+        assertThat(first.getInFlight()).isZero();
+        assertThat(second.getInFlight()).isZero();
+    }
+
+    private ChatClientRouter router(RoutingProperties.Strategy strategy, ChatBackend... backends) {
+        return new ChatClientRouter(List.of(backends), strategy, meterRegistry, clock::get);
+    }
+
+    private ChatBackend backend(String name, long millis, int weight) {
+        ChatClient client = mock(ChatClient.class);
+        names.put(client, name);
+        latencyMillis.put(client, millis);
+        return ChatClientRouter.backend(name, client, weight, properties);
+    }
+
+    /**
+     * Stands in for the model call: advances the clock by the backend's
+     * latency, then fails or returns the backend's name.
+     */
+    private String simulate(ChatClient client) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis.get(client)));
+        RuntimeException failure = failures.get(client);
+        if (failure != null) {
+            throw failure;
+        }
+        return names.get(client);
+    }
+
+    private List<String> callTimes(ChatClientRouter router, int times) {
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            picks.add(router.call(this::simulate));
+        }
+        return picks;
+    }
+}
@@ -0,0 +1,232 @@
+package com.coherentsolutions.homework.week1.service.scheduling;
+
+import com.coherentsolutions.homework.week1.config.SchedulerProperties;
+import com.coherentsolutions.homework.week1.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for UpstreamScheduler.
+ *
+ * With a single slot, held by a call that waits on a latch, later calls
+ * queue up in a known order; releasing the latch then shows the order in
+ * which the scheduler hands out the slot.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see UpstreamScheduler
+ */
+class UpstreamSchedulerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final CountDownLatch holdSlot = new CountDownLatch(1);
+
+    private SchedulerProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SchedulerProperties();
+        properties.setEnabled(true);
+        properties.setSlots(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdSlot.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should hand out slots in proportion to the class weights")
+    void call_BothClassesWaiting_ServedByWeight() throws Exception {
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+        List<String> served = Collections.synchronizedList(new ArrayList<>());
+        Future<?> holder = occupySlot(scheduler);
+
+        List<Future<String>> calls = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            calls.add(queue(scheduler, UpstreamScheduler.BATCH, "b" + i, served, i));
+        }
+        for (int i = 1; i <= 4; i++) {
+            calls.add(queue(scheduler, "interactive", "i" + i, served, i));
+        }
+        holdSlot.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        for (Future<String> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+
+        // weights 4:1 -> interactive tags 0.25, 0.5, 0.75, 1.0; batch tags 1, 2, 3, 4 (b1 queued before i4)
+        assertThat(served).containsExactly("i1", "i2", "i3", "b1", "i4", "b2", "b3", "b4");
+        assertThat(meterRegistry.get("scheduler.queue.wait").tag("class", "batch").timer().count()).isEqualTo(4);
+        assertThat(scheduler.slotsInUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail with 503 once a call waited longer than its class's queue timeout")
+    void call_NoSlotInTime_ThrowsServiceOverloaded() throws Exception {
+        properties.getClasses().get("interactive").setQueueTimeout(Duration.ofMillis(50));
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+        occupySlot(scheduler);
+
+        assertThatThrownBy(() -> scheduler.call(() -> "never"))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        assertThat(meterRegistry.get("scheduler.rejected").tag("class", "interactive").counter().count()).isEqualTo(1);
+        assertThat(queueLength("interactive")).isZero();
+        assertThat(scheduler.slotsInUse()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should free the slot when the call fails, and pass calls through when disabled")
+    void call_FailureAndDisabled_SlotFreed() {
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+
+        assertThatThrownBy(() -> scheduler.call(() -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(scheduler.slotsInUse()).isZero();
+        assertThat(scheduler.call(() -> "ok")).isEqualTo("ok");
+
+        properties.setEnabled(false);
+        UpstreamScheduler disabled = new UpstreamScheduler(properties, new SimpleMeterRegistry());
+        assertThat(disabled.call(disabled::slotsInUse)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold a slot for a stream until it completes")
+    void stream_Running_HoldsSlotUntilComplete() {
+        properties.getClasses().get("interactive").setQueueTimeout(Duration.ofMillis(50));
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.stream(upstream::asFlux).subscribe(received::add);
+        upstream.tryEmitNext("token");
+
+        assertThat(scheduler.slotsInUse()).isEqualTo(1);
+        assertThatThrownBy(() -> scheduler.call(() -> "blocked"))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        upstream.tryEmitComplete();
+        assertThat(received).containsExactly("token");
+        assertThat(scheduler.slotsInUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should start a queued stream once a slot is freed, and free it when the stream is cancelled")
+    void stream_NoSlotFree_WaitsWithoutBlockingThenFreesOnCancel() throws Exception {
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+        Future<?> holder = occupySlot(scheduler);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        Disposable stream = scheduler.stream(() -> {
+            subscriptions.incrementAndGet();
+            return Flux.<String>never();
+        }).subscribe();
+
+        assertThat(queueLength("interactive")).isEqualTo(1);
+        assertThat(subscriptions.get()).isZero();
+
+        holdSlot.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        awaitCondition(() -> subscriptions.get() == 1);
+        assertThat(scheduler.slotsInUse()).isEqualTo(1);
+        assertThat(meterRegistry.get("scheduler.queue.wait").tag("class", "interactive").timer().count()).isEqualTo(2);
+
+        stream.dispose();
+        assertThat(scheduler.slotsInUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail a queued stream with 503 after the queue timeout, and drop a cancelled one from the queue")
+    void stream_NoSlotInTime_FailsWithServiceOverloaded() throws Exception {
+        properties.getClasses().get(UpstreamScheduler.BATCH).setQueueTimeout(Duration.ofMillis(50));
+        UpstreamScheduler scheduler = new UpstreamScheduler(properties, meterRegistry);
+        occupySlot(scheduler);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        UpstreamScheduler.runAs(UpstreamScheduler.BATCH, () -> scheduler.stream(() -> Flux.just("never")))
+                .subscribe(token -> { }, failure::set);
+        Disposable cancelled = scheduler.stream(() -> Flux.just("never")).subscribe();
+        cancelled.dispose();
+
+        awaitCondition(() -> failure.get() != null);
+        assertThat(failure.get()).isInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("scheduler.rejected").tag("class", "batch").counter().count()).isEqualTo(1);
+        assertThat(queueLength("batch")).isZero();
+        assertThat(queueLength("interactive")).isZero();
+        assertThat(scheduler.slotsInUse()).isEqualTo(1);
+    }
+
+    /**
+     * Starts a call that holds the only slot until holdSlot is released.
+     */
+    private Future<?> occupySlot(UpstreamScheduler scheduler) throws InterruptedException {
+        Future<?> holder = executor.submit(() -> scheduler.call(() -> {
+            try {
+                return holdSlot.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        awaitCondition(() -> scheduler.slotsInUse() == 1);
+        return holder;
+    }
+
+    /**
+     * Starts a call of the given class and waits until it is queued, so
+     * calls queue in the order this method is called.
+     */
+    private Future<String> queue(UpstreamScheduler scheduler, String schedulingClass, String name,
+                                 List<String> served, int expectedQueueLength) throws InterruptedException {
+        Future<String> call = executor.submit(() -> UpstreamScheduler.runAs(schedulingClass,
+                () -> scheduler.call(() -> {
+                    served.add(name);
+                    return name;
+                })));
+        awaitCondition(() -> queueLength(schedulingClass) == expectedQueueLength);
+        return call;
+    }
+
+    private double queueLength(String schedulingClass) {
+        return meterRegistry.get("scheduler.queue.length").tag("class", schedulingClass).gauge().value();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5s");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.coherentsolutions.homework.week1.service.semantic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HnswIndex.
+ *
+ * Recall is measured against a brute-force scan over the same random vectors,
+ * which is the reference an approximate index has to approach.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see HnswIndex
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    private final Random random = new Random(7);
+
+    @Test
+    @DisplayName("Should find the true nearest neighbour for almost every query")
+    void search_RandomVectors_HighRecallAgainstBruteForce() {
+        HnswIndex<Integer> index = new HnswIndex<>(5000, 16, 100, 64);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            float[] vector = randomVector();
+            vectors.add(vector);
+            index.add(vector, i);
+        }
+
+        int found = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector();
+            int expected = IntStream.range(0, vectors.size()).boxed()
+                    .max(Comparator.comparingDouble(i -> cosine(query, vectors.get(i))))
+                    .orElseThrow();
+            if (index.search(query, 1).get(0).value() == expected) {
+                found++;
+            }
+        }
+
+        assertTrue(found >= queries * 0.95, "recall@1 was " + found + "/" + queries);
+    }
+
+    @Test
+    @DisplayName("Should return matches ordered by similarity with exact scores")
+    void search_ReturnsMostSimilarFirst() {
+        HnswIndex<String> index = new HnswIndex<>(10, 4, 20, 20);
+        index.add(new float[]{1, 0, 0}, "x");
+        index.add(new float[]{0, 1, 0}, "y");
+        index.add(new float[]{1, 1, 0}, "xy");
+
+        List<HnswIndex.Match<String>> matches = index.search(new float[]{2, 0, 0}, 3);
+
+        assertEquals(List.of("x", "xy", "y"), matches.stream().map(HnswIndex.Match::value).toList());
+        assertEquals(1.0, matches.get(0).similarity(), 1e-6);
+        assertEquals(Math.sqrt(0.5), matches.get(1).similarity(), 1e-6);
+        assertEquals(0.0, matches.get(2).similarity(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest entries once the size bound is reached")
+    void add_BeyondMaximumSize_EvictsOldest() {
+        HnswIndex<Integer> index = new HnswIndex<>(100, 8, 40, 40);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 350; i++) {
+            float[] vector = randomVector();
+            vectors.add(vector);
+            index.add(vector, i);
+        }
+
+        assertEquals(100, index.size());
+        assertEquals(250, index.evictionCount());
+        assertEquals(349, index.search(vectors.get(349), 1).get(0).value());
+        assertNotEquals(0, index.search(vectors.get(0), 1).get(0).value());
+        assertTrue(index.search(vectors.get(0), 100).stream().allMatch(match -> match.value() >= 250));
+    }
+
+    @Test
+    @DisplayName("Should evict from the oldest end while the condition holds")
+    void evictOldestWhile_StopsAtFirstEntryNotMatching() {
+        HnswIndex<Integer> index = new HnswIndex<>(100, 8, 40, 40);
+        for (int i = 0; i < 10; i++) {
+            index.add(randomVector(), i);
+        }
+
+        int evicted = index.evictOldestWhile(value -> value < 3 || value == 5);
+
+        assertEquals(3, evicted);
+        assertEquals(7, index.size());
+    }
+
+    @Test
+    @DisplayName("Should reject vectors of a different dimension")
+    void add_MismatchedDimensions_Throws() {
+        HnswIndex<String> index = new HnswIndex<>(10, 4, 10, 10);
+        index.add(new float[]{1, 0}, "a");
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[]{1, 0, 0}, "b"));
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[]{0, 0}, "zero"));
+        assertTrue(new HnswIndex<String>(10, 4, 10, 10).search(new float[]{1, 0}, 1).isEmpty());
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
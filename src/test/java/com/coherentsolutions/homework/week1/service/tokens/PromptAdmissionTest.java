@@ -0,0 +1,134 @@
+package com.coherentsolutions.homework.week1.service.tokens;
+
+import com.coherentsolutions.homework.week1.config.GenerationOptions;
+import com.coherentsolutions.homework.week1.config.GenerationProfileProperties;
+import com.coherentsolutions.homework.week1.config.PromptTokenProperties;
+import com.coherentsolutions.homework.week1.dto.GenerateRequest;
+import com.coherentsolutions.homework.week1.exception.PromptTooLongException;
+import com.coherentsolutions.homework.week1.service.GenerationMetrics;
+import com.coherentsolutions.homework.week1.service.profile.GenerationProfiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PromptAdmission and PromptTokenizer.
+ *
+ * Uses the real cl100k_base vocabulary, so the counts below are the ones
+ * OpenAI reports for gpt-3.5-turbo.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see PromptAdmission
+ */
+class PromptAdmissionTest {
+
+    private static final GenerationOptions OPTIONS = new GenerationOptions("gpt-3.5-turbo", 0.7, 150);
+
+    private static final GenerationProfiles PROFILES = new GenerationProfiles(new GenerationProfileProperties(), OPTIONS);
+
+    private final PromptTokenizer tokenizer = new PromptTokenizer(OPTIONS);
+
+    private PromptTokenProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PromptTokenProperties();
+        properties.setMaxPromptTokens(10);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should count tokens, not characters, and add the chat overhead")
+    void tokenizer_CountsWithModelEncoding() {
+        assertEquals("cl100k_base", tokenizer.encodingName());
+        assertEquals(8, tokenizer.countTokens("Tell me a fun fact about Spring Boot"));
+        assertEquals(8, tokenizer.countTokens("😀😀😀😀"));
+        assertEquals(21, tokenizer.chatOverhead());
+        assertEquals(29, tokenizer.countChatTokens("Tell me a fun fact about Spring Boot"));
+        assertEquals("o200k_base", new PromptTokenizer(new GenerationOptions("gpt-4o-mini", 0.7, 150)).encodingName());
+    }
+
+    @Test
+    @DisplayName("Should admit a prompt within the limit and record its chat tokens")
+    void admit_WithinLimit_ReturnsRequestAndRecordsTokens() {
+        GenerateRequest request = request("Tell me a fun fact about Spring Boot");
+
+        assertSame(request, createAdmission().admit(request));
+        assertEquals(29, meterRegistry.get(GenerationMetrics.PROMPT_TOKENS).tag("model", "gpt-3.5-turbo")
+                .summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("generate.prompt.admission").tag("outcome", "admitted").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject a short but token-dense prompt")
+    void admit_OverLimit_ThrowsPromptTooLong() {
+        PromptAdmission admission = createAdmission();
+
+        PromptTooLongException exception = assertThrows(PromptTooLongException.class,
+                () -> admission.admit(request("日本語のテキスト😀😀")));
+
+        assertEquals(12, exception.getPromptTokens());
+        assertEquals(10, exception.getMaxPromptTokens());
+        assertEquals(1.0, meterRegistry.get("generate.prompt.admission").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should truncate an over-long prompt to the limit when configured to")
+    void admit_OverLimitTruncate_CutsPrompt() {
+        properties.setOverflow(PromptTokenProperties.Overflow.TRUNCATE);
+        String prompt = "Tell me a fun fact about Spring Boot and why developers like it";
+
+        GenerateRequest admitted = createAdmission().admit(request(prompt));
+
+        assertTrue(prompt.startsWith(admitted.getPrompt()));
+        assertEquals(10, tokenizer.countTokens(admitted.getPrompt()));
+        assertEquals(1.0, meterRegistry.get("generate.prompt.admission").tag("outcome", "truncated").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should never cut a surrogate pair in half")
+    void truncate_Emoji_KeepsWholeCharacters() {
+        String truncated = tokenizer.truncate("😀😀😀😀", 3);
+
+        assertEquals("😀", truncated);
+        assertEquals("<|endoftext|>", tokenizer.truncate("<|endoftext|>", 7));
+    }
+
+    @Test
+    @DisplayName("Should cap the limit by what the context window leaves and fail on no room")
+    void constructor_ContextWindow_CapsLimit() {
+        properties.setMaxPromptTokens(1024);
+        properties.setContextWindow(500);
+        assertEquals(500 - 21 - 150, createAdmission().maxPromptTokens());
+
+        properties.setContextWindow(100);
+        assertThrows(IllegalStateException.class, this::createAdmission);
+    }
+
+    @Test
+    @DisplayName("Should pass everything through when disabled")
+    void admit_Disabled_DoesNotCount() {
+        properties.setEnabled(false);
+        GenerateRequest request = request("日本語のテキスト😀😀");
+
+        assertSame(request, createAdmission().admit(request));
+        assertNull(meterRegistry.find(GenerationMetrics.PROMPT_TOKENS).summary());
+    }
+
+    private PromptAdmission createAdmission() {
+        return new PromptAdmission(tokenizer, properties, PROFILES, new GenerationMetrics(meterRegistry, PROFILES),
+                meterRegistry);
+    }
+
+    private static GenerateRequest request(String prompt) {
+        GenerateRequest request = new GenerateRequest();
+        request.setPrompt(prompt);
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package com.coherentsolutions.homework.week1.stub;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * How long the stub takes before its first token.
+ *
+ * Real model latency is far from constant: most calls are close to the
+ * median, a few take several times as long. A fixed delay hides exactly
+ * the tail that p99 numbers are about, so the stub can also draw from a
+ * uniform or a log-normal distribution.
+ *
+ * Specs, as used on the command line:
+ * - "fixed:300ms"
+ * - "uniform:100ms:900ms"
+ * - "lognormal:300ms:2s" (median and p99)
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAiStubServer
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * z-score of the 99th percentile of the standard normal distribution.
+     */
+    double Z_99 = 2.3263;
+
+    /**
+     * Draws one latency.
+     *
+     * @param random the stub's random source
+     * @return latency in nanoseconds, never negative
+     */
+    long sampleNanos(Random random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long spread = max.toNanos() - minNanos;
+        if (spread < 0) {
+            throw new IllegalArgumentException("uniform latency needs min <= max");
+        }
+        return random -> minNanos + (spread == 0 ? 0 : (long) (random.nextDouble() * spread));
+    }
+
+    /**
+     * Log-normal latency with the given median and 99th percentile.
+     *
+     * @param median half of the calls are faster than this
+     * @param p99 one call in a hundred is slower than this
+     * @return the distribution
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        if (median.isZero() || median.isNegative() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("lognormal latency needs 0 < median <= p99");
+        }
+        double mu = Math.log(median.toNanos());
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * Parses a spec such as "lognormal:300ms:2s".
+     *
+     * @param spec the spec
+     * @return the distribution
+     * @throws IllegalArgumentException for an unknown kind or wrong number of durations
+     */
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        String kind = parts[0].toLowerCase();
+        return switch (kind) {
+            case "fixed" -> {
+                requireParts(spec, parts, 2);
+                yield fixed(DurationStyle.detectAndParse(parts[1]));
+            }
+            case "uniform" -> {
+                requireParts(spec, parts, 3);
+                yield uniform(DurationStyle.detectAndParse(parts[1]), DurationStyle.detectAndParse(parts[2]));
+            }
+            case "lognormal" -> {
+                requireParts(spec, parts, 3);
+                yield logNormal(DurationStyle.detectAndParse(parts[1]), DurationStyle.detectAndParse(parts[2]));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec
+                    + " (expected fixed:D, uniform:MIN:MAX or lognormal:MEDIAN:P99)");
+        };
+    }
+
+    private static void requireParts(String spec, String[] parts, int expected) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Malformed latency distribution: " + spec);
+        }
+    }
+}
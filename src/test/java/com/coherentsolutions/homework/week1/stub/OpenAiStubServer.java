@@ -0,0 +1,496 @@
+package com.coherentsolutions.homework.week1.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local stand-in for the OpenAI chat completions API.
+ *
+ * Load tests against the real API cost money, run into the account's rate
+ * limits and measure the internet as much as this application. This server
+ * answers POST /v1/chat/completions in the same wire format, so the full
+ * application (Spring AI's OpenAI client included) runs against it
+ * unchanged with spring.ai.openai.base-url pointing here.
+ *
+ * What it simulates:
+ * - latency: time to first token drawn from a LatencyDistribution, then
+ *   inter-token-delay per completion token (for plain calls too, as the
+ *   model generates every token before answering)
+ * - streaming: with "stream": true, one chat.completion.chunk per token,
+ *   a final chunk with finish_reason, a usage chunk when
+ *   stream_options.include_usage is set, and data: [DONE]
+ * - usage: prompt tokens estimated from the messages (about four characters
+ *   per token plus framing), completion tokens as generated
+ * - faults, drawn per call: 429 with Retry-After, 500/503, and timeouts
+ *   (the call hangs for timeout-delay, then the connection is closed)
+ * - the requested model is echoed back
+ *
+ * Every call is counted by outcome ("ok", "429", "5xx", "timeout"), so tests
+ * and the load harness can check what the application actually sent.
+ *
+ * Start it from code with builder(), or on its own with main(), e.g.
+ * --port=8089 --latency=lognormal:300ms:2s --error-429=0.02
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see LatencyDistribution
+ */
+public final class OpenAiStubServer implements AutoCloseable {
+
+    private static final String[] WORDS = {"Spring", "Boot", "makes", "it", "easy", "to", "create", "stand-alone",
+            "production-grade", "applications", "that", "you", "can", "just", "run", "with", "sensible", "defaults"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Settings settings;
+
+    private final Random random;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private volatile int forcedStatus;
+
+    private volatile String lastModel;
+
+    private OpenAiStubServer(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed);
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", settings.port), settings.backlog);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the OpenAI stub on port " + settings.port, e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the stub on its own until the process is stopped.
+     *
+     * @param args --port, --latency, --inter-token-delay, --completion-tokens,
+     *             --error-429, --error-5xx, --timeouts, --timeout-delay, --seed
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Builder builder = builder().port(8089);
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2 || !builder.option(option[0], option[1])) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        try (OpenAiStubServer stub = builder.start()) {
+            System.out.println("OpenAI stub listening on " + stub.baseUrl());
+            stub.closed.await();
+        }
+    }
+
+    /**
+     * Base URL for spring.ai.openai.base-url.
+     *
+     * @return e.g. "http://localhost:8089"
+     */
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answers every following call with this status instead of drawing an
+     * outcome; 0 goes back to normal.
+     *
+     * @param status HTTP status, e.g. 503
+     */
+    public void forceStatus(int status) {
+        this.forcedStatus = status;
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls per outcome so far.
+     *
+     * @return counts keyed "ok", "429", "5xx" and "timeout"
+     */
+    public Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Returns the model named by the most recent call.
+     *
+     * @return the model, or null before the first call
+     */
+    public String lastModel() {
+        return lastModel;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        closed.countDown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            calls.incrementAndGet();
+            String model = request.path("model").asText("gpt-3.5-turbo");
+            lastModel = model;
+
+            int status = forcedStatus != 0 ? forcedStatus : drawStatus();
+            if (status == 0) {
+                count("timeout");
+                // never answers within any sensible client timeout; the connection is then dropped
+                sleepNanos(settings.timeoutDelay.toNanos());
+                return;
+            }
+            if (status != 200) {
+                count(status == 429 ? "429" : "5xx");
+                sendError(exchange, status);
+                return;
+            }
+
+            count("ok");
+            sleepNanos(settings.latency.sampleNanos(random));
+            int promptTokens = estimatePromptTokens(request);
+            if (request.path("stream").asBoolean(false)) {
+                stream(exchange, model, promptTokens, request.path("stream_options").path("include_usage").asBoolean());
+            } else {
+                complete(exchange, model, promptTokens);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int drawStatus() {
+        double draw = random.nextDouble();
+        if (draw < settings.rateLimitRate) {
+            return 429;
+        }
+        draw -= settings.rateLimitRate;
+        if (draw < settings.serverErrorRate) {
+            return random.nextBoolean() ? 500 : 503;
+        }
+        draw -= settings.serverErrorRate;
+        return draw < settings.timeoutRate ? 0 : 200;
+    }
+
+    private void complete(HttpExchange exchange, String model, int promptTokens)
+            throws IOException, InterruptedException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < settings.completionTokens; i++) {
+            sleepNanos(settings.interTokenDelay.toNanos());
+            content.append(i == 0 ? "" : " ").append(WORDS[i % WORDS.length]);
+        }
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("id", "chatcmpl-stub-" + calls.get())
+                .put("object", "chat.completion")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+        ObjectNode choice = body.putArray("choices").addObject().put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", content.toString());
+        choice.put("finish_reason", "stop");
+        body.set("usage", usage(promptTokens));
+        send(exchange, 200, "application/json", objectMapper.writeValueAsBytes(body));
+    }
+
+    private void stream(HttpExchange exchange, String model, int promptTokens, boolean includeUsage)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        String id = "chatcmpl-stub-" + calls.get();
+        try (OutputStream out = exchange.getResponseBody()) {
+            ObjectNode first = chunk(id, model);
+            ((ObjectNode) first.withArray("choices").get(0)).putObject("delta").put("role", "assistant").put("content", "");
+            writeEvent(out, first);
+            for (int i = 0; i < settings.completionTokens; i++) {
+                sleepNanos(settings.interTokenDelay.toNanos());
+                ObjectNode token = chunk(id, model);
+                ((ObjectNode) token.withArray("choices").get(0)).putObject("delta")
+                        .put("content", (i == 0 ? "" : " ") + WORDS[i % WORDS.length]);
+                writeEvent(out, token);
+            }
+            ObjectNode last = chunk(id, model);
+            ((ObjectNode) last.withArray("choices").get(0)).put("finish_reason", "stop").putObject("delta");
+            writeEvent(out, last);
+            if (includeUsage) {
+                ObjectNode usage = chunk(id, model);
+                usage.putArray("choices");
+                usage.set("usage", usage(promptTokens));
+                writeEvent(out, usage);
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private ObjectNode chunk(String id, String model) {
+        ObjectNode chunk = objectMapper.createObjectNode()
+                .put("id", id)
+                .put("object", "chat.completion.chunk")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+        ArrayNode choices = chunk.putArray("choices");
+        choices.addObject().put("index", 0);
+        return chunk;
+    }
+
+    private void writeEvent(OutputStream out, JsonNode data) throws IOException {
+        out.write(("data: " + objectMapper.writeValueAsString(data) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private ObjectNode usage(int promptTokens) {
+        return objectMapper.createObjectNode()
+                .put("prompt_tokens", promptTokens)
+                .put("completion_tokens", settings.completionTokens)
+                .put("total_tokens", promptTokens + settings.completionTokens);
+    }
+
+    private void sendError(HttpExchange exchange, int status) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode error = body.putObject("error");
+        if (status == 429) {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            error.put("message", "Rate limit reached for requests (stub)")
+                    .put("type", "requests")
+                    .put("code", "rate_limit_exceeded");
+        } else {
+            error.put("message", "The server had an error while processing your request (stub)")
+                    .put("type", "server_error");
+        }
+        send(exchange, status, "application/json", objectMapper.writeValueAsBytes(body));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Rough prompt token count: about four characters per token, plus the
+     * per-message framing OpenAI adds. Good enough for usage metadata; the
+     * application counts exactly with its own tokenizer.
+     */
+    private static int estimatePromptTokens(JsonNode request) {
+        int tokens = 3;
+        for (JsonNode message : request.path("messages")) {
+            tokens += 3 + (message.path("content").asText().length() + 3) / 4;
+        }
+        return tokens;
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    /**
+     * Builds and starts a stub. Defaults: random port, 50 ms fixed latency,
+     * no inter-token delay, 20 completion tokens, no faults.
+     */
+    public static final class Builder {
+
+        private final Settings settings = new Settings();
+
+        private Builder() {
+        }
+
+        /**
+         * @param port port to listen on, 0 for any free port
+         */
+        public Builder port(int port) {
+            settings.port = port;
+            return this;
+        }
+
+        /**
+         * @param latency time to first token
+         */
+        public Builder latency(LatencyDistribution latency) {
+            settings.latency = latency;
+            return this;
+        }
+
+        /**
+         * @param delay time per completion token after the first
+         */
+        public Builder interTokenDelay(Duration delay) {
+            settings.interTokenDelay = delay;
+            return this;
+        }
+
+        /**
+         * @param tokens completion tokens per answer
+         */
+        public Builder completionTokens(int tokens) {
+            settings.completionTokens = tokens;
+            return this;
+        }
+
+        /**
+         * @param rate share of calls answered 429, 0 to 1
+         */
+        public Builder rateLimitRate(double rate) {
+            settings.rateLimitRate = rate;
+            return this;
+        }
+
+        /**
+         * @param rate share of calls answered 500 or 503, 0 to 1
+         */
+        public Builder serverErrorRate(double rate) {
+            settings.serverErrorRate = rate;
+            return this;
+        }
+
+        /**
+         * @param rate share of calls that hang and are then dropped, 0 to 1
+         */
+        public Builder timeoutRate(double rate) {
+            settings.timeoutRate = rate;
+            return this;
+        }
+
+        /**
+         * @param delay how long a timed-out call hangs before the connection is dropped
+         */
+        public Builder timeoutDelay(Duration delay) {
+            settings.timeoutDelay = delay;
+            return this;
+        }
+
+        /**
+         * @param seed seed of the random source for latencies and faults
+         */
+        public Builder seed(long seed) {
+            settings.seed = seed;
+            return this;
+        }
+
+        /**
+         * @param backlog TCP accept backlog; raise for thousands of concurrent connections
+         */
+        public Builder backlog(int backlog) {
+            settings.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Applies a command-line option such as latency=lognormal:300ms:2s.
+         *
+         * @param name option name without the leading dashes
+         * @param value option value
+         * @return false if the option is not a stub option
+         */
+        public boolean option(String name, String value) {
+            switch (name) {
+                case "port" -> port(Integer.parseInt(value));
+                case "latency" -> latency(LatencyDistribution.parse(value));
+                case "inter-token-delay" -> interTokenDelay(DurationStyle.detectAndParse(value));
+                case "completion-tokens" -> completionTokens(Integer.parseInt(value));
+                case "error-429" -> rateLimitRate(Double.parseDouble(value));
+                case "error-5xx" -> serverErrorRate(Double.parseDouble(value));
+                case "timeouts" -> timeoutRate(Double.parseDouble(value));
+                case "timeout-delay" -> timeoutDelay(DurationStyle.detectAndParse(value));
+                case "seed" -> seed(Long.parseLong(value));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public OpenAiStubServer start() {
+            if (settings.rateLimitRate + settings.serverErrorRate + settings.timeoutRate > 1.0) {
+                throw new IllegalArgumentException("Fault rates must add up to at most 1");
+            }
+            return new OpenAiStubServer(settings.copy());
+        }
+    }
+
+    private static final class Settings {
+
+        int port;
+
+        LatencyDistribution latency = LatencyDistribution.fixed(Duration.ofMillis(50));
+
+        Duration interTokenDelay = Duration.ZERO;
+
+        int completionTokens = 20;
+
+        double rateLimitRate;
+
+        double serverErrorRate;
+
+        double timeoutRate;
+
+        Duration timeoutDelay = Duration.ofSeconds(120);
+
+        long seed = 42;
+
+        int backlog = 1024;
+
+        Settings copy() {
+            Settings copy = new Settings();
+            copy.port = port;
+            copy.latency = latency;
+            copy.interTokenDelay = interTokenDelay;
+            copy.completionTokens = completionTokens;
+            copy.rateLimitRate = rateLimitRate;
+            copy.serverErrorRate = serverErrorRate;
+            copy.timeoutRate = timeoutRate;
+            copy.timeoutDelay = timeoutDelay;
+            copy.seed = seed;
+            copy.backlog = backlog;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.coherentsolutions.homework.week1.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for OpenAiStubServer and LatencyDistribution.
+ *
+ * The stub is what the routing tests and the load harness trust to behave
+ * like the real API, so these tests check its wire format directly with
+ * a plain HTTP client.
+ *
+ * @author Student Name
+ * @version 1.0
+ * @see OpenAiStubServer
+ */
+class OpenAiStubServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OpenAiStubServer stub;
+
+    @AfterEach
+    void tearDown() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer a completion with the requested model and usage metadata")
+    void completion_ReturnsUsage() throws Exception {
+        stub = OpenAiStubServer.builder().latency(LatencyDistribution.fixed(Duration.ZERO)).completionTokens(5).start();
+
+        HttpResponse<String> response = post("""
+                {"model":"gpt-4o-mini","messages":[{"role":"user","content":"Tell me a fun fact"}]}
+                """);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(response.body());
+        assertThat(body.path("model").asText()).isEqualTo("gpt-4o-mini");
+        assertThat(body.path("choices").get(0).path("message").path("content").asText())
+                .isEqualTo("Spring Boot makes it easy");
+        assertThat(body.path("usage").path("completion_tokens").asInt()).isEqualTo(5);
+        assertThat(body.path("usage").path("prompt_tokens").asInt()).isEqualTo(11);
+        assertThat(body.path("usage").path("total_tokens").asInt()).isEqualTo(16);
+        assertThat(stub.outcomes()).containsEntry("ok", 1L);
+    }
+
+    @Test
+    @DisplayName("Should stream one chunk per token, then usage and [DONE]")
+    void stream_SendsChunksUsageAndDone() throws Exception {
+        stub = OpenAiStubServer.builder()
+                .latency(LatencyDistribution.fixed(Duration.ZERO))
+                .interTokenDelay(Duration.ofMillis(1))
+                .completionTokens(3)
+                .start();
+
+        HttpResponse<String> response = post("""
+                {"model":"gpt-3.5-turbo","stream":true,"stream_options":{"include_usage":true},
+                 "messages":[{"role":"user","content":"Hi"}]}
+                """);
+
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("text/event-stream");
+        List<String> events = response.body().lines().filter(line -> line.startsWith("data: "))
+                .map(line -> line.substring(6)).toList();
+        // role chunk, three tokens, finish chunk, usage chunk, [DONE]
+        assertThat(events).hasSize(7);
+        assertThat(events.getLast()).isEqualTo("[DONE]");
+        StringBuilder content = new StringBuilder();
+        for (String event : events.subList(0, 4)) {
+            content.append(objectMapper.readTree(event).path("choices").get(0).path("delta").path("content").asText());
+        }
+        assertThat(content).hasToString("Spring Boot makes");
+        assertThat(objectMapper.readTree(events.get(4)).path("choices").get(0).path("finish_reason").asText())
+                .isEqualTo("stop");
+        assertThat(objectMapper.readTree(events.get(5)).path("usage").path("completion_tokens").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should inject 429 with Retry-After and 5xx at the configured rates")
+    void faults_AreInjected() throws Exception {
+        stub = OpenAiStubServer.builder().rateLimitRate(1.0).start();
+
+        HttpResponse<String> limited = post("{\"messages\":[]}");
+
+        assertThat(limited.statusCode()).isEqualTo(429);
+        assertThat(limited.headers().firstValue("Retry-After")).hasValue("1");
+        assertThat(objectMapper.readTree(limited.body()).path("error").path("code").asText())
+                .isEqualTo("rate_limit_exceeded");
+        stub.close();
+
+        stub = OpenAiStubServer.builder().serverErrorRate(1.0).start();
+        assertThat(post("{\"messages\":[]}").statusCode()).isIn(500, 503);
+        assertThat(stub.outcomes()).containsEntry("5xx", 1L);
+    }
+
+    @Test
+    @DisplayName("Should parse latency specs and draw log-normal latencies around the median")
+    void latencyDistribution_Parse() {
+        Random random = new Random(7);
+        assertThat(LatencyDistribution.parse("fixed:300ms").sampleNanos(random)).isEqualTo(300_000_000L);
+        assertThat(LatencyDistribution.parse("uniform:100ms:200ms").sampleNanos(random))
+                .isBetween(100_000_000L, 200_000_000L);
+
+        LatencyDistribution logNormal = LatencyDistribution.parse("lognormal:100ms:1s");
+        int below = 0;
+        int aboveP99 = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long sample = logNormal.sampleNanos(random);
+            below += sample < 100_000_000L ? 1 : 0;
+            aboveP99 += sample > 1_000_000_000L ? 1 : 0;
+        }
+        assertThat(below).isBetween(4_700, 5_300);
+        assertThat(aboveP99).isBetween(50, 150);
+
+        assertThatThrownBy(() -> LatencyDistribution.parse("gamma:1s")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyDistribution.parse("uniform:1s")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/v1/chat/completions"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}